@@ -0,0 +1,178 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.ark.benchmark;
+
+import com.alipay.sofa.ark.common.util.FileUtils;
+import com.alipay.sofa.ark.common.util.StringUtils;
+import com.alipay.sofa.ark.container.model.BizModel;
+import com.alipay.sofa.ark.container.model.PluginModel;
+import com.alipay.sofa.ark.container.pipeline.RegisterServiceStage;
+import com.alipay.sofa.ark.container.service.ArkServiceContainer;
+import com.alipay.sofa.ark.container.service.classloader.BizClassLoader;
+import com.alipay.sofa.ark.container.service.classloader.ExportOverrideClassCache;
+import com.alipay.sofa.ark.container.service.classloader.PluginClassLoader;
+import com.alipay.sofa.ark.loader.JarBizArchive;
+import com.alipay.sofa.ark.loader.archive.JarFileArchive;
+import com.alipay.sofa.ark.spi.constant.Constants;
+import com.alipay.sofa.ark.spi.model.BizState;
+import com.alipay.sofa.ark.spi.service.biz.BizManagerService;
+import com.alipay.sofa.ark.spi.service.classloader.ClassLoaderService;
+import com.alipay.sofa.ark.spi.service.extension.ExtensionLoaderService;
+import com.alipay.sofa.ark.spi.service.plugin.PluginDeployService;
+import com.alipay.sofa.ark.spi.service.plugin.PluginManagerService;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+
+import static com.alipay.sofa.ark.spi.service.extension.ArkServiceLoader.setExtensionLoaderService;
+import static org.apache.commons.io.FileUtils.deleteQuietly;
+
+/**
+ * An in-process ark container with a synthetic plugin exporting classes and resources, and a
+ * plugin exporting classes in override mode, shared by benchmarks.
+ *
+ * @since 2.2.15
+ */
+public class ArkBenchmarkContainer {
+
+    public static final String        PLUGIN_CLASS_COUNT = "sofa.ark.benchmark.class.count";
+
+    private final int                 classCount;
+
+    private final File                workDir;
+
+    private final ArkServiceContainer arkServiceContainer;
+
+    private File                      pluginFile;
+
+    private File                      bizFile;
+
+    private int                       bizSequence;
+
+    public ArkBenchmarkContainer() {
+        this.classCount = Integer.getInteger(PLUGIN_CLASS_COUNT, 200);
+        this.workDir = FileUtils.createTempDir("sofa-ark-benchmark");
+        this.arkServiceContainer = new ArkServiceContainer(new String[] {});
+    }
+
+    public ArkBenchmarkContainer start() throws IOException {
+        pluginFile = SyntheticArchives.createPluginJar(workDir, classCount);
+        bizFile = SyntheticArchives.createBizJar(workDir, "benchmark-biz", "1.0.0", classCount);
+
+        arkServiceContainer.start();
+        arkServiceContainer.getService(RegisterServiceStage.class).process(null);
+        setExtensionLoaderService(arkServiceContainer.getService(ExtensionLoaderService.class));
+
+        URL[] pluginUrls = new URL[] { pluginFile.toURI().toURL() };
+        PluginModel plugin = new PluginModel();
+        plugin.setPluginName("benchmark-plugin").setPluginUrl(pluginUrls[0])
+            .setClassPath(pluginUrls).setExportMode(PluginModel.EXPORTMODE_CLASSLOADER)
+            .setExportPackages(SyntheticArchives.PLUGIN_PACKAGE)
+            .setExportClasses(StringUtils.EMPTY_STRING)
+            .setExportResources(SyntheticArchives.PLUGIN_RESOURCE)
+            .setImportClasses(StringUtils.EMPTY_STRING).setImportPackages(StringUtils.EMPTY_STRING)
+            .setImportResources(StringUtils.EMPTY_STRING)
+            .setPluginClassLoader(new PluginClassLoader(plugin.getPluginName(), pluginUrls));
+
+        PluginModel overridePlugin = new PluginModel();
+        overridePlugin
+            .setPluginName("benchmark-override-plugin")
+            .setPluginUrl(pluginUrls[0])
+            .setClassPath(pluginUrls)
+            .setExportMode(PluginModel.EXPORTMODE_OVERRIDE)
+            .setExportPackages(StringUtils.EMPTY_STRING)
+            .setExportClasses(overrideClasses())
+            .setExportResources(StringUtils.EMPTY_STRING)
+            .setImportClasses(StringUtils.EMPTY_STRING)
+            .setImportPackages(StringUtils.EMPTY_STRING)
+            .setImportResources(StringUtils.EMPTY_STRING)
+            .setPluginClassLoader(new PluginClassLoader(overridePlugin.getPluginName(), pluginUrls));
+
+        PluginManagerService pluginManagerService = getService(PluginManagerService.class);
+        pluginManagerService.registerPlugin(plugin);
+        pluginManagerService.registerPlugin(overridePlugin);
+        getService(PluginDeployService.class).deploy();
+        getService(ClassLoaderService.class).prepareExportClassAndResourceCache();
+        return this;
+    }
+
+    /**
+     * Create and register a resolved biz of the synthetic biz jar, each biz has a unique version
+     *
+     * @return biz model
+     * @throws IOException if the biz jar cannot be read
+     */
+    public BizModel createBiz() throws IOException {
+        URL[] urls = new JarBizArchive(new JarFileArchive(bizFile)).getUrls();
+        BizModel bizModel = new BizModel().setBizState(BizState.RESOLVED);
+        bizModel.setBizName("benchmark-biz").setBizVersion("1.0." + bizSequence++);
+        bizModel.setDenyImportClasses(StringUtils.EMPTY_STRING)
+            .setDenyImportPackages(StringUtils.EMPTY_STRING)
+            .setDenyImportResources(StringUtils.EMPTY_STRING);
+        BizClassLoader bizClassLoader = new BizClassLoader(bizModel.getIdentity(), urls);
+        bizClassLoader.setBizModel(bizModel);
+        bizModel.setClassPath(urls).setClassLoader(bizClassLoader);
+        getService(BizManagerService.class).registerBiz(bizModel);
+        return bizModel;
+    }
+
+    /**
+     * Unregister a biz created by {@link #createBiz()} and close its class loader
+     *
+     * @param bizModel biz model
+     */
+    public void removeBiz(BizModel bizModel) throws IOException {
+        bizModel.setBizState(BizState.UNRESOLVED);
+        getService(BizManagerService.class).unRegisterBiz(bizModel.getBizName(),
+            bizModel.getBizVersion());
+        BizClassLoader bizClassLoader = (BizClassLoader) bizModel.getBizClassLoader();
+        bizClassLoader.close();
+        bizClassLoader.clearCache();
+        ExportOverrideClassCache.getInstance().invalidate(bizClassLoader);
+    }
+
+    private String overrideClasses() {
+        StringBuilder sb = new StringBuilder(SyntheticArchives.OVERRIDE_CLASS);
+        for (int i = 0; i < SyntheticArchives.OVERRIDE_CLASS_COUNT; i++) {
+            sb.append(Constants.MANIFEST_VALUE_SPLIT).append(SyntheticArchives.overrideClass(i));
+        }
+        return sb.toString();
+    }
+
+    public <T> T getService(Class<T> clazz) {
+        return arkServiceContainer.getService(clazz);
+    }
+
+    public int getClassCount() {
+        return classCount;
+    }
+
+    public File getWorkDir() {
+        return workDir;
+    }
+
+    public File getBizFile() {
+        return bizFile;
+    }
+
+    public void stop() {
+        arkServiceContainer.stop();
+        deleteQuietly(workDir);
+    }
+
+}
@@ -0,0 +1,54 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.ark.benchmark;
+
+import org.openjdk.jmh.Main;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Run benchmarks with JMH command line options, results are written as JSON to
+ * sofa-ark-benchmarks.json unless a result format is specified, e.g.
+ * <pre>
+ * mvn -pl sofa-ark-parent/benchmarks -am package -DskipTests
+ * java -jar sofa-ark-parent/benchmarks/target/sofa-ark-benchmarks.jar ClassLoadingBenchmark
+ * </pre>
+ *
+ * @since 2.2.15
+ */
+public class BenchmarkMain {
+
+    private static final String RESULT_FORMAT = "-rf";
+
+    private static final String RESULT_FILE   = "-rff";
+
+    public static void main(String[] args) throws Exception {
+        List<String> arguments = new ArrayList<>(Arrays.asList(args));
+        if (!arguments.contains(RESULT_FORMAT)) {
+            arguments.add(RESULT_FORMAT);
+            arguments.add("json");
+            if (!arguments.contains(RESULT_FILE)) {
+                arguments.add(RESULT_FILE);
+                arguments.add("sofa-ark-benchmarks.json");
+            }
+        }
+        Main.main(arguments.toArray(new String[0]));
+    }
+
+}
@@ -0,0 +1,114 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.ark.benchmark;
+
+import com.alipay.sofa.ark.api.ArkClient;
+import com.alipay.sofa.ark.api.ClientResponse;
+import com.alipay.sofa.ark.api.ResponseCode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.apache.commons.io.FileUtils.deleteQuietly;
+
+/**
+ * Time of installing and uninstalling a batch of biz through {@link ArkClient}, each install
+ * consumes a fresh copy of the biz jar prepared before the iteration.
+ *
+ * @since 2.2.15
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, batchSize = BizLifecycleBenchmark.BATCH_SIZE)
+@Measurement(iterations = 10, batchSize = BizLifecycleBenchmark.BATCH_SIZE)
+@Fork(1)
+public class BizLifecycleBenchmark {
+
+    static final int              BATCH_SIZE   = 20;
+
+    private static final String   BIZ_NAME     = "benchmark-biz";
+
+    private static final String   BIZ_VERSION  = "1.0.0";
+
+    private ArkBenchmarkContainer container;
+
+    private File                  bizFile;
+
+    private final List<File>      installFiles = new ArrayList<>();
+
+    private int                   index;
+
+    private int                   sequence;
+
+    @Setup
+    public void setup() throws Exception {
+        container = new ArkBenchmarkContainer().start();
+        bizFile = container.getBizFile();
+    }
+
+    @Setup(Level.Iteration)
+    public void copyBizFiles() throws IOException {
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            installFiles.add(SyntheticArchives.copy(bizFile, new File(container.getWorkDir(),
+                "install-" + sequence++ + ".jar")));
+        }
+        index = 0;
+    }
+
+    @TearDown(Level.Iteration)
+    public void deleteBizFiles() {
+        for (File installFile : installFiles) {
+            deleteQuietly(installFile);
+        }
+        installFiles.clear();
+    }
+
+    @TearDown
+    public void tearDown() {
+        container.stop();
+    }
+
+    @Benchmark
+    public ClientResponse installAndUninstallBiz() throws Throwable {
+        check(ArkClient.installBiz(installFiles.get(index++)));
+        return check(ArkClient.uninstallBiz(BIZ_NAME, BIZ_VERSION));
+    }
+
+    private ClientResponse check(ClientResponse response) {
+        if (response.getCode() != ResponseCode.SUCCESS) {
+            throw new IllegalStateException(response.getMessage());
+        }
+        return response;
+    }
+
+}
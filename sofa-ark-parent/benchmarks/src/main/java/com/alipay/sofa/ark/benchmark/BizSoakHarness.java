@@ -0,0 +1,259 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.ark.benchmark;
+
+import com.alipay.sofa.ark.api.ArkClient;
+import com.alipay.sofa.ark.api.ClientResponse;
+import com.alipay.sofa.ark.api.ResponseCode;
+import com.alipay.sofa.ark.spi.model.Biz;
+
+import java.io.File;
+import java.io.PrintStream;
+import java.lang.management.ClassLoadingMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Soak test of repeated biz install, switch and uninstall cycles. Each cycle installs a new version
+ * of a synthetic biz, loads its classes, switches to it and uninstalls the previous version, then
+ * forces GC and records biz class loaders still reachable, Metaspace usage and class counts. The
+ * run fails if more uninstalled biz class loaders are retained, or Metaspace grows more after
+ * warmup, than allowed. Options are system properties, e.g.
+ * <pre>
+ * java -Dsofa.ark.soak.cycles=200 -cp sofa-ark-benchmarks.jar com.alipay.sofa.ark.benchmark.BizSoakHarness
+ * </pre>
+ * A bounded run of a few cycles is part of the test suite of this module.
+ *
+ * @since 2.2.15
+ */
+public class BizSoakHarness {
+
+    public static final String                     CYCLES                  = "sofa.ark.soak.cycles";
+
+    public static final String                     WARMUP_CYCLES           = "sofa.ark.soak.warmup.cycles";
+
+    public static final String                     MAX_RETAINED            = "sofa.ark.soak.max.retained.classloaders";
+
+    public static final String                     MAX_METASPACE_GROWTH    = "sofa.ark.soak.max.metaspace.growth.mb";
+
+    private static final String                    BIZ_NAME                = "soak-biz";
+
+    private static final String                    METASPACE               = "Metaspace";
+
+    private static final int                       MAX_GC_ATTEMPTS         = 10;
+
+    private final int                              cycles;
+
+    private final int                              warmupCycles;
+
+    private final int                              maxRetainedClassLoaders;
+
+    private final long                             maxMetaspaceGrowth;
+
+    private final List<WeakReference<ClassLoader>> uninstalledClassLoaders = new ArrayList<>();
+
+    private final List<CycleStats>                 stats                   = new ArrayList<>();
+
+    public BizSoakHarness(int cycles, int warmupCycles, int maxRetainedClassLoaders,
+                          long maxMetaspaceGrowthMb) {
+        this.cycles = cycles;
+        this.warmupCycles = Math.min(warmupCycles, cycles - 1);
+        this.maxRetainedClassLoaders = maxRetainedClassLoaders;
+        this.maxMetaspaceGrowth = maxMetaspaceGrowthMb * 1024 * 1024;
+    }
+
+    public static void main(String[] args) throws Throwable {
+        BizSoakHarness harness = new BizSoakHarness(Integer.getInteger(CYCLES, 50),
+            Integer.getInteger(WARMUP_CYCLES, 5), Integer.getInteger(MAX_RETAINED, 2),
+            Long.getLong(MAX_METASPACE_GROWTH, 16));
+        harness.run();
+        harness.report(System.out);
+        List<String> failures = harness.check();
+        for (String failure : failures) {
+            System.err.println(failure);
+        }
+        System.exit(failures.isEmpty() ? 0 : 1);
+    }
+
+    public List<CycleStats> run() throws Throwable {
+        ArkBenchmarkContainer container = new ArkBenchmarkContainer().start();
+        try {
+            String previousVersion = null;
+            WeakReference<ClassLoader> previousClassLoader = null;
+            for (int cycle = 0; cycle < cycles; cycle++) {
+                String version = "1.0." + cycle;
+                WeakReference<ClassLoader> classLoader = install(container, version);
+                if (previousVersion != null) {
+                    check(ArkClient.switchBiz(BIZ_NAME, version));
+                    check(ArkClient.uninstallBiz(BIZ_NAME, previousVersion));
+                    uninstalledClassLoaders.add(previousClassLoader);
+                }
+                previousVersion = version;
+                previousClassLoader = classLoader;
+                forceGc();
+                stats.add(CycleStats.collect(cycle, countRetainedClassLoaders()));
+            }
+            check(ArkClient.uninstallBiz(BIZ_NAME, previousVersion));
+        } finally {
+            container.stop();
+        }
+        return stats;
+    }
+
+    /**
+     * Install a biz and load its classes, only a weak reference to its class loader is kept
+     */
+    private WeakReference<ClassLoader> install(ArkBenchmarkContainer container, String version)
+                                                                                               throws Throwable {
+        File bizFile = SyntheticArchives.createBizJar(container.getWorkDir(), BIZ_NAME, version,
+            container.getClassCount());
+        check(ArkClient.installBiz(bizFile));
+        Biz biz = ArkClient.getBizManagerService().getBiz(BIZ_NAME, version);
+        ClassLoader classLoader = biz.getBizClassLoader();
+        for (int i = 0; i < container.getClassCount(); i++) {
+            classLoader.loadClass(SyntheticArchives.bizClass(i));
+            classLoader.loadClass(SyntheticArchives.pluginClass(i));
+        }
+        classLoader.loadClass(SyntheticArchives.OVERRIDE_CLASS);
+        return new WeakReference<>(classLoader);
+    }
+
+    private void forceGc() throws InterruptedException {
+        for (int i = 0; i < MAX_GC_ATTEMPTS && countRetainedClassLoaders() > 0; i++) {
+            System.gc();
+            Thread.sleep(50);
+        }
+    }
+
+    private int countRetainedClassLoaders() {
+        int retained = 0;
+        for (Iterator<WeakReference<ClassLoader>> iterator = uninstalledClassLoaders.iterator(); iterator
+            .hasNext();) {
+            if (iterator.next().get() == null) {
+                iterator.remove();
+            } else {
+                retained++;
+            }
+        }
+        return retained;
+    }
+
+    /**
+     * Check stats of the run against thresholds
+     *
+     * @return failures, empty if passed
+     */
+    public List<String> check() {
+        List<String> failures = new ArrayList<>();
+        if (stats.isEmpty()) {
+            return failures;
+        }
+        CycleStats last = stats.get(stats.size() - 1);
+        if (last.retainedClassLoaders > maxRetainedClassLoaders) {
+            failures.add(String.format(
+                "%d uninstalled biz class loaders are retained, more than %d allowed",
+                last.retainedClassLoaders, maxRetainedClassLoaders));
+        }
+        long growth = last.metaspaceUsed - stats.get(warmupCycles).metaspaceUsed;
+        if (growth > maxMetaspaceGrowth) {
+            failures.add(String.format(
+                "Metaspace grows %d KB after warmup, more than %d KB allowed", growth / 1024,
+                maxMetaspaceGrowth / 1024));
+        }
+        return failures;
+    }
+
+    public void report(PrintStream out) {
+        out.println(String.format("%8s %12s %16s %14s %16s", "cycle", "retained-cl",
+            "metaspace-kb", "loaded-classes", "unloaded-classes"));
+        for (CycleStats cycleStats : stats) {
+            out.println(String.format("%8d %12d %16d %14d %16d", cycleStats.cycle,
+                cycleStats.retainedClassLoaders, cycleStats.metaspaceUsed / 1024,
+                cycleStats.loadedClassCount, cycleStats.unloadedClassCount));
+        }
+    }
+
+    public List<CycleStats> getStats() {
+        return stats;
+    }
+
+    private static ClientResponse check(ClientResponse response) {
+        if (response.getCode() != ResponseCode.SUCCESS) {
+            throw new IllegalStateException(response.getMessage());
+        }
+        return response;
+    }
+
+    public static class CycleStats {
+
+        private final int  cycle;
+
+        private final int  retainedClassLoaders;
+
+        private final long metaspaceUsed;
+
+        private final int  loadedClassCount;
+
+        private final long unloadedClassCount;
+
+        CycleStats(int cycle, int retainedClassLoaders, long metaspaceUsed, int loadedClassCount,
+                   long unloadedClassCount) {
+            this.cycle = cycle;
+            this.retainedClassLoaders = retainedClassLoaders;
+            this.metaspaceUsed = metaspaceUsed;
+            this.loadedClassCount = loadedClassCount;
+            this.unloadedClassCount = unloadedClassCount;
+        }
+
+        static CycleStats collect(int cycle, int retainedClassLoaders) {
+            long metaspaceUsed = 0;
+            for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+                if (METASPACE.equals(pool.getName())) {
+                    metaspaceUsed = pool.getUsage().getUsed();
+                }
+            }
+            ClassLoadingMXBean classLoading = ManagementFactory.getClassLoadingMXBean();
+            return new CycleStats(cycle, retainedClassLoaders, metaspaceUsed,
+                classLoading.getLoadedClassCount(), classLoading.getUnloadedClassCount());
+        }
+
+        public int getCycle() {
+            return cycle;
+        }
+
+        public int getRetainedClassLoaders() {
+            return retainedClassLoaders;
+        }
+
+        public long getMetaspaceUsed() {
+            return metaspaceUsed;
+        }
+
+        public int getLoadedClassCount() {
+            return loadedClassCount;
+        }
+
+        public long getUnloadedClassCount() {
+            return unloadedClassCount;
+        }
+    }
+
+}
@@ -0,0 +1,153 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.ark.benchmark;
+
+import com.alipay.sofa.ark.container.model.BizModel;
+import com.alipay.sofa.ark.spi.model.Plugin;
+import com.alipay.sofa.ark.spi.service.classloader.ClassLoaderService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of {@link com.alipay.sofa.ark.container.service.classloader.BizClassLoader#loadClass}
+ * for classes already loaded, missing, exported by plugin and exported in override mode, and of
+ * looking up export plugins.
+ *
+ * @since 2.2.15
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ClassLoadingBenchmark {
+
+    private static final String   MISSING_CLASS = "com.alipay.sofa.ark.benchmark.MissingClass";
+
+    private ArkBenchmarkContainer container;
+
+    private ClassLoaderService    classLoaderService;
+
+    private ClassLoader           bizClassLoader;
+
+    private String                bizClass;
+
+    private String                exportClass;
+
+    @Setup
+    public void setup() throws Exception {
+        container = new ArkBenchmarkContainer().start();
+        classLoaderService = container.getService(ClassLoaderService.class);
+        bizClassLoader = container.createBiz().getBizClassLoader();
+        bizClass = SyntheticArchives.bizClass(0);
+        exportClass = SyntheticArchives.pluginClass(0);
+        bizClassLoader.loadClass(bizClass);
+        bizClassLoader.loadClass(exportClass);
+    }
+
+    @TearDown
+    public void tearDown() {
+        container.stop();
+    }
+
+    @Benchmark
+    public Class<?> loadClassHit() throws ClassNotFoundException {
+        return bizClassLoader.loadClass(bizClass);
+    }
+
+    @Benchmark
+    public Object loadClassMiss() {
+        try {
+            return bizClassLoader.loadClass(MISSING_CLASS);
+        } catch (ClassNotFoundException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public Class<?> loadClassExport() throws ClassNotFoundException {
+        return bizClassLoader.loadClass(exportClass);
+    }
+
+    @Benchmark
+    public Plugin findExportPluginHit() {
+        return classLoaderService.findExportPlugin(exportClass);
+    }
+
+    @Benchmark
+    public Plugin findExportPluginMiss() {
+        return classLoaderService.findExportPlugin(MISSING_CLASS);
+    }
+
+    /**
+     * An override class is defined by each biz class loader, so each invocation loads a fresh
+     * override class by the fresh biz of the iteration, a batch covers all override classes
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @Warmup(iterations = 5, batchSize = SyntheticArchives.OVERRIDE_CLASS_COUNT)
+    @Measurement(iterations = 20, batchSize = SyntheticArchives.OVERRIDE_CLASS_COUNT)
+    public Class<?> loadClassOverride(FreshBiz freshBiz) throws ClassNotFoundException {
+        return freshBiz.bizModel.getBizClassLoader().loadClass(freshBiz.nextOverrideClass());
+    }
+
+    @State(Scope.Thread)
+    public static class FreshBiz {
+
+        private ArkBenchmarkContainer container;
+
+        private BizModel              bizModel;
+
+        private int                   index;
+
+        @Setup(Level.Iteration)
+        public void setup(ClassLoadingBenchmark benchmark) throws IOException {
+            container = benchmark.container;
+            bizModel = container.createBiz();
+            index = 0;
+        }
+
+        @TearDown(Level.Iteration)
+        public void tearDown() throws IOException {
+            container.removeBiz(bizModel);
+            bizModel = null;
+        }
+
+        private String nextOverrideClass() {
+            if (index >= SyntheticArchives.OVERRIDE_CLASS_COUNT) {
+                throw new IllegalStateException("Override classes of the biz are exhausted.");
+            }
+            return SyntheticArchives.overrideClass(index++);
+        }
+    }
+
+}
@@ -0,0 +1,114 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.ark.benchmark;
+
+import com.alipay.sofa.ark.spi.event.AfterFinishStartupEvent;
+import com.alipay.sofa.ark.spi.event.biz.AfterBizStartupEvent;
+import com.alipay.sofa.ark.spi.service.event.EventAdminService;
+import com.alipay.sofa.ark.spi.service.event.EventHandler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Benchmarks of {@link EventAdminService#sendEvent} with handlers subscribing the event and
+ * handlers subscribing other events.
+ *
+ * @since 2.2.15
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventAdminBenchmark {
+
+    @Param({ "1", "16" })
+    private int                     handlerCount;
+
+    private ArkBenchmarkContainer   container;
+
+    private EventAdminService       eventAdminService;
+
+    private AfterFinishStartupEvent event;
+
+    @Setup
+    public void setup() throws Exception {
+        container = new ArkBenchmarkContainer().start();
+        eventAdminService = container.getService(EventAdminService.class);
+        for (int i = 0; i < handlerCount; i++) {
+            eventAdminService.register(new StartupEventHandler());
+            eventAdminService.register(new BizStartupEventHandler());
+        }
+        event = new AfterFinishStartupEvent();
+    }
+
+    @TearDown
+    public void tearDown() {
+        eventAdminService.unRegister(getClass().getClassLoader());
+        container.stop();
+    }
+
+    @Benchmark
+    public void sendEvent() {
+        eventAdminService.sendEvent(event);
+    }
+
+    static class StartupEventHandler implements EventHandler<AfterFinishStartupEvent> {
+
+        private final LongAdder count = new LongAdder();
+
+        @Override
+        public void handleEvent(AfterFinishStartupEvent event) {
+            count.increment();
+        }
+
+        @Override
+        public int getPriority() {
+            return DEFAULT_PRECEDENCE;
+        }
+    }
+
+    static class BizStartupEventHandler implements EventHandler<AfterBizStartupEvent> {
+
+        private final LongAdder count = new LongAdder();
+
+        @Override
+        public void handleEvent(AfterBizStartupEvent event) {
+            count.increment();
+        }
+
+        @Override
+        public int getPriority() {
+            return DEFAULT_PRECEDENCE;
+        }
+    }
+
+}
@@ -0,0 +1,109 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.ark.benchmark;
+
+import com.alipay.sofa.ark.common.util.FileUtils;
+import com.alipay.sofa.ark.loader.jar.JarFile;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarEntry;
+
+import static org.apache.commons.io.FileUtils.deleteQuietly;
+
+/**
+ * Benchmarks of reading an entry of a library jar nested in biz jar through
+ * {@link JarFile}, with the nested jar opened already and opened on each read.
+ *
+ * @since 2.2.15
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NestedJarBenchmark {
+
+    private static final String LIBRARY_ENTRY = "lib/benchmark-library-1.0.0.jar";
+
+    private File                workDir;
+
+    private JarFile             bizJarFile;
+
+    private JarEntry            libraryEntry;
+
+    private JarFile             libraryJarFile;
+
+    private String              classEntryName;
+
+    private final byte[]        buffer        = new byte[8192];
+
+    @Setup
+    public void setup() throws IOException {
+        workDir = FileUtils.createTempDir("sofa-ark-benchmark");
+        File bizFile = SyntheticArchives.createBizJar(workDir, "benchmark-biz", "1.0.0",
+            Integer.getInteger(ArkBenchmarkContainer.PLUGIN_CLASS_COUNT, 200));
+        bizJarFile = new JarFile(bizFile);
+        libraryEntry = bizJarFile.getJarEntry(LIBRARY_ENTRY);
+        libraryJarFile = bizJarFile.getNestedJarFile(libraryEntry);
+        classEntryName = SyntheticArchives.LIBRARY_CLASS.replace('.', '/') + ".class";
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        bizJarFile.close();
+        deleteQuietly(workDir);
+    }
+
+    @Benchmark
+    public int readNestedEntry() throws IOException {
+        return read(libraryJarFile);
+    }
+
+    @Benchmark
+    public int openNestedJarAndReadEntry() throws IOException {
+        try (JarFile jarFile = bizJarFile.getNestedJarFile(libraryEntry)) {
+            return read(jarFile);
+        }
+    }
+
+    private int read(JarFile jarFile) throws IOException {
+        int total = 0;
+        try (InputStream inputStream = jarFile.getInputStream(jarFile.getJarEntry(classEntryName))) {
+            int read;
+            while ((read = inputStream.read(buffer)) != -1) {
+                total += read;
+            }
+        }
+        return total;
+    }
+
+}
@@ -0,0 +1,91 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.ark.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.Enumeration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of resource lookup by biz class loader, for resources of biz, exported by plugin,
+ * and missing.
+ *
+ * @since 2.2.15
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResourceLookupBenchmark {
+
+    private static final String   MISSING_RESOURCE = "benchmark-missing-resource.properties";
+
+    private ArkBenchmarkContainer container;
+
+    private ClassLoader           bizClassLoader;
+
+    @Setup
+    public void setup() throws Exception {
+        container = new ArkBenchmarkContainer().start();
+        bizClassLoader = container.createBiz().getBizClassLoader();
+    }
+
+    @TearDown
+    public void tearDown() {
+        container.stop();
+    }
+
+    @Benchmark
+    public URL getResource() {
+        return bizClassLoader.getResource(SyntheticArchives.BIZ_RESOURCE);
+    }
+
+    @Benchmark
+    public URL getResourceExport() {
+        return bizClassLoader.getResource(SyntheticArchives.PLUGIN_RESOURCE);
+    }
+
+    @Benchmark
+    public URL getResourceMiss() {
+        return bizClassLoader.getResource(MISSING_RESOURCE);
+    }
+
+    @Benchmark
+    public void getResources(Blackhole blackhole) throws IOException {
+        Enumeration<URL> resources = bizClassLoader.getResources(SyntheticArchives.PLUGIN_RESOURCE);
+        while (resources.hasMoreElements()) {
+            blackhole.consume(resources.nextElement());
+        }
+    }
+
+}
@@ -0,0 +1,197 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.ark.benchmark;
+
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.jar.Attributes;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+
+import static com.alipay.sofa.ark.spi.constant.Constants.ARK_BIZ_MARK_ENTRY;
+import static com.alipay.sofa.ark.spi.constant.Constants.ARK_BIZ_NAME;
+import static com.alipay.sofa.ark.spi.constant.Constants.ARK_BIZ_VERSION;
+import static com.alipay.sofa.ark.spi.constant.Constants.DENY_IMPORT_CLASSES;
+import static com.alipay.sofa.ark.spi.constant.Constants.DENY_IMPORT_PACKAGES;
+import static com.alipay.sofa.ark.spi.constant.Constants.DENY_IMPORT_RESOURCES;
+import static com.alipay.sofa.ark.spi.constant.Constants.MAIN_CLASS_ATTRIBUTE;
+import static com.alipay.sofa.ark.spi.constant.Constants.PRIORITY_ATTRIBUTE;
+
+/**
+ * Generate plugin and biz jars of synthetic classes and resources for benchmarks.
+ *
+ * @since 2.2.15
+ */
+public class SyntheticArchives {
+
+    public static final int    OVERRIDE_CLASS_COUNT = 100;
+
+    public static final String PLUGIN_PACKAGE       = "com.alipay.sofa.ark.benchmark.plugin";
+
+    public static final String BIZ_PACKAGE          = "com.alipay.sofa.ark.benchmark.biz";
+
+    public static final String OVERRIDE_CLASS       = PLUGIN_PACKAGE + ".override.OverrideClass";
+
+    public static final String BIZ_MAIN_CLASS       = BIZ_PACKAGE + ".BizMain";
+
+    public static final String PLUGIN_RESOURCE      = "benchmark-plugin-resource.properties";
+
+    public static final String BIZ_RESOURCE         = "benchmark-biz-resource.properties";
+
+    public static final String LIBRARY_CLASS        = BIZ_PACKAGE + ".lib.LibraryClass";
+
+    public static String pluginClass(int index) {
+        return PLUGIN_PACKAGE + ".PluginClass" + index;
+    }
+
+    public static String overrideClass(int index) {
+        return OVERRIDE_CLASS + index;
+    }
+
+    public static String bizClass(int index) {
+        return BIZ_PACKAGE + ".BizClass" + index;
+    }
+
+    /**
+     * Create a plain jar with plugin classes, the override classes and an exported resource
+     */
+    public static File createPluginJar(File directory, int classCount) throws IOException {
+        File file = new File(directory, "benchmark-plugin.jar");
+        try (JarOutputStream jar = new JarOutputStream(new FileOutputStream(file), new Manifest())) {
+            for (int i = 0; i < classCount; i++) {
+                putClass(jar, pluginClass(i), false);
+            }
+            putClass(jar, OVERRIDE_CLASS, false);
+            for (int i = 0; i < OVERRIDE_CLASS_COUNT; i++) {
+                putClass(jar, overrideClass(i), false);
+            }
+            putEntry(jar, PLUGIN_RESOURCE, "plugin=true".getBytes(StandardCharsets.UTF_8), false);
+        }
+        return file;
+    }
+
+    /**
+     * Create an ark biz jar with a runnable main class, biz classes, a resource also found in
+     * plugin and a nested library jar
+     */
+    public static File createBizJar(File directory, String bizName, String bizVersion,
+                                    int classCount) throws IOException {
+        Manifest manifest = new Manifest();
+        Attributes attributes = manifest.getMainAttributes();
+        attributes.put(Attributes.Name.MANIFEST_VERSION, "1.0");
+        attributes.putValue(ARK_BIZ_NAME, bizName);
+        attributes.putValue(ARK_BIZ_VERSION, bizVersion);
+        attributes.putValue(MAIN_CLASS_ATTRIBUTE, BIZ_MAIN_CLASS);
+        attributes.putValue(PRIORITY_ATTRIBUTE, "100");
+        attributes.putValue(DENY_IMPORT_CLASSES, "");
+        attributes.putValue(DENY_IMPORT_PACKAGES, "");
+        attributes.putValue(DENY_IMPORT_RESOURCES, "");
+
+        File file = new File(directory, bizName + "-" + bizVersion + "-ark-biz.jar");
+        try (JarOutputStream jar = new JarOutputStream(new FileOutputStream(file), manifest)) {
+            putEntry(jar, ARK_BIZ_MARK_ENTRY, new byte[0], false);
+            putClass(jar, BIZ_MAIN_CLASS, true);
+            for (int i = 0; i < classCount; i++) {
+                putClass(jar, bizClass(i), false);
+            }
+            putEntry(jar, BIZ_RESOURCE, "biz=true".getBytes(StandardCharsets.UTF_8), false);
+            putEntry(jar, PLUGIN_RESOURCE, "biz=true".getBytes(StandardCharsets.UTF_8), false);
+            // nested jars must be stored to be read in place
+            putEntry(jar, "lib/benchmark-library-1.0.0.jar", createLibraryJar(classCount), true);
+        }
+        return file;
+    }
+
+    /**
+     * Copy a biz jar, the copy is consumed by install
+     */
+    public static File copy(File file, File target) throws IOException {
+        Files.copy(file.toPath(), target.toPath());
+        return target;
+    }
+
+    private static byte[] createLibraryJar(int classCount) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (JarOutputStream jar = new JarOutputStream(outputStream, new Manifest())) {
+            putClass(jar, LIBRARY_CLASS, false);
+            for (int i = 0; i < classCount; i++) {
+                putClass(jar, LIBRARY_CLASS + i, false);
+            }
+        }
+        return outputStream.toByteArray();
+    }
+
+    private static void putClass(JarOutputStream jar, String className, boolean main)
+                                                                                     throws IOException {
+        putEntry(jar, className.replace('.', '/') + ".class", classBytes(className, main), false);
+    }
+
+    private static void putEntry(JarOutputStream jar, String name, byte[] bytes, boolean stored)
+                                                                                                throws IOException {
+        ZipEntry entry = new ZipEntry(name);
+        if (stored) {
+            CRC32 crc = new CRC32();
+            crc.update(bytes);
+            entry.setMethod(ZipEntry.STORED);
+            entry.setSize(bytes.length);
+            entry.setCompressedSize(bytes.length);
+            entry.setCrc(crc.getValue());
+        }
+        jar.putNextEntry(entry);
+        jar.write(bytes);
+        jar.closeEntry();
+    }
+
+    /**
+     * Class with a default constructor, and an empty static main method if required
+     */
+    static byte[] classBytes(String className, boolean main) {
+        ClassWriter writer = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        writer.visit(Opcodes.V1_8, Opcodes.ACC_PUBLIC | Opcodes.ACC_SUPER,
+            className.replace('.', '/'), null, "java/lang/Object", null);
+        MethodVisitor constructor = writer.visitMethod(Opcodes.ACC_PUBLIC, "<init>", "()V", null,
+            null);
+        constructor.visitCode();
+        constructor.visitVarInsn(Opcodes.ALOAD, 0);
+        constructor.visitMethodInsn(Opcodes.INVOKESPECIAL, "java/lang/Object", "<init>", "()V",
+            false);
+        constructor.visitInsn(Opcodes.RETURN);
+        constructor.visitMaxs(0, 0);
+        constructor.visitEnd();
+        if (main) {
+            MethodVisitor mainMethod = writer.visitMethod(Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC,
+                "main", "([Ljava/lang/String;)V", null, null);
+            mainMethod.visitCode();
+            mainMethod.visitInsn(Opcodes.RETURN);
+            mainMethod.visitMaxs(0, 0);
+            mainMethod.visitEnd();
+        }
+        writer.visitEnd();
+        return writer.toByteArray();
+    }
+
+}
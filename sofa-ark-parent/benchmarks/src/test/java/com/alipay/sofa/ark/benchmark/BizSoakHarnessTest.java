@@ -0,0 +1,66 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.ark.benchmark;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Bounded run of {@link BizSoakHarness} with a few cycles, raise {@link BizSoakHarness#CYCLES}
+ * or run its main method for a full soak
+ */
+public class BizSoakHarnessTest {
+
+    @Before
+    public void before() {
+        System.setProperty(ArkBenchmarkContainer.PLUGIN_CLASS_COUNT, "20");
+    }
+
+    @After
+    public void after() {
+        System.clearProperty(ArkBenchmarkContainer.PLUGIN_CLASS_COUNT);
+    }
+
+    @Test
+    public void testSoakCycles() throws Throwable {
+        int cycles = Integer.getInteger(BizSoakHarness.CYCLES, 5);
+        BizSoakHarness harness = new BizSoakHarness(cycles, 2, 2, 16);
+        List<BizSoakHarness.CycleStats> stats = harness.run();
+        assertEquals(cycles, stats.size());
+        assertEquals(cycles - 1, stats.get(cycles - 1).getCycle());
+        assertTrue(stats.get(cycles - 1).getMetaspaceUsed() > 0);
+
+        List<String> failures = harness.check();
+        assertTrue(failures.toString(), failures.isEmpty());
+    }
+
+    @Test
+    public void testCheckFailsBeyondThreshold() throws Throwable {
+        BizSoakHarness harness = new BizSoakHarness(2, 0, -1, 16);
+        harness.run();
+        List<String> failures = harness.check();
+        assertFalse(failures.isEmpty());
+        assertTrue(failures.get(0).contains("uninstalled biz class loaders are retained"));
+    }
+}
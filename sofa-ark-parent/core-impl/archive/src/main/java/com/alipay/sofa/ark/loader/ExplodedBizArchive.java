@@ -16,6 +16,9 @@
  */
 package com.alipay.sofa.ark.loader;
 
+import com.alipay.sofa.ark.common.util.StringUtils;
+import com.alipay.sofa.ark.loader.jar.JarFile;
+import com.alipay.sofa.ark.loader.jar.JarUtils;
 import com.alipay.sofa.ark.spi.archive.Archive;
 import com.alipay.sofa.ark.spi.archive.BizArchive;
 
@@ -26,32 +29,42 @@ import java.io.InputStream;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.Enumeration;
 import java.util.Iterator;
 import java.util.List;
+import java.util.jar.JarEntry;
 import java.util.jar.Manifest;
 import java.util.zip.ZipEntry;
 
+import static com.alipay.sofa.ark.spi.constant.Constants.DECLARED_LIBRARIES;
+
 /**
  * Ark  Biz Module exploded directory archive
  *
  * @author bingjie.lbj
  */
 public class ExplodedBizArchive implements BizArchive {
-    private static final String SOFA_ARK_BIZ_LIB = "lib/";
-    private static final String MANIFEST_NAME    = "META-INF/MANIFEST.MF";
+    private static final String SOFA_ARK_BIZ_LIB  = "lib/";
+    private static final String MANIFEST_NAME     = "META-INF/MANIFEST.MF";
+    /**
+     * biz jar kept in the directory when it is unpacked lazily, nested library jars are not
+     * extracted but read from the biz jar on access
+     */
+    public static final String  LAZY_BIZ_JAR_NAME = ".sofa-ark-biz.jar";
     private File                file;
     private URL[]               urls;
     private Manifest            manifest;
+    private JarFile             lazyBizJar;
 
     public ExplodedBizArchive(File root) throws IOException {
         this.file = root;
-        this.urls = scanUrl();
         try (FileInputStream fileInputStream = new FileInputStream(new File(root, MANIFEST_NAME));) {
             this.manifest = new Manifest(fileInputStream);
         }
+        this.urls = scanUrl();
     }
 
-    private URL[] scanUrl() throws MalformedURLException {
+    private URL[] scanUrl() throws IOException {
         List<URL> urls = new ArrayList<>();
         urls.add(this.file.toURI().toURL());
         File libs = new File(file, SOFA_ARK_BIZ_LIB);
@@ -62,10 +75,38 @@ public class ExplodedBizArchive implements BizArchive {
                 urls.add(lib.toURI().toURL());
             }
         }
+        File lazyBizJarFile = new File(file, LAZY_BIZ_JAR_NAME);
+        if (lazyBizJarFile.isFile()) {
+            lazyBizJar = new JarFile(lazyBizJarFile);
+            boolean declared = !StringUtils.isEmpty(manifest.getMainAttributes().getValue(
+                DECLARED_LIBRARIES));
+            Enumeration<JarEntry> entries = lazyBizJar.entries();
+            while (entries.hasMoreElements()) {
+                JarEntry entry = entries.nextElement();
+                if (isNestedLibrary(entry)) {
+                    JarFile nestedJarFile = lazyBizJar.getNestedJarFile(entry);
+                    if (declared) {
+                        JarUtils.cacheArtifactId(nestedJarFile);
+                    }
+                    urls.add(nestedJarFile.getUrl());
+                }
+            }
+        }
 
         return urls.toArray(new URL[] {});
     }
 
+    /**
+     * Whether the entry is a library jar nested in biz jar
+     * @param entry entry of biz jar
+     * @return true if it's a library jar
+     */
+    public static boolean isNestedLibrary(ZipEntry entry) {
+        String name = entry.getName();
+        return !entry.isDirectory() && name.startsWith(SOFA_ARK_BIZ_LIB) && name.endsWith(".jar")
+               && name.indexOf('/', SOFA_ARK_BIZ_LIB.length()) < 0;
+    }
+
     @Override
     public URL[] getUrls() throws IOException {
         return urls;
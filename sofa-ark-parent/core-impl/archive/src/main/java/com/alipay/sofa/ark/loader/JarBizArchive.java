@@ -16,6 +16,11 @@
  */
 package com.alipay.sofa.ark.loader;
 
+import com.alipay.sofa.ark.api.ArkConfigs;
+import com.alipay.sofa.ark.common.util.StringUtils;
+import com.alipay.sofa.ark.loader.archive.JarFileArchive;
+import com.alipay.sofa.ark.loader.jar.JarFile;
+import com.alipay.sofa.ark.loader.jar.JarUtils;
 import com.alipay.sofa.ark.spi.archive.AbstractArchive;
 import com.alipay.sofa.ark.spi.archive.Archive;
 import com.alipay.sofa.ark.spi.archive.BizArchive;
@@ -31,6 +36,9 @@ import java.util.List;
 import java.util.jar.Manifest;
 import java.util.zip.ZipEntry;
 
+import static com.alipay.sofa.ark.spi.constant.Constants.BIZ_SHARED_LIBRARY_ENABLE;
+import static com.alipay.sofa.ark.spi.constant.Constants.DECLARED_LIBRARIES;
+
 /**
  * Ark Biz Module Fat Jar
  *
@@ -95,6 +103,50 @@ public class JarBizArchive extends AbstractArchive implements BizArchive {
         });
     }
 
+    /**
+     * Nested library jars are resolved from {@link SharedLibraryStore} if
+     * {@link com.alipay.sofa.ark.spi.constant.Constants#BIZ_SHARED_LIBRARY_ENABLE} is set. Artifact
+     * ids of nested library jars are cached from their central directories if the biz declares
+     * libraries, so that checking whether a class is declared needn't open them again.
+     */
+    @Override
+    public URL[] getUrls(EntryFilter filter) throws IOException {
+        boolean shared = archive instanceof JarFileArchive
+                         && ArkConfigs.getBooleanValue(BIZ_SHARED_LIBRARY_ENABLE, false);
+        boolean declared = isDeclaredMode();
+        if (!shared && !declared) {
+            return super.getUrls(filter);
+        }
+        List<URL> urls = new ArrayList<>();
+        urls.add(getUrl());
+        for (Entry entry : this) {
+            if (!filter.matches(entry)) {
+                continue;
+            }
+            JarFile jarFile = shared ? SharedLibraryStore.getInstance().getJarFile(
+                (JarFileArchive) archive, entry) : null;
+            if (jarFile != null) {
+                urls.add(jarFile.getUrl());
+            } else {
+                Archive nestedArchive = getNestedArchive(entry);
+                if (nestedArchive instanceof JarFileArchive) {
+                    jarFile = ((JarFileArchive) nestedArchive).getJarFile();
+                }
+                urls.add(nestedArchive.getUrl());
+            }
+            if (declared && jarFile != null) {
+                JarUtils.cacheArtifactId(jarFile);
+            }
+        }
+        return urls.toArray(new URL[urls.size()]);
+    }
+
+    private boolean isDeclaredMode() throws IOException {
+        Manifest manifest = getManifest();
+        return manifest != null
+               && !StringUtils.isEmpty(manifest.getMainAttributes().getValue(DECLARED_LIBRARIES));
+    }
+
     public URL[] getExportUrls() throws IOException {
         return getUrls(new EntryFilter() {
             @Override
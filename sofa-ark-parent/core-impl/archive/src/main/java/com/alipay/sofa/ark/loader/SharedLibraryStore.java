@@ -0,0 +1,320 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.ark.loader;
+
+import com.alipay.sofa.ark.api.ArkConfigs;
+import com.alipay.sofa.ark.common.util.FileUtils;
+import com.alipay.sofa.ark.common.util.StringUtils;
+import com.alipay.sofa.ark.loader.archive.JarFileArchive;
+import com.alipay.sofa.ark.loader.jar.Handler;
+import com.alipay.sofa.ark.loader.jar.JarFile;
+import com.alipay.sofa.ark.spi.archive.Archive;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.jar.JarEntry;
+
+import static com.alipay.sofa.ark.spi.constant.Constants.BIZ_SHARED_LIBRARY_DIR;
+import static com.alipay.sofa.ark.spi.constant.Constants.BIZ_SHARED_LIBRARY_MAX_COUNT;
+import static com.alipay.sofa.ark.spi.constant.Constants.CONFIG_INSTALL_BIZ_DIR;
+import static com.alipay.sofa.ark.spi.constant.Constants.DEFAULT_BIZ_SHARED_LIBRARY_MAX_COUNT;
+
+/**
+ * Content addressed store of library jars nested in biz jars. A library jar is keyed by the
+ * SHA-256 hash of its content, extracted once to the store directory, and opened once through
+ * {@link Handler#getRootFileCache()}, so bizs and biz versions packaging the same library share
+ * one {@link JarFile} and its central directory. Stored files are kept across restarts to be
+ * reused, a stored file is verified against its SHA-256 hash once per process before it's
+ * reused. The least recently used stored files beyond
+ * {@link com.alipay.sofa.ark.spi.constant.Constants#BIZ_SHARED_LIBRARY_MAX_COUNT} are deleted
+ * when a library is extracted, unless they are used by this process.
+ *
+ * <p>The store directory defaults to {@code lib-store} under the biz install directory, and is
+ * created accessible to its owner only. An existing store directory which is a link, owned by
+ * another user or accessible to others is not trusted, libraries are not shared then.
+ *
+ * @since 2.2.15
+ */
+public class SharedLibraryStore {
+
+    private static final String                JAR_SUFFIX        = ".jar";
+
+    private static final String                DEFAULT_DIR       = "lib-store";
+
+    private static final String                OWNER_PERMISSIONS = "rwx------";
+
+    private static volatile SharedLibraryStore instance;
+
+    private final File                         directory;
+
+    /**
+     * whether the store directory is created or checked to be accessible to its owner only,
+     * null if not checked yet
+     */
+    private volatile Boolean                   trusted;
+
+    /**
+     * stored files verified or extracted by this process
+     */
+    private final Set<File>                    verifiedFiles     = ConcurrentHashMap.newKeySet();
+
+    private final LongAdder                    hitCount          = new LongAdder();
+
+    private final LongAdder                    extractCount      = new LongAdder();
+
+    public SharedLibraryStore(File directory) {
+        this.directory = directory;
+    }
+
+    public static SharedLibraryStore getInstance() {
+        if (instance == null) {
+            synchronized (SharedLibraryStore.class) {
+                if (instance == null) {
+                    String directory = ArkConfigs.getStringValue(BIZ_SHARED_LIBRARY_DIR);
+                    instance = new SharedLibraryStore(StringUtils.isEmpty(directory) ? new File(
+                        getWorkDirectory(), DEFAULT_DIR) : FileUtils.file(directory));
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Get the shared library jar with the same content as the nested jar entry
+     *
+     * @param archive archive containing the entry
+     * @param entry nested jar entry
+     * @return shared library jar, or null if the entry cannot be shared
+     * @throws IOException if the entry cannot be extracted
+     */
+    public JarFile getJarFile(JarFileArchive archive, Archive.Entry entry) throws IOException {
+        if (!(entry instanceof JarFileArchive.JarFileEntry) || entry.isDirectory()
+            || !entry.getName().endsWith(JAR_SUFFIX) || !isTrusted()) {
+            return null;
+        }
+        JarEntry jarEntry = ((JarFileArchive.JarFileEntry) entry).getJarEntry();
+        String sha256Hash;
+        try (InputStream inputStream = archive.getInputStream(jarEntry)) {
+            sha256Hash = sha256Hash(inputStream, null);
+        }
+        File file = getFile(sha256Hash, jarEntry.getName());
+        if (verifiedFiles.contains(file) || isIntact(file, sha256Hash)) {
+            hitCount.increment();
+            // stored files are pruned in the order they were last used
+            file.getParentFile().setLastModified(System.currentTimeMillis());
+        } else {
+            extract(archive, jarEntry, file, sha256Hash);
+            prune();
+        }
+        return Handler.getRootFileCache().get(file);
+    }
+
+    /**
+     * The same directory as biz files are installed to by {@link com.alipay.sofa.ark.api.ArkClient}
+     */
+    private static File getWorkDirectory() {
+        String workDir = ArkConfigs.getStringValue(CONFIG_INSTALL_BIZ_DIR);
+        return StringUtils.isEmpty(workDir) ? FileUtils.createTempDir("sofa-ark") : FileUtils
+            .mkdir(workDir);
+    }
+
+    private boolean isIntact(File file, String sha256Hash) throws IOException {
+        if (!file.isFile()) {
+            return false;
+        }
+        try (InputStream inputStream = Files.newInputStream(file.toPath())) {
+            if (!sha256Hash.equals(sha256Hash(inputStream, null))) {
+                return false;
+            }
+        }
+        verifiedFiles.add(file);
+        return true;
+    }
+
+    File getFile(String sha256Hash, String entryName) {
+        return new File(new File(directory, sha256Hash), entryName.substring(entryName
+            .lastIndexOf('/') + 1));
+    }
+
+    private void extract(JarFileArchive archive, JarEntry jarEntry, File file, String sha256Hash)
+                                                                                                 throws IOException {
+        File parent = file.getParentFile();
+        parent.mkdirs();
+        File tempFile = File.createTempFile(file.getName(), ".tmp", parent);
+        try {
+            try (InputStream inputStream = archive.getInputStream(jarEntry);
+                    OutputStream outputStream = Files.newOutputStream(tempFile.toPath())) {
+                if (!sha256Hash.equals(sha256Hash(inputStream, outputStream))) {
+                    throw new IOException(String.format(
+                        "Nested jar %s in %s changed while extracted", jarEntry.getName(),
+                        archive.getUrl()));
+                }
+            }
+            // stored files are immutable, a concurrent extraction of the same content is harmless
+            Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+            verifiedFiles.add(file);
+            extractCount.increment();
+        } finally {
+            Files.deleteIfExists(tempFile.toPath());
+        }
+    }
+
+    /**
+     * Compute SHA-256 hash of the stream, copying it to the output stream if not null
+     */
+    private static String sha256Hash(InputStream inputStream, OutputStream outputStream)
+                                                                                        throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        try (DigestInputStream digestInputStream = new DigestInputStream(inputStream, digest)) {
+            byte[] buffer = new byte[8192];
+            int bytesRead;
+            while ((bytesRead = digestInputStream.read(buffer)) != -1) {
+                if (outputStream != null) {
+                    outputStream.write(buffer, 0, bytesRead);
+                }
+            }
+        }
+        return String.format("%064x", new BigInteger(1, digest.digest()));
+    }
+
+    /**
+     * Delete the least recently used stored files beyond max count, except those used by this
+     * process, which may be opened
+     */
+    private void prune() {
+        int maxCount = ArkConfigs.getIntValue(BIZ_SHARED_LIBRARY_MAX_COUNT,
+            DEFAULT_BIZ_SHARED_LIBRARY_MAX_COUNT);
+        File[] storedDirs = directory.listFiles(File::isDirectory);
+        if (maxCount <= 0 || storedDirs == null || storedDirs.length <= maxCount) {
+            return;
+        }
+        Set<File> usedDirs = new HashSet<>();
+        for (File verifiedFile : verifiedFiles) {
+            usedDirs.add(verifiedFile.getParentFile());
+        }
+        Map<File, Long> lastModified = new HashMap<>();
+        for (File storedDir : storedDirs) {
+            lastModified.put(storedDir, storedDir.lastModified());
+        }
+        Arrays.sort(storedDirs, Comparator.comparing(lastModified::get));
+        int count = storedDirs.length;
+        for (int i = 0; i < storedDirs.length && count > maxCount; i++) {
+            if (!usedDirs.contains(storedDirs[i])) {
+                org.apache.commons.io.FileUtils.deleteQuietly(storedDirs[i]);
+                count--;
+            }
+        }
+    }
+
+    private boolean isTrusted() throws IOException {
+        if (trusted == null) {
+            synchronized (this) {
+                if (trusted == null) {
+                    trusted = createDirectory() || isAccessibleToOwnerOnly();
+                }
+            }
+        }
+        return trusted;
+    }
+
+    /**
+     * Create the store directory accessible to its owner only
+     * @return false if the directory exists already
+     */
+    private boolean createDirectory() throws IOException {
+        Path path = directory.toPath();
+        if (Files.exists(path, LinkOption.NOFOLLOW_LINKS)) {
+            return false;
+        }
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        try {
+            Files.createDirectory(path, PosixFilePermissions.asFileAttribute(PosixFilePermissions
+                .fromString(OWNER_PERMISSIONS)));
+        } catch (UnsupportedOperationException e) {
+            directory.mkdir();
+            directory.setReadable(false, false);
+            directory.setReadable(true, true);
+            directory.setWritable(false, false);
+            directory.setWritable(true, true);
+            directory.setExecutable(false, false);
+            directory.setExecutable(true, true);
+        } catch (FileAlreadyExistsException e) {
+            // created concurrently
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Whether the existing store directory is a directory of current user accessible to its owner
+     * only, not checked on file systems without posix permissions
+     */
+    private boolean isAccessibleToOwnerOnly() throws IOException {
+        Path path = directory.toPath();
+        if (!Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS)) {
+            return false;
+        }
+        if (!path.getFileSystem().supportedFileAttributeViews().contains("posix")) {
+            return true;
+        }
+        Set<PosixFilePermission> permissions = Files.getPosixFilePermissions(path,
+            LinkOption.NOFOLLOW_LINKS);
+        return System.getProperty("user.name").equals(
+            Files.getOwner(path, LinkOption.NOFOLLOW_LINKS).getName())
+               && OWNER_PERMISSIONS.equals(PosixFilePermissions.toString(permissions));
+    }
+
+    public File getDirectory() {
+        return directory;
+    }
+
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    public long getExtractCount() {
+        return extractCount.sum();
+    }
+
+}
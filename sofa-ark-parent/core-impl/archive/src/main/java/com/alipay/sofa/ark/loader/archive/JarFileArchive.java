@@ -94,6 +94,10 @@ public class JarFileArchive implements Archive {
         return new EntryIterator(this.jarFile.entries());
     }
 
+    public JarFile getJarFile() {
+        return this.jarFile;
+    }
+
     public Properties getPomProperties() throws IOException {
         return this.jarFile.getPomProperties();
     }
@@ -0,0 +1,427 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.ark.loader.data;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * {@link RandomAccessData} implementation backed by memory mapped regions of a file, reads
+ * are plain memory copies and never block each other. Files larger than a single mapping are
+ * mapped in chunks.
+ *
+ * <p>The mapping is created on first read and unmapped eagerly by the last {@link #close()}
+ * matching a {@link #retain()}, once reads in flight are done, rather than when GC finds the
+ * mapped buffers unreachable. Reading it afterwards fails with an {@link IOException} until it's
+ * retained again. Buffers returned by {@link #getByteBuffer()} are views of the mapping, they
+ * must not be used after the file is released.
+ *
+ * @since 2.2.15
+ */
+public class MappedRandomAccessDataFile extends RandomAccessDataFile {
+
+    private static final long DEFAULT_CHUNK_SIZE = 1L << 30;
+
+    private final Mapping     mapping;
+
+    /**
+     * Create a new {@link MappedRandomAccessDataFile} backed by the specified file.
+     * @param file the underlying file
+     * @throws IllegalArgumentException if the file is null or does not exist
+     */
+    public MappedRandomAccessDataFile(File file) {
+        this(file, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Create a new {@link MappedRandomAccessDataFile} backed by the specified file.
+     * @param file the underlying file
+     * @param chunkSize the maximum size of each mapped region
+     * @throws IllegalArgumentException if the file is null or does not exist
+     */
+    public MappedRandomAccessDataFile(File file, long chunkSize) {
+        super(file);
+        if (chunkSize <= 0 || chunkSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Chunk size must be in (0, Integer.MAX_VALUE]");
+        }
+        this.mapping = new Mapping(file, file.length(), chunkSize);
+    }
+
+    @Override
+    public InputStream getInputStream(ResourceAccess access) {
+        return new MappedInputStream(this.mapping, 0, this.mapping.length);
+    }
+
+    @Override
+    public RandomAccessData getSubsection(long offset, long length) {
+        return new Section(this.mapping, 0, this.mapping.length).getSubsection(offset, length);
+    }
+
+    @Override
+    public long getSize() {
+        return this.mapping.length;
+    }
+
+    @Override
+    public ByteBuffer getByteBuffer() throws IOException {
+        return new Section(this.mapping, 0, this.mapping.length).getByteBuffer();
+    }
+
+    /**
+     * Register a user of the mapping, each call must be paired with a {@link #close()}.
+     */
+    public void retain() {
+        this.mapping.retain();
+    }
+
+    /**
+     * Release a user of the mapping, the mapped regions are unmapped when no user is left.
+     */
+    @Override
+    public void close() throws IOException {
+        this.mapping.release();
+        super.close();
+    }
+
+    /**
+     * Whether the file is currently mapped.
+     * @return true if mapped
+     */
+    public boolean isMapped() {
+        return this.mapping.chunks != null;
+    }
+
+    /**
+     * Subsection of the mapped file.
+     */
+    private static class Section implements RandomAccessData {
+
+        private final Mapping mapping;
+
+        private final long    offset;
+
+        private final long    length;
+
+        Section(Mapping mapping, long offset, long length) {
+            this.mapping = mapping;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        @Override
+        public InputStream getInputStream(ResourceAccess access) {
+            return new MappedInputStream(this.mapping, this.offset, this.length);
+        }
+
+        @Override
+        public RandomAccessData getSubsection(long offset, long length) {
+            if (offset < 0 || length < 0 || offset + length > this.length) {
+                throw new IndexOutOfBoundsException();
+            }
+            return new Section(this.mapping, this.offset + offset, length);
+        }
+
+        @Override
+        public long getSize() {
+            return this.length;
+        }
+
+        /**
+         * Returns a slice of the mapped region when the section lies in a single chunk, the
+         * slice is only valid until the mapping is released.
+         */
+        @Override
+        public ByteBuffer getByteBuffer() throws IOException {
+            ByteBuffer slice = this.mapping.slice(this.offset, this.length);
+            return slice != null ? slice : RandomAccessData.super.getByteBuffer();
+        }
+
+    }
+
+    /**
+     * {@link InputStream} reading a range of the mapped file.
+     */
+    private static class MappedInputStream extends InputStream {
+
+        private final Mapping mapping;
+
+        private final long    end;
+
+        private long          position;
+
+        MappedInputStream(Mapping mapping, long offset, long length) {
+            this.mapping = mapping;
+            this.position = offset;
+            this.end = offset + length;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (this.position >= this.end) {
+                return -1;
+            }
+            return this.mapping.get(this.position++) & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (b == null) {
+                throw new NullPointerException("Bytes must not be null");
+            }
+            if (len == 0) {
+                return 0;
+            }
+            int cappedLen = (int) Math.min(this.end - this.position, len);
+            if (cappedLen <= 0) {
+                return -1;
+            }
+            int read = 0;
+            while (read < cappedLen) {
+                read += this.mapping.get(this.position + read, b, off + read, cappedLen - read);
+            }
+            this.position += read;
+            return read;
+        }
+
+        @Override
+        public long skip(long n) {
+            long skipped = n <= 0 ? 0 : Math.min(this.end - this.position, n);
+            this.position += skipped;
+            return skipped;
+        }
+
+        @Override
+        public int available() {
+            return (int) Math.min(Integer.MAX_VALUE, this.end - this.position);
+        }
+
+    }
+
+    /**
+     * Mapped chunks of the file, each chunk is at most {@code chunkSize} bytes. Reads hold the
+     * read lock, so that the chunks are never unmapped under a read.
+     */
+    private static class Mapping {
+
+        private final File                  file;
+
+        private final long                  length;
+
+        private final long                  chunkSize;
+
+        private final ReadWriteLock         lock = new ReentrantReadWriteLock();
+
+        private volatile MappedByteBuffer[] chunks;
+
+        /**
+         * users of the mapping, guarded by the write lock
+         */
+        private int                         references;
+
+        private volatile boolean            closed;
+
+        Mapping(File file, long length, long chunkSize) {
+            this.file = file;
+            this.length = length;
+            this.chunkSize = chunkSize;
+        }
+
+        byte get(long position) throws IOException {
+            this.lock.readLock().lock();
+            try {
+                return getChunks()[(int) (position / this.chunkSize)]
+                    .get((int) (position % this.chunkSize));
+            } finally {
+                this.lock.readLock().unlock();
+            }
+        }
+
+        /**
+         * Copy bytes starting at position, the copy stops at the end of the chunk holding the
+         * position.
+         */
+        int get(long position, byte[] b, int off, int len) throws IOException {
+            this.lock.readLock().lock();
+            try {
+                ByteBuffer chunk = getChunks()[(int) (position / this.chunkSize)].duplicate();
+                chunk.position((int) (position % this.chunkSize));
+                int read = Math.min(len, chunk.remaining());
+                chunk.get(b, off, read);
+                return read;
+            } finally {
+                this.lock.readLock().unlock();
+            }
+        }
+
+        ByteBuffer slice(long position, long length) throws IOException {
+            if (length == 0) {
+                return ByteBuffer.allocate(0).asReadOnlyBuffer();
+            }
+            int index = (int) (position / this.chunkSize);
+            if (index != (int) ((position + length - 1) / this.chunkSize)) {
+                return null;
+            }
+            this.lock.readLock().lock();
+            try {
+                ByteBuffer chunk = getChunks()[index].duplicate();
+                int start = (int) (position % this.chunkSize);
+                chunk.limit(start + (int) length).position(start);
+                return chunk.slice().asReadOnlyBuffer();
+            } finally {
+                this.lock.readLock().unlock();
+            }
+        }
+
+        /**
+         * Get the chunks, mapping them on first access, it must be called with the read lock
+         */
+        private MappedByteBuffer[] getChunks() throws IOException {
+            if (this.closed) {
+                throw new IOException("Mapped file " + this.file + " has been closed");
+            }
+            MappedByteBuffer[] chunks = this.chunks;
+            if (chunks == null) {
+                synchronized (this) {
+                    chunks = this.chunks;
+                    if (chunks == null) {
+                        chunks = map();
+                        this.chunks = chunks;
+                    }
+                }
+            }
+            return chunks;
+        }
+
+        private MappedByteBuffer[] map() throws IOException {
+            int count = (int) ((this.length + this.chunkSize - 1) / this.chunkSize);
+            MappedByteBuffer[] chunks = new MappedByteBuffer[count];
+            try (FileChannel channel = FileChannel
+                .open(this.file.toPath(), StandardOpenOption.READ)) {
+                for (int i = 0; i < count; i++) {
+                    long position = i * this.chunkSize;
+                    chunks[i] = channel.map(MapMode.READ_ONLY, position,
+                        Math.min(this.chunkSize, this.length - position));
+                }
+            }
+            return chunks;
+        }
+
+        void retain() {
+            this.lock.writeLock().lock();
+            try {
+                this.references++;
+                this.closed = false;
+            } finally {
+                this.lock.writeLock().unlock();
+            }
+        }
+
+        /**
+         * Unmap the mapped regions once no user is left, after reads in flight are done.
+         */
+        void release() {
+            this.lock.writeLock().lock();
+            try {
+                if (--this.references > 0) {
+                    return;
+                }
+                this.references = 0;
+                this.closed = true;
+                MappedByteBuffer[] chunks = this.chunks;
+                this.chunks = null;
+                if (chunks != null) {
+                    for (MappedByteBuffer chunk : chunks) {
+                        Unmapper.unmap(chunk);
+                    }
+                }
+            } finally {
+                this.lock.writeLock().unlock();
+            }
+        }
+
+    }
+
+    /**
+     * Release mapped buffer eagerly instead of waiting for GC, through
+     * {@code sun.misc.Unsafe#invokeCleaner} on java 9+ or the buffer cleaner on java 8. The
+     * buffer is left to GC when neither is accessible.
+     */
+    private static class Unmapper {
+
+        private static final Object UNSAFE;
+
+        private static final Method INVOKE_CLEANER;
+
+        private static final Method CLEANER;
+
+        private static final Method CLEAN;
+
+        static {
+            Object unsafe = null;
+            Method invokeCleaner = null;
+            Method cleaner = null;
+            Method clean = null;
+            try {
+                Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+                invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+                Field field = unsafeClass.getDeclaredField("theUnsafe");
+                field.setAccessible(true);
+                unsafe = field.get(null);
+            } catch (Throwable t) {
+                invokeCleaner = null;
+                try {
+                    cleaner = Class.forName("sun.nio.ch.DirectBuffer").getMethod("cleaner");
+                    clean = Class.forName("sun.misc.Cleaner").getMethod("clean");
+                } catch (Throwable e) {
+                    cleaner = null;
+                    clean = null;
+                }
+            }
+            UNSAFE = unsafe;
+            INVOKE_CLEANER = invokeCleaner;
+            CLEANER = cleaner;
+            CLEAN = clean;
+        }
+
+        static void unmap(MappedByteBuffer buffer) {
+            try {
+                if (INVOKE_CLEANER != null) {
+                    INVOKE_CLEANER.invoke(UNSAFE, buffer);
+                } else if (CLEANER != null) {
+                    Object cleaner = CLEANER.invoke(buffer);
+                    if (cleaner != null) {
+                        CLEAN.invoke(cleaner);
+                    }
+                }
+            } catch (Throwable t) {
+                // leave it to GC
+            }
+        }
+
+    }
+
+}
@@ -16,8 +16,10 @@
  */
 package com.alipay.sofa.ark.loader.data;
 
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 
 /**
  * Interface that provides read-only random access to some underlying data.
@@ -50,6 +52,27 @@ public interface RandomAccessData {
      */
     long getSize();
 
+    /**
+     * Returns a read-only {@link ByteBuffer} holding the data. The default implementation
+     * copies the data into a heap buffer.
+     * @return the data
+     * @throws IOException if the data cannot be read
+     */
+    default ByteBuffer getByteBuffer() throws IOException {
+        byte[] bytes = new byte[(int) getSize()];
+        try (InputStream inputStream = getInputStream(ResourceAccess.ONCE)) {
+            int offset = 0;
+            while (offset < bytes.length) {
+                int read = inputStream.read(bytes, offset, bytes.length - offset);
+                if (read == -1) {
+                    throw new EOFException("Unexpected end of data");
+                }
+                offset += read;
+            }
+        }
+        return ByteBuffer.wrap(bytes).asReadOnlyBuffer();
+    }
+
     /**
      * Lock modes for accessing the underlying resource.
      */
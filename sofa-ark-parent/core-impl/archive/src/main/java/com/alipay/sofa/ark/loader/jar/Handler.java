@@ -21,11 +21,8 @@ import com.alipay.sofa.ark.common.util.StringUtils;
 
 import java.io.File;
 import java.io.IOException;
-import java.lang.ref.SoftReference;
 import java.lang.reflect.Method;
 import java.net.*;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -41,15 +38,15 @@ public class Handler extends URLStreamHandler {
     // NOTE: in order to be found as a URL protocol handler, this class must be public,
     // must be named Handler and must be in a package ending '.jar'
 
-    private static final String                      JAR_PROTOCOL      = "jar:";
+    private static final String           JAR_PROTOCOL      = "jar:";
 
-    private static final String                      FILE_PROTOCOL     = "file:";
+    private static final String           FILE_PROTOCOL     = "file:";
 
-    private static final String                      SEPARATOR         = "!/";
+    private static final String           SEPARATOR         = "!/";
 
-    private static final String[]                    FALLBACK_HANDLERS = { "sun.net.www.protocol.jar.Handler" };
+    private static final String[]         FALLBACK_HANDLERS = { "sun.net.www.protocol.jar.Handler" };
 
-    private static final Method                      OPEN_CONNECTION_METHOD;
+    private static final Method           OPEN_CONNECTION_METHOD;
 
     static {
         Method method = null;
@@ -61,15 +58,11 @@ public class Handler extends URLStreamHandler {
         OPEN_CONNECTION_METHOD = method;
     }
 
-    private static SoftReference<Map<File, JarFile>> rootFileCache;
+    private static final RootJarFileCache ROOT_FILE_CACHE   = new RootJarFileCache();
 
-    static {
-        rootFileCache = new SoftReference<>(null);
-    }
-
-    private final JarFile                            jarFile;
+    private final JarFile                 jarFile;
 
-    private URLStreamHandler                         fallbackHandler;
+    private URLStreamHandler              fallbackHandler;
 
     public Handler() {
         this(null);
@@ -290,14 +283,7 @@ public class Handler extends URLStreamHandler {
                 throw new IllegalStateException("Not a file URL");
             }
             String path = name.substring(FILE_PROTOCOL.length());
-            File file = FileUtils.file(path);
-            Map<File, JarFile> cache = rootFileCache.get();
-            JarFile result = (cache == null ? null : cache.get(file));
-            if (result == null) {
-                result = new JarFile(file);
-                addToRootFileCache(file, result);
-            }
-            return result;
+            return ROOT_FILE_CACHE.get(FileUtils.file(path));
         } catch (Exception ex) {
             throw new IOException("Unable to open root Jar file '" + name + "'", ex);
         }
@@ -309,12 +295,15 @@ public class Handler extends URLStreamHandler {
      * @param jarFile the jar file.
      */
     static void addToRootFileCache(File sourceFile, JarFile jarFile) {
-        Map<File, JarFile> cache = rootFileCache.get();
-        if (cache == null) {
-            cache = new ConcurrentHashMap<>(16);
-            rootFileCache = new SoftReference<>(cache);
-        }
-        cache.put(sourceFile, jarFile);
+        ROOT_FILE_CACHE.put(sourceFile, jarFile);
+    }
+
+    /**
+     * Get the cache of root jar files opened by handlers.
+     * @return the root file cache
+     */
+    public static RootJarFileCache getRootFileCache() {
+        return ROOT_FILE_CACHE;
     }
 
     /**
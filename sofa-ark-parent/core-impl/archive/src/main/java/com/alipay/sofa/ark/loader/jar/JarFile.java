@@ -16,6 +16,8 @@
  */
 package com.alipay.sofa.ark.loader.jar;
 
+import com.alipay.sofa.ark.api.ArkConfigs;
+import com.alipay.sofa.ark.loader.data.MappedRandomAccessDataFile;
 import com.alipay.sofa.ark.loader.data.RandomAccessData;
 import com.alipay.sofa.ark.loader.data.RandomAccessData.ResourceAccess;
 import com.alipay.sofa.ark.loader.data.RandomAccessDataFile;
@@ -25,16 +27,23 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.lang.ref.SoftReference;
 import java.net.MalformedURLException;
+import java.nio.ByteBuffer;
 import java.net.URL;
 import java.net.URLStreamHandler;
 import java.net.URLStreamHandlerFactory;
 import java.util.Enumeration;
 import java.util.Iterator;
+import java.util.Optional;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.jar.JarInputStream;
 import java.util.jar.Manifest;
 import java.util.zip.ZipEntry;
 
+import static com.alipay.sofa.ark.spi.constant.Constants.JAR_MMAP_ENABLE;
+
 /**
  * Extended variant of {@link java.util.jar.JarFile} that behaves in the same way but
  * offers the following additional functionality.
@@ -49,41 +58,65 @@ import java.util.zip.ZipEntry;
  */
 public class JarFile extends java.util.jar.JarFile {
 
-    private static final String        MANIFEST_NAME            = "META-INF/MANIFEST.MF";
+    private static final String                  MANIFEST_NAME            = "META-INF/MANIFEST.MF";
+
+    private static final String                  POM_PROPERTIES           = "pom.properties";
+
+    private static final String                  ARTIFACT_ID              = "artifactId";
 
-    private static final String        POM_PROPERTIES           = "pom.properties";
+    private static final String                  PROTOCOL_HANDLER         = "java.protocol.handler.pkgs";
 
-    private static final String        PROTOCOL_HANDLER         = "java.protocol.handler.pkgs";
+    private static final String                  HANDLERS_PACKAGE         = "com.alipay.sofa.ark.loader";
 
-    private static final String        HANDLERS_PACKAGE         = "com.alipay.sofa.ark.loader";
+    private static final AsciiBytes              META_INF                 = new AsciiBytes(
+                                                                              "META-INF/");
 
-    private static final AsciiBytes    META_INF                 = new AsciiBytes("META-INF/");
+    private static final AsciiBytes              SIGNATURE_FILE_EXTENSION = new AsciiBytes(".SF");
 
-    private static final AsciiBytes    SIGNATURE_FILE_EXTENSION = new AsciiBytes(".SF");
+    private static final AsciiBytes              POM_PROPERTIES_NAME      = new AsciiBytes(
+                                                                              POM_PROPERTIES);
 
-    private final RandomAccessDataFile rootFile;
+    private static final String                  MAVEN_METADATA_PREFIX    = "META-INF/maven/";
 
-    private final String               pathFromRoot;
+    private final RandomAccessDataFile           rootFile;
 
-    private final RandomAccessData     data;
+    private final String                         pathFromRoot;
 
-    private final JarFileType          type;
+    private final RandomAccessData               data;
 
-    private URL                        url;
+    private final JarFileType                    type;
 
-    private JarFileEntries             entries;
+    private URL                                  url;
 
-    private SoftReference<Manifest>    manifest;
+    private JarFileEntries                       entries;
 
-    private boolean                    signed;
+    private SoftReference<Manifest>              manifest;
+
+    private boolean                              signed;
 
     /**
-     * Create a new {@link JarFile} backed by the specified file.
+     * name of the first pom.properties entry in central directory
+     */
+    private String                               pomPropertiesName;
+
+    private volatile Optional<String>            artifactId;
+
+    private final AtomicBoolean                  closed                   = new AtomicBoolean();
+
+    /**
+     * nested jar files keyed by entry name, a closed one is replaced on next access
+     */
+    private final ConcurrentMap<String, JarFile> nestedJarFiles           = new ConcurrentHashMap<>();
+
+    /**
+     * Create a new {@link JarFile} backed by the specified file, the file is memory mapped
+     * when {@link com.alipay.sofa.ark.spi.constant.Constants#JAR_MMAP_ENABLE} is enabled.
      * @param file the root jar file
      * @throws IOException if the file cannot be read
      */
     public JarFile(File file) throws IOException {
-        this(new RandomAccessDataFile(file));
+        this(ArkConfigs.getBooleanValue(JAR_MMAP_ENABLE, false) ? new MappedRandomAccessDataFile(
+            file) : new RandomAccessDataFile(file));
     }
 
     /**
@@ -116,12 +149,15 @@ public class JarFile extends java.util.jar.JarFile {
         this.pathFromRoot = pathFromRoot;
         CentralDirectoryParser parser = new CentralDirectoryParser();
         this.entries = parser.addVisitor(new JarFileEntries(this, filter));
-        parser.addVisitor(centralDirectoryVisitor());
+        parser.addVisitor(centralDirectoryVisitor(filter == null));
         this.data = parser.parse(data, filter == null);
         this.type = type;
+        if (rootFile instanceof MappedRandomAccessDataFile) {
+            ((MappedRandomAccessDataFile) rootFile).retain();
+        }
     }
 
-    private CentralDirectoryVisitor centralDirectoryVisitor() {
+    private CentralDirectoryVisitor centralDirectoryVisitor(boolean recordPomProperties) {
         return new CentralDirectoryVisitor() {
 
             @Override
@@ -135,6 +171,10 @@ public class JarFile extends java.util.jar.JarFile {
                 if (name.startsWith(META_INF) && name.endsWith(SIGNATURE_FILE_EXTENSION)) {
                     JarFile.this.signed = true;
                 }
+                if (recordPomProperties && JarFile.this.pomPropertiesName == null
+                    && name.endsWith(POM_PROPERTIES_NAME)) {
+                    JarFile.this.pomPropertiesName = name.toString();
+                }
             }
 
             @Override
@@ -152,6 +192,10 @@ public class JarFile extends java.util.jar.JarFile {
         return this.data;
     }
 
+    boolean isClosed() {
+        return this.closed.get();
+    }
+
     @Override
     public Manifest getManifest() throws IOException {
         Manifest manifest = (this.manifest == null ? null : this.manifest.get());
@@ -189,6 +233,39 @@ public class JarFile extends java.util.jar.JarFile {
         return p;
     }
 
+    /**
+     * Get the artifact id of the jar, the same as the one in {@link #getPomProperties()}. It's
+     * resolved from the name of the pom.properties entry recorded while parsing central directory,
+     * which is META-INF/maven/groupId/artifactId/pom.properties, and the entry is read only if it
+     * isn't in the maven layout.
+     * @return artifact id, or null if the jar has no pom.properties
+     * @throws IOException if pom.properties cannot be read
+     */
+    public String getArtifactId() throws IOException {
+        Optional<String> artifactId = this.artifactId;
+        if (artifactId == null) {
+            artifactId = Optional.ofNullable(resolveArtifactId());
+            this.artifactId = artifactId;
+        }
+        return artifactId.orElse(null);
+    }
+
+    private String resolveArtifactId() throws IOException {
+        String name = this.pomPropertiesName;
+        if (name == null) {
+            // entries of a nested directory are filtered, so its central directory isn't recorded
+            return this.type == JarFileType.NESTED_DIRECTORY ? getPomProperties().getProperty(
+                ARTIFACT_ID) : null;
+        }
+        if (name.startsWith(MAVEN_METADATA_PREFIX)) {
+            String[] paths = name.substring(MAVEN_METADATA_PREFIX.length()).split("/");
+            if (paths.length == 3 && !paths[1].isEmpty()) {
+                return paths[1];
+            }
+        }
+        return getPomProperties().getProperty(ARTIFACT_ID);
+    }
+
     @Override
     public Enumeration<java.util.jar.JarEntry> entries() {
         final Iterator<JarEntry> iterator = this.entries.iterator();
@@ -222,7 +299,7 @@ public class JarFile extends java.util.jar.JarFile {
     }
 
     @Override
-    public synchronized InputStream getInputStream(ZipEntry ze) throws IOException {
+    public InputStream getInputStream(ZipEntry ze) throws IOException {
         return getInputStream(ze, ResourceAccess.PER_READ);
     }
 
@@ -237,27 +314,68 @@ public class JarFile extends java.util.jar.JarFile {
         return this.entries.getInputStream(name, access);
     }
 
+    /**
+     * Return a read-only buffer of the entry content. For a stored entry of a memory mapped
+     * jar file the buffer is a view of the mapping without copy, which keeps the region mapped
+     * until the buffer is garbage collected; a deflated entry is inflated once into a buffer of
+     * its size.
+     * @param ze the zip entry
+     * @return the content or {@code null} if there is no such entry
+     * @throws IOException if the entry cannot be read
+     */
+    public ByteBuffer getByteBuffer(ZipEntry ze) throws IOException {
+        if (ze instanceof JarEntry) {
+            return this.entries.getByteBuffer((JarEntry) ze);
+        }
+        return ze == null ? null : this.entries.getByteBuffer(ze.getName());
+    }
+
     /**
      * Return a nested {@link JarFile} loaded from the specified entry.
      * @param entry the zip entry
      * @return a {@link JarFile} for the entry
      * @throws IOException if the nested jar file cannot be read
      */
-    public synchronized JarFile getNestedJarFile(final ZipEntry entry) throws IOException {
+    public JarFile getNestedJarFile(final ZipEntry entry) throws IOException {
         return getNestedJarFile((JarEntry) entry);
     }
 
     /**
-     * Return a nested {@link JarFile} loaded from the specified entry.
+     * Return a nested {@link JarFile} loaded from the specified entry, the same instance is
+     * returned for an entry until it or this jar file is closed. Once this jar file is closed
+     * nested jar files are no longer memoized, and the caller has to close them.
      * @param entry the zip entry
      * @return a {@link JarFile} for the entry
      * @throws IOException if the nested jar file cannot be read
      */
-    public synchronized JarFile getNestedJarFile(JarEntry entry) throws IOException {
-        try {
-            return createJarFileFromEntry(entry);
-        } catch (Exception ex) {
-            throw new IOException("Unable to open nested jar file '" + entry.getName() + "'", ex);
+    public JarFile getNestedJarFile(JarEntry entry) throws IOException {
+        String name = entry.getName();
+        while (true) {
+            JarFile current = this.nestedJarFiles.get(name);
+            if (current != null && !current.closed.get()) {
+                return current;
+            }
+            JarFile created;
+            try {
+                created = createJarFileFromEntry(entry);
+            } catch (Exception ex) {
+                throw new IOException("Unable to open nested jar file '" + name + "'", ex);
+            }
+            if (this.closed.get()) {
+                return created;
+            }
+            boolean published = current == null ? this.nestedJarFiles.putIfAbsent(name, created) == null
+                : this.nestedJarFiles.replace(name, current, created);
+            if (published) {
+                // this jar file is closed concurrently, hand it over to the caller if it's not
+                // closed along with this jar file
+                if (this.closed.get()) {
+                    this.nestedJarFiles.remove(name, created);
+                }
+                return created;
+            }
+            // another thread has published the nested jar file of this entry
+            created.close();
         }
     }
 
@@ -304,9 +422,19 @@ public class JarFile extends java.util.jar.JarFile {
         return (int) this.data.getSize();
     }
 
+    /**
+     * Close the jar file together with its nested jar files, each of them holds the root file.
+     */
     @Override
     public void close() throws IOException {
         super.close();
+        if (!this.closed.compareAndSet(false, true)) {
+            return;
+        }
+        for (JarFile nestedJarFile : this.nestedJarFiles.values()) {
+            nestedJarFile.close();
+        }
+        this.nestedJarFiles.clear();
         this.rootFile.close();
     }
 
@@ -377,6 +505,10 @@ public class JarFile extends java.util.jar.JarFile {
         this.entries.clearCache();
     }
 
+    JarFileEntries getJarFileEntries() {
+        return this.entries;
+    }
+
     protected String getPathFromRoot() {
         return this.pathFromRoot;
     }
@@ -16,14 +16,24 @@
  */
 package com.alipay.sofa.ark.loader.jar;
 
+import com.alipay.sofa.ark.api.ArkConfigs;
 import com.alipay.sofa.ark.loader.data.RandomAccessData;
 import com.alipay.sofa.ark.loader.data.RandomAccessData.ResourceAccess;
 
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
 import java.util.zip.ZipEntry;
 
+import static com.alipay.sofa.ark.spi.constant.Constants.DEFAULT_JAR_ENTRY_CACHE_SIZE;
+import static com.alipay.sofa.ark.spi.constant.Constants.JAR_ENTRY_CACHE_SIZE;
+
 /**
  * Provides access to entries from a {@link JarFile}. In order to reduce memory
  * consumption entry details are stored using int arrays. The {@code hashCodes} array
@@ -39,42 +49,31 @@ import java.util.zip.ZipEntry;
  */
 public class JarFileEntries implements CentralDirectoryVisitor, Iterable<JarEntry> {
 
-    private static final long              LOCAL_FILE_HEADER_SIZE = 30;
-
-    private static final String            SLASH                  = "/";
+    private static final long    LOCAL_FILE_HEADER_SIZE = 30;
 
-    private static final String            NO_SUFFIX              = "";
+    private static final String  SLASH                  = "/";
 
-    protected static final int             ENTRY_CACHE_SIZE       = 25;
+    private static final String  NO_SUFFIX              = "";
 
-    private final JarFile                  jarFile;
+    private final JarFile        jarFile;
 
-    private final JarEntryFilter           filter;
+    private final JarEntryFilter filter;
 
-    private RandomAccessData               centralDirectoryData;
+    private RandomAccessData     centralDirectoryData;
 
-    private int                            size;
+    private int                  size;
 
-    private int[]                          hashCodes;
+    private int[]                hashCodes;
 
-    private int[]                          centralDirectoryOffsets;
+    private int[]                centralDirectoryOffsets;
 
-    private int[]                          positions;
+    private int[]                positions;
 
-    private final Map<Integer, FileHeader> entriesCache           = Collections
-                                                                      .synchronizedMap(new LinkedHashMap<Integer, FileHeader>(
-                                                                          16, 0.75f, true) {
+    private EntryCache           entriesCache           = new EntryCache(0);
 
-                                                                          @Override
-                                                                          protected boolean removeEldestEntry(Map.Entry<Integer, FileHeader> eldest) {
-                                                                              if (JarFileEntries.this.jarFile
-                                                                                  .isSigned()) {
-                                                                                  return false;
-                                                                              }
-                                                                              return size() >= ENTRY_CACHE_SIZE;
-                                                                          }
+    private final LongAdder      cacheHits              = new LongAdder();
 
-                                                                      });
+    private final LongAdder      cacheMisses            = new LongAdder();
 
     public JarFileEntries(JarFile jarFile, JarEntryFilter filter) {
         this.jarFile = jarFile;
@@ -114,6 +113,20 @@ public class JarFileEntries implements CentralDirectoryVisitor, Iterable<JarEntr
         for (int i = 0; i < this.size; i++) {
             this.positions[positions[i]] = i;
         }
+        this.entriesCache = new EntryCache(computeCacheCapacity());
+    }
+
+    /**
+     * Entries of a signed jar hold certificates and are all cached, otherwise the cache
+     * holds at most {@link com.alipay.sofa.ark.spi.constant.Constants#JAR_ENTRY_CACHE_SIZE}
+     * entries and no more than the entry count of the jar.
+     */
+    private int computeCacheCapacity() {
+        if (this.jarFile.isSigned()) {
+            return this.size;
+        }
+        int maxSize = ArkConfigs.getIntValue(JAR_ENTRY_CACHE_SIZE, DEFAULT_JAR_ENTRY_CACHE_SIZE);
+        return Math.max(0, Math.min(this.size, maxSize));
     }
 
     private void sort(int left, int right) {
@@ -185,6 +198,69 @@ public class JarFileEntries implements CentralDirectoryVisitor, Iterable<JarEntr
         return inputStream;
     }
 
+    public ByteBuffer getByteBuffer(String name) throws IOException {
+        FileHeader entry = getEntry(name, FileHeader.class, false);
+        return getByteBuffer(entry);
+    }
+
+    /**
+     * Returns a read-only buffer of the entry content, a stored entry of a memory mapped jar
+     * is a view of the mapping, a deflated entry is inflated once into a buffer of its size.
+     * @param entry the entry
+     * @return the content or {@code null} if the entry is {@code null}
+     * @throws IOException if the entry cannot be read
+     */
+    public ByteBuffer getByteBuffer(FileHeader entry) throws IOException {
+        if (entry == null) {
+            return null;
+        }
+        ByteBuffer data = getEntryData(entry).getByteBuffer();
+        if (entry.getMethod() != ZipEntry.DEFLATED) {
+            return data;
+        }
+        return ByteBuffer.wrap(inflate(data, (int) entry.getSize())).asReadOnlyBuffer();
+    }
+
+    private byte[] inflate(ByteBuffer data, int size) throws IOException {
+        byte[] input;
+        if (data.hasArray()) {
+            input = data.array();
+        } else {
+            input = new byte[data.remaining()];
+            data.duplicate().get(input);
+        }
+        int inputOffset = data.hasArray() ? data.arrayOffset() + data.position() : 0;
+        byte[] bytes = new byte[size];
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(input, inputOffset, data.remaining());
+            int offset = 0;
+            boolean dummyByteWritten = false;
+            while (offset < size && !inflater.finished()) {
+                int inflated = inflater.inflate(bytes, offset, size - offset);
+                offset += inflated;
+                if (inflated == 0 && inflater.needsInput()) {
+                    if (dummyByteWritten) {
+                        throw new EOFException("Unexpected end of deflated entry");
+                    }
+                    // nowrap inflater may need an extra dummy byte to complete
+                    inflater.setInput(new byte[1]);
+                    dummyByteWritten = true;
+                } else if (inflated == 0 && inflater.needsDictionary()) {
+                    throw new IOException("Deflated entry requires a preset dictionary");
+                }
+            }
+            if (offset < size) {
+                throw new EOFException("Unexpected end of deflated entry");
+            }
+            return bytes;
+        } catch (DataFormatException ex) {
+            throw new IOException(ex);
+        } finally {
+            inflater.end();
+        }
+    }
+
     public RandomAccessData getEntryData(String name) throws IOException {
         FileHeader entry = getEntry(name, FileHeader.class, false);
         if (entry == null) {
@@ -232,7 +308,13 @@ public class JarFileEntries implements CentralDirectoryVisitor, Iterable<JarEntr
     @SuppressWarnings("unchecked")
     private <T extends FileHeader> T getEntry(int index, Class<T> type, boolean cacheEntry) {
         try {
-            FileHeader cached = this.entriesCache.get(index);
+            EntryCache entriesCache = this.entriesCache;
+            FileHeader cached = entriesCache.get(index);
+            if (cached != null) {
+                this.cacheHits.increment();
+            } else {
+                this.cacheMisses.increment();
+            }
             FileHeader entry = (cached != null ? cached : CentralDirectoryFileHeader
                 .fromRandomAccessData(this.centralDirectoryData,
                     this.centralDirectoryOffsets[index], this.filter));
@@ -241,7 +323,7 @@ public class JarFileEntries implements CentralDirectoryVisitor, Iterable<JarEntr
                 entry = new JarEntry(this.jarFile, (CentralDirectoryFileHeader) entry);
             }
             if (cacheEntry && cached != entry) {
-                this.entriesCache.put(index, entry);
+                entriesCache.put(index, entry);
             }
             return (T) entry;
         } catch (IOException ex) {
@@ -264,6 +346,30 @@ public class JarFileEntries implements CentralDirectoryVisitor, Iterable<JarEntr
         this.entriesCache.clear();
     }
 
+    /**
+     * Get the number of entry lookups served by the cache
+     * @return hit count
+     */
+    public long getCacheHitCount() {
+        return this.cacheHits.sum();
+    }
+
+    /**
+     * Get the number of entry lookups which decoded the central directory record
+     * @return miss count
+     */
+    public long getCacheMissCount() {
+        return this.cacheMisses.sum();
+    }
+
+    /**
+     * Get the number of entries the cache can hold
+     * @return cache capacity
+     */
+    public int getCacheCapacity() {
+        return this.entriesCache.capacity();
+    }
+
     private AsciiBytes applyFilter(AsciiBytes name) {
         return (this.filter == null ? name : this.filter.apply(name));
     }
@@ -297,4 +403,56 @@ public class JarFileEntries implements CentralDirectoryVisitor, Iterable<JarEntr
 
     }
 
+    /**
+     * Lock free, direct mapped cache of decoded entries, an entry lives in the slot of its
+     * index modulo the capacity and replaces the entry there. When the capacity is not less
+     * than the entry count every entry owns a slot.
+     */
+    private static class EntryCache {
+
+        private final AtomicReferenceArray<CachedEntry> slots;
+
+        EntryCache(int capacity) {
+            this.slots = new AtomicReferenceArray<>(capacity);
+        }
+
+        FileHeader get(int index) {
+            if (this.slots.length() == 0) {
+                return null;
+            }
+            CachedEntry cached = this.slots.get(index % this.slots.length());
+            return (cached != null && cached.index == index) ? cached.entry : null;
+        }
+
+        void put(int index, FileHeader entry) {
+            if (this.slots.length() > 0) {
+                this.slots.set(index % this.slots.length(), new CachedEntry(index, entry));
+            }
+        }
+
+        void clear() {
+            for (int i = 0; i < this.slots.length(); i++) {
+                this.slots.set(i, null);
+            }
+        }
+
+        int capacity() {
+            return this.slots.length();
+        }
+
+    }
+
+    private static class CachedEntry {
+
+        private final int        index;
+
+        private final FileHeader entry;
+
+        CachedEntry(int index, FileHeader entry) {
+            this.index = index;
+            this.entry = entry;
+        }
+
+    }
+
 }
@@ -18,7 +18,6 @@ package com.alipay.sofa.ark.loader.jar;
 
 import com.alipay.sofa.ark.common.util.FileUtils;
 import com.alipay.sofa.ark.common.util.StringUtils;
-import com.alipay.sofa.ark.loader.archive.JarFileArchive;
 import com.alipay.sofa.ark.loader.util.ModifyPathUtils;
 import com.alipay.sofa.ark.spi.archive.Archive;
 import com.alipay.sofa.common.utils.StringUtil;
@@ -151,16 +150,7 @@ public class JarUtils {
         // 8. /xxx/xxx/xxx-starter-1.0.0-SNAPSHOT.jar!/BOOT-INF/lib/xxx2-starter-1.1.4-SNAPSHOT-ark-biz.jar!/lib/xxx3-230605-sofa.jar!/
         // 9. if is ark plugin, then return null to set declared default
 
-        // clean the jar location prefix and suffix
-        if (jarLocation.contains(JAR_SUFFIX)) {
-            jarLocation = jarLocation.substring(0, jarLocation.lastIndexOf(JAR_SUFFIX) + JAR_SUFFIX.length());
-        }
-        if (jarLocation.startsWith("file:")) {
-            jarLocation = jarLocation.substring("file:".length());
-        }
-
-        // modify the path to suit WindowsOS
-        jarLocation = ModifyPathUtils.modifyPath(jarLocation);
+        jarLocation = cleanJarLocation(jarLocation);
         String finalJarLocation = jarLocation;
         artifactIdCacheMap.computeIfAbsent(jarLocation, a -> {
             try {
@@ -193,6 +183,52 @@ public class JarUtils {
         return artifactIdCacheMap.get(jarLocation).orElse(null);
     }
 
+    /**
+     * Put a known artifact id of jar location into cache, e.g. restored from a persisted index,
+     * so that the jar needn't be opened to parse it again.
+     *
+     * @param jarLocation jar location, the same form as {@link #parseArtifactId(String)}
+     * @param artifactId artifact id, null if the jar has no artifact id
+     */
+    public static void cacheArtifactId(String jarLocation, String artifactId) {
+        artifactIdCacheMap.putIfAbsent(cleanJarLocation(jarLocation),
+            Optional.ofNullable(artifactId));
+    }
+
+    /**
+     * Put the artifact id of an opened jar into cache, it's resolved from the central directory
+     * of the jar, or from the file name like {@link #parseArtifactId(String)} does.
+     *
+     * @param jarFile opened jar file
+     * @throws IOException if pom.properties of the jar cannot be read
+     */
+    public static void cacheArtifactId(com.alipay.sofa.ark.loader.jar.JarFile jarFile)
+                                                                                      throws IOException {
+        String jarLocation = cleanJarLocation(jarFile.getUrl().getFile());
+        if (artifactIdCacheMap.containsKey(jarLocation)) {
+            return;
+        }
+        String artifactId = jarFile.getArtifactId();
+        if (StringUtils.isEmpty(artifactId)) {
+            artifactId = doGetArtifactIdFromFileName(jarLocation);
+        }
+        artifactIdCacheMap.putIfAbsent(jarLocation, Optional.ofNullable(artifactId));
+    }
+
+    private static String cleanJarLocation(String jarLocation) {
+        // clean the jar location prefix and suffix
+        if (jarLocation.contains(JAR_SUFFIX)) {
+            jarLocation = jarLocation.substring(0,
+                jarLocation.lastIndexOf(JAR_SUFFIX) + JAR_SUFFIX.length());
+        }
+        if (jarLocation.startsWith("file:")) {
+            jarLocation = jarLocation.substring("file:".length());
+        }
+
+        // modify the path to suit WindowsOS
+        return ModifyPathUtils.modifyPath(jarLocation);
+    }
+
     private static String doGetArtifactIdFromFileName(String jarLocation) {
         String[] jarInfos = jarLocation.split("/");
         if (jarInfos.length == 0) {
@@ -217,17 +253,32 @@ public class JarUtils {
     }
 
     private static String parseArtifactIdFromJar(String jarLocation) throws IOException {
-        try (com.alipay.sofa.ark.loader.jar.JarFile jarFile = getNestedRootJarFromJarLocation(jarLocation)) {
-            JarFileArchive jarFileArchive = new JarFileArchive(jarFile);
-            return jarFileArchive.getPomProperties().getProperty(JAR_ARTIFACT_ID);
+        // hold the root, so its jar file isn't closed if evicted concurrently
+        File rootFile = FileUtils.file(jarLocation.split(JAR_SEPARATOR, -1)[0]);
+        Handler.getRootFileCache().hold(rootFile);
+        try {
+            return getNestedRootJarFromJarLocation(jarLocation).getArtifactId();
+        } finally {
+            Handler.getRootFileCache().release(rootFile);
         }
     }
 
+    /**
+     * Get the jar file at the location, which may be nested in other jars. The root jar file is
+     * shared through the root file cache of {@link Handler} and nested jar files are memoized by
+     * it, so the root isn't opened or mapped again for each lookup. The jar file is owned by the
+     * cache and must not be closed by the caller, it stays open while the root file is held by
+     * {@link RootJarFileCache#hold(File)}.
+     *
+     * @param jarLocation location of the jar, e.g. {@code /a.jar!/lib/b.jar}
+     * @return jar file
+     * @throws IOException if the jar file cannot be opened
+     */
     public static com.alipay.sofa.ark.loader.jar.JarFile getNestedRootJarFromJarLocation(String jarLocation)
                                                                                                             throws IOException {
         //  /xxx/xxx/xxx-starter-1.0.0-SNAPSHOT.jar!/BOOT-INF/lib/xxx2-starter-1.1.4-SNAPSHOT-ark-biz.jar!/lib/xxx3-230605-sofa.jar
         String[] js = jarLocation.split(JAR_SEPARATOR, -1);
-        com.alipay.sofa.ark.loader.jar.JarFile rJarFile = new com.alipay.sofa.ark.loader.jar.JarFile(
+        com.alipay.sofa.ark.loader.jar.JarFile rJarFile = Handler.getRootFileCache().get(
             FileUtils.file(js[0]));
         for (int i = 1; i < js.length; i++) {
             String jPath = js[i];
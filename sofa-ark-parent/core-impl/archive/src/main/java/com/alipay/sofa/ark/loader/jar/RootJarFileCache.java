@@ -0,0 +1,320 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.ark.loader.jar;
+
+import com.alipay.sofa.ark.api.ArkConfigs;
+import com.alipay.sofa.ark.common.util.FileUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.alipay.sofa.ark.spi.constant.Constants.DEFAULT_JAR_ROOT_FILE_CACHE_SIZE;
+import static com.alipay.sofa.ark.spi.constant.Constants.JAR_ROOT_FILE_CACHE_SIZE;
+
+/**
+ * Cache of root {@link JarFile}s opened by {@link Handler}. Entries are kept in access order
+ * until they are evicted, either explicitly when the biz or plugin owning the file is
+ * recycled, or as the least recently used entry when the cache exceeds
+ * {@link com.alipay.sofa.ark.spi.constant.Constants#JAR_ROOT_FILE_CACHE_SIZE}.
+ *
+ * <p>Class loaders {@link #hold(File)} the root files of their classpath until they are
+ * closed. An evicted jar file is closed, releasing its mapping, once its file is not held;
+ * a held one stays open and is cached again on next {@link #get(File)}, so buffers read from
+ * it by a live class loader remain valid.
+ *
+ * @since 2.2.15
+ */
+public class RootJarFileCache {
+
+    private static final String      JAR_PROTOCOL  = "jar";
+
+    private static final String      FILE_PROTOCOL = "file:";
+
+    private static final String      SEPARATOR     = "!/";
+
+    /**
+     * cached jar files in access order, guarded by this
+     */
+    private final Map<File, JarFile> cache         = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * jar files evicted while their files are held, guarded by this
+     */
+    private final Map<File, JarFile> evicted       = new HashMap<>();
+
+    /**
+     * hold counts of files, guarded by this
+     */
+    private final Map<File, Integer> holds         = new HashMap<>();
+
+    /**
+     * files ever cached and not evicted explicitly, used to count reopens, guarded by this
+     */
+    private final Set<File>          openedFiles   = new HashSet<>();
+
+    private final LongAdder          hitCount      = new LongAdder();
+
+    private final LongAdder          missCount     = new LongAdder();
+
+    private final LongAdder          reopenCount   = new LongAdder();
+
+    private final LongAdder          evictCount    = new LongAdder();
+
+    /**
+     * Get the cached jar file of the file, or open and cache it
+     * @param file root jar file
+     * @return jar file
+     * @throws IOException if the file cannot be opened
+     */
+    public JarFile get(File file) throws IOException {
+        List<JarFile> closing = new ArrayList<>();
+        JarFile jarFile;
+        synchronized (this) {
+            jarFile = getCached(file, closing);
+        }
+        if (jarFile != null) {
+            this.hitCount.increment();
+        } else {
+            this.missCount.increment();
+            JarFile opened = new JarFile(file);
+            synchronized (this) {
+                jarFile = getCached(file, closing);
+                if (jarFile == null) {
+                    jarFile = opened;
+                    markOpened(file);
+                    cache(file, opened, closing);
+                } else {
+                    closing.add(opened);
+                }
+            }
+        }
+        close(closing);
+        return jarFile;
+    }
+
+    /**
+     * Cache the jar file, replacing the one cached for the same file
+     * @param file root jar file
+     * @param jarFile jar file
+     */
+    public void put(File file, JarFile jarFile) {
+        List<JarFile> closing = new ArrayList<>();
+        synchronized (this) {
+            JarFile replaced = this.cache.remove(file);
+            if (replaced == null) {
+                markOpened(file);
+            } else if (replaced != jarFile) {
+                retire(file, replaced, closing);
+            }
+            cache(file, jarFile, closing);
+        }
+        close(closing);
+    }
+
+    /**
+     * Hold the file, so its jar file is not closed when evicted until it is released
+     * @param file root jar file
+     */
+    public synchronized void hold(File file) {
+        this.holds.merge(file, 1, Integer::sum);
+    }
+
+    /**
+     * Release a hold of the file, the jar file of the file is closed if it is evicted and the
+     * file is not held any more
+     * @param file root jar file
+     */
+    public void release(File file) {
+        JarFile jarFile;
+        synchronized (this) {
+            Integer count = this.holds.get(file);
+            if (count == null) {
+                return;
+            }
+            if (count > 1) {
+                this.holds.put(file, count - 1);
+                return;
+            }
+            this.holds.remove(file);
+            jarFile = this.evicted.remove(file);
+        }
+        if (jarFile != null) {
+            close(jarFile);
+        }
+    }
+
+    /**
+     * Evict the jar file of the file, used when the owner of the file is recycled. The jar file
+     * is closed unless the file is held.
+     * @param file root jar file
+     * @return whether the file was cached
+     */
+    public boolean evict(File file) {
+        List<JarFile> closing = new ArrayList<>();
+        synchronized (this) {
+            this.openedFiles.remove(file);
+            JarFile jarFile = this.cache.remove(file);
+            if (jarFile == null) {
+                return false;
+            }
+            this.evictCount.increment();
+            retire(file, jarFile, closing);
+        }
+        close(closing);
+        return true;
+    }
+
+    private JarFile getCached(File file, List<JarFile> closing) {
+        JarFile jarFile = this.cache.get(file);
+        if (jarFile == null) {
+            // evicted but still held by a class loader, reuse it instead of opening another one
+            jarFile = this.evicted.remove(file);
+            if (jarFile != null) {
+                cache(file, jarFile, closing);
+            }
+        }
+        return jarFile;
+    }
+
+    private void cache(File file, JarFile jarFile, List<JarFile> closing) {
+        this.cache.put(file, jarFile);
+        int maxSize = ArkConfigs.getIntValue(JAR_ROOT_FILE_CACHE_SIZE,
+            DEFAULT_JAR_ROOT_FILE_CACHE_SIZE);
+        Iterator<Map.Entry<File, JarFile>> iterator = this.cache.entrySet().iterator();
+        while (maxSize > 0 && this.cache.size() > maxSize && iterator.hasNext()) {
+            Map.Entry<File, JarFile> eldest = iterator.next();
+            iterator.remove();
+            this.evictCount.increment();
+            retire(eldest.getKey(), eldest.getValue(), closing);
+        }
+    }
+
+    /**
+     * Keep the evicted jar file open while its file is held, or close it
+     */
+    private void retire(File file, JarFile jarFile, List<JarFile> closing) {
+        if (this.holds.containsKey(file) && !this.evicted.containsKey(file)) {
+            this.evicted.put(file, jarFile);
+        } else {
+            closing.add(jarFile);
+        }
+    }
+
+    private void markOpened(File file) {
+        if (!this.openedFiles.add(file)) {
+            this.reopenCount.increment();
+        }
+    }
+
+    private static void close(List<JarFile> jarFiles) {
+        for (JarFile jarFile : jarFiles) {
+            close(jarFile);
+        }
+    }
+
+    private static void close(JarFile jarFile) {
+        try {
+            jarFile.close();
+        } catch (IOException e) {
+            // ignore
+        }
+    }
+
+    /**
+     * Evict all jar files, jar files of held files are closed once released
+     */
+    public void clear() {
+        List<JarFile> closing = new ArrayList<>();
+        synchronized (this) {
+            for (Map.Entry<File, JarFile> entry : this.cache.entrySet()) {
+                retire(entry.getKey(), entry.getValue(), closing);
+            }
+            this.cache.clear();
+            this.openedFiles.clear();
+        }
+        close(closing);
+    }
+
+    public synchronized int size() {
+        return this.cache.size();
+    }
+
+    public long getHitCount() {
+        return this.hitCount.sum();
+    }
+
+    public long getMissCount() {
+        return this.missCount.sum();
+    }
+
+    /**
+     * Get the hit rate of lookups
+     * @return hit rate, 0 if never looked up
+     */
+    public double getHitRate() {
+        long hits = getHitCount();
+        long total = hits + getMissCount();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    /**
+     * Get count of files opened again after their jar files were evicted by size
+     * @return reopen count
+     */
+    public long getReopenCount() {
+        return this.reopenCount.sum();
+    }
+
+    public long getEvictCount() {
+        return this.evictCount.sum();
+    }
+
+    /**
+     * Get the root files of {@code jar:file:...!/} urls
+     * @param urls classpath urls
+     * @return root files
+     */
+    public static Set<File> getRootFiles(URL[] urls) {
+        Set<File> rootFiles = new HashSet<>();
+        if (urls == null) {
+            return rootFiles;
+        }
+        for (URL url : urls) {
+            if (!JAR_PROTOCOL.equals(url.getProtocol())) {
+                continue;
+            }
+            String spec = url.getFile();
+            int separatorIndex = spec.indexOf(SEPARATOR);
+            if (separatorIndex > 0 && spec.startsWith(FILE_PROTOCOL)) {
+                rootFiles
+                    .add(FileUtils.file(spec.substring(FILE_PROTOCOL.length(), separatorIndex)));
+            }
+        }
+        return rootFiles;
+    }
+
+}
@@ -0,0 +1,194 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.ark.loader;
+
+import com.alipay.sofa.ark.common.util.FileUtils;
+import com.alipay.sofa.ark.loader.archive.JarFileArchive;
+import com.alipay.sofa.ark.spi.archive.Archive;
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.io.File;
+import java.math.BigInteger;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+
+import static com.alipay.sofa.ark.spi.constant.Constants.BIZ_SHARED_LIBRARY_ENABLE;
+import static com.alipay.sofa.ark.spi.constant.Constants.BIZ_SHARED_LIBRARY_MAX_COUNT;
+import static org.apache.commons.io.FileUtils.copyFile;
+import static org.apache.commons.io.FileUtils.deleteQuietly;
+import static org.apache.commons.io.FileUtils.readFileToByteArray;
+import static org.apache.commons.io.FileUtils.writeByteArrayToFile;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class JarBizArchiveTest {
+
+    private static final String LIBRARY = "slf4j-api-1.7.30.jar";
+
+    @Test
+    public void testGetUrlsWithSharedLibrary() throws Exception {
+        ClassLoader cl = Thread.currentThread().getContextClassLoader();
+        File bizFile = FileUtils.file(cl.getResource("sample-biz-withjar.jar").getFile());
+        File workDir = FileUtils.createTempDir("shared-library");
+        File firstBizFile = new File(workDir, "sample-biz-1.jar");
+        File secondBizFile = new File(workDir, "sample-biz-2.jar");
+        copyFile(bizFile, firstBizFile);
+        copyFile(bizFile, secondBizFile);
+
+        URL[] urls = new JarBizArchive(new JarFileArchive(firstBizFile)).getUrls();
+        assertTrue(findLibrary(urls).toString().contains(firstBizFile.getName() + "!/lib/"));
+
+        SharedLibraryStore store = SharedLibraryStore.getInstance();
+        System.setProperty(BIZ_SHARED_LIBRARY_ENABLE, "true");
+        try {
+            URL[] firstUrls = new JarBizArchive(new JarFileArchive(firstBizFile)).getUrls();
+            File storedFile = FileUtils.file(findLibrary(firstUrls).getFile().replace("file:", "")
+                .replace("!/", ""));
+            assertTrue(storedFile.getPath().startsWith(store.getDirectory().getPath()));
+            assertEquals(LIBRARY, storedFile.getName());
+            assertEquals(urls.length, firstUrls.length);
+            assertEquals(urls[0], firstUrls[0]);
+
+            long hitCount = store.getHitCount();
+            URL[] secondUrls = new JarBizArchive(new JarFileArchive(secondBizFile)).getUrls();
+            assertNotEquals(firstUrls[0], secondUrls[0]);
+            assertEquals(findLibrary(firstUrls), findLibrary(secondUrls));
+            assertEquals(hitCount + 1, store.getHitCount());
+
+            try (URLClassLoader classLoader = new URLClassLoader(secondUrls, null)) {
+                assertNotNull(classLoader.loadClass("org.slf4j.LoggerFactory"));
+            }
+        } finally {
+            System.clearProperty(BIZ_SHARED_LIBRARY_ENABLE);
+            deleteQuietly(workDir);
+        }
+    }
+
+    @Test
+    public void testSharedLibraryVerifiedOnReuse() throws Exception {
+        ClassLoader cl = Thread.currentThread().getContextClassLoader();
+        File bizFile = FileUtils.file(cl.getResource("sample-biz-withjar.jar").getFile());
+        File storeDir = new File(FileUtils.createTempDir("shared-library-store"), "lib-store");
+        try {
+            JarFileArchive archive = new JarFileArchive(bizFile);
+            Archive.Entry entry = findLibraryEntry(archive);
+            SharedLibraryStore store = new SharedLibraryStore(storeDir);
+            File storedFile = new File(store.getJarFile(archive, entry).getName());
+            assertEquals(sha256Hex(readFileToByteArray(storedFile)), storedFile.getParentFile()
+                .getName());
+            assertEquals(1, store.getExtractCount());
+            if (storeDir.toPath().getFileSystem().supportedFileAttributeViews().contains("posix")) {
+                assertEquals("rwx------",
+                    PosixFilePermissions.toString(Files.getPosixFilePermissions(storeDir.toPath())));
+            }
+
+            // a stored file of the same size but different content is extracted again
+            byte[] bytes = readFileToByteArray(storedFile);
+            writeByteArrayToFile(storedFile, new byte[bytes.length]);
+            SharedLibraryStore restarted = new SharedLibraryStore(storeDir);
+            restarted.getJarFile(archive, entry);
+            assertEquals(1, restarted.getExtractCount());
+            assertArrayEquals(bytes, readFileToByteArray(storedFile));
+
+            // an intact stored file is reused
+            SharedLibraryStore reused = new SharedLibraryStore(storeDir);
+            reused.getJarFile(archive, entry);
+            assertEquals(0, reused.getExtractCount());
+            assertEquals(1, reused.getHitCount());
+        } finally {
+            deleteQuietly(storeDir.getParentFile());
+        }
+    }
+
+    @Test
+    public void testSharedLibraryStoreNotTrusted() throws Exception {
+        File storeDir = new File(FileUtils.createTempDir("shared-library-store"), "lib-store");
+        Assume.assumeTrue(storeDir.toPath().getFileSystem().supportedFileAttributeViews()
+            .contains("posix"));
+        try {
+            Files.createDirectories(storeDir.toPath());
+            Files.setPosixFilePermissions(storeDir.toPath(),
+                PosixFilePermissions.fromString("rwxr-xr-x"));
+            JarFileArchive archive = new JarFileArchive(FileUtils.file(Thread.currentThread()
+                .getContextClassLoader().getResource("sample-biz-withjar.jar").getFile()));
+            SharedLibraryStore store = new SharedLibraryStore(storeDir);
+            assertNull(store.getJarFile(archive, findLibraryEntry(archive)));
+            assertEquals(0, store.getExtractCount());
+        } finally {
+            deleteQuietly(storeDir.getParentFile());
+        }
+    }
+
+    @Test
+    public void testSharedLibraryStorePruned() throws Exception {
+        File storeDir = new File(FileUtils.createTempDir("shared-library-store"), "lib-store");
+        System.setProperty(BIZ_SHARED_LIBRARY_MAX_COUNT, "1");
+        try {
+            JarFileArchive archive = new JarFileArchive(FileUtils.file(Thread.currentThread()
+                .getContextClassLoader().getResource("sample-biz-withjar.jar").getFile()));
+            SharedLibraryStore store = new SharedLibraryStore(storeDir);
+            File storedFile = new File(store.getJarFile(archive, findLibraryEntry(archive))
+                .getName());
+            File otherDir = new File(storeDir, "other");
+            assertTrue(otherDir.mkdir());
+            assertTrue(otherDir.setLastModified(System.currentTimeMillis() + 3600 * 1000));
+
+            // files beyond max count are deleted in the order they were used, except those in use
+            SharedLibraryStore restarted = new SharedLibraryStore(storeDir);
+            deleteQuietly(storedFile);
+            restarted.getJarFile(archive, findLibraryEntry(archive));
+            assertFalse(otherDir.exists());
+            assertTrue(storedFile.isFile());
+        } finally {
+            System.clearProperty(BIZ_SHARED_LIBRARY_MAX_COUNT);
+            deleteQuietly(storeDir.getParentFile());
+        }
+    }
+
+    private Archive.Entry findLibraryEntry(JarFileArchive archive) {
+        for (Archive.Entry entry : archive) {
+            if (entry.getName().endsWith(LIBRARY)) {
+                return entry;
+            }
+        }
+        throw new AssertionError("library not found");
+    }
+
+    private String sha256Hex(byte[] bytes) throws Exception {
+        return String.format("%064x", new BigInteger(1, MessageDigest.getInstance("SHA-256")
+            .digest(bytes)));
+    }
+
+    private URL findLibrary(URL[] urls) {
+        for (URL url : urls) {
+            if (url.toString().contains(LIBRARY)) {
+                return url;
+            }
+        }
+        throw new AssertionError("library not found");
+    }
+
+}
@@ -18,10 +18,16 @@ package com.alipay.sofa.ark.loader.jar;
 
 import org.junit.Test;
 
+import java.io.File;
 import java.net.MalformedURLException;
 import java.net.URL;
 
+import static com.alipay.sofa.ark.spi.constant.Constants.JAR_ROOT_FILE_CACHE_SIZE;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 public class HandlerTest {
 
@@ -58,4 +64,66 @@ public class HandlerTest {
         assertEquals("../", handler.replaceParentDir("/../../"));
         assertEquals("aaa", handler.replaceParentDir("/../aaa/../aaa"));
     }
+
+    @Test
+    public void testRootJarFileCache() throws Exception {
+        File file1 = new File(url.getPath());
+        File file2 = new File(this.getClass().getClassLoader().getResource("sample-biz.jar")
+            .getPath());
+        RootJarFileCache cache = new RootJarFileCache();
+        System.setProperty(JAR_ROOT_FILE_CACHE_SIZE, "1");
+        try {
+            JarFile jarFile1 = cache.get(file1);
+            assertSame(jarFile1, cache.get(file1));
+            assertFalse(jarFile1.isClosed());
+            assertEquals(1, cache.getHitCount());
+            assertEquals(1, cache.getMissCount());
+            assertEquals(0.5, cache.getHitRate(), 0.001);
+
+            // file1 is evicted as the least recently used one
+            cache.get(file2);
+            assertEquals(1, cache.size());
+            assertEquals(1, cache.getEvictCount());
+            assertTrue(jarFile1.isClosed());
+            assertNotSame(jarFile1, cache.get(file1));
+            assertEquals(1, cache.getReopenCount());
+
+            // explicitly evicted file is not counted as reopened
+            assertTrue(cache.evict(file1));
+            assertFalse(cache.evict(file1));
+            assertEquals(0, cache.size());
+            cache.get(file1);
+            assertEquals(1, cache.getReopenCount());
+        } finally {
+            System.clearProperty(JAR_ROOT_FILE_CACHE_SIZE);
+        }
+    }
+
+    @Test
+    public void testRootJarFileCacheKeepsHeldFileOpen() throws Exception {
+        File file1 = new File(url.getPath());
+        File file2 = new File(this.getClass().getClassLoader().getResource("sample-biz.jar")
+            .getPath());
+        RootJarFileCache cache = new RootJarFileCache();
+        System.setProperty(JAR_ROOT_FILE_CACHE_SIZE, "1");
+        try {
+            cache.hold(file1);
+            JarFile jarFile1 = cache.get(file1);
+
+            // held file evicted by size is kept open and cached again without reopening
+            cache.get(file2);
+            assertFalse(jarFile1.isClosed());
+            assertSame(jarFile1, cache.get(file1));
+            assertEquals(0, cache.getReopenCount());
+
+            // explicitly evicted one is closed once released
+            assertTrue(cache.evict(file1));
+            assertFalse(jarFile1.isClosed());
+            cache.release(file1);
+            assertTrue(jarFile1.isClosed());
+            assertNotSame(jarFile1, cache.get(file1));
+        } finally {
+            System.clearProperty(JAR_ROOT_FILE_CACHE_SIZE);
+        }
+    }
 }
@@ -22,8 +22,11 @@ import java.io.File;
 import java.io.IOException;
 import java.net.URL;
 
+import static com.alipay.sofa.ark.api.ArkConfigs.setSystemProperty;
 import static com.alipay.sofa.ark.loader.jar.JarFile.JarFileType.DIRECT;
+import static com.alipay.sofa.ark.spi.constant.Constants.JAR_ENTRY_CACHE_SIZE;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
 
 public class JarFileTest {
 
@@ -41,4 +44,38 @@ public class JarFileTest {
         jarFile.clearCache();
         assertEquals(DIRECT, jarFile.getType());
     }
+
+    @Test
+    public void testEntryCache() throws IOException {
+        URL url = this.getClass().getClassLoader().getResource("sample-biz.jar");
+        setSystemProperty(JAR_ENTRY_CACHE_SIZE, "16");
+        try {
+            JarFile jarFile = new JarFile(new File(url.getPath()));
+            JarFileEntries entries = jarFile.getJarFileEntries();
+            assertEquals(16, entries.getCacheCapacity());
+
+            assertNotNull(jarFile.getEntry("META-INF/MANIFEST.MF"));
+            long misses = entries.getCacheMissCount();
+            long hits = entries.getCacheHitCount();
+            assertNotNull(jarFile.getEntry("META-INF/MANIFEST.MF"));
+            assertEquals(misses, entries.getCacheMissCount());
+            assertEquals(hits + 1, entries.getCacheHitCount());
+
+            jarFile.clearCache();
+            assertNotNull(jarFile.getEntry("META-INF/MANIFEST.MF"));
+            assertEquals(misses + 1, entries.getCacheMissCount());
+            jarFile.close();
+        } finally {
+            System.clearProperty(JAR_ENTRY_CACHE_SIZE);
+        }
+
+        JarFile jarFile = new JarFile(new File(url.getPath()));
+        int entryCount = 0;
+        for (JarEntry ignored : jarFile.getJarFileEntries()) {
+            entryCount++;
+        }
+        // capacity never exceeds entry count
+        assertEquals(Math.min(1024, entryCount), jarFile.getJarFileEntries().getCacheCapacity());
+        jarFile.close();
+    }
 }
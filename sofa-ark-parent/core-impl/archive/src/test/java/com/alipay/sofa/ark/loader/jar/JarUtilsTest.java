@@ -16,6 +16,7 @@
  */
 package com.alipay.sofa.ark.loader.jar;
 
+import com.alipay.sofa.ark.common.util.FileUtils;
 import org.junit.Test;
 
 import java.io.File;
@@ -23,6 +24,8 @@ import java.net.URL;
 
 import static com.alipay.sofa.ark.loader.jar.JarUtils.getArtifactIdFromLocalClassPath;
 import static com.alipay.sofa.ark.loader.jar.JarUtils.searchPomProperties;
+import static org.apache.commons.io.FileUtils.copyFile;
+import static org.apache.commons.io.FileUtils.deleteQuietly;
 import static org.junit.Assert.*;
 
 public class JarUtilsTest {
@@ -55,4 +58,25 @@ public class JarUtilsTest {
         String artifactId = JarUtils.parseArtifactId(url.getPath());
         assertEquals("sofa-ark-sample-springboot-ark", artifactId);
     }
+
+    @Test
+    public void testCacheArtifactId() throws Exception {
+        URL url = this.getClass().getClassLoader().getResource("sample-biz-withjar.jar");
+        File workDir = FileUtils.createTempDir("artifact-id");
+        File bizFile = new File(workDir, "sample-biz.jar");
+        copyFile(new File(url.getPath()), bizFile);
+        String location;
+        try (JarFile jarFile = new JarFile(bizFile)) {
+            assertEquals("sofa-ark-sample-springboot-ark", jarFile.getArtifactId());
+            JarFile nestedJarFile = jarFile.getNestedJarFile(jarFile
+                .getJarEntry("lib/slf4j-api-1.7.30.jar"));
+            assertEquals("slf4j-api", nestedJarFile.getArtifactId());
+            JarUtils.cacheArtifactId(nestedJarFile);
+            location = nestedJarFile.getUrl().getFile();
+        } finally {
+            deleteQuietly(workDir);
+        }
+        // resolved from cache without opening the deleted jar
+        assertEquals("slf4j-api", JarUtils.parseArtifactId(location));
+    }
 }
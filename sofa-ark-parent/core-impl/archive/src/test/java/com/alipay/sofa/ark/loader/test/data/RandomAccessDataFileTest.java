@@ -16,6 +16,7 @@
  */
 package com.alipay.sofa.ark.loader.test.data;
 
+import com.alipay.sofa.ark.loader.data.MappedRandomAccessDataFile;
 import com.alipay.sofa.ark.loader.data.RandomAccessData;
 import com.alipay.sofa.ark.loader.data.RandomAccessDataFile;
 import com.alipay.sofa.ark.loader.test.base.BaseTest;
@@ -24,6 +25,7 @@ import org.junit.Test;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 
 /**
  * @author qilong.zql
@@ -87,4 +89,68 @@ public class RandomAccessDataFileTest extends BaseTest {
         }
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testMappedInChunks() throws IOException {
+        MappedRandomAccessDataFile testFile = new MappedRandomAccessDataFile(getTempDemoFile(), 3);
+        testFile.retain();
+        Assert.assertEquals(16, testFile.getSize());
+        Assert.assertFalse(testFile.isMapped());
+
+        try (InputStream is = testFile.getInputStream(RandomAccessData.ResourceAccess.PER_READ)) {
+            byte[] bytes = new byte[20];
+            Assert.assertEquals(16, is.read(bytes));
+            for (int i = 0; i < 16; ++i) {
+                Assert.assertEquals('1' + i / 2, bytes[i] & 0xFF);
+            }
+            Assert.assertEquals(-1, is.read());
+        }
+        Assert.assertTrue(testFile.isMapped());
+
+        RandomAccessData subData = testFile.getSubsection(2, 10).getSubsection(1, 6);
+        try (InputStream is = subData.getInputStream(RandomAccessData.ResourceAccess.ONCE)) {
+            Assert.assertEquals('2', is.read());
+            Assert.assertEquals(2, is.skip(2));
+            byte[] bytes = new byte[10];
+            Assert.assertEquals(3, is.read(bytes));
+            for (int i = 0; i < 3; ++i) {
+                Assert.assertEquals('4' + i / 2, bytes[i] & 0xFF);
+            }
+        }
+        try {
+            testFile.getSubsection(10, 7);
+            Assert.fail("Should throws IndexOutOfBoundsException");
+        } catch (IndexOutOfBoundsException ex) {
+            // expected
+        }
+
+        testFile.close();
+        Assert.assertFalse(testFile.isMapped());
+    }
+
+    @Test
+    public void testMappedReadAfterClose() throws IOException {
+        MappedRandomAccessDataFile testFile = new MappedRandomAccessDataFile(getTempDemoFile(), 3);
+        testFile.retain();
+        // buffers are views of the mapping, only valid until the file is released
+        ByteBuffer byteBuffer = testFile.getSubsection(3, 3).getByteBuffer();
+        Assert.assertEquals('2', byteBuffer.get(0));
+        InputStream is = testFile.getInputStream(RandomAccessData.ResourceAccess.PER_READ);
+        Assert.assertEquals('1', is.read());
+        testFile.close();
+        Assert.assertFalse(testFile.isMapped());
+
+        try {
+            is.read(new byte[4]);
+            Assert.fail("Should throws IOException");
+        } catch (IOException ex) {
+            // expected
+        }
+
+        testFile.retain();
+        try (InputStream reopened = testFile.getInputStream(RandomAccessData.ResourceAccess.ONCE)) {
+            Assert.assertEquals('1', reopened.read());
+        }
+        testFile.close();
+    }
+
+}
@@ -16,16 +16,34 @@
  */
 package com.alipay.sofa.ark.loader.test.jar;
 
+import com.alipay.sofa.ark.loader.data.MappedRandomAccessDataFile;
 import com.alipay.sofa.ark.loader.jar.JarEntry;
 import com.alipay.sofa.ark.loader.jar.JarFile;
 import com.alipay.sofa.ark.loader.test.base.BaseTest;
 import org.junit.Test;
 
+import static com.alipay.sofa.ark.api.ArkConfigs.setSystemProperty;
+import static com.alipay.sofa.ark.spi.constant.Constants.JAR_MMAP_ENABLE;
+
+import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.jar.Manifest;
 import java.util.zip.ZipEntry;
 
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 /**
  * @author qilong.zql
@@ -56,4 +74,170 @@ public class JarFileTest extends BaseTest {
         assertTrue(nestManifest.getMainAttributes().getValue("Implementation-Version")
             .equals("4.12"));
     }
+
+    @Test
+    public void testMappedJarFile() throws IOException {
+        setSystemProperty(JAR_MMAP_ENABLE, "true");
+        try {
+            JarFile jarFile = new JarFile(getTempDemoZip());
+            assertTrue(jarFile.getManifest().getMainAttributes().getValue("k1").equals("v1"));
+
+            JarFile nestJarFile = jarFile.getNestedJarFile(jarFile
+                .getJarEntry("lib/junit-4.12.jar"));
+            assertTrue(nestJarFile.getManifest().getMainAttributes()
+                .getValue("Implementation-Title").equals("JUnit"));
+            ZipEntry classEntry = nestJarFile.getEntry("org/junit/Test.class");
+            try (InputStream inputStream = nestJarFile.getInputStream(classEntry)) {
+                byte[] bytes = new byte[(int) classEntry.getSize()];
+                int read = 0;
+                while (read < bytes.length) {
+                    read += inputStream.read(bytes, read, bytes.length - read);
+                }
+                assertEquals(0xCAFEBABE, ((bytes[0] & 0xFF) << 24) | ((bytes[1] & 0xFF) << 16)
+                                         | ((bytes[2] & 0xFF) << 8) | (bytes[3] & 0xFF));
+            }
+
+            // nested jar shares mapping of the root jar, closing it twice keeps root jar readable
+            nestJarFile.close();
+            nestJarFile.close();
+            assertTrue(jarFile.containsEntry(TEST_ENTRY));
+            try (InputStream inputStream = jarFile.getInputStream(jarFile.getEntry(TEST_ENTRY))) {
+                inputStream.read();
+            }
+            jarFile.close();
+        } finally {
+            setSystemProperty(JAR_MMAP_ENABLE, "");
+        }
+    }
+
+    @Test
+    public void testRootMappingReleasedWithNestedJarFiles() throws IOException {
+        setSystemProperty(JAR_MMAP_ENABLE, "true");
+        try {
+            MappedJarFile jarFile = new MappedJarFile(getTempDemoZip());
+            JarEntry jarEntry = jarFile.getJarEntry("lib/junit-4.12.jar");
+            JarFile nestJarFile = jarFile.getNestedJarFile(jarEntry);
+            ZipEntry classEntry = nestJarFile.getEntry("org/junit/Test.class");
+            try (InputStream inputStream = nestJarFile.getInputStream(classEntry)) {
+                assertEquals(0xCA, inputStream.read());
+            }
+            assertTrue(jarFile.isMapped());
+
+            // nested jar file is left open, it's closed along with the root jar file
+            jarFile.close();
+            assertFalse(jarFile.isMapped());
+            try {
+                nestJarFile.getInputStream(classEntry).read();
+                fail("Should throws IOException");
+            } catch (IOException ex) {
+                // expected
+            }
+
+            // nor can it be opened again through the released root
+            try {
+                jarFile.getNestedJarFile(jarEntry);
+                fail("Should throws IOException");
+            } catch (IOException ex) {
+                // expected
+            }
+            assertFalse(jarFile.isMapped());
+        } finally {
+            setSystemProperty(JAR_MMAP_ENABLE, "");
+        }
+    }
+
+    @Test
+    public void testNestedJarFileReusedConcurrently() throws Exception {
+        final JarFile jarFile = new JarFile(getTempDemoZip());
+        final JarEntry jarEntry = jarFile.getJarEntry("lib/junit-4.12.jar");
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<JarFile>> futures = new ArrayList<>();
+            for (int i = 0; i < 32; i++) {
+                futures.add(executor.submit(() -> {
+                    JarFile nestJarFile = jarFile.getNestedJarFile(jarEntry);
+                    try (InputStream inputStream = nestJarFile.getInputStream(nestJarFile
+                        .getEntry("org/junit/Test.class"))) {
+                        assertEquals(0xCA, inputStream.read());
+                    }
+                    return nestJarFile;
+                }));
+            }
+            JarFile nestJarFile = futures.get(0).get();
+            for (Future<JarFile> future : futures) {
+                assertSame(nestJarFile, future.get());
+            }
+
+            nestJarFile.close();
+            JarFile reopened = jarFile.getNestedJarFile(jarEntry);
+            assertNotSame(nestJarFile, reopened);
+            assertSame(reopened, jarFile.getNestedJarFile(jarEntry));
+        } finally {
+            executor.shutdown();
+            jarFile.close();
+        }
+    }
+
+    @Test
+    public void testGetByteBuffer() throws IOException {
+        assertEntryByteBuffer(false);
+        setSystemProperty(JAR_MMAP_ENABLE, "true");
+        try {
+            assertEntryByteBuffer(true);
+        } finally {
+            setSystemProperty(JAR_MMAP_ENABLE, "");
+        }
+    }
+
+    private void assertEntryByteBuffer(boolean mapped) throws IOException {
+        JarFile jarFile = new JarFile(getTempDemoZip());
+        try {
+            // stored entry is a view of the jar when it is mapped
+            JarEntry nestEntry = jarFile.getJarEntry("lib/junit-4.12.jar");
+            assertEquals(ZipEntry.STORED, nestEntry.getMethod());
+            ByteBuffer stored = jarFile.getByteBuffer(nestEntry);
+            assertTrue(stored.isReadOnly());
+            assertEquals(mapped, stored.isDirect());
+            assertArrayEquals(readFully(jarFile, nestEntry), toBytes(stored));
+
+            JarFile nestJarFile = jarFile.getNestedJarFile(nestEntry);
+            ZipEntry classEntry = nestJarFile.getEntry("org/junit/Test.class");
+            assertEquals(ZipEntry.DEFLATED, classEntry.getMethod());
+            ByteBuffer deflated = nestJarFile.getByteBuffer(classEntry);
+            assertTrue(deflated.isReadOnly());
+            assertFalse(deflated.isDirect());
+            assertEquals(classEntry.getSize(), deflated.remaining());
+            assertArrayEquals(readFully(nestJarFile, classEntry), toBytes(deflated));
+        } finally {
+            jarFile.close();
+        }
+    }
+
+    static class MappedJarFile extends JarFile {
+
+        MappedJarFile(File file) throws IOException {
+            super(file);
+        }
+
+        boolean isMapped() {
+            return ((MappedRandomAccessDataFile) getRootJarFile()).isMapped();
+        }
+    }
+
+    private byte[] readFully(JarFile jarFile, ZipEntry entry) throws IOException {
+        try (InputStream inputStream = jarFile.getInputStream(entry)) {
+            byte[] bytes = new byte[(int) entry.getSize()];
+            int read = 0;
+            while (read < bytes.length) {
+                read += inputStream.read(bytes, read, bytes.length - read);
+            }
+            return bytes;
+        }
+    }
+
+    private byte[] toBytes(ByteBuffer byteBuffer) {
+        byte[] bytes = new byte[byteBuffer.remaining()];
+        byteBuffer.duplicate().get(bytes);
+        return bytes;
+    }
 }
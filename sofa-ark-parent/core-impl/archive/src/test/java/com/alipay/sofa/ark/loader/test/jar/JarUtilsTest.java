@@ -17,6 +17,7 @@
 package com.alipay.sofa.ark.loader.test.jar;
 
 import com.alipay.sofa.ark.common.util.FileUtils;
+import com.alipay.sofa.ark.loader.jar.Handler;
 import com.alipay.sofa.ark.loader.jar.JarUtils;
 import com.google.common.io.Files;
 import org.junit.Test;
@@ -36,6 +37,7 @@ import static com.alipay.sofa.ark.loader.jar.JarUtils.parseArtifactId;
 import static java.lang.String.format;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 
 public class JarUtilsTest {
 
@@ -161,6 +163,20 @@ public class JarUtilsTest {
             method.invoke(JarUtils.class, jar.getFile() + "!/lib/slf4j-api-1.7.30.jar"));
     }
 
+    @Test
+    public void testNestedJarSharesCachedRoot() throws Exception {
+        URL jar = JarUtilsTest.class.getResource("/sample-biz-withjar.jar");
+        String jarLocation = jar.getFile() + "!/lib/slf4j-api-1.7.30.jar";
+        com.alipay.sofa.ark.loader.jar.JarFile jarFile = JarUtils
+            .getNestedRootJarFromJarLocation(jarLocation);
+        // the root is opened once and nested jar files are memoized by it
+        assertSame(jarFile, JarUtils.getNestedRootJarFromJarLocation(jarLocation));
+        com.alipay.sofa.ark.loader.jar.JarFile rootJarFile = Handler.getRootFileCache().get(
+            FileUtils.file(jar.getFile()));
+        assertSame(jarFile,
+            rootJarFile.getNestedJarFile(rootJarFile.getJarEntry("lib/slf4j-api-1.7.30.jar")));
+    }
+
     @Test
     public void testParseArtifactIdFromJarInJarPom() {
         URL jar = JarUtilsTest.class.getResource("/sample-biz-withjar.jar");
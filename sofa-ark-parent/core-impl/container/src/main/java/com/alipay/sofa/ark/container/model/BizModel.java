@@ -27,6 +27,9 @@ import com.alipay.sofa.ark.common.util.ParseUtils;
 import com.alipay.sofa.ark.common.util.StringUtils;
 import com.alipay.sofa.ark.container.service.ArkServiceContainerHolder;
 import com.alipay.sofa.ark.container.service.classloader.AbstractClasspathClassLoader;
+import com.alipay.sofa.ark.container.service.classloader.ExportOverrideClassCache;
+import com.alipay.sofa.ark.container.service.classloader.NameRuleMatcher;
+import com.alipay.sofa.ark.container.service.classloader.PersistentClassIndex;
 import com.alipay.sofa.ark.exception.ArkRuntimeException;
 import com.alipay.sofa.ark.loader.jar.JarUtils;
 import com.alipay.sofa.ark.spi.constant.Constants;
@@ -38,6 +41,7 @@ import com.alipay.sofa.ark.spi.event.biz.BeforeBizRecycleEvent;
 import com.alipay.sofa.ark.spi.event.biz.BeforeBizStartupEvent;
 import com.alipay.sofa.ark.spi.event.biz.BeforeBizStopEvent;
 import com.alipay.sofa.ark.spi.model.Biz;
+import com.alipay.sofa.ark.spi.model.BizOperationTimings;
 import com.alipay.sofa.ark.spi.model.BizState;
 import com.alipay.sofa.ark.spi.service.biz.BizManagerService;
 import com.alipay.sofa.ark.spi.service.event.EventAdminService;
@@ -47,6 +51,7 @@ import java.io.IOException;
 import java.net.URL;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
@@ -68,51 +73,59 @@ import static org.apache.commons.io.FileUtils.deleteQuietly;
  * @since 0.1.0
  */
 public class BizModel implements Biz {
-    private String               bizName;
+    private String                   bizName;
 
-    private String               bizVersion;
+    private String                   bizVersion;
 
-    private BizState             bizState;
+    private BizState                 bizState;
 
-    private String               mainClass;
+    private String                   mainClass;
 
-    private String               webContextPath;
+    private String                   webContextPath;
 
-    private URL[]                urls;
+    private URL[]                    urls;
 
-    private URL                  bizUrl;
+    private URL                      bizUrl;
 
-    private URL[]                pluginUrls;
+    private URL[]                    pluginUrls;
 
-    private ClassLoader          classLoader;
+    private ClassLoader              classLoader;
 
-    private Map<String, String>  attributes                    = new ConcurrentHashMap<>();
+    private Map<String, String>      attributes                    = new ConcurrentHashMap<>();
 
-    private int                  priority                      = DEFAULT_PRECEDENCE;
+    private int                      priority                      = DEFAULT_PRECEDENCE;
 
-    private Set<String>          denyImportPackages;
+    private Set<String>              denyImportPackages;
 
-    private Set<String>          denyImportPackageNodes        = new HashSet<>();
+    private Set<String>              denyImportPackageNodes        = new HashSet<>();
 
-    private Set<String>          denyImportPackageStems        = new HashSet<>();
+    private Set<String>              denyImportPackageStems        = new HashSet<>();
 
-    private Set<String>          denyImportClasses;
+    private Set<String>              denyImportClasses;
 
-    private Set<String>          denyImportResources           = new HashSet<>();
+    private Set<String>              denyImportResources           = new HashSet<>();
 
-    private Set<String>          injectPluginDependencies      = new HashSet<>();
-    private Set<String>          injectExportPackages          = new HashSet<>();
+    private Set<String>              injectPluginDependencies      = new HashSet<>();
+    private Set<String>              injectExportPackages          = new HashSet<>();
 
-    private Set<String>          declaredLibraries             = new LinkedHashSet<>();
-    private Map<String, Boolean> declaredCacheMap              = new ConcurrentHashMap<>();
+    private Set<String>              startAfterBizNames            = new HashSet<>();
 
-    private Set<String>          denyPrefixImportResourceStems = new HashSet<>();
+    private Set<String>              declaredLibraries             = new LinkedHashSet<>();
+    private Map<String, Boolean>     declaredCacheMap              = new ConcurrentHashMap<>();
 
-    private Set<String>          denySuffixImportResourceStems = new HashSet<>();
+    private Set<String>              denyPrefixImportResourceStems = new HashSet<>();
 
-    private File                 bizTempWorkDir;
+    private Set<String>              denySuffixImportResourceStems = new HashSet<>();
 
-    private List<BizStateRecord> bizStateRecords               = new CopyOnWriteArrayList<>();
+    private volatile NameRuleMatcher denyImportMatcher;
+
+    private File                     bizTempWorkDir;
+
+    private File                     classIndexFile;
+
+    private boolean                  classIndexPersisted;
+
+    private List<BizStateRecord>     bizStateRecords               = new CopyOnWriteArrayList<>();
 
     public BizModel setBizName(String bizName) {
         AssertUtils.isFalse(StringUtils.isEmpty(bizName), "Biz Name must not be empty!");
@@ -186,12 +199,14 @@ public class BizModel implements Biz {
             Constants.MANIFEST_VALUE_SPLIT);
         ParseUtils.parsePackageNodeAndStem(this.denyImportPackages, this.denyImportPackageStems,
             this.denyImportPackageNodes);
+        this.denyImportMatcher = null;
         return this;
     }
 
     public BizModel setDenyImportClasses(String denyImportClasses) {
         this.denyImportClasses = StringUtils.strToSet(denyImportClasses,
             Constants.MANIFEST_VALUE_SPLIT);
+        this.denyImportMatcher = null;
         return this;
     }
 
@@ -200,6 +215,7 @@ public class BizModel implements Biz {
             StringUtils.strToSet(denyImportResources, Constants.MANIFEST_VALUE_SPLIT),
             this.denyPrefixImportResourceStems, denySuffixImportResourceStems,
             this.denyImportResources);
+        this.denyImportMatcher = null;
         return this;
     }
 
@@ -228,8 +244,24 @@ public class BizModel implements Biz {
         return injectExportPackages;
     }
 
+    public BizModel setStartAfterBizNames(String startAfterBizNames) {
+        this.startAfterBizNames = StringUtils.strToSet(startAfterBizNames,
+            Constants.MANIFEST_VALUE_SPLIT);
+        return this;
+    }
+
+    /**
+     * Get names of bizs which must be started before this biz when bizs are deployed in parallel
+     *
+     * @return biz names
+     */
+    public Set<String> getStartAfterBizNames() {
+        return startAfterBizNames;
+    }
+
     private void addStateChangeLog(StateChangeReason reason, String message) {
-        bizStateRecords.add(new BizStateRecord(new Date(), bizState, reason, message));
+        bizStateRecords.add(new BizStateRecord(new Date(), bizState, reason, message,
+            BizOperationTimings.current()));
     }
 
     @Override
@@ -311,6 +343,21 @@ public class BizModel implements Biz {
         return denySuffixImportResourceStems;
     }
 
+    /**
+     * get deny import rules compiled from deny import classes, packages and resources
+     * @return
+     */
+    public NameRuleMatcher getDenyImportMatcher() {
+        NameRuleMatcher matcher = denyImportMatcher;
+        if (matcher == null) {
+            matcher = new NameRuleMatcher(denyImportClasses, denyImportPackageNodes,
+                denyImportPackageStems, denyImportResources, denyPrefixImportResourceStems,
+                denySuffixImportResourceStems);
+            denyImportMatcher = matcher;
+        }
+        return matcher;
+    }
+
     @Override
     public void start(String[] args) throws Throwable {
         doStart(args, null);
@@ -335,8 +382,10 @@ public class BizModel implements Biz {
             if (!isMasterBizAndEmbedEnable()) {
                 long start = System.currentTimeMillis();
                 ArkLoggerFactory.getDefaultLogger().info("Ark biz {} start.", getIdentity());
+                long mainStart = System.nanoTime();
                 MainMethodRunner mainMethodRunner = new MainMethodRunner(mainClass, args, envs);
                 mainMethodRunner.run();
+                BizOperationTimings.record(BizOperationTimings.MAIN_METHOD, mainStart);
                 // this can trigger health checker handler
                 eventAdminService.sendEvent(new AfterBizStartupEvent(this));
                 ArkLoggerFactory.getDefaultLogger().info("Ark biz {} started in {} ms",
@@ -350,6 +399,12 @@ public class BizModel implements Biz {
             ClassLoaderUtils.popContextClassLoader(oldClassLoader);
         }
 
+        // persist class index after startup, so the declared verdicts made in startup are kept
+        if (classIndexFile != null && !classIndexPersisted) {
+            PersistentClassIndex.write(classIndexFile, this);
+            classIndexPersisted = true;
+        }
+
         BizManagerService bizManagerService = ArkServiceContainerHolder.getContainer().getService(
             BizManagerService.class);
 
@@ -374,6 +429,7 @@ public class BizModel implements Biz {
                 StateChangeReason.SWITCHED, String.format("switch to new biz %s", getIdentity()));
             setBizState(BizState.ACTIVATED, StateChangeReason.STARTED,
                 String.format("switch from old biz: %s", currentActiveBiz.getIdentity()));
+            AbstractClasspathClassLoader.bumpCacheGenerations(this);
         } else {
             // case3: always deactivate the new version and keep old module activated according to ACTIVATE_NEW_MODULE config
             setBizState(BizState.DEACTIVATED, StateChangeReason.STARTED, "start but is deactivated");
@@ -420,14 +476,18 @@ public class BizModel implements Biz {
             if (!isStopFailed || (isStopFailed && removeInstanceAfterStopFailed)) {
                 BizManagerService bizManagerService = ArkServiceContainerHolder.getContainer()
                     .getService(BizManagerService.class);
+                long phaseStart = System.nanoTime();
                 bizManagerService.unRegisterBiz(bizName, bizVersion);
+                BizOperationTimings.record(BizOperationTimings.UNREGISTER_BIZ, phaseStart);
                 setBizState(BizState.UNRESOLVED, StateChangeReason.STOPPED);
                 eventAdminService.sendEvent(new BeforeBizRecycleEvent(this));
                 urls = null;
                 denyImportPackages = null;
                 denyImportClasses = null;
                 denyImportResources = null;
+                denyImportMatcher = null;
                 // close classloader
+                phaseStart = System.nanoTime();
                 if (classLoader instanceof AbstractClasspathClassLoader) {
                     try {
                         ((AbstractClasspathClassLoader) classLoader).close();
@@ -436,11 +496,22 @@ public class BizModel implements Biz {
                         ArkLoggerFactory.getDefaultLogger().warn(
                             "Ark biz {} close biz classloader fail", getIdentity());
                     }
+                    ExportOverrideClassCache.getInstance().invalidate(classLoader);
                 }
+                BizOperationTimings.record(BizOperationTimings.CLASSLOADER_CLOSE, phaseStart);
                 eventAdminService.sendEvent(new AfterBizStopEvent(this));
                 eventAdminService.unRegister(classLoader);
                 classLoader = null;
+                phaseStart = System.nanoTime();
                 recycleBizTempWorkDir(bizTempWorkDir);
+                if (classIndexFile != null) {
+                    // index is kept for reinstall, but bounded as every saved biz file has its own
+                    PersistentClassIndex.prune(classIndexFile.getParentFile(), ArkConfigs
+                        .getIntValue(Constants.BIZ_CLASS_INDEX_PERSIST_MAX_COUNT,
+                            Constants.DEFAULT_BIZ_CLASS_INDEX_PERSIST_MAX_COUNT));
+                    classIndexFile = null;
+                }
+                BizOperationTimings.record(BizOperationTimings.TEMP_DIR_RECYCLE, phaseStart);
                 bizTempWorkDir = null;
             }
             ClassLoaderUtils.popContextClassLoader(oldClassLoader);
@@ -496,6 +567,32 @@ public class BizModel implements Biz {
         return this;
     }
 
+    /**
+     * set the file to persist class index to after biz started
+     * @param classIndexFile
+     * @return
+     */
+    public BizModel setClassIndexFile(File classIndexFile) {
+        return setClassIndexFile(classIndexFile, false);
+    }
+
+    /**
+     * set the file of class index, it's persisted after biz started unless loaded from the file,
+     * and index files next to it are pruned when biz is recycled
+     * @param classIndexFile
+     * @param persisted whether the class index is loaded from the file
+     * @return
+     */
+    public BizModel setClassIndexFile(File classIndexFile, boolean persisted) {
+        this.classIndexFile = classIndexFile;
+        this.classIndexPersisted = persisted;
+        return this;
+    }
+
+    public File getClassIndexFile() {
+        return classIndexFile;
+    }
+
     private boolean isMasterBizAndEmbedEnable() {
         return this == ArkClient.getMasterBiz() && ArkConfigs.isEmbedEnable();
     }
@@ -537,6 +634,15 @@ public class BizModel implements Biz {
         return true;
     }
 
+    public Map<String, Boolean> getDeclaredCacheMap() {
+        return Collections.unmodifiableMap(declaredCacheMap);
+    }
+
+    public BizModel addDeclaredCache(Map<String, Boolean> declaredCache) {
+        declaredCacheMap.putAll(declaredCache);
+        return this;
+    }
+
     private boolean checkDeclaredWithCache(String libraryFile) {
         // set key as jar, but need to checkDeclared by specific file.
         return declaredCacheMap.computeIfAbsent(libraryFile, this::doCheckDeclared);
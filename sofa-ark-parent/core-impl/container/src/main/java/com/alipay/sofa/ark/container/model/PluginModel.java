@@ -20,6 +20,7 @@ import com.alipay.sofa.ark.common.util.ClassLoaderUtils;
 import com.alipay.sofa.ark.common.util.ParseUtils;
 import com.alipay.sofa.ark.common.util.StringUtils;
 import com.alipay.sofa.ark.container.service.ArkServiceContainerHolder;
+import com.alipay.sofa.ark.container.service.classloader.NameRuleMatcher;
 import com.alipay.sofa.ark.exception.ArkRuntimeException;
 import com.alipay.sofa.ark.spi.constant.Constants;
 import com.alipay.sofa.ark.spi.event.plugin.AfterPluginStartupEvent;
@@ -43,62 +44,64 @@ import java.util.Set;
  */
 public class PluginModel implements Plugin {
 
-    private String             pluginName;
+    private String                   pluginName;
 
-    private String             groupId;
+    private String                   groupId;
 
-    private String             artifactId;
+    private String                   artifactId;
 
-    private String             version;
+    private String                   version;
 
-    private int                priority                  = DEFAULT_PRECEDENCE;
+    private int                      priority                  = DEFAULT_PRECEDENCE;
 
     /**
      * 0. default as 'classLoader' for load those classes in plugin classLoader
      * 1. 'override' for load those classes only as files, and those will be reload in other classLoaders.
      */
-    public static final String EXPORTMODE_CLASSLOADER    = "classLoader";
-    public static final String EXPORTMODE_OVERRIDE       = "override";
-    public static final String EXPORTMODE_UNKNOWN        = "unknown";
-    private String             exportMode                = EXPORTMODE_CLASSLOADER;
+    public static final String       EXPORTMODE_CLASSLOADER    = "classLoader";
+    public static final String       EXPORTMODE_OVERRIDE       = "override";
+    public static final String       EXPORTMODE_UNKNOWN        = "unknown";
+    private String                   exportMode                = EXPORTMODE_CLASSLOADER;
 
-    private Set<String>        exportPackages;
+    private Set<String>              exportPackages;
 
-    private Set<String>        exportPackageNodes        = new HashSet<>();
+    private Set<String>              exportPackageNodes        = new HashSet<>();
 
-    private Set<String>        exportPackageStems        = new HashSet<>();
+    private Set<String>              exportPackageStems        = new HashSet<>();
 
-    private Set<String>        exportClasses;
+    private Set<String>              exportClasses;
 
-    private Set<String>        importPackages;
+    private Set<String>              importPackages;
 
-    private Set<String>        importPackageNodes        = new HashSet<>();
+    private Set<String>              importPackageNodes        = new HashSet<>();
 
-    private Set<String>        importPackageStems        = new HashSet<>();
+    private Set<String>              importPackageStems        = new HashSet<>();
 
-    private Set<String>        importClasses;
+    private Set<String>              importClasses;
 
-    private Set<String>        importResources           = new HashSet<>();
+    private Set<String>              importResources           = new HashSet<>();
 
-    private Set<String>        importPrefixResourceStems = new HashSet<>();
-    private Set<String>        importSuffixResourceStems = new HashSet<>();
+    private Set<String>              importPrefixResourceStems = new HashSet<>();
+    private Set<String>              importSuffixResourceStems = new HashSet<>();
 
-    private Set<String>        exportResources           = new HashSet<>();
+    private volatile NameRuleMatcher importMatcher;
 
-    private Set<String>        exportPrefixResourceStems = new HashSet<>();
-    private Set<String>        exportSuffixResourceStems = new HashSet<>();
+    private Set<String>              exportResources           = new HashSet<>();
 
-    private String             activator;
+    private Set<String>              exportPrefixResourceStems = new HashSet<>();
+    private Set<String>              exportSuffixResourceStems = new HashSet<>();
 
-    private URL[]              urls;
+    private String                   activator;
 
-    private URL                pluginUrl;
+    private URL[]                    urls;
 
-    private ClassLoader        pluginClassLoader;
+    private URL                      pluginUrl;
 
-    private PluginContext      pluginContext;
+    private ClassLoader              pluginClassLoader;
 
-    private PluginActivator    pluginActivator;
+    private PluginContext            pluginContext;
+
+    private PluginActivator          pluginActivator;
 
     public PluginModel setPluginName(String pluginName) {
         this.pluginName = pluginName;
@@ -164,11 +167,13 @@ public class PluginModel implements Plugin {
         this.importPackages = StringUtils.strToSet(importPackages, Constants.MANIFEST_VALUE_SPLIT);
         ParseUtils.parsePackageNodeAndStem(this.importPackages, this.importPackageStems,
             this.importPackageNodes);
+        this.importMatcher = null;
         return this;
     }
 
     public PluginModel setImportClasses(String importClasses) {
         this.importClasses = StringUtils.strToSet(importClasses, Constants.MANIFEST_VALUE_SPLIT);
+        this.importMatcher = null;
         return this;
     }
 
@@ -176,6 +181,7 @@ public class PluginModel implements Plugin {
         ParseUtils.parseResourceAndStem(
             StringUtils.strToSet(importResources, Constants.MANIFEST_VALUE_SPLIT),
             this.importPrefixResourceStems, importSuffixResourceStems, this.importResources);
+        this.importMatcher = null;
         return this;
     }
 
@@ -309,6 +315,20 @@ public class PluginModel implements Plugin {
         return importSuffixResourceStems;
     }
 
+    /**
+     * get import rules compiled from import classes, packages and resources
+     * @return
+     */
+    public NameRuleMatcher getImportMatcher() {
+        NameRuleMatcher matcher = importMatcher;
+        if (matcher == null) {
+            matcher = new NameRuleMatcher(importClasses, importPackageNodes, importPackageStems,
+                importResources, importPrefixResourceStems, importSuffixResourceStems);
+            importMatcher = matcher;
+        }
+        return matcher;
+    }
+
     @Override
     public Set<String> getExportResources() {
         return exportResources;
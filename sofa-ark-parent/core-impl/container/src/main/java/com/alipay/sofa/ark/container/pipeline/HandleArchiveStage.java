@@ -20,6 +20,7 @@ import com.alipay.sofa.ark.api.ArkClient;
 import com.alipay.sofa.ark.api.ArkConfigs;
 import com.alipay.sofa.ark.common.log.ArkLoggerFactory;
 import com.alipay.sofa.ark.common.util.AssertUtils;
+import com.alipay.sofa.ark.common.util.ClassLoaderUtils;
 import com.alipay.sofa.ark.common.util.StringUtils;
 import com.alipay.sofa.ark.exception.ArkRuntimeException;
 import com.alipay.sofa.ark.loader.DirectoryBizArchive;
@@ -40,11 +41,17 @@ import com.google.inject.Inject;
 import com.google.inject.Singleton;
 
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
 import java.util.jar.Attributes;
 
+import static com.alipay.sofa.ark.spi.constant.Constants.ARCHIVE_PARALLEL_ENABLE;
+import static com.alipay.sofa.ark.spi.constant.Constants.ARCHIVE_PARALLEL_POOL_SIZE;
 import static com.alipay.sofa.ark.spi.constant.Constants.ARK_BIZ_NAME;
 import static com.alipay.sofa.ark.spi.constant.Constants.BIZ_ACTIVE_EXCLUDE;
 import static com.alipay.sofa.ark.spi.constant.Constants.BIZ_ACTIVE_INCLUDE;
@@ -91,10 +98,12 @@ public class HandleArchiveStage implements PipelineStage {
                     "Master biz should be configured when using dynamic config.");
             }
 
+            List<Biz> bizs = handleInOrder(bizArchives, bizFactoryService::createBiz);
             int bizCount = 0;
-            for (BizArchive bizArchive : bizArchives) {
+            for (int i = 0; i < bizArchives.size(); i++) {
+                BizArchive bizArchive = bizArchives.get(i);
                 // NOTE: biz name can not be null!
-                Biz biz = bizFactoryService.createBiz(bizArchive);
+                Biz biz = bizs.get(i);
                 if (bizArchive instanceof DirectoryBizArchive) {
                     if (!((DirectoryBizArchive) bizArchive).isTestMode()) {
                         bizManagerService.registerBiz(biz);
@@ -156,9 +165,11 @@ public class HandleArchiveStage implements PipelineStage {
                 }
             }
 
-            for (PluginArchive pluginArchive : pluginArchives) {
-                Plugin plugin = pluginFactoryService.createPlugin(pluginArchive, exportUrls,
-                    exportPackages);
+            final URL[] masterExportUrls = exportUrls;
+            List<Plugin> plugins = handleInOrder(pluginArchives,
+                pluginArchive -> pluginFactoryService.createPlugin(pluginArchive, masterExportUrls,
+                    exportPackages));
+            for (Plugin plugin : plugins) {
                 if (!isPluginExcluded(plugin)) {
                     pluginManagerService.registerPlugin(plugin);
                 } else {
@@ -180,9 +191,10 @@ public class HandleArchiveStage implements PipelineStage {
         ArkConfigs.putStringValue(Constants.MASTER_BIZ, masterBiz.getBizName());
         ExecutableArchive executableArchive = pipelineContext.getExecutableArchive();
         List<PluginArchive> pluginArchives = executableArchive.getPluginArchives();
-        for (PluginArchive pluginArchive : pluginArchives) {
-            Plugin plugin = pluginFactoryService.createEmbedPlugin(pluginArchive,
-                masterBizClassLoader);
+        List<Plugin> plugins = handleInOrder(pluginArchives,
+            pluginArchive -> pluginFactoryService.createEmbedPlugin(pluginArchive,
+                masterBizClassLoader));
+        for (Plugin plugin : plugins) {
             if (!isPluginExcluded(plugin)) {
                 pluginManagerService.registerPlugin(plugin);
             } else {
@@ -195,12 +207,64 @@ public class HandleArchiveStage implements PipelineStage {
     public void processStaticBizFromClasspath(PipelineContext pipelineContext) throws Exception {
         ExecutableArchive executableArchive = pipelineContext.getExecutableArchive();
         List<BizArchive> bizArchives = executableArchive.getBizArchives();
-        for (BizArchive bizArchive : bizArchives) {
-            Biz biz = bizFactoryService.createBiz(bizArchive);
+        for (Biz biz : handleInOrder(bizArchives, bizFactoryService::createBiz)) {
             bizManagerService.registerBiz(biz);
         }
     }
 
+    /**
+     * Handle archives, in parallel on a fork-join pool if {@link Constants#ARCHIVE_PARALLEL_ENABLE}
+     * is set, the results are in the order of archives so that registration is deterministic.
+     *
+     * @param archives archives
+     * @param handler handler to create model from archive
+     * @return models in the order of archives
+     */
+    <A, T> List<T> handleInOrder(List<A> archives, ArchiveHandler<A, T> handler) throws Exception {
+        List<T> results = new ArrayList<>(archives.size());
+        if (archives.size() < 2 || !ArkConfigs.getBooleanValue(ARCHIVE_PARALLEL_ENABLE, false)) {
+            for (A archive : archives) {
+                results.add(handler.handle(archive));
+            }
+            return results;
+        }
+
+        int parallelism = Math.min(archives.size(), ArkConfigs.getIntValue(
+            ARCHIVE_PARALLEL_POOL_SIZE, Runtime.getRuntime().availableProcessors()));
+        ForkJoinPool forkJoinPool = new ForkJoinPool(Math.max(1, parallelism));
+        final ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+        try {
+            List<CompletableFuture<T>> futures = new ArrayList<>(archives.size());
+            for (final A archive : archives) {
+                futures.add(CompletableFuture.supplyAsync(() -> {
+                    ClassLoader oldClassLoader = ClassLoaderUtils.pushContextClassLoader(contextClassLoader);
+                    try {
+                        return handler.handle(archive);
+                    } catch (Exception e) {
+                        throw new CompletionException(e);
+                    } finally {
+                        ClassLoaderUtils.popContextClassLoader(oldClassLoader);
+                    }
+                }, forkJoinPool));
+            }
+            for (CompletableFuture<T> future : futures) {
+                try {
+                    results.add(future.join());
+                } catch (CompletionException e) {
+                    Throwable cause = e.getCause();
+                    throw cause instanceof Exception ? (Exception) cause : e;
+                }
+            }
+            return results;
+        } finally {
+            forkJoinPool.shutdownNow();
+        }
+    }
+
+    interface ArchiveHandler<A, T> {
+        T handle(A archive) throws Exception;
+    }
+
     public boolean isPluginExcluded(Plugin plugin) {
         String pluginName = plugin.getPluginName();
         String includePluginConf = ArkConfigs.getStringValue(PLUGIN_ACTIVE_INCLUDE);
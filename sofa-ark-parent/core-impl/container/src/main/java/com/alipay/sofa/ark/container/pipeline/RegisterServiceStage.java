@@ -19,7 +19,11 @@ package com.alipay.sofa.ark.container.pipeline;
 import com.alipay.sofa.ark.container.registry.ContainerServiceProvider;
 import com.alipay.sofa.ark.container.service.ArkServiceContainerHolder;
 import com.alipay.sofa.ark.container.service.biz.BizCommandProvider;
+import com.alipay.sofa.ark.container.service.biz.BizRootJarFileEvictHandler;
 import com.alipay.sofa.ark.container.service.biz.DefaultBizDeployer;
+import com.alipay.sofa.ark.container.service.biz.leak.BizLeakCleanHandler;
+import com.alipay.sofa.ark.container.service.biz.leak.BizLeakDetector;
+import com.alipay.sofa.ark.container.service.classloader.ClassLoaderCommandProvider;
 import com.alipay.sofa.ark.container.service.plugin.PluginCommandProvider;
 import com.alipay.sofa.ark.exception.ArkRuntimeException;
 import com.alipay.sofa.ark.spi.pipeline.PipelineContext;
@@ -37,6 +41,7 @@ import com.google.inject.Inject;
 import com.google.inject.Singleton;
 
 import static com.alipay.sofa.ark.spi.constant.Constants.BIZ_COMMAND_UNIQUE_ID;
+import static com.alipay.sofa.ark.spi.constant.Constants.CLASSLOADER_COMMAND_UNIQUE_ID;
 import static com.alipay.sofa.ark.spi.constant.Constants.PLUGIN_COMMAND_UNIQUE_ID;
 
 /**
@@ -49,12 +54,30 @@ import static com.alipay.sofa.ark.spi.constant.Constants.PLUGIN_COMMAND_UNIQUE_I
 @Singleton
 public class RegisterServiceStage implements PipelineStage {
 
+    private static final BizRootJarFileEvictHandler BIZ_ROOT_JAR_FILE_EVICT_HANDLER = new BizRootJarFileEvictHandler();
+
+    private static final BizLeakCleanHandler        BIZ_LEAK_CLEAN_HANDLER          = new BizLeakCleanHandler();
+
+    private static final BizLeakDetector            BIZ_LEAK_DETECTOR               = new BizLeakDetector();
+
     @Inject
-    private RegistryService registryService;
+    private RegistryService                         registryService;
 
     @Override
     public void process(PipelineContext pipelineContext) throws ArkRuntimeException {
         registryDefaultService();
+        registryDefaultEventHandler();
+    }
+
+    /**
+     * Registry event handlers of ark container
+     */
+    private void registryDefaultEventHandler() {
+        EventAdminService eventAdminService = ArkServiceContainerHolder.getContainer().getService(
+            EventAdminService.class);
+        eventAdminService.register(BIZ_ROOT_JAR_FILE_EVICT_HANDLER);
+        eventAdminService.register(BIZ_LEAK_CLEAN_HANDLER);
+        eventAdminService.register(BIZ_LEAK_DETECTOR);
     }
 
     /**
@@ -93,6 +116,8 @@ public class RegisterServiceStage implements PipelineStage {
             PLUGIN_COMMAND_UNIQUE_ID, new ContainerServiceProvider());
         registryService.publishService(CommandProvider.class, new BizCommandProvider(),
             BIZ_COMMAND_UNIQUE_ID, new ContainerServiceProvider());
+        registryService.publishService(CommandProvider.class, new ClassLoaderCommandProvider(
+            BIZ_LEAK_DETECTOR), CLASSLOADER_COMMAND_UNIQUE_ID, new ContainerServiceProvider());
     }
 
 }
\ No newline at end of file
@@ -18,11 +18,17 @@ package com.alipay.sofa.ark.container.service.biz;
 
 import com.alipay.sofa.ark.api.ArkConfigs;
 import com.alipay.sofa.ark.common.util.AssertUtils;
+import com.alipay.sofa.ark.common.log.ArkLoggerFactory;
+import com.alipay.sofa.ark.common.thread.CommonThreadPool;
+import com.alipay.sofa.ark.common.thread.ThreadPoolManager;
 import com.alipay.sofa.ark.common.util.ClassLoaderUtils;
 import com.alipay.sofa.ark.common.util.FileUtils;
+import com.alipay.sofa.ark.common.util.ParallelUnzipper;
 import com.alipay.sofa.ark.common.util.StringUtils;
 import com.alipay.sofa.ark.container.model.BizModel;
 import com.alipay.sofa.ark.container.service.classloader.BizClassLoader;
+import com.alipay.sofa.ark.container.service.classloader.ClassIndex;
+import com.alipay.sofa.ark.container.service.classloader.PersistentClassIndex;
 import com.alipay.sofa.ark.loader.ExplodedBizArchive;
 import com.alipay.sofa.ark.loader.DirectoryBizArchive;
 import com.alipay.sofa.ark.loader.JarBizArchive;
@@ -34,9 +40,11 @@ import com.alipay.sofa.ark.spi.constant.Constants;
 import com.alipay.sofa.ark.spi.model.Biz;
 import com.alipay.sofa.ark.spi.model.BizInfo.StateChangeReason;
 import com.alipay.sofa.ark.spi.model.BizOperation;
+import com.alipay.sofa.ark.spi.model.BizOperationTimings;
 import com.alipay.sofa.ark.spi.model.BizState;
 import com.alipay.sofa.ark.spi.model.Plugin;
 import com.alipay.sofa.ark.spi.service.biz.BizFactoryService;
+import com.alipay.sofa.ark.spi.service.classloader.ClassLoaderService;
 import com.alipay.sofa.ark.spi.service.plugin.PluginManagerService;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
@@ -44,16 +52,24 @@ import com.google.inject.Singleton;
 import java.io.File;
 import java.io.IOException;
 import java.net.URL;
-
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Executor;
 import java.util.jar.Attributes;
 
 import static com.alipay.sofa.ark.spi.constant.Constants.ARK_BIZ_NAME;
 import static com.alipay.sofa.ark.spi.constant.Constants.ARK_BIZ_VERSION;
+import static com.alipay.sofa.ark.spi.constant.Constants.ARK_CLASSLOADER_CACHE_GENERATION_ENABLE;
+import static com.alipay.sofa.ark.spi.constant.Constants.BIZ_CLASS_INDEX_ENABLE;
+import static com.alipay.sofa.ark.spi.constant.Constants.BIZ_CLASS_INDEX_PERSIST_ENABLE;
+import static com.alipay.sofa.ark.spi.constant.Constants.BIZ_UNPACK_DIR_SUFFIX;
+import static com.alipay.sofa.ark.spi.constant.Constants.BIZ_UNPACK_LAZY_ENABLE;
+import static com.alipay.sofa.ark.spi.constant.Constants.BIZ_UNPACK_PARALLELISM;
+import static com.alipay.sofa.ark.spi.constant.Constants.BIZ_UNPACK_THREAD_POOL_NAME;
 import static com.alipay.sofa.ark.spi.constant.Constants.DENY_IMPORT_CLASSES;
 import static com.alipay.sofa.ark.spi.constant.Constants.DENY_IMPORT_PACKAGES;
 import static com.alipay.sofa.ark.spi.constant.Constants.DENY_IMPORT_RESOURCES;
@@ -62,9 +78,11 @@ import static com.alipay.sofa.ark.spi.constant.Constants.INJECT_PLUGIN_DEPENDENC
 import static com.alipay.sofa.ark.spi.constant.Constants.MAIN_CLASS_ATTRIBUTE;
 import static com.alipay.sofa.ark.spi.constant.Constants.MASTER_BIZ;
 import static com.alipay.sofa.ark.spi.constant.Constants.PRIORITY_ATTRIBUTE;
+import static com.alipay.sofa.ark.spi.constant.Constants.START_AFTER_BIZ;
 import static com.alipay.sofa.ark.spi.constant.Constants.START_CLASS_ATTRIBUTE;
 import static com.alipay.sofa.ark.spi.constant.Constants.WEB_CONTEXT_PATH;
 import static com.alipay.sofa.ark.spi.constant.Constants.DECLARED_LIBRARIES;
+import static org.apache.commons.io.FileUtils.deleteQuietly;
 
 /**
  * {@link BizFactoryService}
@@ -78,8 +96,16 @@ public class BizFactoryServiceImpl implements BizFactoryService {
     @Inject
     private PluginManagerService pluginManagerService;
 
+    @Inject
+    private ClassLoaderService   classLoaderService;
+
     @Override
     public Biz createBiz(BizArchive bizArchive) throws IOException {
+        return createBiz(bizArchive, null, null);
+    }
+
+    private BizModel createBiz(BizArchive bizArchive, File bizRoot, File classIndexFile)
+                                                                                        throws IOException {
         AssertUtils.isTrue(isArkBiz(bizArchive), "Archive must be a ark biz!");
         BizModel bizModel = new BizModel();
         Attributes manifestMainAttributes = bizArchive.getManifest().getMainAttributes();
@@ -99,6 +125,7 @@ public class BizFactoryServiceImpl implements BizFactoryService {
                 getInjectDependencies(manifestMainAttributes.getValue(INJECT_PLUGIN_DEPENDENCIES)))
             .setInjectExportPackages(manifestMainAttributes.getValue(INJECT_EXPORT_PACKAGES))
             .setDeclaredLibraries(manifestMainAttributes.getValue(DECLARED_LIBRARIES))
+            .setStartAfterBizNames(manifestMainAttributes.getValue(START_AFTER_BIZ))
             .setClassPath(bizArchive.getUrls()).setPluginClassPath(getPluginURLs());
 
         if (!(bizArchive instanceof DirectoryBizArchive)) {
@@ -109,20 +136,53 @@ public class BizFactoryServiceImpl implements BizFactoryService {
             getBizUcp(bizModel.getClassPath()), bizArchive instanceof ExplodedBizArchive
                                                 || bizArchive instanceof DirectoryBizArchive);
         bizClassLoader.setBizModel(bizModel);
+        PersistentClassIndex persistentClassIndex = PersistentClassIndex.load(classIndexFile,
+            bizRoot, bizModel.getClassPath(), classLoaderService.getJDKClassLoader());
+        if (persistentClassIndex != null) {
+            persistentClassIndex.apply(bizModel);
+        }
+        bizModel.setClassIndexFile(classIndexFile, persistentClassIndex != null);
+        ClassIndex classIndex = persistentClassIndex != null ? persistentClassIndex.getClassIndex()
+            : null;
+        if (ArkConfigs.getBooleanValue(BIZ_CLASS_INDEX_ENABLE, false)) {
+            if (classIndex == null) {
+                classIndex = ClassIndex.build(bizModel.getClassPath(),
+                    classLoaderService.getJDKClassLoader());
+            }
+            bizClassLoader.setClassIndex(classIndex);
+        }
+        // without class index, class cache keeps the configured size rather than scanning classpath
+        if (classIndex != null
+            && ArkConfigs.getBooleanValue(ARK_CLASSLOADER_CACHE_GENERATION_ENABLE, false)) {
+            bizClassLoader.sizeClassCache(classIndex.size());
+        }
         bizModel.setClassLoader(bizClassLoader);
         return bizModel;
     }
 
     @Override
     public Biz createBiz(File file) throws IOException {
+        return createBiz(file, null);
+    }
+
+    @Override
+    public Biz createBiz(File file, String sha1Hash) throws IOException {
         BizArchive bizArchive;
+        File classIndexFile = null;
+        boolean persistClassIndex = ArkConfigs.getBooleanValue(BIZ_CLASS_INDEX_PERSIST_ENABLE,
+            false);
+        if (sha1Hash == null && persistClassIndex && file.isFile()) {
+            // persisted class index is keyed by the content hash of biz file
+            sha1Hash = FileUtils.sha1Hash(file);
+        }
+        if (persistClassIndex && sha1Hash != null) {
+            classIndexFile = PersistentClassIndex.getIndexFile(file, sha1Hash);
+        }
+        long start = System.nanoTime();
         if (ArkConfigs.isEmbedEnable()) {
-            File unpackFile = FileUtils.file(file.getAbsolutePath() + "-unpack");
-            if (!unpackFile.exists()) {
-                unpackFile = FileUtils.unzip(file, file.getAbsolutePath() + "-unpack");
-            }
-            if (file.exists()) {
-                file.delete();
+            File unpackFile = FileUtils.file(file.getAbsolutePath() + BIZ_UNPACK_DIR_SUFFIX);
+            if (file.isFile()) {
+                unpackBiz(file, unpackFile);
             }
             file = unpackFile;
             bizArchive = new ExplodedBizArchive(unpackFile);
@@ -131,11 +191,48 @@ public class BizFactoryServiceImpl implements BizFactoryService {
             JarFileArchive jarFileArchive = new JarFileArchive(bizFile);
             bizArchive = new JarBizArchive(jarFileArchive);
         }
-        BizModel biz = (BizModel) createBiz(bizArchive);
+        BizOperationTimings.record(BizOperationTimings.ARCHIVE_OPEN, start);
+        BizModel biz = createBiz(bizArchive, file, classIndexFile);
         biz.setBizTempWorkDir(file);
         return biz;
     }
 
+    /**
+     * Unpack biz file in parallel, replacing what the directory was unpacked from before. The
+     * biz file is moved into the directory when unpacked lazily, or deleted otherwise.
+     */
+    private void unpackBiz(File bizFile, File unpackFile) throws IOException {
+        boolean lazy = ArkConfigs.getBooleanValue(BIZ_UNPACK_LAZY_ENABLE, false);
+        long start = System.currentTimeMillis();
+        deleteQuietly(unpackFile);
+        int parallelism = ArkConfigs.getIntValue(BIZ_UNPACK_PARALLELISM, Runtime.getRuntime()
+            .availableProcessors());
+        new ParallelUnzipper(getUnpackExecutor(parallelism), parallelism).unzip(bizFile,
+            unpackFile, lazy ? entry -> !ExplodedBizArchive.isNestedLibrary(entry) : null);
+        if (lazy) {
+            Files.move(bizFile.toPath(),
+                new File(unpackFile, ExplodedBizArchive.LAZY_BIZ_JAR_NAME).toPath());
+        } else {
+            bizFile.delete();
+        }
+        ArkLoggerFactory.getDefaultLogger().info(
+            String.format("Unpack biz file %s to %s, cost %d ms", bizFile, unpackFile,
+                System.currentTimeMillis() - start));
+    }
+
+    private Executor getUnpackExecutor(int parallelism) {
+        CommonThreadPool threadPool = ThreadPoolManager.getThreadPool(BIZ_UNPACK_THREAD_POOL_NAME);
+        if (threadPool == null) {
+            int poolSize = Math.max(1, parallelism - 1);
+            ThreadPoolManager.registerThreadPool(BIZ_UNPACK_THREAD_POOL_NAME,
+                new CommonThreadPool().setCorePoolSize(poolSize).setMaximumPoolSize(poolSize)
+                    .setQueueSize(-1).setAllowCoreThreadTimeOut(true).setDaemon(true)
+                    .setThreadPoolName(BIZ_UNPACK_THREAD_POOL_NAME));
+            threadPool = ThreadPoolManager.getThreadPool(BIZ_UNPACK_THREAD_POOL_NAME);
+        }
+        return threadPool.getExecutor();
+    }
+
     @Override
     public Biz createBiz(BizOperation bizOperation, File file) throws IOException {
         BizModel biz = (BizModel) createBiz(file);
@@ -21,7 +21,7 @@ import com.alipay.sofa.ark.common.util.BizIdentityUtils;
 import com.alipay.sofa.ark.common.util.OrderComparator;
 import com.alipay.sofa.ark.common.util.StringUtils;
 import com.alipay.sofa.ark.container.model.BizModel;
-import com.alipay.sofa.ark.spi.constant.Constants;
+import com.alipay.sofa.ark.container.service.classloader.AbstractClasspathClassLoader;
 import com.alipay.sofa.ark.spi.model.Biz;
 import com.alipay.sofa.ark.spi.model.BizInfo.StateChangeReason;
 import com.alipay.sofa.ark.spi.model.BizState;
@@ -34,23 +34,48 @@ import java.util.concurrent.ConcurrentHashMap;
 /**
  *  Service Implementation to manager ark biz
  *
+ *  <p>Besides the registration, bizs are indexed by identity, by classloader and by name of
+ *  active biz, and an ordered snapshot of all bizs is kept. Indexes and snapshot are rebuilt
+ *  under lock on register and unregister, lookups are lock free.
+ *
  * @author ruoshan
  * @since 0.1.0
  */
 @Singleton
 public class BizManagerServiceImpl implements BizManagerService {
 
-    private final ConcurrentHashMap<String, ConcurrentHashMap<String, Biz>> bizRegistration = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, ConcurrentHashMap<String, Biz>> bizRegistration  = new ConcurrentHashMap<>();
+
+    private final ConcurrentHashMap<String, Biz>                            bizByIdentity    = new ConcurrentHashMap<>();
+
+    private final ConcurrentHashMap<ClassLoader, Biz>                       bizByClassLoader = new ConcurrentHashMap<>();
+
+    /* cache of active biz of each biz name, validated by biz state on read */
+    private final ConcurrentHashMap<String, Biz>                            activeBizByName  = new ConcurrentHashMap<>();
+
+    private volatile List<Biz>                                              bizInOrder       = Collections
+                                                                                                 .emptyList();
 
     @Override
     public boolean registerBiz(Biz biz) {
         AssertUtils.assertNotNull(biz, "Biz must not be null.");
         AssertUtils.isTrue(biz.getBizState() == BizState.RESOLVED, "BizState must be RESOLVED.");
-        // Two level cache here. First level cache key is biz name, and value is versions cache.
-        // Second level cache key is version, value is biz model.
-        bizRegistration.putIfAbsent(biz.getBizName(), new ConcurrentHashMap<>(16));
-        ConcurrentHashMap<String, Biz> bizCache = bizRegistration.get(biz.getBizName());
-        return bizCache.put(biz.getBizVersion(), biz) == null;
+        boolean registered;
+        synchronized (this) {
+            // Two level cache here. First level cache key is biz name, and value is versions cache.
+            // Second level cache key is version, value is biz model.
+            bizRegistration.putIfAbsent(biz.getBizName(), new ConcurrentHashMap<>(16));
+            ConcurrentHashMap<String, Biz> bizCache = bizRegistration.get(biz.getBizName());
+            Biz previous = bizCache.put(biz.getBizVersion(), biz);
+            registered = previous == null;
+            if (previous != null) {
+                removeIndex(previous);
+            }
+            addIndex(biz);
+            refreshBizInOrder();
+        }
+        AbstractClasspathClassLoader.bumpCacheGenerations(biz);
+        return registered;
     }
 
     @Override
@@ -66,7 +91,18 @@ public class BizManagerServiceImpl implements BizManagerService {
         AssertUtils.isFalse(StringUtils.isEmpty(bizVersion), "Biz version must not be empty.");
         ConcurrentHashMap<String, Biz> bizCache = bizRegistration.get(bizName);
         if (bizCache != null) {
-            return bizCache.remove(bizVersion);
+            Biz biz;
+            synchronized (this) {
+                biz = bizCache.remove(bizVersion);
+                if (biz != null) {
+                    removeIndex(biz);
+                    refreshBizInOrder();
+                }
+            }
+            if (biz != null) {
+                AbstractClasspathClassLoader.bumpCacheGenerations(biz);
+            }
+            return biz;
         }
         return null;
     }
@@ -95,24 +131,22 @@ public class BizManagerServiceImpl implements BizManagerService {
 
     @Override
     public Biz getBizByIdentity(String bizIdentity) {
-        AssertUtils.isTrue(BizIdentityUtils.isValid(bizIdentity),
-            "Format of Biz Identity is error.");
-        String[] str = bizIdentity.split(Constants.STRING_COLON);
-        return getBiz(str[0], str[1]);
+        Biz biz = bizIdentity == null ? null : bizByIdentity.get(bizIdentity);
+        if (biz == null) {
+            AssertUtils.isTrue(BizIdentityUtils.isValid(bizIdentity),
+                "Format of Biz Identity is error.");
+        }
+        return biz;
     }
 
     @Override
     public Biz getBizByClassLoader(ClassLoader classLoader) {
-        for (Map.Entry<String, ConcurrentHashMap<String, Biz>> bizMapEntry : bizRegistration
-            .entrySet()) {
-            for (Map.Entry<String, Biz> bizEntry : bizMapEntry.getValue().entrySet()) {
-                Biz biz = bizEntry.getValue();
-                if (biz.getBizClassLoader().equals(classLoader)) {
-                    return biz;
-                }
-            }
+        if (classLoader == null) {
+            return null;
         }
-        return null;
+        Biz biz = bizByClassLoader.get(classLoader);
+        // classloader of biz is released once biz is stopped
+        return biz != null && biz.getBizClassLoader() == classLoader ? biz : null;
     }
 
     @Override
@@ -122,30 +156,32 @@ public class BizManagerServiceImpl implements BizManagerService {
 
     @Override
     public Set<String> getAllBizIdentities() {
-        Set<String> bizIdentities = new HashSet<>();
-        for (Biz biz : getBizInOrder()) {
-            bizIdentities.add(biz.getIdentity());
-        }
-        return bizIdentities;
+        return new HashSet<>(bizByIdentity.keySet());
     }
 
+    /**
+     * Get all biz in priority order, the returned list is a read-only snapshot which is
+     * rebuilt only when biz is registered or unregistered.
+     *
+     * @return
+     */
     @Override
     public List<Biz> getBizInOrder() {
-        List<Biz> bizList = new ArrayList<>();
-        for (String bizName : bizRegistration.keySet()) {
-            bizList.addAll(bizRegistration.get(bizName).values());
-        }
-        Collections.sort(bizList, new OrderComparator());
-        return bizList;
+        return bizInOrder;
     }
 
     @Override
     public Biz getActiveBiz(String bizName) {
         AssertUtils.isFalse(StringUtils.isEmpty(bizName), "Biz name must not be empty.");
+        Biz activeBiz = activeBizByName.get(bizName);
+        if (activeBiz != null && activeBiz.getBizState() == BizState.ACTIVATED) {
+            return activeBiz;
+        }
         Map<String, Biz> bizCache = bizRegistration.get(bizName);
         if (bizCache != null) {
             for (Biz biz : bizCache.values()) {
                 if (biz.getBizState() == BizState.ACTIVATED) {
+                    activeBizByName.put(bizName, biz);
                     return biz;
                 }
             }
@@ -180,6 +216,8 @@ public class BizManagerServiceImpl implements BizManagerService {
             String message = activeBiz == null ? "" : String.format("switch from old version: %s",
                 activeBiz.getIdentity());
             ((BizModel) biz).setBizState(BizState.ACTIVATED, StateChangeReason.SWITCHED, message);
+            activeBizByName.put(bizName, biz);
+            AbstractClasspathClassLoader.bumpCacheGenerations(biz);
         }
     }
 
@@ -197,28 +235,62 @@ public class BizManagerServiceImpl implements BizManagerService {
 
     @Override
     public BizState getBizState(String bizIdentity) {
-        AssertUtils.isTrue(BizIdentityUtils.isValid(bizIdentity),
-            "Format of Biz Identity is error.");
-        String[] str = bizIdentity.split(Constants.STRING_COLON);
-        return getBizState(str[0], str[1]);
+        Biz biz = getBizByIdentity(bizIdentity);
+        return biz != null ? biz.getBizState() : BizState.UNRESOLVED;
     }
 
     @Override
     public boolean removeAndAddBiz(Biz addingBiz, Biz removingBiz) {
-        Set<Map.Entry<String, ConcurrentHashMap<String, Biz>>> bizEntrySet = bizRegistration.entrySet();
-        bizEntrySet.forEach(item -> {
-            String bizName = item.getKey();
-            if (removingBiz.getBizName().equals(bizName)){
-                bizEntrySet.remove(item);
-                return;
+        boolean added;
+        synchronized (this) {
+            ConcurrentHashMap<String, Biz> removingBizCache = bizRegistration.remove(removingBiz
+                .getBizName());
+            if (removingBizCache != null) {
+                for (Biz biz : removingBizCache.values()) {
+                    removeIndex(biz);
+                }
+            }
+            bizRegistration.putIfAbsent(addingBiz.getBizName(), new ConcurrentHashMap<>(16));
+            Biz previous = bizRegistration.get(addingBiz.getBizName()).put(
+                addingBiz.getBizVersion(), addingBiz);
+            added = previous == null;
+            if (previous != null) {
+                removeIndex(previous);
             }
-        });
-        bizRegistration.putIfAbsent(addingBiz.getBizName(), new ConcurrentHashMap<>(16));
-        return bizRegistration.get(addingBiz.getBizName()).put(addingBiz.getBizVersion(), addingBiz) == null;
+            addIndex(addingBiz);
+            refreshBizInOrder();
+        }
+        AbstractClasspathClassLoader.bumpCacheGenerations(removingBiz);
+        AbstractClasspathClassLoader.bumpCacheGenerations(addingBiz);
+        return added;
     }
 
     @Override
     public ConcurrentHashMap<String, ConcurrentHashMap<String, Biz>> getBizRegistration() {
         return bizRegistration;
     }
+
+    private void addIndex(Biz biz) {
+        bizByIdentity.put(BizIdentityUtils.generateBizIdentity(biz), biz);
+        if (biz.getBizClassLoader() != null) {
+            bizByClassLoader.put(biz.getBizClassLoader(), biz);
+        }
+    }
+
+    private void removeIndex(Biz biz) {
+        bizByIdentity.remove(BizIdentityUtils.generateBizIdentity(biz), biz);
+        if (biz.getBizClassLoader() != null) {
+            bizByClassLoader.remove(biz.getBizClassLoader(), biz);
+        }
+        activeBizByName.remove(biz.getBizName(), biz);
+    }
+
+    private void refreshBizInOrder() {
+        List<Biz> bizList = new ArrayList<>();
+        for (ConcurrentHashMap<String, Biz> bizCache : bizRegistration.values()) {
+            bizList.addAll(bizCache.values());
+        }
+        Collections.sort(bizList, new OrderComparator());
+        bizInOrder = Collections.unmodifiableList(bizList);
+    }
 }
@@ -0,0 +1,79 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.ark.container.service.biz;
+
+import com.alipay.sofa.ark.common.log.ArkLoggerFactory;
+import com.alipay.sofa.ark.container.model.BizModel;
+import com.alipay.sofa.ark.container.service.ArkServiceContainer;
+import com.alipay.sofa.ark.container.service.ArkServiceContainerHolder;
+import com.alipay.sofa.ark.loader.jar.Handler;
+import com.alipay.sofa.ark.loader.jar.RootJarFileCache;
+import com.alipay.sofa.ark.spi.event.biz.BeforeBizRecycleEvent;
+import com.alipay.sofa.ark.spi.model.Biz;
+import com.alipay.sofa.ark.spi.model.Plugin;
+import com.alipay.sofa.ark.spi.service.biz.BizManagerService;
+import com.alipay.sofa.ark.spi.service.event.EventHandler;
+import com.alipay.sofa.ark.spi.service.plugin.PluginManagerService;
+
+import java.io.File;
+import java.util.Set;
+
+/**
+ * Evict root jar files of a recycled biz from {@link Handler#getRootFileCache()}, root jar
+ * files still on the classpath of other bizs or plugins are kept. Evicted jar files are closed
+ * once the class loader of the biz releases them.
+ *
+ * @since 2.2.15
+ */
+public class BizRootJarFileEvictHandler implements EventHandler<BeforeBizRecycleEvent> {
+
+    @Override
+    public void handleEvent(BeforeBizRecycleEvent event) {
+        Biz biz = event.getSource();
+        if (!(biz instanceof BizModel)) {
+            return;
+        }
+        Set<File> rootFiles = RootJarFileCache.getRootFiles(((BizModel) biz).getClassPath());
+        if (rootFiles.isEmpty()) {
+            return;
+        }
+        ArkServiceContainer container = ArkServiceContainerHolder.getContainer();
+        for (Biz other : container.getService(BizManagerService.class).getBizInOrder()) {
+            if (other != biz && other instanceof BizModel) {
+                rootFiles
+                    .removeAll(RootJarFileCache.getRootFiles(((BizModel) other).getClassPath()));
+            }
+        }
+        for (Plugin plugin : container.getService(PluginManagerService.class).getPluginsInOrder()) {
+            rootFiles.removeAll(RootJarFileCache.getRootFiles(plugin.getClassPath()));
+        }
+
+        RootJarFileCache rootFileCache = Handler.getRootFileCache();
+        for (File rootFile : rootFiles) {
+            if (rootFileCache.evict(rootFile)) {
+                ArkLoggerFactory.getDefaultLogger().info(
+                    String.format("Evict root jar file %s of biz %s", rootFile, biz.getIdentity()));
+            }
+        }
+    }
+
+    @Override
+    public int getPriority() {
+        return LOWEST_PRECEDENCE;
+    }
+
+}
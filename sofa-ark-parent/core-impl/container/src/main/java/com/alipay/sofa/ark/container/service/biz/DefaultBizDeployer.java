@@ -18,13 +18,32 @@ package com.alipay.sofa.ark.container.service.biz;
 
 import com.alipay.sofa.ark.api.ArkConfigs;
 import com.alipay.sofa.ark.common.log.ArkLoggerFactory;
+import com.alipay.sofa.ark.common.thread.CommonThreadPool;
+import com.alipay.sofa.ark.common.thread.ThreadPoolManager;
+import com.alipay.sofa.ark.container.model.BizModel;
 import com.alipay.sofa.ark.exception.ArkRuntimeException;
+import com.alipay.sofa.ark.spi.constant.Constants;
 import com.alipay.sofa.ark.spi.model.Biz;
 import com.alipay.sofa.ark.spi.model.BizState;
 import com.alipay.sofa.ark.spi.service.ArkInject;
 import com.alipay.sofa.ark.spi.service.biz.BizDeployer;
 import com.alipay.sofa.ark.spi.service.biz.BizManagerService;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+import static com.alipay.sofa.ark.spi.constant.Constants.BIZ_DEPLOY_PARALLEL_ENABLE;
+import static com.alipay.sofa.ark.spi.constant.Constants.BIZ_DEPLOY_PARALLEL_POOL_SIZE;
+import static com.alipay.sofa.ark.spi.constant.Constants.BIZ_DEPLOY_THREAD_POOL_NAME;
+
 /**
  * Biz Deployer to deploy Biz
  *
@@ -45,22 +64,164 @@ public class DefaultBizDeployer implements BizDeployer {
 
     @Override
     public void deploy() {
+        long start = System.currentTimeMillis();
+        if (ArkConfigs.getBooleanValue(BIZ_DEPLOY_PARALLEL_ENABLE, false)) {
+            deployInParallel();
+        } else {
+            for (Biz biz : bizManagerService.getBizInOrder()) {
+                if (isEmbedStaticBizAndIllegalState(biz)) {
+                    continue;
+                }
+                startBiz(biz);
+            }
+        }
+        ArkLoggerFactory.getDefaultLogger().info(
+            String.format("Finish to deploy all biz, cost %d ms", System.currentTimeMillis()
+                                                                  - start));
+    }
+
+    private void startBiz(Biz biz) {
+        try {
+            long start = System.currentTimeMillis();
+            ArkLoggerFactory.getDefaultLogger().info(
+                String.format("Begin to start biz: %s", biz.getBizName()));
+            biz.start(arguments);
+            ArkLoggerFactory.getDefaultLogger().info(
+                String.format("Finish to start biz: %s, cost %d ms", biz.getBizName(),
+                    System.currentTimeMillis() - start));
+        } catch (Throwable e) {
+            ArkLoggerFactory.getDefaultLogger().error(
+                String.format("Start biz: %s meet error", biz.getBizName()), e);
+            throw new ArkRuntimeException(e);
+        }
+    }
+
+    /**
+     * Start bizs of the same priority concurrently, bizs of higher priority are all started
+     * before bizs of lower priority, and a biz is started after the bizs of the same priority
+     * declared by {@link Constants#START_AFTER_BIZ}.
+     */
+    private void deployInParallel() {
+        List<List<Biz>> priorityGroups = new ArrayList<>();
+        int bizCount = 0;
         for (Biz biz : bizManagerService.getBizInOrder()) {
             if (isEmbedStaticBizAndIllegalState(biz)) {
                 continue;
             }
-            try {
-                ArkLoggerFactory.getDefaultLogger().info(
-                    String.format("Begin to start biz: %s", biz.getBizName()));
-                biz.start(arguments);
-                ArkLoggerFactory.getDefaultLogger().info(
-                    String.format("Finish to start biz: %s", biz.getBizName()));
-            } catch (Throwable e) {
-                ArkLoggerFactory.getDefaultLogger().error(
-                    String.format("Start biz: %s meet error", biz.getBizName()), e);
-                throw new ArkRuntimeException(e);
+            List<Biz> group = priorityGroups.isEmpty() ? null : priorityGroups.get(priorityGroups
+                .size() - 1);
+            if (group == null || group.get(0).getPriority() != biz.getPriority()) {
+                group = new ArrayList<>();
+                priorityGroups.add(group);
+            }
+            group.add(biz);
+            bizCount++;
+        }
+        if (bizCount == 0) {
+            return;
+        }
+
+        int poolSize = ArkConfigs.getIntValue(BIZ_DEPLOY_PARALLEL_POOL_SIZE, Runtime.getRuntime()
+            .availableProcessors());
+        CommonThreadPool threadPool = new CommonThreadPool().setCorePoolSize(poolSize)
+            .setMaximumPoolSize(poolSize).setQueueSize(bizCount).setDaemon(true)
+            .setThreadPoolName(BIZ_DEPLOY_THREAD_POOL_NAME);
+        ThreadPoolManager.registerThreadPool(BIZ_DEPLOY_THREAD_POOL_NAME, threadPool);
+        try {
+            Set<String> startedBizNames = new HashSet<>();
+            for (List<Biz> group : priorityGroups) {
+                startInParallel(sortByStartAfter(group, startedBizNames), threadPool.getExecutor());
+                for (Biz biz : group) {
+                    startedBizNames.add(biz.getBizName());
+                }
             }
+        } finally {
+            ThreadPoolManager.unRegisterUserThread(BIZ_DEPLOY_THREAD_POOL_NAME);
+            threadPool.getExecutor().shutdown();
+        }
+    }
+
+    private void startInParallel(List<Biz> bizList, Executor executor) {
+        Map<String, List<CompletableFuture<Void>>> futures = new HashMap<>();
+        List<CompletableFuture<Void>> allFutures = new ArrayList<>();
+        for (final Biz biz : bizList) {
+            List<CompletableFuture<Void>> dependencies = new ArrayList<>();
+            for (String bizName : getStartAfterBizNames(biz)) {
+                if (futures.containsKey(bizName)) {
+                    dependencies.addAll(futures.get(bizName));
+                }
+            }
+            CompletableFuture<Void> future = CompletableFuture.allOf(
+                dependencies.toArray(new CompletableFuture[0])).thenRunAsync(
+                () -> startBiz(biz), executor);
+            futures.computeIfAbsent(biz.getBizName(), k -> new ArrayList<>()).add(future);
+            allFutures.add(future);
+        }
+        try {
+            CompletableFuture.allOf(allFutures.toArray(new CompletableFuture[0])).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof ArkRuntimeException) {
+                throw (ArkRuntimeException) e.getCause();
+            }
+            throw new ArkRuntimeException(e.getCause());
+        }
+    }
+
+    /**
+     * Sort bizs of the same priority so that each biz follows the bizs it starts after, the
+     * original order is kept otherwise.
+     */
+    private List<Biz> sortByStartAfter(List<Biz> group, Set<String> startedBizNames) {
+        Set<String> groupBizNames = new HashSet<>();
+        for (Biz biz : group) {
+            groupBizNames.add(biz.getBizName());
+        }
+        Map<String, Integer> pendingCount = new HashMap<>();
+        for (Biz biz : group) {
+            pendingCount.merge(biz.getBizName(), 1, Integer::sum);
+            for (String bizName : getStartAfterBizNames(biz)) {
+                if (!groupBizNames.contains(bizName) && !startedBizNames.contains(bizName)) {
+                    ArkLoggerFactory.getDefaultLogger().warn(
+                        String.format("Biz %s starts after %s which is not deployed before it, "
+                                      + "ignore it.", biz.getIdentity(), bizName));
+                }
+            }
+        }
+
+        List<Biz> sorted = new ArrayList<>(group.size());
+        List<Biz> remaining = new ArrayList<>(group);
+        while (!remaining.isEmpty()) {
+            Biz next = null;
+            for (Biz biz : remaining) {
+                boolean ready = true;
+                for (String bizName : getStartAfterBizNames(biz)) {
+                    if (pendingCount.getOrDefault(bizName, 0) > 0
+                        && !bizName.equals(biz.getBizName())) {
+                        ready = false;
+                        break;
+                    }
+                }
+                if (ready) {
+                    next = biz;
+                    break;
+                }
+            }
+            if (next == null) {
+                throw new ArkRuntimeException(String.format(
+                    "Cyclic start-after relation among biz: %s", remaining));
+            }
+            remaining.remove(next);
+            sorted.add(next);
+            pendingCount.merge(next.getBizName(), -1, Integer::sum);
+        }
+        return sorted;
+    }
+
+    private Set<String> getStartAfterBizNames(Biz biz) {
+        if (biz instanceof BizModel) {
+            return ((BizModel) biz).getStartAfterBizNames();
         }
+        return Collections.emptySet();
     }
 
     @Override
@@ -0,0 +1,89 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.ark.container.service.biz.leak;
+
+import com.alipay.sofa.ark.api.ArkConfigs;
+import com.alipay.sofa.ark.common.log.ArkLoggerFactory;
+import com.alipay.sofa.ark.common.util.OrderComparator;
+import com.alipay.sofa.ark.container.service.ArkServiceContainerHolder;
+import com.alipay.sofa.ark.spi.event.biz.BeforeBizRecycleEvent;
+import com.alipay.sofa.ark.spi.model.Biz;
+import com.alipay.sofa.ark.spi.registry.ServiceReference;
+import com.alipay.sofa.ark.spi.service.biz.BizLeakCleaner;
+import com.alipay.sofa.ark.spi.service.event.EventHandler;
+import com.alipay.sofa.ark.spi.service.registry.RegistryService;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static com.alipay.sofa.ark.spi.constant.Constants.BIZ_LEAK_CLEAN_ENABLE;
+
+/**
+ * Run {@link BizLeakCleaner}s before a biz is recycled. Cleaners of ark container are run only
+ * if {@link com.alipay.sofa.ark.spi.constant.Constants#BIZ_LEAK_CLEAN_ENABLE} is on, cleaners
+ * published by plugins are always run.
+ *
+ * @since 2.2.15
+ */
+public class BizLeakCleanHandler implements EventHandler<BeforeBizRecycleEvent> {
+
+    private final List<BizLeakCleaner> containerCleaners = Arrays.<BizLeakCleaner> asList(
+                                                             new ThreadLeakCleaner(),
+                                                             new ShutdownHookLeakCleaner(),
+                                                             new JdbcDriverLeakCleaner(),
+                                                             new JdkCacheLeakCleaner());
+
+    @Override
+    public void handleEvent(BeforeBizRecycleEvent event) {
+        Biz biz = event.getSource();
+        ClassLoader bizClassLoader = biz.getBizClassLoader();
+        if (bizClassLoader == null) {
+            return;
+        }
+        for (BizLeakCleaner cleaner : getCleaners()) {
+            try {
+                cleaner.clean(biz, bizClassLoader);
+            } catch (Throwable e) {
+                ArkLoggerFactory.getDefaultLogger().warn(
+                    String.format("Failed to clean biz %s by %s", biz.getIdentity(), cleaner
+                        .getClass().getName()), e);
+            }
+        }
+    }
+
+    List<BizLeakCleaner> getCleaners() {
+        List<BizLeakCleaner> cleaners = new ArrayList<>();
+        if (ArkConfigs.getBooleanValue(BIZ_LEAK_CLEAN_ENABLE, false)) {
+            cleaners.addAll(containerCleaners);
+        }
+        RegistryService registryService = ArkServiceContainerHolder.getContainer().getService(
+            RegistryService.class);
+        for (ServiceReference<BizLeakCleaner> reference : registryService
+            .referenceServices(BizLeakCleaner.class)) {
+            cleaners.add(reference.getService());
+        }
+        Collections.sort(cleaners, new OrderComparator());
+        return cleaners;
+    }
+
+    @Override
+    public int getPriority() {
+        return LOWEST_PRECEDENCE;
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.ark.container.service.biz.leak;
+
+import com.alipay.sofa.ark.api.ArkConfigs;
+import com.alipay.sofa.ark.common.log.ArkLoggerFactory;
+import com.alipay.sofa.ark.spi.event.biz.AfterBizStopEvent;
+import com.alipay.sofa.ark.spi.model.Biz;
+import com.alipay.sofa.ark.spi.service.event.EventHandler;
+
+import java.lang.ref.WeakReference;
+import java.security.AccessController;
+import java.security.PrivilegedAction;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static com.alipay.sofa.ark.spi.constant.Constants.BIZ_LEAK_DETECT_DELAY_SECONDS;
+import static com.alipay.sofa.ark.spi.constant.Constants.BIZ_LEAK_DETECT_ENABLE;
+import static com.alipay.sofa.ark.spi.constant.Constants.DEFAULT_BIZ_LEAK_DETECT_DELAY_SECONDS;
+
+/**
+ * Track class loaders of stopped bizs by weak reference, and check if they are collected after
+ * {@link com.alipay.sofa.ark.spi.constant.Constants#BIZ_LEAK_DETECT_DELAY_SECONDS}. A class
+ * loader still reachable after a forced GC is reported with the roots referencing it, see
+ * {@link BizLeakScanner}. It's enabled by
+ * {@link com.alipay.sofa.ark.spi.constant.Constants#BIZ_LEAK_DETECT_ENABLE}.
+ *
+ * @since 2.2.15
+ */
+public class BizLeakDetector implements EventHandler<AfterBizStopEvent> {
+
+    private static final int                        MAX_REPORTS = 64;
+
+    private final ConcurrentLinkedQueue<TrackedBiz> trackedBizs = new ConcurrentLinkedQueue<>();
+
+    private final List<BizLeakReport>               reports     = new CopyOnWriteArrayList<>();
+
+    private volatile ScheduledExecutorService       executor;
+
+    @Override
+    public void handleEvent(AfterBizStopEvent event) {
+        if (!ArkConfigs.getBooleanValue(BIZ_LEAK_DETECT_ENABLE, false)) {
+            return;
+        }
+        Biz biz = event.getSource();
+        if (biz.getBizClassLoader() == null) {
+            return;
+        }
+        track(biz.getIdentity(), biz.getBizClassLoader());
+        long delay = ArkConfigs.getIntValue(BIZ_LEAK_DETECT_DELAY_SECONDS,
+            DEFAULT_BIZ_LEAK_DETECT_DELAY_SECONDS);
+        getExecutor().schedule(() -> check(false), delay, TimeUnit.SECONDS);
+    }
+
+    void track(String bizIdentity, ClassLoader bizClassLoader) {
+        trackedBizs.add(new TrackedBiz(bizIdentity, bizClassLoader));
+    }
+
+    /**
+     * Check tracked class loaders, GC is forced once if any of them is still reachable
+     *
+     * @param all check all tracked class loaders, or only those tracked for the delay
+     * @return reports of class loaders still reachable
+     */
+    public synchronized List<BizLeakReport> check(boolean all) {
+        long now = System.currentTimeMillis();
+        long delayMillis = TimeUnit.SECONDS.toMillis(ArkConfigs.getIntValue(
+            BIZ_LEAK_DETECT_DELAY_SECONDS, DEFAULT_BIZ_LEAK_DETECT_DELAY_SECONDS));
+        List<TrackedBiz> dueBizs = new ArrayList<>();
+        for (Iterator<TrackedBiz> iterator = trackedBizs.iterator(); iterator.hasNext();) {
+            TrackedBiz trackedBiz = iterator.next();
+            if (trackedBiz.classLoader.get() == null) {
+                iterator.remove();
+            } else if (all || now - trackedBiz.stopTime >= delayMillis) {
+                dueBizs.add(trackedBiz);
+            }
+        }
+        List<BizLeakReport> newReports = new ArrayList<>();
+        if (dueBizs.isEmpty()) {
+            return newReports;
+        }
+        System.gc();
+        for (TrackedBiz trackedBiz : dueBizs) {
+            trackedBizs.remove(trackedBiz);
+            ClassLoader classLoader = trackedBiz.classLoader.get();
+            if (classLoader == null) {
+                continue;
+            }
+            BizLeakReport report = new BizLeakReport(trackedBiz.bizIdentity, trackedBiz.stopTime,
+                System.currentTimeMillis(), BizLeakScanner.scan(classLoader));
+            newReports.add(report);
+            ArkLoggerFactory.getDefaultLogger().warn(
+                String.format("Class loader of uninstalled biz %s", report));
+        }
+        reports.addAll(newReports);
+        while (reports.size() > MAX_REPORTS) {
+            reports.remove(0);
+        }
+        return newReports;
+    }
+
+    /**
+     * Get reports of class loaders still reachable, the last {@value #MAX_REPORTS} are kept
+     */
+    public List<BizLeakReport> getReports() {
+        return reports;
+    }
+
+    /**
+     * Get count of class loaders tracked and not yet checked
+     */
+    public int getTrackedCount() {
+        return trackedBizs.size();
+    }
+
+    /**
+     * The thread is created without the context class loader and access control context of the
+     * stopping biz, otherwise it would keep the first biz stopped reachable
+     */
+    private ScheduledExecutorService getExecutor() {
+        if (executor == null) {
+            synchronized (this) {
+                if (executor == null) {
+                    ScheduledThreadPoolExecutor scheduledExecutor = new ScheduledThreadPoolExecutor(
+                        1, runnable -> AccessController.doPrivileged((PrivilegedAction<Thread>) () -> {
+                            Thread thread = new Thread(runnable, "sofa-ark-biz-leak-detector");
+                            thread.setDaemon(true);
+                            thread.setContextClassLoader(BizLeakDetector.class.getClassLoader());
+                            return thread;
+                        }));
+                    scheduledExecutor.setRemoveOnCancelPolicy(true);
+                    executor = scheduledExecutor;
+                }
+            }
+        }
+        return executor;
+    }
+
+    @Override
+    public int getPriority() {
+        return LOWEST_PRECEDENCE;
+    }
+
+    private static class TrackedBiz {
+
+        private final String                     bizIdentity;
+
+        private final WeakReference<ClassLoader> classLoader;
+
+        private final long                       stopTime = System.currentTimeMillis();
+
+        TrackedBiz(String bizIdentity, ClassLoader classLoader) {
+            this.bizIdentity = bizIdentity;
+            this.classLoader = new WeakReference<>(classLoader);
+        }
+    }
+}
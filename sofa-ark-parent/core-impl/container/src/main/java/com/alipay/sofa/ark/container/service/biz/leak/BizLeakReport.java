@@ -0,0 +1,79 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.ark.container.service.biz.leak;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Report of an uninstalled biz whose class loader is still reachable
+ *
+ * @since 2.2.15
+ */
+public class BizLeakReport {
+
+    private final String                              bizIdentity;
+
+    private final long                                stopTime;
+
+    private final long                                detectTime;
+
+    private final Map<LeakRootCategory, List<String>> roots;
+
+    public BizLeakReport(String bizIdentity, long stopTime, long detectTime,
+                         Map<LeakRootCategory, List<String>> roots) {
+        this.bizIdentity = bizIdentity;
+        this.stopTime = stopTime;
+        this.detectTime = detectTime;
+        this.roots = roots;
+    }
+
+    public String getBizIdentity() {
+        return bizIdentity;
+    }
+
+    public long getStopTime() {
+        return stopTime;
+    }
+
+    public long getDetectTime() {
+        return detectTime;
+    }
+
+    /**
+     * Get references to the biz class loader by root category
+     */
+    public Map<LeakRootCategory, List<String>> getRoots() {
+        return roots;
+    }
+
+    @Override
+    public String toString() {
+        SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS");
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%s stopped at %s is still reachable at %s, roots:", bizIdentity,
+            sdf.format(new Date(stopTime)), sdf.format(new Date(detectTime))));
+        for (Map.Entry<LeakRootCategory, List<String>> entry : roots.entrySet()) {
+            for (String root : entry.getValue()) {
+                sb.append("\n  ").append(entry.getKey()).append(": ").append(root);
+            }
+        }
+        return sb.toString();
+    }
+}
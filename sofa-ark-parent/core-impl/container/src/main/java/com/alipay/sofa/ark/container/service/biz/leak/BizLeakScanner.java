@@ -0,0 +1,255 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.ark.container.service.biz.leak;
+
+import com.alipay.sofa.ark.common.log.ArkLoggerFactory;
+
+import java.lang.ref.Reference;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.sql.Driver;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Find references to a biz class loader from known GC roots: live threads, their context class
+ * loaders and thread locals, shutdown hooks and jdbc drivers. JDK internals are read by
+ * reflection, a root which can't be read, e.g. its package isn't opened on JDK 9+, is skipped.
+ *
+ * @since 2.2.15
+ */
+public class BizLeakScanner {
+
+    private static final String                                 SHUTDOWN_HOOKS_CLASS = "java.lang.ApplicationShutdownHooks";
+
+    private static final String                                 TIMER_THREAD_CLASS   = "java.util.TimerThread";
+
+    private static final ConcurrentMap<String, Optional<Field>> FIELDS               = new ConcurrentHashMap<>();
+
+    /**
+     * Find references to the biz class loader by root category
+     *
+     * @param bizClassLoader biz class loader
+     * @return descriptions of references keyed by category, {@link LeakRootCategory#UNKNOWN} if
+     *         none is found
+     */
+    public static Map<LeakRootCategory, List<String>> scan(ClassLoader bizClassLoader) {
+        Map<LeakRootCategory, List<String>> roots = new LinkedHashMap<>();
+        for (Thread thread : getThreads()) {
+            if (isThreadOfBiz(thread, bizClassLoader)) {
+                addRoot(roots, LeakRootCategory.THREAD, describe(thread));
+            } else if (thread.getContextClassLoader() == bizClassLoader) {
+                addRoot(roots, LeakRootCategory.CONTEXT_CLASS_LOADER, describe(thread));
+            }
+            for (Object[] entry : getThreadLocals(thread)) {
+                if (isOfBiz(entry[0], bizClassLoader) || isOfBiz(entry[1], bizClassLoader)) {
+                    addRoot(roots, LeakRootCategory.THREAD_LOCAL,
+                        String.format("%s of %s", describeThreadLocal(entry), describe(thread)));
+                }
+            }
+        }
+        for (Thread hook : getShutdownHooks()) {
+            if (isThreadOfBiz(hook, bizClassLoader)
+                || hook.getContextClassLoader() == bizClassLoader) {
+                addRoot(roots, LeakRootCategory.SHUTDOWN_HOOK, describe(hook));
+            }
+        }
+        for (Driver driver : getRegisteredDrivers()) {
+            if (isOfBiz(driver, bizClassLoader)) {
+                addRoot(roots, LeakRootCategory.JDBC_DRIVER, driver.getClass().getName());
+            }
+        }
+        if (roots.isEmpty()) {
+            addRoot(roots, LeakRootCategory.UNKNOWN, "no known root references the biz");
+        }
+        return roots;
+    }
+
+    /**
+     * Whether the object is the biz class loader, a class loaded by it, or an instance of such a
+     * class
+     */
+    public static boolean isOfBiz(Object object, ClassLoader bizClassLoader) {
+        if (object == null) {
+            return false;
+        }
+        if (object == bizClassLoader) {
+            return true;
+        }
+        Class<?> clazz = object instanceof Class ? (Class<?>) object : object.getClass();
+        return clazz.getClassLoader() == bizClassLoader;
+    }
+
+    /**
+     * Whether the thread is of a class loaded by the biz, or runs a task of the biz
+     */
+    public static boolean isThreadOfBiz(Thread thread, ClassLoader bizClassLoader) {
+        return isOfBiz(thread, bizClassLoader)
+               || isOfBiz(readField(Thread.class, "target", thread), bizClassLoader);
+    }
+
+    public static boolean isTimerThread(Thread thread) {
+        return TIMER_THREAD_CLASS.equals(thread.getClass().getName());
+    }
+
+    public static List<Thread> getThreads() {
+        ThreadGroup root = Thread.currentThread().getThreadGroup();
+        while (root.getParent() != null) {
+            root = root.getParent();
+        }
+        Thread[] threads = new Thread[root.activeCount() + 16];
+        int count;
+        while ((count = root.enumerate(threads, true)) == threads.length) {
+            threads = new Thread[threads.length * 2];
+        }
+        List<Thread> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            result.add(threads[i]);
+        }
+        return result;
+    }
+
+    /**
+     * Get thread locals and inheritable thread locals of a thread
+     *
+     * @return pairs of thread local and value, the thread local is null if it's collected
+     */
+    public static List<Object[]> getThreadLocals(Thread thread) {
+        List<Object[]> threadLocals = new ArrayList<>();
+        addThreadLocals(threadLocals, readField(Thread.class, "threadLocals", thread));
+        addThreadLocals(threadLocals, readField(Thread.class, "inheritableThreadLocals", thread));
+        return threadLocals;
+    }
+
+    private static void addThreadLocals(List<Object[]> threadLocals, Object threadLocalMap) {
+        if (threadLocalMap == null) {
+            return;
+        }
+        Object table = readField(threadLocalMap.getClass(), "table", threadLocalMap);
+        if (table == null) {
+            return;
+        }
+        for (int i = 0; i < Array.getLength(table); i++) {
+            Object entry = Array.get(table, i);
+            if (entry != null) {
+                threadLocals.add(new Object[] { ((Reference<?>) entry).get(),
+                        readField(entry.getClass(), "value", entry) });
+            }
+        }
+    }
+
+    public static List<Thread> getShutdownHooks() {
+        try {
+            Class<?> hooksClass = Class.forName(SHUTDOWN_HOOKS_CLASS);
+            synchronized (hooksClass) {
+                Object hooks = readField(hooksClass, "hooks", null);
+                if (hooks instanceof Map) {
+                    return new ArrayList<>(((Map<Thread, ?>) hooks).keySet());
+                }
+            }
+        } catch (Throwable e) {
+            logSkipped(SHUTDOWN_HOOKS_CLASS, e);
+        }
+        return Collections.emptyList();
+    }
+
+    public static List<Driver> getRegisteredDrivers() {
+        List<Driver> drivers = new ArrayList<>();
+        for (Object driverInfo : getRegisteredDriverInfos()) {
+            Object driver = readField(driverInfo.getClass(), "driver", driverInfo);
+            if (driver instanceof Driver) {
+                drivers.add((Driver) driver);
+            }
+        }
+        return drivers;
+    }
+
+    /**
+     * Get the list of registered drivers of {@link java.sql.DriverManager}, it's modifiable
+     */
+    static Collection<Object> getRegisteredDriverInfos() {
+        Object driverInfos = readField(java.sql.DriverManager.class, "registeredDrivers", null);
+        return driverInfos instanceof Collection ? (Collection<Object>) driverInfos : Collections
+            .emptyList();
+    }
+
+    static Object readField(Class<?> clazz, String name, Object target) {
+        Field field = getField(clazz, name);
+        if (field == null) {
+            return null;
+        }
+        try {
+            return field.get(target);
+        } catch (IllegalAccessException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Get an accessible declared field of a JDK class, a field which can't be accessed is
+     * looked up only once
+     *
+     * @return null if the field can't be accessed
+     */
+    static Field getField(Class<?> clazz, String name) {
+        String key = clazz.getName() + "." + name;
+        Optional<Field> field = FIELDS.get(key);
+        if (field == null) {
+            try {
+                Field declaredField = clazz.getDeclaredField(name);
+                declaredField.setAccessible(true);
+                field = Optional.of(declaredField);
+            } catch (Throwable e) {
+                logSkipped(key, e);
+                field = Optional.empty();
+            }
+            FIELDS.put(key, field);
+        }
+        return field.orElse(null);
+    }
+
+    private static void logSkipped(String name, Throwable e) {
+        ArkLoggerFactory.getDefaultLogger().debug(
+            String.format("Skip scanning %s for biz leak: %s", name, e));
+    }
+
+    private static void addRoot(Map<LeakRootCategory, List<String>> roots,
+                                LeakRootCategory category, String description) {
+        List<String> descriptions = roots.get(category);
+        if (descriptions == null) {
+            descriptions = new ArrayList<>();
+            roots.put(category, descriptions);
+        }
+        descriptions.add(description);
+    }
+
+    static String describe(Thread thread) {
+        return String.format("thread '%s' (%s)", thread.getName(), thread.getClass().getName());
+    }
+
+    static String describeThreadLocal(Object[] entry) {
+        return String.format("thread local %s = %s", entry[0] == null ? "null" : entry[0]
+            .getClass().getName(), entry[1] == null ? "null" : entry[1].getClass().getName());
+    }
+}
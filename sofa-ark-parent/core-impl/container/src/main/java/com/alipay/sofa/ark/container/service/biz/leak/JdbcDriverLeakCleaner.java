@@ -0,0 +1,54 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.ark.container.service.biz.leak;
+
+import com.alipay.sofa.ark.common.log.ArkLoggerFactory;
+import com.alipay.sofa.ark.spi.model.Biz;
+import com.alipay.sofa.ark.spi.service.biz.BizLeakCleaner;
+
+import java.util.Collection;
+
+/**
+ * Deregister jdbc drivers loaded by the biz from {@link java.sql.DriverManager}. The driver is
+ * removed from registered drivers directly, as
+ * {@link java.sql.DriverManager#deregisterDriver(java.sql.Driver)} only accepts drivers visible
+ * to the caller.
+ *
+ * @since 2.2.15
+ */
+public class JdbcDriverLeakCleaner implements BizLeakCleaner {
+
+    @Override
+    public void clean(Biz biz, ClassLoader bizClassLoader) {
+        Collection<Object> driverInfos = BizLeakScanner.getRegisteredDriverInfos();
+        // registered drivers is a copy on write list, so it's iterated on a snapshot
+        for (Object driverInfo : driverInfos) {
+            Object driver = BizLeakScanner.readField(driverInfo.getClass(), "driver", driverInfo);
+            if (BizLeakScanner.isOfBiz(driver, bizClassLoader)) {
+                driverInfos.remove(driverInfo);
+                ArkLoggerFactory.getDefaultLogger().info(
+                    String.format("Deregister jdbc driver %s of biz %s", driver.getClass()
+                        .getName(), biz.getIdentity()));
+            }
+        }
+    }
+
+    @Override
+    public int getPriority() {
+        return DEFAULT_PRECEDENCE;
+    }
+}
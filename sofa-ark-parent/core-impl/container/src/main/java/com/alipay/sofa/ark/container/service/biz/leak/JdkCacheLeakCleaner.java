@@ -0,0 +1,43 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.ark.container.service.biz.leak;
+
+import com.alipay.sofa.ark.spi.model.Biz;
+import com.alipay.sofa.ark.spi.service.biz.BizLeakCleaner;
+
+import java.beans.Introspector;
+import java.util.ResourceBundle;
+
+/**
+ * Clear JDK caches which may hold classes of the biz: bean infos of {@link Introspector}, which
+ * can only be flushed entirely, and resource bundles loaded by the biz class loader.
+ *
+ * @since 2.2.15
+ */
+public class JdkCacheLeakCleaner implements BizLeakCleaner {
+
+    @Override
+    public void clean(Biz biz, ClassLoader bizClassLoader) {
+        Introspector.flushCaches();
+        ResourceBundle.clearCache(bizClassLoader);
+    }
+
+    @Override
+    public int getPriority() {
+        return DEFAULT_PRECEDENCE;
+    }
+}
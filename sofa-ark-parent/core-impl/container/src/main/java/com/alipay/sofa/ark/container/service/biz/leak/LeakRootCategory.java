@@ -0,0 +1,56 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.ark.container.service.biz.leak;
+
+/**
+ * Category of GC roots which may keep the class loader of an uninstalled biz reachable
+ *
+ * @since 2.2.15
+ */
+public enum LeakRootCategory {
+
+    /**
+     * live thread of a class loaded by the biz, or running a task of the biz
+     */
+    THREAD,
+
+    /**
+     * live thread whose context class loader is the biz class loader
+     */
+    CONTEXT_CLASS_LOADER,
+
+    /**
+     * thread local of a live thread whose key or value is of the biz
+     */
+    THREAD_LOCAL,
+
+    /**
+     * shutdown hook registered by the biz
+     */
+    SHUTDOWN_HOOK,
+
+    /**
+     * jdbc driver registered to {@link java.sql.DriverManager} by the biz
+     */
+    JDBC_DRIVER,
+
+    /**
+     * none of the known roots references the biz, e.g. a static field of a plugin or the
+     * master biz does
+     */
+    UNKNOWN
+}
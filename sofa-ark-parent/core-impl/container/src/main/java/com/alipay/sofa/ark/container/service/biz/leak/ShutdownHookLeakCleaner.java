@@ -0,0 +1,54 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.ark.container.service.biz.leak;
+
+import com.alipay.sofa.ark.common.log.ArkLoggerFactory;
+import com.alipay.sofa.ark.spi.model.Biz;
+import com.alipay.sofa.ark.spi.service.biz.BizLeakCleaner;
+
+/**
+ * Remove shutdown hooks registered by the biz, such as the one of spring application context,
+ * the hooks are not run as the biz is stopped already.
+ *
+ * @since 2.2.15
+ */
+public class ShutdownHookLeakCleaner implements BizLeakCleaner {
+
+    @Override
+    public void clean(Biz biz, ClassLoader bizClassLoader) {
+        for (Thread hook : BizLeakScanner.getShutdownHooks()) {
+            if (BizLeakScanner.isThreadOfBiz(hook, bizClassLoader)
+                || hook.getContextClassLoader() == bizClassLoader) {
+                try {
+                    if (Runtime.getRuntime().removeShutdownHook(hook)) {
+                        ArkLoggerFactory.getDefaultLogger().info(
+                            String.format("Remove shutdown hook %s of biz %s",
+                                BizLeakScanner.describe(hook), biz.getIdentity()));
+                    }
+                } catch (IllegalStateException e) {
+                    // jvm is shutting down
+                    return;
+                }
+            }
+        }
+    }
+
+    @Override
+    public int getPriority() {
+        return DEFAULT_PRECEDENCE;
+    }
+}
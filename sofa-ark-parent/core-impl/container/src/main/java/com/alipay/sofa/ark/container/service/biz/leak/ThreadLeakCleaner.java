@@ -0,0 +1,128 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.ark.container.service.biz.leak;
+
+import com.alipay.sofa.ark.api.ArkClient;
+import com.alipay.sofa.ark.common.log.ArkLoggerFactory;
+import com.alipay.sofa.ark.spi.model.Biz;
+import com.alipay.sofa.ark.spi.service.biz.BizLeakCleaner;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+
+/**
+ * Clean references to biz class loader from live threads:
+ * <ul>
+ *   <li>{@link java.util.Timer} threads created by the biz are cancelled</li>
+ *   <li>context class loader of other threads, e.g. pool threads created while the biz is
+ *   the context, is reset to the class loader of master biz</li>
+ *   <li>thread locals of the biz on current thread are removed, those on other threads are
+ *   only reported as they can't be removed safely from another thread</li>
+ *   <li>threads of the biz still running are reported, they are not stopped</li>
+ * </ul>
+ *
+ * @since 2.2.15
+ */
+public class ThreadLeakCleaner implements BizLeakCleaner {
+
+    @Override
+    public void clean(Biz biz, ClassLoader bizClassLoader) {
+        Thread currentThread = Thread.currentThread();
+        for (Thread thread : BizLeakScanner.getThreads()) {
+            if (thread == currentThread) {
+                removeThreadLocals(biz, bizClassLoader);
+                continue;
+            }
+            if (BizLeakScanner.isThreadOfBiz(thread, bizClassLoader)) {
+                ArkLoggerFactory.getDefaultLogger().warn(
+                    String.format("Biz %s leaves %s running", biz.getIdentity(),
+                        BizLeakScanner.describe(thread)));
+            } else if (thread.getContextClassLoader() == bizClassLoader) {
+                if (BizLeakScanner.isTimerThread(thread) && cancelTimer(thread)) {
+                    ArkLoggerFactory.getDefaultLogger().info(
+                        String.format("Cancel timer %s of biz %s", BizLeakScanner.describe(thread),
+                            biz.getIdentity()));
+                } else {
+                    thread.setContextClassLoader(getMasterBizClassLoader());
+                    ArkLoggerFactory.getDefaultLogger().info(
+                        String.format("Reset context class loader of %s from biz %s",
+                            BizLeakScanner.describe(thread), biz.getIdentity()));
+                }
+            }
+            for (Object[] entry : BizLeakScanner.getThreadLocals(thread)) {
+                if (BizLeakScanner.isOfBiz(entry[0], bizClassLoader)
+                    || BizLeakScanner.isOfBiz(entry[1], bizClassLoader)) {
+                    ArkLoggerFactory.getDefaultLogger().warn(
+                        String.format("Biz %s leaves %s of %s", biz.getIdentity(),
+                            BizLeakScanner.describeThreadLocal(entry),
+                            BizLeakScanner.describe(thread)));
+                }
+            }
+        }
+    }
+
+    private void removeThreadLocals(Biz biz, ClassLoader bizClassLoader) {
+        for (Object[] entry : BizLeakScanner.getThreadLocals(Thread.currentThread())) {
+            if (entry[0] instanceof ThreadLocal
+                && (BizLeakScanner.isOfBiz(entry[0], bizClassLoader) || BizLeakScanner.isOfBiz(
+                    entry[1], bizClassLoader))) {
+                ((ThreadLocal<?>) entry[0]).remove();
+                ArkLoggerFactory.getDefaultLogger().info(
+                    String.format("Remove %s of biz %s from current thread",
+                        BizLeakScanner.describeThreadLocal(entry), biz.getIdentity()));
+            }
+        }
+    }
+
+    /**
+     * Cancel timer of the timer thread like {@link java.util.Timer#cancel()}, the thread exits
+     * once current task is done
+     */
+    static boolean cancelTimer(Thread timerThread) {
+        Field newTasksMayBeScheduled = BizLeakScanner.getField(timerThread.getClass(),
+            "newTasksMayBeScheduled");
+        Object queue = BizLeakScanner.readField(timerThread.getClass(), "queue", timerThread);
+        if (newTasksMayBeScheduled == null || queue == null) {
+            return false;
+        }
+        try {
+            synchronized (queue) {
+                newTasksMayBeScheduled.setBoolean(timerThread, false);
+                Method clear = queue.getClass().getDeclaredMethod("clear");
+                clear.setAccessible(true);
+                clear.invoke(queue);
+                queue.notify();
+            }
+            return true;
+        } catch (Throwable e) {
+            ArkLoggerFactory.getDefaultLogger().debug(
+                String.format("Failed to cancel timer %s: %s", timerThread.getName(), e));
+            return false;
+        }
+    }
+
+    private static ClassLoader getMasterBizClassLoader() {
+        Biz masterBiz = ArkClient.getMasterBiz();
+        return masterBiz == null ? ClassLoader.getSystemClassLoader() : masterBiz
+            .getBizClassLoader();
+    }
+
+    @Override
+    public int getPriority() {
+        return DEFAULT_PRECEDENCE;
+    }
+}
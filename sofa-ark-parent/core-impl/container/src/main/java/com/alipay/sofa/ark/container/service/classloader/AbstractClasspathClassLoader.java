@@ -22,33 +22,45 @@ import com.alipay.sofa.ark.common.log.ArkLoggerFactory;
 import com.alipay.sofa.ark.common.util.StringUtils;
 import com.alipay.sofa.ark.container.model.BizModel;
 import com.alipay.sofa.ark.container.model.PluginModel;
+import com.alipay.sofa.ark.container.service.ArkServiceContainer;
 import com.alipay.sofa.ark.container.service.ArkServiceContainerHolder;
 import com.alipay.sofa.ark.exception.ArkLoaderException;
 import com.alipay.sofa.ark.loader.jar.Handler;
 import com.alipay.sofa.ark.loader.jar.JarUtils;
+import com.alipay.sofa.ark.loader.jar.RootJarFileCache;
 import com.alipay.sofa.ark.spi.constant.Constants;
+import com.alipay.sofa.ark.spi.model.Biz;
+import com.alipay.sofa.ark.spi.model.Plugin;
+import com.alipay.sofa.ark.spi.service.biz.BizManagerService;
 import com.alipay.sofa.ark.spi.service.classloader.ClassLoaderService;
+import com.alipay.sofa.ark.spi.service.classloader.ClassLoadingMetricsSource;
+import com.alipay.sofa.ark.spi.service.plugin.PluginManagerService;
 import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import org.apache.commons.io.FileUtils;
 
-import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
-import java.io.InputStream;
 import java.net.JarURLConnection;
 import java.net.URL;
 import java.net.URLClassLoader;
 import java.net.URLConnection;
+import java.nio.ByteBuffer;
 import java.security.AccessController;
 import java.security.PrivilegedExceptionAction;
+import java.security.ProtectionDomain;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Enumeration;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.jar.JarFile;
 
 import static com.google.common.cache.CacheBuilder.newBuilder;
@@ -61,23 +73,60 @@ import static java.util.concurrent.TimeUnit.SECONDS;
  * @author ruoshan
  * @since 0.1.0
  */
-public abstract class AbstractClasspathClassLoader extends URLClassLoader {
+public abstract class AbstractClasspathClassLoader extends URLClassLoader implements
+                                                                         ClassLoadingMetricsSource {
 
-    protected static final String              CLASS_RESOURCE_SUFFIX = ".class";
+    protected static final String              CLASS_RESOURCE_SUFFIX      = ".class";
 
-    protected ClassLoaderService               classloaderService    = ArkServiceContainerHolder
-                                                                         .getContainer()
-                                                                         .getService(
-                                                                             ClassLoaderService.class);
+    /**
+     * how long a class miss is cached in generation mode, as long as class results in time-based mode
+     */
+    private static final long                  CLASS_MISS_EXPIRE_NANOS    = SECONDS.toNanos(30);
+
+    protected ClassLoaderService               classloaderService         = ArkServiceContainerHolder
+                                                                              .getContainer()
+                                                                              .getService(
+                                                                                  ClassLoaderService.class);
 
     protected Cache<String, LoadClassResult>   classCache;
 
     protected Cache<String, Optional<Package>> packageCache;
 
-    protected Cache<String, Optional<URL>>     urlResourceCache      = newBuilder()
-                                                                         .expireAfterWrite(10,
-                                                                             SECONDS).build();
-    protected boolean                          exploded              = false;
+    protected Cache<String, Optional<URL>>     urlResourceCache;
+
+    protected boolean                          exploded                   = false;
+
+    protected final boolean                    generationCache            = ArkConfigs
+                                                                              .getBooleanValue(
+                                                                                  Constants.ARK_CLASSLOADER_CACHE_GENERATION_ENABLE,
+                                                                                  false);
+
+    private final AtomicLong                   cacheGeneration            = new AtomicLong();
+
+    private volatile long                      validCacheGeneration;
+
+    protected final boolean                    negativeClassFilterEnabled = ArkConfigs
+                                                                              .getBooleanValue(
+                                                                                  Constants.ARK_CLASSLOADER_NEGATIVE_FILTER_ENABLE,
+                                                                                  false);
+
+    private volatile NegativeClassFilter       negativeClassFilter;
+
+    /**
+     * root jar files of the classpath, held in the root file cache until this class loader is
+     * closed, guarded by itself
+     */
+    private final Set<File>                    heldRootFiles              = RootJarFileCache
+                                                                              .getRootFiles(getURLs());
+
+    /**
+     * null if metrics is disabled, so that it costs a null check only
+     */
+    protected final ClassLoadingMetrics        metrics                    = ArkConfigs
+                                                                              .getBooleanValue(
+                                                                                  Constants.ARK_CLASSLOADER_METRICS_ENABLE,
+                                                                                  false) ? new ClassLoadingMetrics()
+                                                                              : null;
 
     static {
         ClassLoader.registerAsParallelCapable();
@@ -85,23 +134,215 @@ public abstract class AbstractClasspathClassLoader extends URLClassLoader {
 
     public AbstractClasspathClassLoader(URL[] urls) {
         super(urls, null);
-        classCache = newBuilder()
-            .initialCapacity(
-                ArkConfigs.getIntValue(Constants.ARK_CLASSLOADER_CACHE_CLASS_SIZE_INITIAL, 2500))
-            .maximumSize(
-                ArkConfigs.getIntValue(Constants.ARK_CLASSLOADER_CACHE_CLASS_SIZE_MAX, 2500))
-            .concurrencyLevel(
-                ArkConfigs.getIntValue(Constants.ARK_CLASSLOADER_CACHE_CONCURRENCY_LEVEL, 16))
-            .expireAfterWrite(30, SECONDS).recordStats().build();
-
-        packageCache = newBuilder()
-            .initialCapacity(
-                ArkConfigs.getIntValue(Constants.ARK_CLASSLOADER_CACHE_CLASS_SIZE_INITIAL, 2000))
-            .maximumSize(
-                ArkConfigs.getIntValue(Constants.ARK_CLASSLOADER_CACHE_CLASS_SIZE_MAX, 2000))
+        classCache = newCacheBuilder(
+            ArkConfigs.getIntValue(Constants.ARK_CLASSLOADER_CACHE_CLASS_SIZE_INITIAL, 2500),
+            ArkConfigs.getIntValue(Constants.ARK_CLASSLOADER_CACHE_CLASS_SIZE_MAX, 2500), 30)
+            .recordStats().build();
+
+        packageCache = newCacheBuilder(
+            ArkConfigs.getIntValue(Constants.ARK_CLASSLOADER_CACHE_CLASS_SIZE_INITIAL, 2000),
+            ArkConfigs.getIntValue(Constants.ARK_CLASSLOADER_CACHE_CLASS_SIZE_MAX, 2000), 30)
+            .recordStats().build();
+
+        // resource cache is bounded by size instead of time in generation mode
+        CacheBuilder<Object, Object> resourceCacheBuilder = generationCache ? newCacheBuilder(16,
+            ArkConfigs.getIntValue(Constants.ARK_CLASSLOADER_CACHE_CLASS_SIZE_MAX, 2500), 0)
+            : newBuilder().expireAfterWrite(10, SECONDS);
+        urlResourceCache = (metrics != null ? resourceCacheBuilder.recordStats()
+            : resourceCacheBuilder).build();
+
+        for (File rootFile : heldRootFiles) {
+            Handler.getRootFileCache().hold(rootFile);
+        }
+    }
+
+    /**
+     * build cache whose entries expire after write in time-based mode, or never expire in
+     * generation mode
+     */
+    private CacheBuilder<Object, Object> newCacheBuilder(int initialCapacity, int maximumSize,
+                                                         int expireSeconds) {
+        CacheBuilder<Object, Object> builder = newBuilder()
+            .initialCapacity(initialCapacity)
+            .maximumSize(maximumSize)
             .concurrencyLevel(
-                ArkConfigs.getIntValue(Constants.ARK_CLASSLOADER_CACHE_CONCURRENCY_LEVEL, 16))
-            .expireAfterWrite(30, SECONDS).recordStats().build();
+                ArkConfigs.getIntValue(Constants.ARK_CLASSLOADER_CACHE_CONCURRENCY_LEVEL, 16));
+        return generationCache ? builder : builder.expireAfterWrite(expireSeconds, SECONDS);
+    }
+
+    /**
+     * Size class cache by the class count of classpath in generation mode, so that classes of
+     * classpath are kept in cache besides the configured size for classes delegated to others.
+     * It must be called before the classloader is used.
+     *
+     * @param classCount class count of classpath
+     */
+    public void sizeClassCache(int classCount) {
+        if (!generationCache || classCount <= 0) {
+            return;
+        }
+        int maximumSize = classCount
+                          + ArkConfigs.getIntValue(Constants.ARK_CLASSLOADER_CACHE_CLASS_SIZE_MAX,
+                              2500);
+        classCache = newCacheBuilder(maximumSize, maximumSize, 0).recordStats().build();
+    }
+
+    /**
+     * Bump cache generation of this classloader when the classes it imports from others may
+     * change, its caches are invalidated on next access in generation mode.
+     *
+     * @return new generation
+     */
+    public long bumpCacheGeneration() {
+        return cacheGeneration.incrementAndGet();
+    }
+
+    public long getCacheGeneration() {
+        return cacheGeneration.get();
+    }
+
+    /**
+     * Whether classes and resources resolved by this classloader may change when the biz is
+     * installed, uninstalled or switched. Other bizs are only reachable through classloader hook.
+     *
+     * @param biz biz installed, uninstalled or switched
+     * @return
+     */
+    protected boolean isCacheAffectedBy(Biz biz) {
+        return false;
+    }
+
+    /**
+     * Bump cache generation of classloaders of bizs and plugins affected by the biz, when it is
+     * installed, uninstalled or switched
+     *
+     * @param biz biz installed, uninstalled or switched
+     */
+    public static void bumpCacheGenerations(Biz biz) {
+        for (ClassLoader classLoader : getContainerClassLoaders()) {
+            if (classLoader instanceof AbstractClasspathClassLoader
+                && ((AbstractClasspathClassLoader) classLoader).isCacheAffectedBy(biz)) {
+                ((AbstractClasspathClassLoader) classLoader).bumpCacheGeneration();
+            }
+        }
+    }
+
+    /**
+     * Bump cache generation of classloaders of all bizs and plugins, when exports of plugins
+     * change
+     */
+    public static void bumpAllCacheGenerations() {
+        for (ClassLoader classLoader : getContainerClassLoaders()) {
+            if (classLoader instanceof AbstractClasspathClassLoader) {
+                ((AbstractClasspathClassLoader) classLoader).bumpCacheGeneration();
+            }
+        }
+    }
+
+    private static List<ClassLoader> getContainerClassLoaders() {
+        List<ClassLoader> classLoaders = new ArrayList<>();
+        ArkServiceContainer container = ArkServiceContainerHolder.getContainer();
+        if (container == null) {
+            return classLoaders;
+        }
+        BizManagerService bizManagerService = container.getService(BizManagerService.class);
+        if (bizManagerService != null) {
+            for (Biz biz : bizManagerService.getBizInOrder()) {
+                classLoaders.add(biz.getBizClassLoader());
+            }
+        }
+        PluginManagerService pluginManagerService = container
+            .getService(PluginManagerService.class);
+        if (pluginManagerService != null) {
+            for (Plugin plugin : pluginManagerService.getPluginsInOrder()) {
+                classLoaders.add(plugin.getPluginClassLoader());
+            }
+        }
+        return classLoaders;
+    }
+
+    /**
+     * Whether the class is definitely not reachable by this classloader, so that it can be
+     * answered as not found without probing jars. Jdk classes and ark classes are never
+     * filtered, neither are classes of a classloader whose hook may provide classes outside
+     * the filter.
+     *
+     * @param name class name
+     * @return
+     */
+    protected boolean isNegativeClass(String name) {
+        if (!negativeClassFilterEnabled || classloaderService.isArkSpiClass(name)
+            || classloaderService.isArkApiClass(name) || classloaderService.isArkLogClass(name)
+            || classloaderService.isArkExceptionClass(name)) {
+            return false;
+        }
+        NegativeClassFilter filter = getNegativeClassFilter();
+        if (ClassIndex.inJdkPackage(name) || !isHookCoveredByNegativeFilter(filter)
+            || filter.mightContain(name)) {
+            return false;
+        }
+        filter.recordAbsorbed();
+        return true;
+    }
+
+    /**
+     * Get negative class filter of this classloader, it's created on first use
+     *
+     * @return null if negative class filter is disabled
+     */
+    public NegativeClassFilter getNegativeClassFilter() {
+        if (!negativeClassFilterEnabled) {
+            return null;
+        }
+        NegativeClassFilter filter = negativeClassFilter;
+        if (filter == null) {
+            synchronized (this) {
+                filter = negativeClassFilter;
+                if (filter == null) {
+                    ClassIndex.initJdkPackages(classloaderService.getJDKClassLoader());
+                    filter = new NegativeClassFilter(getLocalClassNames(),
+                        ArkServiceContainerHolder.getContainer().getService(
+                            PluginManagerService.class), classloaderService);
+                    negativeClassFilter = filter;
+                }
+            }
+        }
+        return filter;
+    }
+
+    /**
+     * Class names of local classpath which are not shared with other classloaders
+     *
+     * @return
+     */
+    protected Collection<String> getLocalClassNames() {
+        return Collections.emptySet();
+    }
+
+    /**
+     * Whether classes provided by classloader hook are all covered by negative class filter
+     *
+     * @param filter negative class filter
+     * @return
+     */
+    protected boolean isHookCoveredByNegativeFilter(NegativeClassFilter filter) {
+        return false;
+    }
+
+    /**
+     * invalidate all caches if cache generation changed since last access
+     */
+    protected void checkCacheGeneration() {
+        if (!generationCache) {
+            return;
+        }
+        long generation = cacheGeneration.get();
+        if (validCacheGeneration != generation) {
+            // invalidate before the generation is published, so that no concurrent access skips
+            // the invalidation, class results computed in old generation are dropped on read
+            invalidAllCache();
+            validCacheGeneration = generation;
+        }
     }
 
     public AbstractClasspathClassLoader(URL[] urls, boolean exploded) {
@@ -109,6 +350,21 @@ public abstract class AbstractClasspathClassLoader extends URLClassLoader {
         this.exploded = exploded;
     }
 
+    /**
+     * Release root jar files of the classpath, so they are closed once evicted from the root
+     * file cache, besides closing the class path
+     */
+    @Override
+    public void close() throws IOException {
+        super.close();
+        synchronized (heldRootFiles) {
+            for (File rootFile : heldRootFiles) {
+                Handler.getRootFileCache().release(rootFile);
+            }
+            heldRootFiles.clear();
+        }
+    }
+
     @Override
     protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
         if (StringUtils.isEmpty(name)) {
@@ -116,6 +372,7 @@ public abstract class AbstractClasspathClassLoader extends URLClassLoader {
         }
         Handler.setUseFastConnectionExceptions(true);
         try {
+            checkCacheGeneration();
             if (!exploded) {
                 definePackageIfNecessary(name);
             }
@@ -212,15 +469,22 @@ public abstract class AbstractClasspathClassLoader extends URLClassLoader {
      */
     protected Class<?> loadClassWithCache(String name, boolean resolve) throws ArkLoaderException {
         try {
-            LoadClassResult resultInCache = classCache.get(name, () -> {
-                LoadClassResult r = new LoadClassResult();
-                try {
-                    r.setClazz(loadClassInternal(name, resolve));
-                } catch (ArkLoaderException ex) {
-                    r.setEx(ex);
+            Callable<LoadClassResult> loader = () -> loadClassResult(name, resolve);
+            LoadClassResult resultInCache = classCache.get(name, loader);
+            if (generationCache && resultInCache.getEx() != null) {
+                // class may be defined by this classloader after the miss is cached
+                Class<?> loadedClass = findLoadedClass(name);
+                if (loadedClass != null) {
+                    LoadClassResult r = new LoadClassResult(cacheGeneration.get());
+                    r.setClazz(loadedClass);
+                    classCache.put(name, r);
+                    return loadedClass;
                 }
-                return r;
-            });
+            }
+            if (generationCache && isStale(resultInCache)) {
+                classCache.asMap().remove(name, resultInCache);
+                resultInCache = classCache.get(name, loader);
+            }
 
             if (resultInCache.getEx() != null) {
                 throw resultInCache.getEx();
@@ -234,6 +498,34 @@ public abstract class AbstractClasspathClassLoader extends URLClassLoader {
         }
     }
 
+    private LoadClassResult loadClassResult(String name, boolean resolve) {
+        // generation is taken before loading, so the result is stale once the generation bumps
+        LoadClassResult r = new LoadClassResult(cacheGeneration.get());
+        long start = metrics == null ? 0L : System.nanoTime();
+        try {
+            r.setClazz(loadClassInternal(name, resolve));
+        } catch (ArkLoaderException ex) {
+            r.setEx(ex);
+        }
+        if (metrics != null) {
+            metrics.recordLoad(System.nanoTime() - start, r.getClazz() != null);
+        }
+        return r;
+    }
+
+    /**
+     * Class results never expire in generation mode, but a result computed in an old generation
+     * is stale, and so is a miss cached for longer than results live in time-based mode, since
+     * the class may be defined or exported later without a generation bump
+     */
+    private boolean isStale(LoadClassResult result) {
+        if (result.getGeneration() != cacheGeneration.get()) {
+            return true;
+        }
+        return result.getEx() != null
+               && System.nanoTime() - result.getCreateNanos() > CLASS_MISS_EXPIRE_NANOS;
+    }
+
     /**
      * Real logic to load class，need to implement by Sub ClassLoader
      * @param name
@@ -244,9 +536,61 @@ public abstract class AbstractClasspathClassLoader extends URLClassLoader {
     abstract protected Class<?> loadClassInternal(String name, boolean resolve)
                                                                                throws ArkLoaderException;
 
+    /**
+     * Start time of the first step of {@code loadClassInternal}
+     *
+     * @return 0 if metrics is disabled
+     */
+    protected long startStep() {
+        return metrics == null ? 0L : System.nanoTime();
+    }
+
+    /**
+     * Record a step of {@code loadClassInternal} started at the given time
+     *
+     * @param step  step executed
+     * @param start start time of the step
+     * @param hit   whether the step answers the load
+     * @return start time of the next step, 0 if metrics is disabled
+     */
+    protected long endStep(ClassLoadingMetrics.Step step, long start, boolean hit) {
+        if (metrics == null) {
+            return 0L;
+        }
+        long now = System.nanoTime();
+        metrics.recordStep(step, now - start, hit);
+        return now;
+    }
+
+    /**
+     * Get class loading metrics of this classloader
+     *
+     * @return null if metrics is disabled
+     */
+    public ClassLoadingMetrics getMetrics() {
+        return metrics;
+    }
+
+    @Override
+    public Map<String, Object> getClassLoadingMetrics() {
+        if (metrics == null) {
+            return null;
+        }
+        Map<String, Object> snapshot = metrics.snapshot();
+        snapshot.put("classCache", ClassLoadingMetrics.snapshot(classCache.stats()));
+        snapshot.put("packageCache", ClassLoadingMetrics.snapshot(packageCache.stats()));
+        snapshot.put("resourceCache", ClassLoadingMetrics.snapshot(urlResourceCache.stats()));
+        NegativeClassFilter filter = negativeClassFilter;
+        if (filter != null) {
+            snapshot.put("negativeFilterAbsorbed", filter.getAbsorbedCount());
+        }
+        return snapshot;
+    }
+
     @Override
     public URL getResource(String name) {
         Handler.setUseFastConnectionExceptions(true);
+        checkCacheGeneration();
         Optional<URL> urlOptional = urlResourceCache.getIfPresent(name);
         try {
             if (urlOptional != null) {
@@ -414,45 +758,76 @@ public abstract class AbstractClasspathClassLoader extends URLClassLoader {
         if (!PluginModel.EXPORTMODE_OVERRIDE.equals(classloaderService.getExportMode(name))) {
             return doResolveExportClass(name);
         } else {
-            ClassLoader classLoader = classloaderService.findExportClassLoader(name);
-            URL url = classLoader.getResource(name.replace('.', '/') + ".class");
-            if (url != null) {
-                String filePath = url.getFile().replaceFirst("file:", "");
-                try {
-                    byte[] bytes;
-                    if (filePath.contains(".jar")) {
-                        bytes = getClassBytesFromJar(filePath, name.replace('.', '/') + ".class");
-                    } else {
-                        bytes = FileUtils.readFileToByteArray(new File(filePath));
-                    }
-                    return defineClass(name, bytes, 0, bytes.length);
-                } catch (Exception e) {
-                    ArkLoggerFactory.getDefaultLogger().warn(
-                        String.format("can't convert class to reLoad by bizClassLoader: %s",
-                            e.getMessage()));
-                    throw new RuntimeException(e);
+            Plugin plugin = classloaderService.findExportPlugin(name);
+            ExportOverrideClassCache overrideClassCache = ExportOverrideClassCache.getInstance();
+            try {
+                if (overrideClassCache.isEnabled()) {
+                    byte[] bytes = overrideClassCache.get(plugin, name, this,
+                        () -> readExportClass(plugin.getPluginClassLoader(), name));
+                    return bytes == null ? null : defineClass(name, bytes, 0, bytes.length);
                 }
-            } else {
-                return null;
+                String filePath = getExportClassPath(plugin.getPluginClassLoader(), name);
+                if (filePath == null) {
+                    return null;
+                }
+                if (filePath.contains(".jar")) {
+                    return defineClassFromJar(name, filePath, name.replace('.', '/') + ".class");
+                }
+                byte[] bytes = FileUtils.readFileToByteArray(new File(filePath));
+                return defineClass(name, bytes, 0, bytes.length);
+            } catch (Exception e) {
+                ArkLoggerFactory.getDefaultLogger().warn(
+                    String.format("can't convert class to reLoad by bizClassLoader: %s",
+                        e.getMessage()));
+                throw new RuntimeException(e);
             }
         }
     }
 
-    private byte[] getClassBytesFromJar(String jarFilePath, String className) throws IOException {
-        try (com.alipay.sofa.ark.loader.jar.JarFile jarFile = JarUtils
-            .getNestedRootJarFromJarLocation(jarFilePath);
-                InputStream inputStream = jarFile.getInputStream(jarFile.getJarEntry(className))) {
-            ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
-            int bufferSize = 4096;
-            byte[] buffer = new byte[bufferSize];
-            int bytesRead;
-
-            while ((bytesRead = inputStream.read(buffer, 0, bufferSize)) != -1) {
-                byteArrayOutputStream.write(buffer, 0, bytesRead);
-            }
+    private String getExportClassPath(ClassLoader classLoader, String name) {
+        URL url = classLoader.getResource(name.replace('.', '/') + ".class");
+        return url == null ? null : url.getFile().replaceFirst("file:", "");
+    }
 
-            return byteArrayOutputStream.toByteArray();
+    /**
+     * Read bytes of the class exported in override mode, returns null if the class is not found
+     */
+    private byte[] readExportClass(ClassLoader classLoader, String name) throws IOException {
+        String filePath = getExportClassPath(classLoader, name);
+        if (filePath == null) {
+            return null;
+        }
+        if (!filePath.contains(".jar")) {
+            return FileUtils.readFileToByteArray(new File(filePath));
         }
+        String className = name.replace('.', '/') + ".class";
+        com.alipay.sofa.ark.loader.jar.JarFile jarFile = JarUtils
+            .getNestedRootJarFromJarLocation(filePath);
+        ByteBuffer byteBuffer = jarFile.getByteBuffer(jarFile.getJarEntry(className));
+        if (byteBuffer == null) {
+            throw new IOException(String.format("Class entry %s is not found in %s", className,
+                filePath));
+        }
+        byte[] bytes = new byte[byteBuffer.remaining()];
+        byteBuffer.get(bytes);
+        return bytes;
+    }
+
+    /**
+     * Define class from the class entry buffer of the jar, the buffer may be a view of the
+     * memory mapped root jar file, which is kept open by the root file cache while it is held
+     * by this class loader.
+     */
+    private Class<?> defineClassFromJar(String name, String jarFilePath, String className)
+                                                                                          throws IOException {
+        com.alipay.sofa.ark.loader.jar.JarFile jarFile = JarUtils
+            .getNestedRootJarFromJarLocation(jarFilePath);
+        ByteBuffer byteBuffer = jarFile.getByteBuffer(jarFile.getJarEntry(className));
+        if (byteBuffer == null) {
+            throw new IOException(String.format("Class entry %s is not found in %s", className,
+                jarFilePath));
+        }
+        return defineClass(name, byteBuffer, (ProtectionDomain) null);
     }
 
     private Class<?> doResolveExportClass(String name) {
@@ -737,6 +1112,16 @@ public abstract class AbstractClasspathClassLoader extends URLClassLoader {
     public static class LoadClassResult {
         private ArkLoaderException ex;
         private Class              clazz;
+        private final long         generation;
+        private final long         createNanos = System.nanoTime();
+
+        public LoadClassResult() {
+            this(0L);
+        }
+
+        public LoadClassResult(long generation) {
+            this.generation = generation;
+        }
 
         public ArkLoaderException getEx() {
             return ex;
@@ -753,5 +1138,13 @@ public abstract class AbstractClasspathClassLoader extends URLClassLoader {
         public void setClazz(Class clazz) {
             this.clazz = clazz;
         }
+
+        public long getGeneration() {
+            return generation;
+        }
+
+        public long getCreateNanos() {
+            return createNanos;
+        }
     }
 }
@@ -17,21 +17,40 @@
 package com.alipay.sofa.ark.container.service.classloader;
 
 import com.alipay.sofa.ark.api.ArkClient;
+import com.alipay.sofa.ark.common.log.ArkLoggerFactory;
+import com.alipay.sofa.ark.common.util.FileUtils;
 import com.alipay.sofa.ark.common.util.StringUtils;
 import com.alipay.sofa.ark.container.model.BizModel;
 import com.alipay.sofa.ark.container.service.ArkServiceContainerHolder;
+import com.alipay.sofa.ark.container.service.classloader.ClassLoadingMetrics.Step;
 import com.alipay.sofa.ark.exception.ArkLoaderException;
 import com.alipay.sofa.ark.spi.model.Biz;
 import com.alipay.sofa.ark.spi.service.biz.BizManagerService;
 import com.alipay.sofa.ark.spi.service.classloader.ClassLoaderHook;
 import com.alipay.sofa.ark.spi.service.extension.ArkServiceLoader;
+import org.apache.commons.io.IOUtils;
 
+import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.net.MalformedURLException;
 import java.net.URL;
+import java.nio.ByteBuffer;
+import java.security.CodeSigner;
+import java.security.CodeSource;
 import java.security.ProtectionDomain;
+import java.util.Collection;
 import java.util.Enumeration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.Manifest;
 
+import static com.alipay.sofa.ark.loader.jar.JarUtils.JAR_SEPARATOR;
 import static com.alipay.sofa.ark.spi.constant.Constants.BIZ_CLASS_LOADER_HOOK;
 import static com.alipay.sofa.ark.spi.constant.Constants.BIZ_CLASS_LOADER_HOOK_DIR;
 
@@ -43,15 +62,37 @@ import static com.alipay.sofa.ark.spi.constant.Constants.BIZ_CLASS_LOADER_HOOK_D
  */
 public class BizClassLoader extends AbstractClasspathClassLoader {
 
-    private String               bizIdentity;
-    private BizManagerService    bizManagerService = ArkServiceContainerHolder.getContainer()
-                                                       .getService(BizManagerService.class);
-    private ClassLoaderHook<Biz> bizClassLoaderHook;
-    private AtomicBoolean        isHookLoaded      = new AtomicBoolean(false);
-    private AtomicBoolean        skipLoadHook      = new AtomicBoolean(false);
-    private final Object         lock              = new Object();
+    private static final String                                       DELEGATE_TO_MASTER_BIZ_HOOK = "com.alipay.sofa.ark.support.common.DelegateToMasterBizClassLoaderHook";
 
-    private BizModel             bizModel;
+    private static final String                                       FILE_PROTOCOL               = "file:";
+
+    private String                                                    bizIdentity;
+    private BizManagerService                                         bizManagerService           = ArkServiceContainerHolder
+                                                                                                      .getContainer()
+                                                                                                      .getService(
+                                                                                                          BizManagerService.class);
+    private ClassLoaderHook<Biz>                                      bizClassLoaderHook;
+    private AtomicBoolean                                             isHookLoaded                = new AtomicBoolean(
+                                                                                                      false);
+    private AtomicBoolean                                             skipLoadHook                = new AtomicBoolean(
+                                                                                                      false);
+    private final Object                                              lock                        = new Object();
+
+    private BizModel                                                  bizModel;
+
+    private ClassIndex                                                classIndex;
+
+    /**
+     * root jar files opened to define indexed classes, closed by {@link #close()}
+     */
+    final ConcurrentMap<File, com.alipay.sofa.ark.loader.jar.JarFile> indexedRootJarFiles         = new ConcurrentHashMap<>();
+
+    private final ReadWriteLock                                       indexedJarFileLock          = new ReentrantReadWriteLock();
+
+    /**
+     * guarded by indexedJarFileLock
+     */
+    private boolean                                                   indexedJarFilesClosed;
 
     public void setBizModel(BizModel bizModel) {
         this.bizModel = bizModel;
@@ -80,6 +121,10 @@ public class BizClassLoader extends AbstractClasspathClassLoader {
         return defineClass(name, b, 0, b.length, protectionDomain);
     }
 
+    public Class<?> publicDefineClass(String name, ByteBuffer b, ProtectionDomain protectionDomain) {
+        return defineClass(name, b, protectionDomain);
+    }
+
     @Override
     protected Class<?> loadClassInternal(String name, boolean resolve) throws ArkLoaderException {
         Class<?> clazz = null;
@@ -93,44 +138,70 @@ public class BizClassLoader extends AbstractClasspathClassLoader {
                         bizIdentity, name));
         }
 
+        long start = startStep();
+
         // 1. findLoadedClass
         if (clazz == null) {
             clazz = findLoadedClass(name);
+            start = endStep(Step.FIND_LOADED, start, clazz != null);
+        }
+
+        // 1.1 Indexed class, skip probing the chain when the owner is known
+        if (clazz == null && classIndex != null) {
+            clazz = resolveIndexedClass(name);
+            start = endStep(Step.CLASS_INDEX, start, clazz != null);
+        }
+
+        // 1.2 Class definitely not reachable, skip probing jars
+        if (clazz == null && negativeClassFilterEnabled) {
+            boolean negative = isNegativeClass(name);
+            start = endStep(Step.NEGATIVE_FILTER, start, negative);
+            if (negative) {
+                throw new ArkLoaderException(String.format(
+                    "[ArkBiz Loader] %s : can not load class: %s", bizIdentity, name));
+            }
         }
 
         // 2. JDK related class
         if (clazz == null) {
             clazz = resolveJDKClass(name);
+            start = endStep(Step.JDK, start, clazz != null);
         }
 
         // 3. Ark Spi class
         if (clazz == null) {
             clazz = resolveArkClass(name);
+            start = endStep(Step.ARK, start, clazz != null);
         }
 
         // 4. pre find class
         if (clazz == null) {
             clazz = preLoadClass(name);
+            start = endStep(Step.PRE_FIND, start, clazz != null);
         }
 
         // 5. Plugin Export class
         if (clazz == null) {
             clazz = resolveExportClass(name);
+            start = endStep(Step.EXPORT, start, clazz != null);
         }
 
         // 6. Biz classpath class
         if (clazz == null) {
             clazz = resolveLocalClass(name);
+            start = endStep(Step.LOCAL, start, clazz != null);
         }
 
         // 7. Java Agent ClassLoader for agent problem
         if (clazz == null) {
             clazz = resolveJavaAgentClass(name);
+            start = endStep(Step.JAVA_AGENT, start, clazz != null);
         }
 
         // 8. post find class
         if (clazz == null) {
             clazz = postLoadClass(name);
+            start = endStep(Step.POST_FIND, start, clazz != null);
         }
 
         if (clazz != null) {
@@ -144,6 +215,246 @@ public class BizClassLoader extends AbstractClasspathClassLoader {
             bizIdentity, name));
     }
 
+    /**
+     * Resolve class by class index, only jdk class and biz classpath class which is neither
+     * ark class nor exported by plugin are resolved here, others are left to the chain.
+     * @param name class name
+     * @return null if the class is not resolved by index
+     * @throws ArkLoaderException
+     */
+    private Class<?> resolveIndexedClass(String name) throws ArkLoaderException {
+        if (classIndex.isJdkClass(name)) {
+            return resolveJDKClass(name);
+        }
+
+        URL location = classIndex.findLocation(name);
+        if (location == null) {
+            return null;
+        }
+
+        Class<?> clazz = resolveArkClass(name);
+        if (clazz != null) {
+            return clazz;
+        }
+
+        if (shouldFindExportedClass(name) && classloaderService.findExportPlugin(name) != null) {
+            return null;
+        }
+
+        clazz = preLoadClass(name);
+        if (clazz != null) {
+            return clazz;
+        }
+        return defineIndexedClass(name, location);
+    }
+
+    private Class<?> defineIndexedClass(String name, URL location) {
+        synchronized (getClassLoadingLock(name)) {
+            Class<?> clazz = findLoadedClass(name);
+            if (clazz != null) {
+                return clazz;
+            }
+            String entryName = name.replace('.', '/') + CLASS_RESOURCE_SUFFIX;
+            try {
+                URL jarURL = toJarURL(location);
+                if (jarURL == null) {
+                    // classes directory, no manifest nor signers, the same as URLClassLoader
+                    try (InputStream inputStream = new URL(location, entryName).openStream()) {
+                        byte[] bytes = IOUtils.toByteArray(inputStream);
+                        definePackageIfAbsent(name, null, location);
+                        return defineClass(name, bytes, 0, bytes.length, new CodeSource(location,
+                            (CodeSigner[]) null));
+                    }
+                }
+
+                indexedJarFileLock.readLock().lock();
+                try {
+                    com.alipay.sofa.ark.loader.jar.JarFile jarFile = getIndexedJarFile(jarURL);
+                    if (jarFile == null) {
+                        return null;
+                    }
+                    JarEntry jarEntry = jarFile.getJarEntry(entryName);
+                    if (jarEntry == null) {
+                        return null;
+                    }
+                    definePackageIfAbsent(name, jarFile.getManifest(), location);
+                    // define from the entry buffer, a view of the mapped jar if possible, which
+                    // is valid until the jar file is closed by close()
+                    ByteBuffer byteBuffer = jarFile.getByteBuffer(jarEntry);
+                    return defineClass(name, byteBuffer,
+                        new CodeSource(location, jarEntry.getCodeSigners()));
+                } finally {
+                    indexedJarFileLock.readLock().unlock();
+                }
+            } catch (IOException e) {
+                if (ArkLoggerFactory.getDefaultLogger().isDebugEnabled()) {
+                    ArkLoggerFactory
+                        .getDefaultLogger()
+                        .debug(
+                            String
+                                .format("Fail to define indexed class %s from %s", name, location),
+                            e);
+                }
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Jar file of a jar url, root jar files are opened by this class loader once and closed by
+     * {@link #close()} together with their nested jar files. The caller must hold the read lock.
+     * @param jarURL jar url of a classpath location
+     * @return null if the location isn't a local jar or this class loader is closed
+     * @throws IOException if the jar file cannot be opened
+     */
+    private com.alipay.sofa.ark.loader.jar.JarFile getIndexedJarFile(URL jarURL) throws IOException {
+        if (indexedJarFilesClosed) {
+            return null;
+        }
+        String[] paths = jarURL.getFile().split(JAR_SEPARATOR);
+        if (!paths[0].startsWith(FILE_PROTOCOL)) {
+            return null;
+        }
+        File file = FileUtils.file(paths[0].substring(FILE_PROTOCOL.length()));
+        com.alipay.sofa.ark.loader.jar.JarFile jarFile = indexedRootJarFiles.get(file);
+        if (jarFile == null) {
+            com.alipay.sofa.ark.loader.jar.JarFile created = new com.alipay.sofa.ark.loader.jar.JarFile(
+                file);
+            jarFile = indexedRootJarFiles.putIfAbsent(file, created);
+            if (jarFile == null) {
+                jarFile = created;
+            } else {
+                created.close();
+            }
+        }
+        for (int i = 1; i < paths.length && jarFile != null; i++) {
+            if (!paths[i].isEmpty()) {
+                JarEntry jarEntry = jarFile.getJarEntry(paths[i]);
+                jarFile = jarEntry == null ? null : jarFile.getNestedJarFile(jarEntry);
+            }
+        }
+        return jarFile;
+    }
+
+    /**
+     * Close jar files opened to define indexed classes, besides closing the class path
+     */
+    @Override
+    public void close() throws IOException {
+        super.close();
+        indexedJarFileLock.writeLock().lock();
+        try {
+            indexedJarFilesClosed = true;
+            for (com.alipay.sofa.ark.loader.jar.JarFile jarFile : indexedRootJarFiles.values()) {
+                jarFile.close();
+            }
+            indexedRootJarFiles.clear();
+        } finally {
+            indexedJarFileLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Url of the jar root of a classpath location, resolved the same way as URLClassPath:
+     * locations ending with '/' are directories unless they are jar urls, others are jar files.
+     * @param location classpath location
+     * @return null if the location is a directory
+     * @throws MalformedURLException
+     */
+    static URL toJarURL(URL location) throws MalformedURLException {
+        if (!location.getFile().endsWith("/")) {
+            return new URL("jar:" + location.toExternalForm() + "!/");
+        }
+        return "jar".equals(location.getProtocol()) ? location : null;
+    }
+
+    /**
+     * Define the package of class from the manifest of its jar, with sealing checked the same
+     * as {@link java.net.URLClassLoader}
+     */
+    private void definePackageIfAbsent(String className, Manifest manifest, URL location) {
+        int lastDot = className.lastIndexOf('.');
+        if (lastDot < 0) {
+            return;
+        }
+        String packageName = className.substring(0, lastDot);
+        Package pkg = getPackage(packageName);
+        if (pkg == null) {
+            try {
+                if (manifest != null) {
+                    definePackage(packageName, manifest, location);
+                } else {
+                    definePackage(packageName, null, null, null, null, null, null, null);
+                }
+                return;
+            } catch (IllegalArgumentException ex) {
+                // Tolerate race condition due to being parallel capable
+                pkg = getPackage(packageName);
+                if (pkg == null) {
+                    return;
+                }
+            }
+        }
+        if (pkg.isSealed()) {
+            if (!pkg.isSealed(location)) {
+                throw new SecurityException("sealing violation: package " + packageName
+                                            + " is sealed");
+            }
+        } else if (manifest != null && isSealed(packageName, manifest)) {
+            throw new SecurityException("sealing violation: can't seal package " + packageName
+                                        + ": already loaded");
+        }
+    }
+
+    private static boolean isSealed(String packageName, Manifest manifest) {
+        Attributes attributes = manifest.getAttributes(packageName.replace('.', '/') + "/");
+        String sealed = attributes == null ? null : attributes.getValue(Attributes.Name.SEALED);
+        if (sealed == null) {
+            sealed = manifest.getMainAttributes().getValue(Attributes.Name.SEALED);
+        }
+        return "true".equalsIgnoreCase(sealed);
+    }
+
+    @Override
+    protected Collection<String> getLocalClassNames() {
+        if (classIndex != null) {
+            return classIndex.getClassNames();
+        }
+        return NegativeClassFilter.listClassNames(bizModel != null ? bizModel.getClassPath()
+            : getURLs());
+    }
+
+    /**
+     * the default hook delegates to master biz only, which is covered if master biz exists
+     */
+    @Override
+    protected boolean isHookCoveredByNegativeFilter(NegativeClassFilter filter) {
+        loadBizClassLoaderHook();
+        return bizClassLoaderHook == null
+               || (DELEGATE_TO_MASTER_BIZ_HOOK.equals(bizClassLoaderHook.getClass().getName()) && filter
+                   .coversMasterBiz());
+    }
+
+    /**
+     * Own biz decides the deny import rules, and other bizs are reachable through the hook only:
+     * the default hook delegates to master biz, other hooks may look up any biz.
+     */
+    @Override
+    protected boolean isCacheAffectedBy(Biz biz) {
+        if (biz == bizModel || bizIdentity.equals(biz.getIdentity())) {
+            return true;
+        }
+        ClassLoaderHook<Biz> hook = bizClassLoaderHook;
+        if (hook == null) {
+            return false;
+        }
+        if (DELEGATE_TO_MASTER_BIZ_HOOK.equals(hook.getClass().getName())) {
+            Biz masterBiz = ArkClient.getMasterBiz();
+            return masterBiz == null || masterBiz == biz;
+        }
+        return true;
+    }
+
     @Override
     boolean shouldFindExportedClass(String className) {
         return !classloaderService.isDeniedImportClass(bizIdentity, className);
@@ -257,4 +568,12 @@ public class BizClassLoader extends AbstractClasspathClassLoader {
     public void setBizIdentity(String bizIdentity) {
         this.bizIdentity = bizIdentity;
     }
+
+    public ClassIndex getClassIndex() {
+        return classIndex;
+    }
+
+    public void setClassIndex(ClassIndex classIndex) {
+        this.classIndex = classIndex;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,300 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.ark.container.service.classloader;
+
+import com.alipay.sofa.ark.common.log.ArkLoggerFactory;
+import com.alipay.sofa.ark.common.util.ClassUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.net.JarURLConnection;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.net.URLConnection;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+/**
+ * Class resolution index of a classpath, maps class name to the classpath location which owns
+ * it and records the packages owned by jdk, so that loading a class doesn't need to probe the
+ * whole delegation chain of ark classloader.
+ *
+ * @since 2.2.15
+ */
+public class ClassIndex {
+
+    private static final String         CLASS_SUFFIX = ".class";
+
+    private static final String         MODULE_INFO  = "module-info.class";
+
+    private static final String         META_INF     = "META-INF/";
+
+    private static final String         VERSIONS_DIR = "META-INF/versions/";
+
+    private static volatile Set<String> jdkPackages;
+
+    private final URL[]                 locations;
+
+    private final Map<String, Integer>  classLocations;
+
+    ClassIndex(URL[] locations, Map<String, Integer> classLocations) {
+        this.locations = locations;
+        this.classLocations = classLocations;
+    }
+
+    /**
+     * Build class index from classpath, the first location wins if a class exists in
+     * multiple locations, the same as {@link URLClassLoader}.
+     *
+     * @param urls classpath
+     * @param jdkClassLoader classloader to load jdk class
+     * @return class index
+     */
+    public static ClassIndex build(URL[] urls, ClassLoader jdkClassLoader) {
+        initJdkPackages(jdkClassLoader);
+        return scan(urls);
+    }
+
+    static ClassIndex scan(URL[] urls) {
+        Map<String, Integer> classLocations = new HashMap<>();
+        for (int i = 0; i < urls.length; i++) {
+            for (String entryName : listEntries(urls[i])) {
+                String className = toIndexedClassName(entryName);
+                if (className != null) {
+                    classLocations.putIfAbsent(className, i);
+                }
+            }
+        }
+        return new ClassIndex(urls, classLocations);
+    }
+
+    /**
+     * Find the classpath location of a class
+     *
+     * @param className class name
+     * @return location, null if the class is not in classpath
+     */
+    public URL findLocation(String className) {
+        Integer index = classLocations.get(className);
+        return index == null ? null : locations[index];
+    }
+
+    /**
+     * Whether the class is in a package owned by jdk
+     *
+     * @param className class name
+     * @return
+     */
+    public boolean isJdkClass(String className) {
+        return inJdkPackage(className);
+    }
+
+    static boolean inJdkPackage(String className) {
+        Set<String> packages = jdkPackages;
+        return packages != null && packages.contains(ClassUtils.getPackageName(className));
+    }
+
+    public URL[] getLocations() {
+        return locations;
+    }
+
+    public Set<String> getClassNames() {
+        return Collections.unmodifiableSet(classLocations.keySet());
+    }
+
+    Map<String, Integer> getClassLocations() {
+        return classLocations;
+    }
+
+    public int size() {
+        return classLocations.size();
+    }
+
+    /**
+     * Class name of a class entry, classes under versioned directory of multi-release jar are
+     * indexed by their base name, since they may exist only there and be loaded on jdk9+.
+     *
+     * @param entryName entry name
+     * @return null if the entry isn't a class
+     */
+    static String toIndexedClassName(String entryName) {
+        if (!entryName.endsWith(CLASS_SUFFIX) || entryName.endsWith(MODULE_INFO)) {
+            return null;
+        }
+        if (!entryName.startsWith(META_INF)) {
+            return toClassName(entryName);
+        }
+        if (entryName.startsWith(VERSIONS_DIR)) {
+            int versionEnd = entryName.indexOf('/', VERSIONS_DIR.length());
+            if (versionEnd > VERSIONS_DIR.length()
+                && isDigits(entryName, VERSIONS_DIR.length(), versionEnd)) {
+                return toClassName(entryName.substring(versionEnd + 1));
+            }
+        }
+        return null;
+    }
+
+    private static boolean isDigits(String value, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (!Character.isDigit(value.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static String toClassName(String entryName) {
+        return entryName.substring(0, entryName.length() - CLASS_SUFFIX.length()).replace('/', '.');
+    }
+
+    static Collection<String> listEntries(URL url) {
+        Set<String> entryNames = new HashSet<>();
+        try {
+            if ("file".equals(url.getProtocol())) {
+                File file = new File(url.toURI());
+                if (file.isDirectory()) {
+                    listDirectoryEntries(file, "", entryNames);
+                } else if (file.isFile()) {
+                    try (JarFile jarFile = new JarFile(file)) {
+                        listJarEntries(jarFile, entryNames);
+                    }
+                }
+            } else {
+                URLConnection connection = url.openConnection();
+                if (connection instanceof JarURLConnection) {
+                    // jar file of ark nested url is shared and cached, don't close it
+                    listJarEntries(((JarURLConnection) connection).getJarFile(), entryNames);
+                }
+            }
+        } catch (Throwable e) {
+            ArkLoggerFactory.getDefaultLogger().warn(
+                String.format("Fail to index classpath entries of %s", url), e);
+        }
+        return entryNames;
+    }
+
+    private static void listJarEntries(JarFile jarFile, Set<String> entryNames) {
+        Enumeration<JarEntry> entries = jarFile.entries();
+        while (entries.hasMoreElements()) {
+            JarEntry entry = entries.nextElement();
+            if (!entry.isDirectory()) {
+                entryNames.add(entry.getName());
+            }
+        }
+    }
+
+    private static void listDirectoryEntries(File dir, String prefix, Set<String> entryNames) {
+        File[] files = dir.listFiles();
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            if (file.isDirectory()) {
+                listDirectoryEntries(file, prefix + file.getName() + "/", entryNames);
+            } else {
+                entryNames.add(prefix + file.getName());
+            }
+        }
+    }
+
+    static void initJdkPackages(ClassLoader jdkClassLoader) {
+        if (jdkPackages != null) {
+            return;
+        }
+        synchronized (ClassIndex.class) {
+            if (jdkPackages == null) {
+                Set<String> packages = new HashSet<>();
+                collectBootPackages(packages);
+                if (jdkClassLoader instanceof URLClassLoader) {
+                    for (URL url : ((URLClassLoader) jdkClassLoader).getURLs()) {
+                        collectPackages(listEntries(url), packages);
+                    }
+                }
+                jdkPackages = packages;
+            }
+        }
+    }
+
+    /**
+     * collect packages of boot module layer on jdk9+, or packages of boot classpath and ext dirs on jdk8
+     */
+    private static void collectBootPackages(Set<String> packages) {
+        try {
+            Class<?> moduleLayerClass = Class.forName("java.lang.ModuleLayer");
+            Object bootLayer = moduleLayerClass.getMethod("boot").invoke(null);
+            Set<?> modules = (Set<?>) moduleLayerClass.getMethod("modules").invoke(bootLayer);
+            for (Object module : modules) {
+                Method getPackages = module.getClass().getMethod("getPackages");
+                for (Object pkg : (Set<?>) getPackages.invoke(module)) {
+                    packages.add((String) pkg);
+                }
+            }
+            return;
+        } catch (ClassNotFoundException e) {
+            // jdk8, fall back to boot classpath
+        } catch (Throwable e) {
+            ArkLoggerFactory.getDefaultLogger().warn("Fail to collect jdk module packages", e);
+            return;
+        }
+
+        String bootClassPath = System.getProperty("sun.boot.class.path");
+        if (bootClassPath != null) {
+            for (String path : bootClassPath.split(File.pathSeparator)) {
+                collectPackages(new File(path), packages);
+            }
+        }
+        String extDirs = System.getProperty("java.ext.dirs");
+        if (extDirs != null) {
+            for (String path : extDirs.split(File.pathSeparator)) {
+                File[] files = new File(path).listFiles();
+                if (files != null) {
+                    for (File file : files) {
+                        if (file.getName().endsWith(".jar")) {
+                            collectPackages(file, packages);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private static void collectPackages(File file, Set<String> packages) {
+        if (file.exists()) {
+            try {
+                collectPackages(listEntries(file.toURI().toURL()), packages);
+            } catch (IOException e) {
+                // ignore
+            }
+        }
+    }
+
+    private static void collectPackages(Collection<String> entryNames, Set<String> packages) {
+        for (String entryName : entryNames) {
+            if (entryName.endsWith(CLASS_SUFFIX) && !entryName.endsWith(MODULE_INFO)) {
+                packages.add(ClassUtils.getPackageName(toClassName(entryName)));
+            }
+        }
+    }
+}
@@ -0,0 +1,268 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.ark.container.service.classloader;
+
+import com.alipay.sofa.ark.api.ArkConfigs;
+import com.alipay.sofa.ark.common.util.LatencyHistogram;
+import com.alipay.sofa.ark.common.util.StringUtils;
+import com.alipay.sofa.ark.container.service.biz.leak.BizLeakDetector;
+import com.alipay.sofa.ark.container.service.biz.leak.BizLeakReport;
+import com.alipay.sofa.ark.container.service.classloader.ClassLoadingMetrics.Step;
+import com.alipay.sofa.ark.spi.constant.Constants;
+import com.alipay.sofa.ark.spi.model.Biz;
+import com.alipay.sofa.ark.spi.model.Plugin;
+import com.alipay.sofa.ark.spi.service.ArkInject;
+import com.alipay.sofa.ark.spi.service.biz.BizManagerService;
+import com.alipay.sofa.ark.spi.service.plugin.PluginManagerService;
+import com.alipay.sofa.ark.spi.service.session.CommandProvider;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Telnet command to show class loading metrics of plugin and biz classloaders, and classloaders
+ * of uninstalled bizs still reachable
+ *
+ * @since 2.2.15
+ */
+public class ClassLoaderCommandProvider implements CommandProvider {
+
+    @ArkInject
+    private BizManagerService     bizManagerService;
+
+    @ArkInject
+    private PluginManagerService  pluginManagerService;
+
+    private final BizLeakDetector bizLeakDetector;
+
+    public ClassLoaderCommandProvider() {
+        this(null);
+    }
+
+    public ClassLoaderCommandProvider(BizLeakDetector bizLeakDetector) {
+        this.bizLeakDetector = bizLeakDetector;
+    }
+
+    @Override
+    public String getHelp() {
+        return HELP_MESSAGE;
+    }
+
+    @Override
+    public String handleCommand(String command) {
+        return new ClassLoaderCommand(command).process();
+    }
+
+    @Override
+    public boolean validate(String command) {
+        return new ClassLoaderCommand(command).isValidate();
+    }
+
+    static final String HELP_MESSAGE                 = "ClassLoader Command Tips:\n"
+                                                       + "  USAGE: cl [option...] [arguments...]\n"
+                                                       + "  SAMPLE: cl -d bizIdentityA pluginNameB.\n"
+                                                       + "  -h  Shows the help message.\n"
+                                                       + "  -a  Shows class loading metrics of all classloaders.\n"
+                                                       + "  -d  Shows class loading metrics of each step of specified bizIdentity or pluginName.\n"
+                                                       + "  -r  Resets class loading metrics of all classloaders.\n"
+                                                       + "  -l  Checks classloaders of uninstalled bizs and shows those still reachable.\n";
+
+    static final String DISABLED_MESSAGE             = "Class loading metrics is disabled, set "
+                                                       + Constants.ARK_CLASSLOADER_METRICS_ENABLE
+                                                       + "=true to enable it.\n";
+
+    static final String LEAK_DETECT_DISABLED_MESSAGE = "Biz leak detection is disabled, set "
+                                                       + Constants.BIZ_LEAK_DETECT_ENABLE
+                                                       + "=true to enable it.\n";
+
+    class ClassLoaderCommand {
+        private boolean        isValidate;
+        private Set<Character> options    = new HashSet<>();
+        private Set<String>    parameters = new HashSet<>();
+
+        ClassLoaderCommand(String command) {
+            if (StringUtils.isEmpty(command)) {
+                isValidate = false;
+                return;
+            }
+
+            String[] syntax = command.trim().split(Constants.SPACE_SPLIT);
+            if (!"cl".equals(syntax[0])) {
+                isValidate = false;
+                return;
+            }
+
+            int argumentIndex = syntax.length;
+            // fetch all options and allow repetition
+            for (int i = 1; i < syntax.length; ++i) {
+                if (!syntax[i].startsWith("-")) {
+                    argumentIndex = i;
+                    break;
+                }
+                if (syntax[i].length() == 1) {
+                    isValidate = false;
+                    return;
+                }
+                for (int j = 1; j < syntax[i].length(); ++j) {
+                    options.add(syntax[i].charAt(j));
+                }
+            }
+
+            // only one of the following options is allowed
+            if (options.size() != 1) {
+                isValidate = false;
+                return;
+            }
+            char option = options.iterator().next();
+            if (option != 'h' && option != 'a' && option != 'd' && option != 'r' && option != 'l') {
+                isValidate = false;
+                return;
+            }
+
+            // take the rest option as parameters
+            while (argumentIndex < syntax.length) {
+                parameters.add(syntax[argumentIndex++]);
+            }
+
+            // only '-d' option needs parameters
+            isValidate = (option == 'd') != parameters.isEmpty();
+        }
+
+        boolean isValidate() {
+            return isValidate;
+        }
+
+        String process() {
+            if (!isValidate) {
+                return "Error command format. Pls type 'cl -h' to get help message\n";
+            }
+            if (options.contains('h')) {
+                return HELP_MESSAGE;
+            }
+            if (options.contains('l')) {
+                return leaks();
+            }
+
+            Map<String, AbstractClasspathClassLoader> classLoaders = getClassLoaders();
+            if (classLoaders.isEmpty()) {
+                return DISABLED_MESSAGE;
+            }
+            StringBuilder sb = new StringBuilder(512);
+            if (options.contains('r')) {
+                for (AbstractClasspathClassLoader classLoader : classLoaders.values()) {
+                    classLoader.getMetrics().reset();
+                }
+                sb.append("class loading metrics of ").append(classLoaders.size())
+                    .append(" classloaders are reset.\n");
+            } else if (options.contains('a')) {
+                for (Map.Entry<String, AbstractClasspathClassLoader> entry : classLoaders
+                    .entrySet()) {
+                    sb.append(summary(entry.getKey(), entry.getValue()));
+                }
+            } else {
+                boolean matched = false;
+                for (String pattern : parameters) {
+                    for (Map.Entry<String, AbstractClasspathClassLoader> entry : classLoaders
+                        .entrySet()) {
+                        if (Pattern.matches(pattern, entry.getKey())) {
+                            matched = true;
+                            sb.append(summary(entry.getKey(), entry.getValue()));
+                            sb.append(steps(entry.getValue().getMetrics())).append("\n");
+                        }
+                    }
+                }
+                if (!matched) {
+                    sb.append("no matched classloader candidates.").append("\n");
+                }
+            }
+            return sb.toString();
+        }
+
+        /**
+         * classloaders with metrics, keyed by plugin name and biz identity
+         */
+        Map<String, AbstractClasspathClassLoader> getClassLoaders() {
+            Map<String, AbstractClasspathClassLoader> classLoaders = new LinkedHashMap<>();
+            for (Plugin plugin : pluginManagerService.getPluginsInOrder()) {
+                putClassLoader(classLoaders, plugin.getPluginName(), plugin.getPluginClassLoader());
+            }
+            for (Biz biz : bizManagerService.getBizInOrder()) {
+                putClassLoader(classLoaders, biz.getIdentity(), biz.getBizClassLoader());
+            }
+            return classLoaders;
+        }
+
+        void putClassLoader(Map<String, AbstractClasspathClassLoader> classLoaders, String name,
+                            ClassLoader classLoader) {
+            if (classLoader instanceof AbstractClasspathClassLoader
+                && ((AbstractClasspathClassLoader) classLoader).getMetrics() != null) {
+                classLoaders.put(name, (AbstractClasspathClassLoader) classLoader);
+            }
+        }
+
+        String summary(String name, AbstractClasspathClassLoader classLoader) {
+            ClassLoadingMetrics metrics = classLoader.getMetrics();
+            LatencyHistogram latency = metrics.getLoadLatency();
+            return String.format("%s: loads=%d, notFound=%d, p50=%.1fus, p99=%.1fus, max=%.1fus, "
+                                 + "classCacheHitRate=%.3f, resourceCacheHitRate=%.3f\n", name,
+                metrics.getLoadCount(), metrics.getNotFoundCount(),
+                micros(latency.getValueAtPercentile(50)), micros(latency.getValueAtPercentile(99)),
+                micros(latency.getMax()), classLoader.classCache.stats().hitRate(),
+                classLoader.urlResourceCache.stats().hitRate());
+        }
+
+        String steps(ClassLoadingMetrics metrics) {
+            StringBuilder sb = new StringBuilder(256);
+            sb.append(String.format("  %-16s%12s%12s%12s%12s%12s%12s\n", "step", "invocations",
+                "hits", "total(ms)", "p50(us)", "p99(us)", "max(us)"));
+            for (Step step : Step.values()) {
+                LatencyHistogram latency = metrics.getStepLatency(step);
+                if (latency.getCount() == 0) {
+                    continue;
+                }
+                sb.append(String.format("  %-16s%12d%12d%12.1f%12.1f%12.1f%12.1f\n",
+                    step.getLabel(), latency.getCount(), metrics.getStepHits(step),
+                    latency.getSum() / 1e6, micros(latency.getValueAtPercentile(50)),
+                    micros(latency.getValueAtPercentile(99)), micros(latency.getMax())));
+            }
+            return sb.toString();
+        }
+
+        String leaks() {
+            if (bizLeakDetector == null
+                || !ArkConfigs.getBooleanValue(Constants.BIZ_LEAK_DETECT_ENABLE, false)) {
+                return LEAK_DETECT_DISABLED_MESSAGE;
+            }
+            bizLeakDetector.check(true);
+            StringBuilder sb = new StringBuilder(512);
+            for (BizLeakReport report : bizLeakDetector.getReports()) {
+                sb.append(report).append("\n");
+            }
+            if (sb.length() == 0) {
+                sb.append("no uninstalled biz classloader is reachable.\n");
+            }
+            return sb.toString();
+        }
+
+        double micros(long nanos) {
+            return nanos / 1e3;
+        }
+    }
+}
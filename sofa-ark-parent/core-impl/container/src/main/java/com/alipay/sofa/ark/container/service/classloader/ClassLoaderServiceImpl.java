@@ -23,6 +23,7 @@ import com.alipay.sofa.ark.common.log.ArkLoggerFactory;
 import com.alipay.sofa.ark.common.util.AssertUtils;
 import com.alipay.sofa.ark.common.util.ClassLoaderUtils;
 import com.alipay.sofa.ark.common.util.ClassUtils;
+import com.alipay.sofa.ark.container.model.BizModel;
 import com.alipay.sofa.ark.container.model.PluginModel;
 import com.alipay.sofa.ark.exception.ArkRuntimeException;
 import com.alipay.sofa.ark.spi.constant.Constants;
@@ -67,6 +68,9 @@ public class ClassLoaderServiceImpl implements ClassLoaderService {
     private ConcurrentHashMap<String, List<Plugin>> exportResourceAndClassLoaderMap           = new ConcurrentHashMap<>();
     private ConcurrentHashMap<String, List<Plugin>> exportPrefixStemResourceAndClassLoaderMap = new ConcurrentHashMap<>();
     private ConcurrentHashMap<String, List<Plugin>> exportSuffixStemResourceAndClassLoaderMap = new ConcurrentHashMap<>();
+    // tries compiled from export resource stems, rebuilt when export cache is prepared
+    private volatile StemTrie<List<Plugin>>         exportPrefixStemResourceTrie;
+    private volatile StemTrie<List<Plugin>>         exportSuffixStemResourceTrie;
 
     private ClassLoader                             jdkClassLoader;
     private ClassLoader                             arkClassLoader;
@@ -140,33 +144,15 @@ public class ClassLoaderServiceImpl implements ClassLoaderService {
                 exportSuffixStemResourceAndClassLoaderMap.get(resource).add(plugin);
             }
         }
+        exportPrefixStemResourceTrie = null;
+        exportSuffixStemResourceTrie = null;
     }
 
     @Override
     public boolean isClassInImport(String pluginName, String className) {
         Plugin plugin = pluginManagerService.getPluginByName(pluginName);
         AssertUtils.assertNotNull(plugin, "plugin: " + pluginName + " is null");
-
-        for (String importName : plugin.getImportClasses()) {
-            if (className.equals(importName)) {
-                return true;
-            }
-        }
-
-        String pkg = ClassUtils.getPackageName(className);
-        for (String pattern : plugin.getImportPackageNodes()) {
-            if (pkg.equals(pattern)) {
-                return true;
-            }
-        }
-
-        for (String pattern : plugin.getImportPackageStems()) {
-            if (pkg.startsWith(pattern)) {
-                return true;
-            }
-        }
-
-        return false;
+        return getImportMatcher(plugin).matchClass(className);
     }
 
     public String getExportMode(String className) {
@@ -206,26 +192,7 @@ public class ClassLoaderServiceImpl implements ClassLoaderService {
     public boolean isResourceInImport(String pluginName, String resourceName) {
         Plugin plugin = pluginManagerService.getPluginByName(pluginName);
         AssertUtils.assertNotNull(plugin, "plugin: " + pluginName + " is null");
-
-        for (String importResource : plugin.getImportResources()) {
-            if (importResource.equals(resourceName)) {
-                return true;
-            }
-        }
-
-        for (String importResource : plugin.getImportPrefixResourceStems()) {
-            if (resourceName.startsWith(importResource)) {
-                return true;
-            }
-        }
-
-        for (String importResource : plugin.getImportSuffixResourceStems()) {
-            if (resourceName.endsWith(importResource)) {
-                return true;
-            }
-        }
-
-        return false;
+        return getImportMatcher(plugin).matchResource(resourceName);
     }
 
     @Override
@@ -244,18 +211,29 @@ public class ClassLoaderServiceImpl implements ClassLoaderService {
             return exportResourceAndClassLoaderMap.get(resourceName);
         }
 
-        for (String stemResource : exportPrefixStemResourceAndClassLoaderMap.keySet()) {
-            if (resourceName.startsWith(stemResource)) {
-                return exportPrefixStemResourceAndClassLoaderMap.get(stemResource);
-            }
+        List<Plugin> plugins = getExportPrefixStemResourceTrie().match(resourceName);
+        if (plugins != null) {
+            return plugins;
         }
+        return getExportSuffixStemResourceTrie().match(resourceName);
+    }
 
-        for (String stemResource : exportSuffixStemResourceAndClassLoaderMap.keySet()) {
-            if (resourceName.endsWith(stemResource)) {
-                return exportSuffixStemResourceAndClassLoaderMap.get(stemResource);
-            }
+    private StemTrie<List<Plugin>> getExportPrefixStemResourceTrie() {
+        StemTrie<List<Plugin>> trie = exportPrefixStemResourceTrie;
+        if (trie == null) {
+            trie = StemTrie.of(exportPrefixStemResourceAndClassLoaderMap, false);
+            exportPrefixStemResourceTrie = trie;
+        }
+        return trie;
+    }
+
+    private StemTrie<List<Plugin>> getExportSuffixStemResourceTrie() {
+        StemTrie<List<Plugin>> trie = exportSuffixStemResourceTrie;
+        if (trie == null) {
+            trie = StemTrie.of(exportSuffixStemResourceAndClassLoaderMap, true);
+            exportSuffixStemResourceTrie = trie;
         }
-        return null;
+        return trie;
     }
 
     @Override
@@ -341,27 +319,7 @@ public class ClassLoaderServiceImpl implements ClassLoaderService {
         if (biz == null) {
             return false;
         }
-
-        for (String pattern : biz.getDenyImportClasses()) {
-            if (pattern.equals(className)) {
-                return true;
-            }
-        }
-
-        String pkg = ClassUtils.getPackageName(className);
-        for (String pattern : biz.getDenyImportPackageNodes()) {
-            if (pkg.equals(pattern)) {
-                return true;
-            }
-        }
-
-        for (String pattern : biz.getDenyImportPackageStems()) {
-            if (pkg.startsWith(pattern)) {
-                return true;
-            }
-        }
-
-        return false;
+        return getDenyImportMatcher(biz).matchClass(className);
     }
 
     @Override
@@ -370,26 +328,25 @@ public class ClassLoaderServiceImpl implements ClassLoaderService {
         if (biz == null) {
             return false;
         }
+        return getDenyImportMatcher(biz).matchResource(resourceName);
+    }
 
-        for (String resource : biz.getDenyImportResources()) {
-            if (resource.equals(resourceName)) {
-                return true;
-            }
-        }
-
-        for (String resource : biz.getDenyPrefixImportResourceStems()) {
-            if (resourceName.startsWith(resource)) {
-                return true;
-            }
+    private NameRuleMatcher getImportMatcher(Plugin plugin) {
+        if (plugin instanceof PluginModel) {
+            return ((PluginModel) plugin).getImportMatcher();
         }
+        return new NameRuleMatcher(plugin.getImportClasses(), plugin.getImportPackageNodes(),
+            plugin.getImportPackageStems(), plugin.getImportResources(),
+            plugin.getImportPrefixResourceStems(), plugin.getImportSuffixResourceStems());
+    }
 
-        for (String resource : biz.getDenySuffixImportResourceStems()) {
-            if (resourceName.endsWith(resource)) {
-                return true;
-            }
+    private NameRuleMatcher getDenyImportMatcher(Biz biz) {
+        if (biz instanceof BizModel) {
+            return ((BizModel) biz).getDenyImportMatcher();
         }
-
-        return false;
+        return new NameRuleMatcher(biz.getDenyImportClasses(), biz.getDenyImportPackageNodes(),
+            biz.getDenyImportPackageStems(), biz.getDenyImportResources(),
+            biz.getDenyPrefixImportResourceStems(), biz.getDenySuffixImportResourceStems());
     }
 
     @Override
@@ -0,0 +1,165 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.ark.container.service.classloader;
+
+import com.alipay.sofa.ark.common.util.LatencyHistogram;
+import com.google.common.cache.CacheStats;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Class loading metrics of an ark classloader: counters and latency histograms of loads which
+ * miss the class cache, and of each step of {@code loadClassInternal} they go through.
+ *
+ * @since 2.2.15
+ */
+public class ClassLoadingMetrics {
+
+    /**
+     * Steps of {@code loadClassInternal}, a step is recorded only when it is executed
+     */
+    public enum Step {
+        FIND_LOADED("findLoaded"), CLASS_INDEX("classIndex"), NEGATIVE_FILTER("negativeFilter"), JDK(
+                                                                                                     "jdk"), ARK(
+                                                                                                                 "ark"), PRE_FIND(
+                                                                                                                                  "preFind"), EXPORT(
+                                                                                                                                                     "export"), LOCAL(
+                                                                                                                                                                      "local"), JAVA_AGENT(
+                                                                                                                                                                                           "javaAgent"), POST_FIND(
+                                                                                                                                                                                                                   "postFind");
+
+        private final String label;
+
+        Step(String label) {
+            this.label = label;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+    }
+
+    private static final Step[]      STEPS         = Step.values();
+
+    private final LongAdder          loadCount     = new LongAdder();
+
+    private final LongAdder          notFoundCount = new LongAdder();
+
+    private final LatencyHistogram   loadLatency   = new LatencyHistogram();
+
+    private final LongAdder[]        stepHits      = new LongAdder[STEPS.length];
+
+    private final LatencyHistogram[] stepLatency   = new LatencyHistogram[STEPS.length];
+
+    public ClassLoadingMetrics() {
+        for (int i = 0; i < STEPS.length; i++) {
+            stepHits[i] = new LongAdder();
+            stepLatency[i] = new LatencyHistogram();
+        }
+    }
+
+    /**
+     * Record a load which misses the class cache
+     *
+     * @param nanos time taken by {@code loadClassInternal}
+     * @param found whether the class is found
+     */
+    public void recordLoad(long nanos, boolean found) {
+        loadCount.increment();
+        if (!found) {
+            notFoundCount.increment();
+        }
+        loadLatency.record(nanos);
+    }
+
+    /**
+     * Record a step of {@code loadClassInternal}
+     *
+     * @param step  step executed
+     * @param nanos time taken by the step
+     * @param hit   whether the step answers the load, by a class or by a definite miss
+     */
+    public void recordStep(Step step, long nanos, boolean hit) {
+        stepLatency[step.ordinal()].record(nanos);
+        if (hit) {
+            stepHits[step.ordinal()].increment();
+        }
+    }
+
+    public long getLoadCount() {
+        return loadCount.sum();
+    }
+
+    public long getNotFoundCount() {
+        return notFoundCount.sum();
+    }
+
+    public LatencyHistogram getLoadLatency() {
+        return loadLatency;
+    }
+
+    public long getStepHits(Step step) {
+        return stepHits[step.ordinal()].sum();
+    }
+
+    public LatencyHistogram getStepLatency(Step step) {
+        return stepLatency[step.ordinal()];
+    }
+
+    public void reset() {
+        loadCount.reset();
+        notFoundCount.reset();
+        loadLatency.reset();
+        for (int i = 0; i < STEPS.length; i++) {
+            stepHits[i].reset();
+            stepLatency[i].reset();
+        }
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("loadCount", getLoadCount());
+        snapshot.put("notFoundCount", getNotFoundCount());
+        snapshot.put("loadLatency", loadLatency.snapshot());
+        Map<String, Object> steps = new LinkedHashMap<>();
+        for (Step step : STEPS) {
+            LatencyHistogram latency = getStepLatency(step);
+            if (latency.getCount() == 0) {
+                continue;
+            }
+            Map<String, Object> stepSnapshot = new LinkedHashMap<>();
+            stepSnapshot.put("invocations", latency.getCount());
+            stepSnapshot.put("hits", getStepHits(step));
+            stepSnapshot.put("totalNanos", latency.getSum());
+            stepSnapshot.put("latency", latency.snapshot());
+            steps.put(step.getLabel(), stepSnapshot);
+        }
+        snapshot.put("steps", steps);
+        return snapshot;
+    }
+
+    public static Map<String, Object> snapshot(CacheStats stats) {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("hitCount", stats.hitCount());
+        snapshot.put("missCount", stats.missCount());
+        snapshot.put("hitRate", stats.hitRate());
+        snapshot.put("evictionCount", stats.evictionCount());
+        return snapshot;
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.ark.container.service.classloader;
+
+import com.alipay.sofa.ark.api.ArkConfigs;
+import com.alipay.sofa.ark.spi.model.Plugin;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheLoader.InvalidCacheLoadException;
+import com.google.common.cache.CacheStats;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+
+import static com.alipay.sofa.ark.spi.constant.Constants.ARK_CLASSLOADER_OVERRIDE_CLASS_CACHE_SIZE;
+import static com.alipay.sofa.ark.spi.constant.Constants.DEFAULT_OVERRIDE_CLASS_CACHE_SIZE;
+import static com.google.common.cache.CacheBuilder.newBuilder;
+
+/**
+ * Class bytes of plugin classes exported in {@link com.alipay.sofa.ark.container.model.PluginModel#EXPORTMODE_OVERRIDE}
+ * mode, shared by all classloaders which define their own copy of such classes. Bytes are read
+ * from the plugin once and kept until the total size exceeds
+ * {@link com.alipay.sofa.ark.spi.constant.Constants#ARK_CLASSLOADER_OVERRIDE_CLASS_CACHE_SIZE},
+ * or until no classloader using them is left, see {@link #invalidate(ClassLoader)}.
+ *
+ * @since 2.2.15
+ */
+public class ExportOverrideClassCache {
+
+    private static volatile ExportOverrideClassCache      instance;
+
+    private final Cache<String, byte[]>                   cache;
+
+    /**
+     * keys of the class bytes used by each classloader
+     */
+    private final ConcurrentMap<ClassLoader, Set<String>> classLoaderKeys = new ConcurrentHashMap<>();
+
+    ExportOverrideClassCache(int maxBytes) {
+        this.cache = maxBytes <= 0 ? null : newBuilder().maximumWeight(maxBytes)
+            .weigher((String key, byte[] bytes) -> bytes.length).recordStats().build();
+    }
+
+    public static ExportOverrideClassCache getInstance() {
+        if (instance == null) {
+            synchronized (ExportOverrideClassCache.class) {
+                if (instance == null) {
+                    instance = new ExportOverrideClassCache(ArkConfigs.getIntValue(
+                        ARK_CLASSLOADER_OVERRIDE_CLASS_CACHE_SIZE,
+                        DEFAULT_OVERRIDE_CLASS_CACHE_SIZE));
+                }
+            }
+        }
+        return instance;
+    }
+
+    public boolean isEnabled() {
+        return cache != null;
+    }
+
+    /**
+     * Get class bytes of the plugin class, concurrent misses of the same class share one read
+     *
+     * @param plugin plugin exporting the class
+     * @param className class name
+     * @param classLoader classloader defining the class
+     * @param loader read class bytes from the plugin, returns null if the class is not found
+     * @return class bytes, or null if the class is not found
+     * @throws IOException if the class bytes cannot be read
+     */
+    public byte[] get(Plugin plugin, String className, ClassLoader classLoader,
+                      Callable<byte[]> loader) throws IOException {
+        String key = getKey(plugin, className);
+        try {
+            byte[] bytes = cache.get(key, loader);
+            classLoaderKeys.computeIfAbsent(classLoader, k -> ConcurrentHashMap.newKeySet()).add(
+                key);
+            return bytes;
+        } catch (InvalidCacheLoadException e) {
+            return null;
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+
+    /**
+     * Invalidate class bytes used by the classloader, e.g. of an uninstalled biz, unless they
+     * are still used by another classloader
+     *
+     * @param classLoader classloader
+     */
+    public void invalidate(ClassLoader classLoader) {
+        Set<String> keys = classLoaderKeys.remove(classLoader);
+        if (cache == null || keys == null) {
+            return;
+        }
+        for (String key : keys) {
+            if (!isUsed(key)) {
+                cache.invalidate(key);
+            }
+        }
+    }
+
+    public void invalidateAll() {
+        classLoaderKeys.clear();
+        if (cache != null) {
+            cache.invalidateAll();
+        }
+    }
+
+    public long size() {
+        return cache == null ? 0 : cache.size();
+    }
+
+    public CacheStats stats() {
+        return cache == null ? new CacheStats(0, 0, 0, 0, 0, 0) : cache.stats();
+    }
+
+    private boolean isUsed(String key) {
+        for (Set<String> keys : classLoaderKeys.values()) {
+            if (keys.contains(key)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private String getKey(Plugin plugin, String className) {
+        return plugin.getPluginName() + ":" + plugin.getVersion() + "#" + className;
+    }
+
+}
@@ -0,0 +1,86 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.ark.container.service.classloader;
+
+import com.alipay.sofa.ark.common.util.ClassUtils;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Compiled class and resource rules, such as import rules of plugin and deny import rules of
+ * biz. Exact names are kept in hash sets and stems in tries, so a name is matched in time of
+ * its length regardless of rule count.
+ *
+ * @since 2.2.15
+ */
+public class NameRuleMatcher {
+
+    private final Set<String>      classes;
+
+    private final Set<String>      packageNodes;
+
+    private final StemTrie<String> packageStems;
+
+    private final Set<String>      resources;
+
+    private final StemTrie<String> prefixResourceStems;
+
+    private final StemTrie<String> suffixResourceStems;
+
+    public NameRuleMatcher(Set<String> classes, Set<String> packageNodes, Set<String> packageStems,
+                           Set<String> resources, Set<String> prefixResourceStems,
+                           Set<String> suffixResourceStems) {
+        this.classes = copyOf(classes);
+        this.packageNodes = copyOf(packageNodes);
+        this.packageStems = StemTrie.of(packageStems, false);
+        this.resources = copyOf(resources);
+        this.prefixResourceStems = StemTrie.of(prefixResourceStems, false);
+        this.suffixResourceStems = StemTrie.of(suffixResourceStems, true);
+    }
+
+    /**
+     * Whether the class matches class rules or package rules
+     *
+     * @param className class name
+     * @return
+     */
+    public boolean matchClass(String className) {
+        if (classes.contains(className)) {
+            return true;
+        }
+        String pkg = ClassUtils.getPackageName(className);
+        return packageNodes.contains(pkg) || packageStems.matches(pkg);
+    }
+
+    /**
+     * Whether the resource matches resource rules
+     *
+     * @param resourceName resource name
+     * @return
+     */
+    public boolean matchResource(String resourceName) {
+        return resources.contains(resourceName) || prefixResourceStems.matches(resourceName)
+               || suffixResourceStems.matches(resourceName);
+    }
+
+    private static Set<String> copyOf(Set<String> names) {
+        return names == null || names.isEmpty() ? Collections.<String> emptySet() : new HashSet<>(
+            names);
+    }
+}
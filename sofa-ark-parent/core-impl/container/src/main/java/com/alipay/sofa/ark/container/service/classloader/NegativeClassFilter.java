@@ -0,0 +1,188 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.ark.container.service.classloader;
+
+import com.alipay.sofa.ark.api.ArkClient;
+import com.alipay.sofa.ark.api.ArkConfigs;
+import com.alipay.sofa.ark.spi.model.Biz;
+import com.alipay.sofa.ark.spi.model.Plugin;
+import com.alipay.sofa.ark.spi.service.classloader.ClassLoaderService;
+import com.alipay.sofa.ark.spi.service.plugin.PluginManagerService;
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.alipay.sofa.ark.spi.constant.Constants.ARK_CLASSLOADER_NEGATIVE_FILTER_FPP;
+
+/**
+ * Probabilistic filter of class names reachable by an ark classloader, which answers definite
+ * misses of class loading without touching any jar. Reachable classes are classes of the local
+ * classpath, classes of all plugins, classes of master biz and classes of java agent, jdk classes
+ * and ark classes are never filtered.
+ *
+ * <p>Classes of plugins, master biz and java agent are shared by all classloaders, and are
+ * rebuilt when plugins or master biz change.
+ *
+ * @since 2.2.15
+ */
+public class NegativeClassFilter {
+
+    private static final double             DEFAULT_FPP   = 0.01;
+
+    private static volatile SharedFilter    sharedFilter;
+
+    private final BloomFilter<CharSequence> localFilter;
+
+    private final PluginManagerService      pluginManagerService;
+
+    private final ClassLoaderService        classLoaderService;
+
+    private final LongAdder                 absorbedCount = new LongAdder();
+
+    NegativeClassFilter(Collection<String> localClassNames,
+                        PluginManagerService pluginManagerService,
+                        ClassLoaderService classLoaderService) {
+        this.localFilter = localClassNames.isEmpty() ? null : newFilter(Collections
+            .singletonList(localClassNames));
+        this.pluginManagerService = pluginManagerService;
+        this.classLoaderService = classLoaderService;
+    }
+
+    /**
+     * Whether the class might be reachable, false means the class is definitely not reachable
+     *
+     * @param className class name
+     * @return
+     */
+    public boolean mightContain(String className) {
+        if (localFilter != null && localFilter.mightContain(className)) {
+            return true;
+        }
+        return getSharedFilter().filter.mightContain(className);
+    }
+
+    /**
+     * Whether classes of current master biz are included in the filter
+     *
+     * @return
+     */
+    public boolean coversMasterBiz() {
+        return getSharedFilter().masterBizIdentity != null;
+    }
+
+    void recordAbsorbed() {
+        absorbedCount.increment();
+    }
+
+    /**
+     * Count of class loading probes answered as definite misses by the filter
+     *
+     * @return
+     */
+    public long getAbsorbedCount() {
+        return absorbedCount.sum();
+    }
+
+    private SharedFilter getSharedFilter() {
+        int pluginCount = pluginManagerService.getAllPluginNames().size();
+        Biz masterBiz = ArkClient.getMasterBiz();
+        String masterBizIdentity = masterBiz == null ? null : masterBiz.getIdentity();
+        SharedFilter filter = sharedFilter;
+        if (filter == null || !filter.matches(pluginCount, masterBizIdentity)) {
+            synchronized (NegativeClassFilter.class) {
+                filter = sharedFilter;
+                if (filter == null || !filter.matches(pluginCount, masterBizIdentity)) {
+                    filter = buildSharedFilter(pluginCount, masterBiz, masterBizIdentity);
+                    sharedFilter = filter;
+                }
+            }
+        }
+        return filter;
+    }
+
+    private SharedFilter buildSharedFilter(int pluginCount, Biz masterBiz, String masterBizIdentity) {
+        List<Collection<String>> classNames = new ArrayList<>();
+        for (Plugin plugin : pluginManagerService.getPluginsInOrder()) {
+            classNames.add(listClassNames(plugin.getClassPath()));
+        }
+        if (masterBiz != null) {
+            classNames.add(listClassNames(masterBiz.getClassPath()));
+        }
+        ClassLoader agentClassLoader = classLoaderService.getAgentClassLoader();
+        if (agentClassLoader instanceof URLClassLoader) {
+            classNames.add(listClassNames(((URLClassLoader) agentClassLoader).getURLs()));
+        }
+        return new SharedFilter(newFilter(classNames), pluginCount, masterBizIdentity);
+    }
+
+    static Collection<String> listClassNames(URL[] urls) {
+        return urls == null ? Collections.<String> emptySet() : ClassIndex.scan(urls)
+            .getClassNames();
+    }
+
+    private static BloomFilter<CharSequence> newFilter(List<Collection<String>> classNames) {
+        int expectedInsertions = 0;
+        for (Collection<String> names : classNames) {
+            expectedInsertions += names.size();
+        }
+        BloomFilter<CharSequence> filter = BloomFilter
+            .create(Funnels.stringFunnel(StandardCharsets.UTF_8), Math.max(expectedInsertions, 1),
+                getFpp());
+        for (Collection<String> names : classNames) {
+            for (String name : names) {
+                filter.put(name);
+            }
+        }
+        return filter;
+    }
+
+    private static double getFpp() {
+        try {
+            double fpp = Double.parseDouble(ArkConfigs.getStringValue(
+                ARK_CLASSLOADER_NEGATIVE_FILTER_FPP, String.valueOf(DEFAULT_FPP)));
+            return fpp > 0 && fpp < 1 ? fpp : DEFAULT_FPP;
+        } catch (NumberFormatException e) {
+            return DEFAULT_FPP;
+        }
+    }
+
+    private static class SharedFilter {
+        private final BloomFilter<CharSequence> filter;
+        private final int                       pluginCount;
+        private final String                    masterBizIdentity;
+
+        SharedFilter(BloomFilter<CharSequence> filter, int pluginCount, String masterBizIdentity) {
+            this.filter = filter;
+            this.pluginCount = pluginCount;
+            this.masterBizIdentity = masterBizIdentity;
+        }
+
+        boolean matches(int pluginCount, String masterBizIdentity) {
+            return this.pluginCount == pluginCount
+                   && Objects.equals(this.masterBizIdentity, masterBizIdentity);
+        }
+    }
+}
@@ -0,0 +1,359 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.ark.container.service.classloader;
+
+import com.alipay.sofa.ark.common.log.ArkLoggerFactory;
+import com.alipay.sofa.ark.container.model.BizModel;
+import com.alipay.sofa.ark.loader.jar.JarUtils;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.apache.commons.io.FileUtils.deleteQuietly;
+
+/**
+ * On-disk form of {@link ClassIndex} of a biz, together with the artifact id of each classpath
+ * location and the declared verdicts of the biz. The index file lives next to the biz file and is
+ * named by its SHA-1 hash, so installing the same biz again, from whatever file it is saved to,
+ * maps the file instead of scanning and parsing all nested jars.
+ *
+ * <p>Locations under the biz file are stored relative to it, because the biz file may be unpacked
+ * to or installed from another path.
+ *
+ * @since 2.2.15
+ */
+public class PersistentClassIndex {
+
+    private static final String        INDEX_FILE_SUFFIX = ".ark-index";
+
+    private static final int           MAGIC             = 0x41524b49;
+
+    private static final int           VERSION           = 2;
+
+    private static final String        ROOT_PLACEHOLDER  = "${biz}";
+
+    private static final String        JAR_PROTOCOL      = "jar:";
+
+    private static final String        FILE_PROTOCOL     = "file:";
+
+    private static final String        JAR_SEPARATOR     = "!/";
+
+    private final ClassIndex           classIndex;
+
+    private final Map<String, String>  artifactIds;
+
+    private final Map<String, Boolean> declaredVerdicts;
+
+    PersistentClassIndex(ClassIndex classIndex, Map<String, String> artifactIds,
+                         Map<String, Boolean> declaredVerdicts) {
+        this.classIndex = classIndex;
+        this.artifactIds = artifactIds;
+        this.declaredVerdicts = declaredVerdicts;
+    }
+
+    /**
+     * Get index file of biz file keyed by its SHA-1 hash, the biz file needn't exist
+     *
+     * @param bizFile biz file
+     * @param sha1Hash SHA-1 hash of biz file
+     * @return index file
+     */
+    public static File getIndexFile(File bizFile, String sha1Hash) {
+        return new File(bizFile.getAbsoluteFile().getParentFile(), sha1Hash + INDEX_FILE_SUFFIX);
+    }
+
+    /**
+     * Delete the least recently written index files in the directory, so that index files of
+     * bizs installed from fresh files don't pile up
+     *
+     * @param indexDir directory of index files
+     * @param maxCount max number of index files kept
+     */
+    public static void prune(File indexDir, int maxCount) {
+        File[] indexFiles = indexDir == null ? null : indexDir.listFiles(
+            (dir, name) -> name.endsWith(INDEX_FILE_SUFFIX));
+        if (indexFiles == null || indexFiles.length <= maxCount) {
+            return;
+        }
+        Map<File, Long> lastModified = new HashMap<>();
+        for (File indexFile : indexFiles) {
+            lastModified.put(indexFile, indexFile.lastModified());
+        }
+        Arrays.sort(indexFiles, Comparator.comparing(lastModified::get));
+        for (int i = 0; i < indexFiles.length - Math.max(maxCount, 0); i++) {
+            deleteQuietly(indexFiles[i]);
+        }
+    }
+
+    /**
+     * Load persisted index of biz, the index is dropped if it doesn't match the biz classpath
+     *
+     * @param indexFile index file
+     * @param bizRoot biz file or unpacked biz directory which classpath locations are under
+     * @param classPath classpath of biz
+     * @param jdkClassLoader classloader to load jdk class
+     * @return persisted index, null if absent or mismatched
+     */
+    public static PersistentClassIndex load(File indexFile, File bizRoot, URL[] classPath,
+                                            ClassLoader jdkClassLoader) {
+        if (indexFile == null || !indexFile.isFile()) {
+            return null;
+        }
+        Path root = rootOf(bizRoot);
+        try (FileChannel channel = FileChannel.open(indexFile.toPath(), StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION
+                || buffer.getInt() != classPath.length) {
+                return null;
+            }
+            Map<String, String> artifactIds = new HashMap<>();
+            for (URL url : classPath) {
+                if (!relativize(url.toExternalForm(), root).equals(readString(buffer))) {
+                    ArkLoggerFactory.getDefaultLogger().warn(
+                        "Class index {} doesn't match classpath of biz, ignore it.", indexFile);
+                    return null;
+                }
+                String artifactId = readString(buffer);
+                artifactIds.put(url.getFile(), artifactId.isEmpty() ? null : artifactId);
+            }
+
+            int classCount = buffer.getInt();
+            Map<String, Integer> classLocations = new HashMap<>(classCount * 4 / 3 + 1);
+            for (int i = 0; i < classCount; i++) {
+                classLocations.put(readString(buffer), buffer.getInt());
+            }
+
+            int verdictCount = buffer.getInt();
+            Map<String, Boolean> declaredVerdicts = new HashMap<>();
+            for (int i = 0; i < verdictCount; i++) {
+                declaredVerdicts.put(resolve(readString(buffer), root), buffer.get() != 0);
+            }
+
+            ClassIndex.initJdkPackages(jdkClassLoader);
+            return new PersistentClassIndex(new ClassIndex(classPath, classLocations), artifactIds,
+                declaredVerdicts);
+        } catch (IOException | RuntimeException e) {
+            ArkLoggerFactory.getDefaultLogger().warn(
+                String.format("Fail to load class index %s, ignore it.", indexFile), e);
+            return null;
+        }
+    }
+
+    /**
+     * Persist index of biz, the index is written to a temp file and moved to the index file,
+     * so that a concurrent reader never sees a partial index.
+     *
+     * @param indexFile index file
+     * @param bizModel biz whose classpath is indexed
+     */
+    public static void write(File indexFile, BizModel bizModel) {
+        Path root = rootOf(bizModel.getBizTempWorkDir());
+        URL[] classPath = bizModel.getClassPath();
+        ClassIndex classIndex = null;
+        if (bizModel.getBizClassLoader() instanceof BizClassLoader) {
+            classIndex = ((BizClassLoader) bizModel.getBizClassLoader()).getClassIndex();
+        }
+        if (classIndex == null) {
+            classIndex = ClassIndex.scan(classPath);
+        }
+
+        File tempFile = new File(indexFile.getPath() + "." + System.nanoTime() + ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                new FileOutputStream(tempFile)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(classPath.length);
+                for (URL url : classPath) {
+                    writeString(out, relativize(url.toExternalForm(), root));
+                    String artifactId = parseArtifactId(url);
+                    writeString(out, artifactId == null ? "" : artifactId);
+                }
+
+                Map<String, Integer> classLocations = classIndex.getClassLocations();
+                out.writeInt(classLocations.size());
+                for (Map.Entry<String, Integer> entry : classLocations.entrySet()) {
+                    writeString(out, entry.getKey());
+                    out.writeInt(entry.getValue());
+                }
+
+                Map<String, Boolean> declaredVerdicts = bizModel.getDeclaredCacheMap();
+                out.writeInt(declaredVerdicts.size());
+                for (Map.Entry<String, Boolean> entry : declaredVerdicts.entrySet()) {
+                    writeString(out, relativize(entry.getKey(), root));
+                    out.writeByte(entry.getValue() ? 1 : 0);
+                }
+            }
+            try {
+                Files.move(tempFile.toPath(), indexFile.toPath(), StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                Files.move(tempFile.toPath(), indexFile.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (Throwable e) {
+            ArkLoggerFactory.getDefaultLogger().warn(
+                String.format("Fail to persist class index of biz %s.", bizModel.getIdentity()), e);
+        } finally {
+            deleteQuietly(tempFile);
+        }
+    }
+
+    /**
+     * Fill artifact id cache and declared cache of biz with the persisted index
+     *
+     * @param bizModel biz whose classpath is indexed
+     */
+    public void apply(BizModel bizModel) {
+        for (Map.Entry<String, String> entry : artifactIds.entrySet()) {
+            JarUtils.cacheArtifactId(entry.getKey(), entry.getValue());
+        }
+        bizModel.addDeclaredCache(declaredVerdicts);
+    }
+
+    public ClassIndex getClassIndex() {
+        return classIndex;
+    }
+
+    public Map<String, String> getArtifactIds() {
+        return artifactIds;
+    }
+
+    public Map<String, Boolean> getDeclaredVerdicts() {
+        return declaredVerdicts;
+    }
+
+    private static String parseArtifactId(URL url) {
+        try {
+            return JarUtils.parseArtifactId(url.getFile());
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static Path rootOf(File bizRoot) {
+        return bizRoot == null ? null : bizRoot.getAbsoluteFile().toPath().normalize();
+    }
+
+    /**
+     * Relativize location against biz root. Location is a file path or a file url, which may be
+     * nested in jar urls such as {@code jar:file:/biz.jar!/lib/a.jar!/}, only the file path
+     * before the first nested entry is relativized.
+     *
+     * @param location location
+     * @param root biz root
+     * @return relative location, or location itself if it's not under biz root
+     */
+    static String relativize(String location, Path root) {
+        if (root == null) {
+            return location;
+        }
+        int start = fileStart(location);
+        boolean url = location.startsWith(FILE_PROTOCOL, start);
+        int end = location.indexOf(JAR_SEPARATOR, start);
+        end = end < 0 ? location.length() : end;
+        String file = location.substring(start, end);
+        try {
+            Path path = (url ? Paths.get(new URI(file)) : Paths.get(file)).normalize();
+            if (!path.startsWith(root)) {
+                return location;
+            }
+            StringBuilder relative = new StringBuilder(location.substring(0, start));
+            relative.append(url ? FILE_PROTOCOL : "").append(ROOT_PLACEHOLDER);
+            for (Path name : root.relativize(path)) {
+                if (!name.toString().isEmpty()) {
+                    relative.append('/').append(name);
+                }
+            }
+            if (file.endsWith("/")) {
+                relative.append('/');
+            }
+            return relative.append(location.substring(end)).toString();
+        } catch (URISyntaxException | RuntimeException e) {
+            return location;
+        }
+    }
+
+    /**
+     * Resolve location relativized by {@link #relativize(String, Path)} against biz root
+     *
+     * @param location relative location
+     * @param root biz root
+     * @return absolute location
+     */
+    static String resolve(String location, Path root) {
+        int start = fileStart(location);
+        boolean url = location.startsWith(FILE_PROTOCOL, start);
+        int placeholder = start + (url ? FILE_PROTOCOL.length() : 0);
+        if (root == null || !location.startsWith(ROOT_PLACEHOLDER, placeholder)) {
+            return location;
+        }
+        int end = location.indexOf(JAR_SEPARATOR, start);
+        end = end < 0 ? location.length() : end;
+        String relative = location.substring(placeholder + ROOT_PLACEHOLDER.length(), end);
+        Path path = root;
+        for (String name : relative.split("/")) {
+            if (!name.isEmpty()) {
+                path = path.resolve(name);
+            }
+        }
+        String file = url ? FILE_PROTOCOL + path.toUri().getRawPath() : path.toString();
+        if (file.endsWith("/") && !relative.endsWith("/")) {
+            file = file.substring(0, file.length() - 1);
+        } else if (!file.endsWith("/") && relative.endsWith("/")) {
+            file = file + "/";
+        }
+        return location.substring(0, start) + file + location.substring(end);
+    }
+
+    private static int fileStart(String location) {
+        int start = 0;
+        while (location.startsWith(JAR_PROTOCOL, start)) {
+            start += JAR_PROTOCOL.length();
+        }
+        return start;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(MappedByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -17,7 +17,9 @@
 package com.alipay.sofa.ark.container.service.classloader;
 
 import com.alipay.sofa.ark.container.service.ArkServiceContainerHolder;
+import com.alipay.sofa.ark.container.service.classloader.ClassLoadingMetrics.Step;
 import com.alipay.sofa.ark.exception.ArkLoaderException;
+import com.alipay.sofa.ark.spi.model.Biz;
 import com.alipay.sofa.ark.spi.model.Plugin;
 import com.alipay.sofa.ark.spi.service.classloader.ClassLoaderHook;
 import com.alipay.sofa.ark.spi.service.extension.ArkServiceLoader;
@@ -25,6 +27,7 @@ import com.alipay.sofa.ark.spi.service.plugin.PluginManagerService;
 
 import java.io.IOException;
 import java.net.URL;
+import java.util.Collection;
 import java.util.Enumeration;
 import java.util.concurrent.atomic.AtomicBoolean;
 import static com.alipay.sofa.ark.spi.constant.Constants.PLUGIN_CLASS_LOADER_HOOK;
@@ -72,44 +75,64 @@ public class PluginClassLoader extends AbstractClasspathClassLoader {
                         pluginName, name));
         }
 
+        long start = startStep();
+
         // 1. findLoadedClass
         if (clazz == null) {
             clazz = findLoadedClass(name);
+            start = endStep(Step.FIND_LOADED, start, clazz != null);
+        }
+
+        // 1.1 Class definitely not reachable, skip probing jars
+        if (clazz == null && negativeClassFilterEnabled) {
+            boolean negative = isNegativeClass(name);
+            start = endStep(Step.NEGATIVE_FILTER, start, negative);
+            if (negative) {
+                throw new ArkLoaderException(String.format(
+                    "[ArkPlugin Loader] %s : can not load class: %s", pluginName, name));
+            }
         }
 
         // 2. JDK related class
         if (clazz == null) {
             clazz = resolveJDKClass(name);
+            start = endStep(Step.JDK, start, clazz != null);
         }
 
         // 3. Ark Spi class
         if (clazz == null) {
             clazz = resolveArkClass(name);
+            start = endStep(Step.ARK, start, clazz != null);
         }
 
         // 4. pre find class
         if (clazz == null) {
             clazz = preLoadClass(name);
+            start = endStep(Step.PRE_FIND, start, clazz != null);
         }
 
         // 5. Import class export by other plugins
         if (clazz == null) {
             clazz = resolveExportClass(name);
+            start = endStep(Step.EXPORT, start, clazz != null);
         }
 
         // 6. Plugin classpath class
         if (clazz == null) {
             clazz = resolveLocalClass(name);
+            start = endStep(Step.LOCAL, start, clazz != null);
         }
 
         // 7. Java Agent ClassLoader for agent problem
         if (clazz == null) {
             clazz = resolveJavaAgentClass(name);
+            start = endStep(Step.JAVA_AGENT, start, clazz != null);
         }
 
         // 8. Post find class
         if (clazz == null) {
             clazz = postLoadClass(name);
+            start = endStep(Step.POST_FIND, start, clazz != null);
         }
 
         if (clazz != null) {
@@ -145,6 +168,25 @@ public class PluginClassLoader extends AbstractClasspathClassLoader {
         }
     }
 
+    @Override
+    protected Collection<String> getLocalClassNames() {
+        return NegativeClassFilter.listClassNames(getURLs());
+    }
+
+    @Override
+    protected boolean isHookCoveredByNegativeFilter(NegativeClassFilter filter) {
+        loadPluginClassLoaderHook();
+        return pluginClassLoaderHook == null;
+    }
+
+    /**
+     * bizs are reachable through the hook only
+     */
+    @Override
+    protected boolean isCacheAffectedBy(Biz biz) {
+        return pluginClassLoaderHook != null;
+    }
+
     @Override
     protected Class<?> preLoadClass(String className) throws ArkLoaderException {
         try {
@@ -0,0 +1,167 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.ark.container.service.classloader;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Trie of name stems, matches names starting with (or ending with, for a suffix trie) any stem
+ * in time of name length regardless of stem count.
+ *
+ * @since 2.2.15
+ */
+public class StemTrie<V> {
+
+    private final boolean suffix;
+
+    private final Node<V> root = new Node<>();
+
+    private int           size;
+
+    private StemTrie(boolean suffix) {
+        this.suffix = suffix;
+    }
+
+    public static <V> StemTrie<V> prefixTrie() {
+        return new StemTrie<>(false);
+    }
+
+    public static <V> StemTrie<V> suffixTrie() {
+        return new StemTrie<>(true);
+    }
+
+    /**
+     * Build trie of stems, the value of each stem is itself
+     *
+     * @param stems stems, null is treated as empty
+     * @param suffix whether to match stems as suffix
+     * @return trie
+     */
+    public static StemTrie<String> of(Collection<String> stems, boolean suffix) {
+        StemTrie<String> trie = new StemTrie<>(suffix);
+        if (stems != null) {
+            for (String stem : stems) {
+                trie.put(stem, stem);
+            }
+        }
+        return trie;
+    }
+
+    /**
+     * Build trie of stems with their values
+     *
+     * @param stems stems and values
+     * @param suffix whether to match stems as suffix
+     * @return trie
+     */
+    public static <V> StemTrie<V> of(Map<String, V> stems, boolean suffix) {
+        StemTrie<V> trie = new StemTrie<>(suffix);
+        for (Map.Entry<String, V> entry : stems.entrySet()) {
+            trie.put(entry.getKey(), entry.getValue());
+        }
+        return trie;
+    }
+
+    /**
+     * Put a stem, the value of an existing stem is kept
+     *
+     * @param stem stem
+     * @param value value of stem, must not be null
+     */
+    public void put(String stem, V value) {
+        Node<V> node = root;
+        int length = stem.length();
+        for (int i = 0; i < length; i++) {
+            node = node.child(charAt(stem, i, length), true);
+        }
+        if (node.value == null) {
+            node.value = value;
+            size++;
+        }
+    }
+
+    /**
+     * Find value of the longest stem which the name starts with (or ends with)
+     *
+     * @param name name
+     * @return null if no stem matches
+     */
+    public V match(String name) {
+        Node<V> node = root;
+        V value = node.value;
+        int length = name.length();
+        for (int i = 0; i < length && node != null; i++) {
+            node = node.child(charAt(name, i, length), false);
+            if (node != null && node.value != null) {
+                value = node.value;
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Whether the name starts with (or ends with) any stem
+     *
+     * @param name name
+     * @return
+     */
+    public boolean matches(String name) {
+        Node<V> node = root;
+        int length = name.length();
+        for (int i = 0; node.value == null; i++) {
+            if (i == length) {
+                return false;
+            }
+            node = node.child(charAt(name, i, length), false);
+            if (node == null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    private char charAt(String name, int i, int length) {
+        return suffix ? name.charAt(length - 1 - i) : name.charAt(i);
+    }
+
+    private static class Node<V> {
+        private Map<Character, Node<V>> children;
+        private V                       value;
+
+        Node<V> child(char c, boolean create) {
+            Node<V> child = children == null ? null : children.get(c);
+            if (child == null && create) {
+                if (children == null) {
+                    children = new HashMap<>(4);
+                }
+                child = new Node<>();
+                children.put(c, child);
+            }
+            return child;
+        }
+    }
+}
@@ -0,0 +1,313 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.ark.container.service.event;
+
+import com.alipay.sofa.ark.api.ArkConfigs;
+import com.alipay.sofa.ark.common.log.ArkLoggerFactory;
+import com.alipay.sofa.ark.common.thread.CommonThreadPool;
+import com.alipay.sofa.ark.common.thread.ThreadPoolManager;
+import com.alipay.sofa.ark.common.util.LatencyHistogram;
+import com.alipay.sofa.ark.spi.event.ArkEvent;
+import com.alipay.sofa.ark.spi.service.event.EventHandler;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.alipay.sofa.ark.spi.constant.Constants.DEFAULT_EVENT_ASYNC_OFFER_TIMEOUT;
+import static com.alipay.sofa.ark.spi.constant.Constants.DEFAULT_EVENT_ASYNC_QUEUE_SIZE;
+import static com.alipay.sofa.ark.spi.constant.Constants.DEFAULT_EVENT_ASYNC_THREAD_POOL_SIZE;
+import static com.alipay.sofa.ark.spi.constant.Constants.EVENT_ASYNC_OFFER_TIMEOUT;
+import static com.alipay.sofa.ark.spi.constant.Constants.EVENT_ASYNC_QUEUE_SIZE;
+import static com.alipay.sofa.ark.spi.constant.Constants.EVENT_ASYNC_THREAD_POOL_NAME;
+import static com.alipay.sofa.ark.spi.constant.Constants.EVENT_ASYNC_THREAD_POOL_SIZE;
+
+/**
+ * Deliver events to async event handlers on the thread pool registered with
+ * {@link ThreadPoolManager} as {@code ark-event-async}. Each handler owns a bounded mailbox
+ * which is drained by at most one thread at a time, so events of a handler are handled in the
+ * order they are sent. The sender waits for a bounded time when the mailbox of a handler is full
+ * and the event is dropped on timeout. A handler sending events to itself never waits, its events
+ * overflow the mailbox instead, and a handler sending events to another full mailbox drops them
+ * at once, so that handlers on the pool threads never wait for each other.
+ *
+ * @since 2.2.15
+ */
+public class AsyncEventDispatcher {
+
+    /**
+     * mailbox drained by current thread, null if current thread isn't draining any
+     */
+    private static final ThreadLocal<Mailbox>              DRAINING  = new ThreadLocal<>();
+
+    private final ConcurrentHashMap<EventHandler, Mailbox> mailboxes = new ConcurrentHashMap<>();
+
+    /**
+     * Deliver event to handler asynchronously
+     *
+     * @param eventHandler event handler
+     * @param event event
+     */
+    public void dispatch(EventHandler eventHandler, ArkEvent event) {
+        Mailbox mailbox = mailboxes.get(eventHandler);
+        if (mailbox == null) {
+            Mailbox newMailbox = new Mailbox(eventHandler);
+            mailbox = mailboxes.putIfAbsent(eventHandler, newMailbox);
+            if (mailbox == null) {
+                mailbox = newMailbox;
+            }
+        }
+        mailbox.offer(event);
+    }
+
+    /**
+     * Drop mailboxes of handlers which are no longer registered, events already in a mailbox
+     * are still delivered.
+     *
+     * @param eventHandlers registered handlers
+     */
+    public void retain(Collection<EventHandler> eventHandlers) {
+        mailboxes.keySet().retainAll(eventHandlers);
+    }
+
+    /**
+     * Get delivery metrics of each async handler
+     *
+     * @return metrics keyed by {@link #getHandlerId(EventHandler)}
+     */
+    public Map<String, HandlerMetrics> getMetrics() {
+        Map<String, HandlerMetrics> metrics = new HashMap<>();
+        for (Mailbox mailbox : mailboxes.values()) {
+            metrics.put(getHandlerId(mailbox.eventHandler), mailbox.metrics);
+        }
+        return Collections.unmodifiableMap(metrics);
+    }
+
+    /**
+     * Identify a handler by its class name and identity hash code, so that handlers of the
+     * same class, e.g. registered by different biz, are told apart.
+     *
+     * @param eventHandler event handler
+     * @return handler id
+     */
+    public static String getHandlerId(EventHandler eventHandler) {
+        return eventHandler.getClass().getName() + "@"
+               + Integer.toHexString(System.identityHashCode(eventHandler));
+    }
+
+    private static Executor getExecutor() {
+        CommonThreadPool threadPool = ThreadPoolManager.getThreadPool(EVENT_ASYNC_THREAD_POOL_NAME);
+        if (threadPool == null) {
+            int poolSize = ArkConfigs.getIntValue(EVENT_ASYNC_THREAD_POOL_SIZE,
+                DEFAULT_EVENT_ASYNC_THREAD_POOL_SIZE);
+            ThreadPoolManager.registerThreadPool(
+                EVENT_ASYNC_THREAD_POOL_NAME,
+                new CommonThreadPool().setCorePoolSize(poolSize).setMaximumPoolSize(poolSize)
+                    .setAllowCoreThreadTimeOut(true).setDaemon(true)
+                    .setThreadPoolName(EVENT_ASYNC_THREAD_POOL_NAME));
+            threadPool = ThreadPoolManager.getThreadPool(EVENT_ASYNC_THREAD_POOL_NAME);
+        }
+        return threadPool.getExecutor();
+    }
+
+    private static class Mailbox implements Runnable {
+        private final EventHandler            eventHandler;
+        private final BlockingQueue<Envelope> queue;
+        /**
+         * events the handler sent to itself when the queue was full, only accessed by drainer
+         */
+        private final ArrayDeque<Envelope>    overflow  = new ArrayDeque<>();
+        private final AtomicBoolean           scheduled = new AtomicBoolean();
+        private final HandlerMetrics          metrics   = new HandlerMetrics();
+
+        Mailbox(EventHandler eventHandler) {
+            this.eventHandler = eventHandler;
+            this.queue = new ArrayBlockingQueue<>(Math.max(1,
+                ArkConfigs.getIntValue(EVENT_ASYNC_QUEUE_SIZE, DEFAULT_EVENT_ASYNC_QUEUE_SIZE)));
+        }
+
+        void offer(ArkEvent event) {
+            Envelope envelope = new Envelope(event);
+            Mailbox draining = DRAINING.get();
+            if (draining == this) {
+                // the handler sends to itself, it can't wait for its own drain, keep events
+                // after those already overflowed to preserve order
+                if (!overflow.isEmpty() || !queue.offer(envelope)) {
+                    metrics.overflowCount.increment();
+                    overflow.add(envelope);
+                }
+                return;
+            }
+            if (!queue.offer(envelope)) {
+                if (draining != null) {
+                    // the handler of another mailbox may be waiting for the mailbox drained by
+                    // this thread, waiting here may deadlock the pool threads
+                    drop(event, "full mailbox");
+                    return;
+                }
+                metrics.blockedCount.increment();
+                try {
+                    if (!queue.offer(envelope, ArkConfigs.getIntValue(EVENT_ASYNC_OFFER_TIMEOUT,
+                        DEFAULT_EVENT_ASYNC_OFFER_TIMEOUT), TimeUnit.MILLISECONDS)) {
+                        drop(event, "timeout of full mailbox");
+                        return;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    drop(event, "interrupt");
+                    return;
+                }
+            }
+            schedule();
+        }
+
+        private void drop(ArkEvent event, String reason) {
+            metrics.droppedCount.increment();
+            ArkLoggerFactory.getDefaultLogger().warn(
+                String.format("Drop event %s to %s due to %s.", event.getTopic(), eventHandler,
+                    reason));
+        }
+
+        private void schedule() {
+            if (!queue.isEmpty() && scheduled.compareAndSet(false, true)) {
+                try {
+                    getExecutor().execute(this);
+                } catch (RejectedExecutionException e) {
+                    // executor is saturated, drain in place, the mailbox is still owned by this drain
+                    run();
+                }
+            }
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void run() {
+            // run in place by a sender which is draining another mailbox
+            Mailbox outer = DRAINING.get();
+            DRAINING.set(this);
+            try {
+                Envelope envelope;
+                while ((envelope = poll()) != null) {
+                    long start = System.nanoTime();
+                    metrics.queueLatency.record(start - envelope.enqueueNanos);
+                    try {
+                        eventHandler.handleEvent(envelope.event);
+                    } catch (Throwable t) {
+                        metrics.failedCount.increment();
+                        ArkLoggerFactory.getDefaultLogger().error(
+                            String.format("Fail to handle event %s by %s.",
+                                envelope.event.getTopic(), eventHandler), t);
+                    } finally {
+                        metrics.handleLatency.record(System.nanoTime() - start);
+                    }
+                }
+            } finally {
+                if (outer == null) {
+                    DRAINING.remove();
+                } else {
+                    DRAINING.set(outer);
+                }
+                scheduled.set(false);
+            }
+            // events may be offered after the last poll and before reset of scheduled flag
+            schedule();
+        }
+
+        /**
+         * Overflowed events were sent after all events in the queue at that time
+         */
+        private Envelope poll() {
+            Envelope envelope = queue.poll();
+            return envelope != null ? envelope : overflow.poll();
+        }
+    }
+
+    private static class Envelope {
+        private final ArkEvent event;
+        private final long     enqueueNanos = System.nanoTime();
+
+        Envelope(ArkEvent event) {
+            this.event = event;
+        }
+    }
+
+    /**
+     * Delivery metrics of an async event handler
+     */
+    public static class HandlerMetrics {
+        private final LongAdder        failedCount   = new LongAdder();
+        private final LongAdder        blockedCount  = new LongAdder();
+        private final LongAdder        overflowCount = new LongAdder();
+        private final LongAdder        droppedCount  = new LongAdder();
+        private final LatencyHistogram handleLatency = new LatencyHistogram();
+        private final LatencyHistogram queueLatency  = new LatencyHistogram();
+
+        public long getDeliveredCount() {
+            return handleLatency.getCount();
+        }
+
+        public long getFailedCount() {
+            return failedCount.sum();
+        }
+
+        /**
+         * Count of events whose sender waited for a full mailbox
+         */
+        public long getBlockedCount() {
+            return blockedCount.sum();
+        }
+
+        /**
+         * Count of events a handler sent to itself beyond its mailbox size
+         */
+        public long getOverflowCount() {
+            return overflowCount.sum();
+        }
+
+        /**
+         * Count of events dropped by a full mailbox or an interrupted sender
+         */
+        public long getDroppedCount() {
+            return droppedCount.sum();
+        }
+
+        /**
+         * Time spent by handler on each event
+         */
+        public LatencyHistogram getHandleLatency() {
+            return handleLatency;
+        }
+
+        /**
+         * Time each event waited in mailbox before being handled, it's recorded before the
+         * event is handled
+         */
+        public LatencyHistogram getQueueLatency() {
+            return queueLatency;
+        }
+    }
+}
@@ -16,11 +16,14 @@
  */
 package com.alipay.sofa.ark.container.service.event;
 
+import com.alipay.sofa.ark.api.ArkConfigs;
 import com.alipay.sofa.ark.common.log.ArkLoggerFactory;
 import com.alipay.sofa.ark.common.util.OrderComparator;
 import com.alipay.sofa.ark.spi.event.ArkEvent;
+import com.alipay.sofa.ark.spi.model.BizOperationTimings;
 import com.alipay.sofa.ark.spi.registry.ServiceReference;
 import com.alipay.sofa.ark.spi.service.PriorityOrdered;
+import com.alipay.sofa.ark.spi.service.event.AsyncEventHandler;
 import com.alipay.sofa.ark.spi.service.event.EventAdminService;
 import com.alipay.sofa.ark.spi.service.event.EventHandler;
 import com.alipay.sofa.ark.spi.service.registry.RegistryService;
@@ -32,9 +35,13 @@ import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.alipay.sofa.ark.spi.constant.Constants.EVENT_ASYNC_DELIVERY_ENABLE;
 
 /**
  * @author qilong.zql
@@ -43,31 +50,77 @@ import java.util.concurrent.CopyOnWriteArraySet;
 @Singleton
 public class EventAdminServiceImpl implements EventAdminService, EventHandler {
 
-    private final static ConcurrentMap<ClassLoader, CopyOnWriteArraySet<EventHandler>> SUBSCRIBER_MAP = new ConcurrentHashMap<>();
+    private final static ConcurrentMap<ClassLoader, CopyOnWriteArraySet<EventHandler>> SUBSCRIBER_MAP       = new ConcurrentHashMap<>();
+
+    private final static AtomicLong                                                    SUBSCRIBER_VERSION   = new AtomicLong();
 
     @Inject
     private RegistryService                                                            registryService;
 
+    private volatile DispatchTable                                                     dispatchTable;
+
+    private final AsyncEventDispatcher                                                 asyncEventDispatcher = new AsyncEventDispatcher();
+
     public EventAdminServiceImpl() {
         register(this);
     }
 
     @Override
     public void sendEvent(ArkEvent event) {
-        List<EventHandler> eventHandlers = new ArrayList<>();
-        for (CopyOnWriteArraySet<EventHandler> values : SUBSCRIBER_MAP.values()) {
-            eventHandlers.addAll(values);
-        }
-        for (ServiceReference<EventHandler> eventHandler : registryService.referenceServices(
-            EventHandler.class, null)) {
-            eventHandlers.add(eventHandler.getService());
-        }
-        Collections.sort(eventHandlers, new OrderComparator());
-        for (EventHandler eventHandler : eventHandlers) {
-            if (isSupportEventType(eventHandler, event)) {
+        boolean asyncEnabled = ArkConfigs.getBooleanValue(EVENT_ASYNC_DELIVERY_ENABLE, false);
+        // time handlers only when a biz operation is in progress
+        BizOperationTimings timings = BizOperationTimings.current();
+        for (EventHandler eventHandler : getDispatchTable().getEventHandlers(event.getClass())) {
+            if (asyncEnabled && eventHandler instanceof AsyncEventHandler) {
+                asyncEventDispatcher.dispatch(eventHandler, event);
+            } else if (timings == null) {
                 eventHandler.handleEvent(event);
+            } else {
+                long start = System.nanoTime();
+                try {
+                    eventHandler.handleEvent(event);
+                } finally {
+                    timings.add(BizOperationTimings.HANDLER_PREFIX
+                                + event.getClass().getSimpleName() + ":"
+                                + eventHandler.getClass().getName(), System.nanoTime() - start);
+                }
+            }
+        }
+    }
+
+    /**
+     * Get delivery metrics of async event handlers
+     *
+     * @return metrics keyed by {@link AsyncEventDispatcher#getHandlerId(EventHandler)}
+     */
+    public Map<String, AsyncEventDispatcher.HandlerMetrics> getAsyncDeliveryMetrics() {
+        return asyncEventDispatcher.getMetrics();
+    }
+
+    /**
+     * Get dispatch table of current handlers, it's rebuilt once handlers are registered or
+     * unregistered, either by this service or by registry service.
+     */
+    private DispatchTable getDispatchTable() {
+        long version = SUBSCRIBER_VERSION.get();
+        long registryVersion = registryService.getServicesVersion(EventHandler.class);
+        DispatchTable table = dispatchTable;
+        if (table == null || registryVersion < 0 || table.version != version
+            || table.registryVersion != registryVersion) {
+            List<EventHandler> eventHandlers = new ArrayList<>();
+            for (CopyOnWriteArraySet<EventHandler> values : SUBSCRIBER_MAP.values()) {
+                eventHandlers.addAll(values);
+            }
+            for (ServiceReference<EventHandler> eventHandler : registryService.referenceServices(
+                EventHandler.class, null)) {
+                eventHandlers.add(eventHandler.getService());
             }
+            Collections.sort(eventHandlers, new OrderComparator());
+            table = new DispatchTable(version, registryVersion, eventHandlers);
+            dispatchTable = table;
+            asyncEventDispatcher.retain(eventHandlers);
         }
+        return table;
     }
 
     @Override
@@ -83,6 +136,7 @@ public class EventAdminServiceImpl implements EventAdminService, EventHandler {
             }
         }
         set.add(eventHandler);
+        SUBSCRIBER_VERSION.incrementAndGet();
         ArkLoggerFactory.getDefaultLogger().debug(
             String.format("Register event handler: %s.", eventHandler));
     }
@@ -93,6 +147,7 @@ public class EventAdminServiceImpl implements EventAdminService, EventHandler {
             .getClassLoader());
         if (set != null) {
             set.remove(eventHandler);
+            SUBSCRIBER_VERSION.incrementAndGet();
             ArkLoggerFactory.getDefaultLogger().debug(
                 String.format("Unregister event handler: %s.", eventHandler));
         }
@@ -101,6 +156,7 @@ public class EventAdminServiceImpl implements EventAdminService, EventHandler {
     @Override
     public void unRegister(ClassLoader classLoader) {
         SUBSCRIBER_MAP.remove(classLoader);
+        SUBSCRIBER_VERSION.incrementAndGet();
         ArkLoggerFactory.getDefaultLogger().debug(
             String.format("Unregister event handler of classLoader: %s.", classLoader));
 
@@ -115,7 +171,8 @@ public class EventAdminServiceImpl implements EventAdminService, EventHandler {
         return PriorityOrdered.LOWEST_PRECEDENCE;
     }
 
-    private boolean isSupportEventType(EventHandler eventHandler, ArkEvent event) {
+    private static boolean isSupportEventType(EventHandler eventHandler,
+                                              Class<? extends ArkEvent> eventType) {
         boolean isSupport = false;
         try {
             Class<? extends EventHandler> aClass = eventHandler.getClass();
@@ -133,14 +190,14 @@ public class EventAdminServiceImpl implements EventAdminService, EventHandler {
                             .getActualTypeArguments();
                         if (actualTypeArguments.length == 1) {
                             if (Class.forName(actualTypeArguments[0].getTypeName())
-                                .isAssignableFrom(event.getClass())) {
+                                .isAssignableFrom(eventType)) {
                                 isSupport = true;
                                 break;
                             }
                         }
                     } else {
                         // no generic type is specified, ArkEvent and its subclasses will handle
-                        if (ArkEvent.class.isAssignableFrom(event.getClass())) {
+                        if (ArkEvent.class.isAssignableFrom(eventType)) {
                             isSupport = true;
                             break;
                         }
@@ -153,15 +210,51 @@ public class EventAdminServiceImpl implements EventAdminService, EventHandler {
         return isSupport;
     }
 
-    private boolean checkEventHandlerType(Type type) {
-        if (type.getTypeName().equals(EventHandler.class.getTypeName())) {
-            return true;
-        }
+    private static boolean checkEventHandlerType(Type type) {
         if (type instanceof ParameterizedType) {
-            ParameterizedType parameterizedType = (ParameterizedType) type;
-            return parameterizedType.getRawType().getTypeName()
-                .equals(EventHandler.class.getTypeName());
+            type = ((ParameterizedType) type).getRawType();
+        }
+        String typeName = type.getTypeName();
+        return typeName.equals(EventHandler.class.getTypeName())
+               || typeName.equals(AsyncEventHandler.class.getTypeName());
+    }
+
+    /**
+     * Handlers sorted by priority, and handlers supporting each event type. Only event types
+     * defined by ark are cached, so that event classes of biz are never held.
+     */
+    private static class DispatchTable {
+        private final long                                                     version;
+        private final long                                                     registryVersion;
+        private final EventHandler[]                                           eventHandlers;
+        private final ConcurrentMap<Class<? extends ArkEvent>, EventHandler[]> eventTypeHandlers = new ConcurrentHashMap<>();
+
+        DispatchTable(long version, long registryVersion, List<EventHandler> eventHandlers) {
+            this.version = version;
+            this.registryVersion = registryVersion;
+            this.eventHandlers = eventHandlers.toArray(new EventHandler[0]);
+        }
+
+        EventHandler[] getEventHandlers(Class<? extends ArkEvent> eventType) {
+            if (eventType.getClassLoader() != ArkEvent.class.getClassLoader()) {
+                return filterEventHandlers(eventType);
+            }
+            EventHandler[] handlers = eventTypeHandlers.get(eventType);
+            if (handlers == null) {
+                handlers = filterEventHandlers(eventType);
+                eventTypeHandlers.putIfAbsent(eventType, handlers);
+            }
+            return handlers;
+        }
+
+        private EventHandler[] filterEventHandlers(Class<? extends ArkEvent> eventType) {
+            List<EventHandler> handlers = new ArrayList<>();
+            for (EventHandler eventHandler : eventHandlers) {
+                if (isSupportEventType(eventHandler, eventType)) {
+                    handlers.add(eventHandler);
+                }
+            }
+            return handlers.toArray(new EventHandler[0]);
         }
-        return false;
     }
 }
@@ -33,7 +33,10 @@ import com.google.inject.Singleton;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Registry Service Implement
@@ -46,6 +49,11 @@ public class RegistryServiceImpl implements RegistryService {
 
     private CopyOnWriteArraySet<ServiceReference<?>> services        = new CopyOnWriteArraySet<>();
 
+    /**
+     * services version keyed by interface name
+     */
+    private ConcurrentMap<String, AtomicLong>        servicesVersion = new ConcurrentHashMap<>();
+
     private OrderComparator                          orderComparator = new OrderComparator();
 
     @Inject
@@ -86,6 +94,7 @@ public class RegistryServiceImpl implements RegistryService {
                 serviceProvider));
 
         services.add(serviceReference);
+        increaseServicesVersion(ifClass);
 
         return serviceReference;
     }
@@ -141,6 +150,7 @@ public class RegistryServiceImpl implements RegistryService {
         for (ServiceReference<?> reference : services) {
             if (serviceFilter.match(reference)) {
                 services.remove(reference);
+                increaseServicesVersion(reference.getServiceMetadata().getInterfaceClass());
                 count += 1;
             }
         }
@@ -148,4 +158,14 @@ public class RegistryServiceImpl implements RegistryService {
         return count;
     }
 
+    @Override
+    public long getServicesVersion(Class<?> ifClass) {
+        AtomicLong version = servicesVersion.get(ifClass.getName());
+        return version == null ? 0 : version.get();
+    }
+
+    private void increaseServicesVersion(Class<?> ifClass) {
+        servicesVersion.computeIfAbsent(ifClass.getName(), name -> new AtomicLong())
+            .incrementAndGet();
+    }
 }
@@ -33,15 +33,20 @@ import org.junit.Before;
 import org.junit.Test;
 
 import java.lang.reflect.Field;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.jar.Attributes;
 import java.util.jar.Manifest;
 
 import static com.alipay.sofa.ark.api.ArkConfigs.getStringValue;
 import static com.alipay.sofa.ark.api.ArkConfigs.setSystemProperty;
+import static com.alipay.sofa.ark.spi.constant.Constants.ARCHIVE_PARALLEL_ENABLE;
 import static com.alipay.sofa.ark.spi.constant.Constants.CONFIG_SERVER_ADDRESS;
 import static com.alipay.sofa.ark.spi.constant.Constants.MASTER_BIZ;
 import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
 import static org.mockito.Mockito.*;
 
 public class HandleArchiveStageTest {
@@ -150,6 +155,39 @@ public class HandleArchiveStageTest {
         verify(bizManagerService, times(2)).getBizInOrder();
     }
 
+    @Test
+    public void testHandleInOrderInParallel() throws Exception {
+        setSystemProperty(ARCHIVE_PARALLEL_ENABLE, "true");
+        try {
+            List<Integer> archives = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                archives.add(i);
+            }
+            List<String> results = handleArchiveStage.handleInOrder(archives, archive -> {
+                Thread.sleep(20 - archive);
+                return String.valueOf(archive);
+            });
+            assertEquals(20, results.size());
+            for (int i = 0; i < 20; i++) {
+                assertEquals(String.valueOf(i), results.get(i));
+            }
+
+            try {
+                handleArchiveStage.handleInOrder(archives, archive -> {
+                    if (archive == 10) {
+                        throw new IllegalStateException("mock");
+                    }
+                    return archive;
+                });
+                fail();
+            } catch (IllegalStateException e) {
+                assertEquals("mock", e.getMessage());
+            }
+        } finally {
+            setSystemProperty(ARCHIVE_PARALLEL_ENABLE, "");
+        }
+    }
+
     @Test
     public void testProcessStaticBizFromClasspath() throws Exception {
 
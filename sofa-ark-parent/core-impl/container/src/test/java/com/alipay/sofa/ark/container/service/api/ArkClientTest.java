@@ -17,13 +17,18 @@
 package com.alipay.sofa.ark.container.service.api;
 
 import com.alipay.sofa.ark.api.ArkConfigs;
+import com.alipay.sofa.ark.api.BizOperationStats;
 import com.alipay.sofa.ark.api.ClientResponse;
 import com.alipay.sofa.ark.container.BaseTest;
 import com.alipay.sofa.ark.container.service.biz.BizManagerServiceImpl;
+import com.alipay.sofa.ark.container.service.classloader.BizClassLoader;
+import com.alipay.sofa.ark.container.service.classloader.PersistentClassIndex;
+import com.alipay.sofa.ark.loader.ExplodedBizArchive;
 import com.alipay.sofa.ark.spi.event.ArkEvent;
 import com.alipay.sofa.ark.spi.model.Biz;
 import com.alipay.sofa.ark.spi.model.BizInfo;
 import com.alipay.sofa.ark.spi.model.BizOperation;
+import com.alipay.sofa.ark.spi.model.BizOperationTimings;
 import com.alipay.sofa.ark.spi.replay.Replay;
 import com.alipay.sofa.ark.spi.service.biz.BizFactoryService;
 import com.alipay.sofa.ark.spi.service.biz.BizManagerService;
@@ -32,16 +37,19 @@ import com.alipay.sofa.ark.spi.service.event.EventHandler;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 import static com.alipay.sofa.ark.api.ArkClient.checkBiz;
 import static com.alipay.sofa.ark.api.ArkClient.checkOperation;
 import static com.alipay.sofa.ark.api.ArkClient.createBizSaveFile;
 import static com.alipay.sofa.ark.api.ArkClient.getArguments;
 import static com.alipay.sofa.ark.api.ArkClient.getBizFactoryService;
+import static com.alipay.sofa.ark.api.ArkClient.getBizOperationStats;
 import static com.alipay.sofa.ark.api.ArkClient.getBizManagerService;
 import static com.alipay.sofa.ark.api.ArkClient.getPluginManagerService;
 import static com.alipay.sofa.ark.api.ArkClient.installBiz;
@@ -55,8 +63,17 @@ import static com.alipay.sofa.ark.api.ArkClient.uninstallOperation;
 import static com.alipay.sofa.ark.api.ResponseCode.REPEAT_BIZ;
 import static com.alipay.sofa.ark.api.ResponseCode.SUCCESS;
 import static com.alipay.sofa.ark.common.util.FileUtils.copyInputStreamToFile;
+import static com.alipay.sofa.ark.common.util.FileUtils.sha1Hash;
 import static com.alipay.sofa.ark.spi.constant.Constants.ACTIVATE_NEW_MODULE;
 import static com.alipay.sofa.ark.spi.constant.Constants.AUTO_UNINSTALL_WHEN_FAILED_ENABLE;
+import static com.alipay.sofa.ark.spi.constant.Constants.ARK_BIZ_MARK_ENTRY;
+import static com.alipay.sofa.ark.spi.constant.Constants.BIZ_CLASS_INDEX_ENABLE;
+import static com.alipay.sofa.ark.spi.constant.Constants.BIZ_CLASS_INDEX_PERSIST_ENABLE;
+import static com.alipay.sofa.ark.spi.constant.Constants.BIZ_CLASS_INDEX_PERSIST_MAX_COUNT;
+import static com.alipay.sofa.ark.spi.constant.Constants.DEFAULT_BIZ_CLASS_INDEX_PERSIST_MAX_COUNT;
+import static com.alipay.sofa.ark.spi.constant.Constants.BIZ_INSTALL_STREAM_ENABLE;
+import static com.alipay.sofa.ark.spi.constant.Constants.BIZ_UNPACK_DIR_SUFFIX;
+import static com.alipay.sofa.ark.spi.constant.Constants.BIZ_UNPACK_LAZY_ENABLE;
 import static com.alipay.sofa.ark.spi.constant.Constants.CONFIG_BIZ_URL;
 import static com.alipay.sofa.ark.spi.constant.Constants.EMBED_ENABLE;
 import static com.alipay.sofa.ark.spi.constant.Constants.ACTIVATE_MULTI_BIZ_VERSION_ENABLE;
@@ -71,6 +88,7 @@ import static java.lang.System.setProperty;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
@@ -169,6 +187,45 @@ public class ArkClientTest extends BaseTest {
         setProperty(ACTIVATE_MULTI_BIZ_VERSION_ENABLE, "");
     }
 
+    @Test
+    public void testInstallBizWithPersistentClassIndex() throws Throwable {
+        File bizFile = createBizSaveFile("biz-demo", "1.0.0", "class-index-1");
+        ArkConfigs.putStringValue(BIZ_CLASS_INDEX_ENABLE, "true");
+        ArkConfigs.putStringValue(BIZ_CLASS_INDEX_PERSIST_ENABLE, "true");
+        File indexFile = null;
+        try {
+            copyInputStreamToFile(bizUrl1.openStream(), bizFile);
+            indexFile = PersistentClassIndex.getIndexFile(bizFile, sha1Hash(bizFile));
+            assertEquals(SUCCESS, installBiz(bizFile).getCode());
+            assertTrue(indexFile.isFile());
+            assertEquals(SUCCESS, uninstallBiz("biz-demo", "1.0.0").getCode());
+            assertTrue(indexFile.isFile());
+
+            // the same biz saved to another file, the index persisted on first start is reused
+            long lastModified = System.currentTimeMillis() / 1000 * 1000 - 60000;
+            indexFile.setLastModified(lastModified);
+            File anotherBizFile = createBizSaveFile("biz-demo", "1.0.0", "class-index-2");
+            copyInputStreamToFile(bizUrl1.openStream(), anotherBizFile);
+            assertEquals(SUCCESS, installBiz(anotherBizFile).getCode());
+            assertEquals(lastModified, indexFile.lastModified());
+            Biz biz = getBizManagerService().getBiz("biz-demo", "1.0.0");
+            assertNotNull(((BizClassLoader) biz.getBizClassLoader()).getClassIndex());
+
+            // index files are pruned to the max count when biz is recycled
+            ArkConfigs.putStringValue(BIZ_CLASS_INDEX_PERSIST_MAX_COUNT, "0");
+            assertEquals(SUCCESS, uninstallBiz("biz-demo", "1.0.0").getCode());
+            assertFalse(indexFile.exists());
+        } finally {
+            ArkConfigs.putStringValue(BIZ_CLASS_INDEX_ENABLE, "false");
+            ArkConfigs.putStringValue(BIZ_CLASS_INDEX_PERSIST_ENABLE, "false");
+            ArkConfigs.putStringValue(BIZ_CLASS_INDEX_PERSIST_MAX_COUNT,
+                String.valueOf(DEFAULT_BIZ_CLASS_INDEX_PERSIST_MAX_COUNT));
+            if (indexFile != null) {
+                indexFile.delete();
+            }
+        }
+    }
+
     @Test
     public void testBizArguments() throws Throwable {
 
@@ -305,6 +362,62 @@ public class ArkClientTest extends BaseTest {
         assertEquals(SUCCESS, response.getCode());
     }
 
+    @Test
+    public void testInstallBizByStream() throws Throwable {
+        File bizFile = createBizSaveFile("biz-demo", "1.0.0");
+        ClientResponse response = installBiz(bizUrl1.openStream(), bizFile, new String[] {}, null);
+        assertEquals(SUCCESS, response.getCode());
+        assertTrue(bizFile.isFile());
+
+        // biz stream is unpacked directly in embed mode
+        setProperty(EMBED_ENABLE, "true");
+        try {
+            File bizFile2 = createBizSaveFile("biz-demo", "2.0.0");
+            response = installBiz(bizUrl2.openStream(), bizFile2, new String[] {}, null);
+            assertEquals(SUCCESS, response.getCode());
+            assertFalse(bizFile2.exists());
+            File unpackDir = new File(bizFile2.getAbsolutePath() + BIZ_UNPACK_DIR_SUFFIX);
+            assertTrue(unpackDir.isDirectory());
+            assertTrue(new File(unpackDir, "META-INF/MANIFEST.MF").isFile());
+
+            // biz file is kept when it's unpacked lazily
+            setProperty(BIZ_UNPACK_LAZY_ENABLE, "true");
+            File bizFile3 = createBizSaveFile("biz-demo", "3.0.0");
+            response = installBiz(bizUrl3.openStream(), bizFile3, new String[] {}, null);
+            assertEquals(SUCCESS, response.getCode());
+            assertTrue(new File(bizFile3.getAbsolutePath() + BIZ_UNPACK_DIR_SUFFIX,
+                ExplodedBizArchive.LAZY_BIZ_JAR_NAME).isFile());
+        } finally {
+            setProperty(BIZ_UNPACK_LAZY_ENABLE, "");
+            setProperty(EMBED_ENABLE, "");
+        }
+
+        try {
+            installBiz(new ByteArrayInputStream(new byte[0]),
+                createBizSaveFile("biz-demo", "4.0.0"), new String[] {}, null);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains(ARK_BIZ_MARK_ENTRY));
+        }
+    }
+
+    @Test
+    public void testInstallOperationByStream() throws Throwable {
+        setProperty(BIZ_INSTALL_STREAM_ENABLE, "true");
+        try {
+            BizOperation bizOperation = new BizOperation();
+            bizOperation.setOperationType(INSTALL);
+            bizOperation.getParameters().put(CONFIG_BIZ_URL, bizUrl1.toString());
+            bizOperation.setBizName("biz-demo");
+            bizOperation.setBizVersion("1.0.0");
+
+            ClientResponse response = installOperation(bizOperation, new String[] {});
+            assertEquals(SUCCESS, response.getCode());
+        } finally {
+            setProperty(BIZ_INSTALL_STREAM_ENABLE, "");
+        }
+    }
+
     @Test
     public void testInstallBizFailed() throws Throwable {
         File bizFile = createBizSaveFile("biz-install-failed-demo", "1.0.0");
@@ -384,6 +497,65 @@ public class ArkClientTest extends BaseTest {
         assertEquals(SUCCESS, response.getCode());
     }
 
+    @Test
+    public void testBizOperationTimings() throws Throwable {
+        BizOperationStats stats = getBizOperationStats();
+        stats.reset();
+
+        BizOperation bizOperation = new BizOperation();
+        bizOperation.setOperationType(INSTALL);
+        bizOperation.getParameters().put(CONFIG_BIZ_URL, bizUrl1.toString());
+        bizOperation.setBizName("biz-demo");
+        bizOperation.setBizVersion("1.0.0");
+        ClientResponse response = installOperation(bizOperation, new String[] {});
+        assertEquals(SUCCESS, response.getCode());
+        // nested install by file joins install by url
+        BizOperationTimings timings = response.getTimings();
+        assertTrue(timings.isCompleted());
+        assertNull(BizOperationTimings.current());
+        Map<String, Long> phases = timings.getPhaseNanos();
+        assertTrue(phases.containsKey(BizOperationTimings.DOWNLOAD));
+        assertTrue(phases.containsKey(BizOperationTimings.ARCHIVE_OPEN));
+        assertTrue(phases.containsKey(BizOperationTimings.CREATE_BIZ));
+        assertTrue(phases.containsKey(BizOperationTimings.REGISTER_BIZ));
+        assertTrue(phases.containsKey(BizOperationTimings.MAIN_METHOD));
+        assertTrue(phases.get(BizOperationTimings.CREATE_BIZ) >= phases
+            .get(BizOperationTimings.ARCHIVE_OPEN));
+        assertTrue(timings.getTotalNanos() >= phases.get(BizOperationTimings.MAIN_METHOD));
+        boolean handlerTimed = false;
+        for (String phase : phases.keySet()) {
+            handlerTimed |= phase.startsWith(BizOperationTimings.HANDLER_PREFIX
+                                             + "BeforeBizStartupEvent:");
+        }
+        assertTrue(handlerTimed);
+
+        Biz biz = getBizManagerService().getBiz("biz-demo", "1.0.0");
+        List<BizInfo.BizStateRecord> records = biz.getBizStateRecords();
+        assertSame(timings, records.get(records.size() - 1).getTimings());
+
+        bizOperation.setOperationType(SWITCH);
+        response = switchOperation(bizOperation);
+        assertTrue(response.getTimings().getPhaseNanos()
+            .containsKey(BizOperationTimings.ACTIVATE_BIZ));
+
+        bizOperation.setOperationType(UNINSTALL);
+        response = uninstallOperation(bizOperation);
+        phases = response.getTimings().getPhaseNanos();
+        assertTrue(phases.containsKey(BizOperationTimings.UNREGISTER_BIZ));
+        assertTrue(phases.containsKey(BizOperationTimings.CLASSLOADER_CLOSE));
+        assertTrue(phases.containsKey(BizOperationTimings.TEMP_DIR_RECYCLE));
+
+        assertEquals(1, stats.getHistogram(INSTALL, BizOperationStats.TOTAL).getCount());
+        assertEquals(1, stats.getHistogram(INSTALL, BizOperationTimings.DOWNLOAD).getCount());
+        assertEquals(1, stats.getHistogram(SWITCH, BizOperationStats.TOTAL).getCount());
+        assertEquals(1, stats.getHistogram(UNINSTALL, BizOperationStats.TOTAL).getCount());
+        Map<String, Map<String, Map<String, Object>>> snapshot = stats.snapshot();
+        assertEquals(3, snapshot.size());
+        assertEquals(BizOperationStats.TOTAL, snapshot.get("INSTALL").keySet().iterator().next());
+        assertEquals(1L,
+            snapshot.get("UNINSTALL").get(BizOperationTimings.CLASSLOADER_CLOSE).get("count"));
+    }
+
     @Test
     public void testCheckOperation() throws Throwable {
 
@@ -18,6 +18,12 @@ package com.alipay.sofa.ark.container.service.biz;
 
 import com.alipay.sofa.ark.common.util.FileUtils;
 import com.alipay.sofa.ark.container.BaseTest;
+import com.alipay.sofa.ark.container.model.BizModel;
+import com.alipay.sofa.ark.container.service.classloader.BizClassLoader;
+import com.alipay.sofa.ark.container.service.classloader.ClassIndex;
+import com.alipay.sofa.ark.container.service.classloader.ClassLoadingMetrics.Step;
+import com.alipay.sofa.ark.container.service.classloader.PersistentClassIndex;
+import com.alipay.sofa.ark.loader.ExplodedBizArchive;
 import com.alipay.sofa.ark.spi.model.Biz;
 import com.alipay.sofa.ark.spi.model.BizOperation;
 import com.alipay.sofa.ark.spi.model.Plugin;
@@ -28,15 +34,29 @@ import com.alipay.sofa.ark.spi.service.plugin.PluginManagerService;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.io.File;
 import java.io.IOException;
 import java.net.URL;
 
 import static com.alipay.sofa.ark.api.ArkConfigs.putStringValue;
 import static com.alipay.sofa.ark.container.service.ArkServiceContainerHolder.getContainer;
+import static com.alipay.sofa.ark.spi.constant.Constants.ARK_CLASSLOADER_METRICS_ENABLE;
 import static com.alipay.sofa.ark.spi.constant.Constants.ARK_PLUGIN_MARK_ENTRY;
+import static com.alipay.sofa.ark.spi.constant.Constants.BIZ_CLASS_INDEX_ENABLE;
+import static com.alipay.sofa.ark.spi.constant.Constants.BIZ_CLASS_INDEX_PERSIST_ENABLE;
+import static com.alipay.sofa.ark.spi.constant.Constants.BIZ_UNPACK_DIR_SUFFIX;
+import static com.alipay.sofa.ark.spi.constant.Constants.BIZ_UNPACK_LAZY_ENABLE;
+import static com.alipay.sofa.ark.spi.constant.Constants.BIZ_UNPACK_PARALLELISM;
+import static com.alipay.sofa.ark.spi.constant.Constants.EMBED_ENABLE;
 import static com.alipay.sofa.ark.spi.constant.Constants.MASTER_BIZ;
 import static java.lang.Thread.currentThread;
+import static org.apache.commons.io.FileUtils.copyFile;
+import static org.apache.commons.io.FileUtils.deleteQuietly;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 /**
  * @author qilong.zql
@@ -93,6 +113,141 @@ public class BizFactoryServiceTest extends BaseTest {
         Assert.assertEquals(biz.getBizVersion(), mockVersion);
     }
 
+    @Test
+    public void testCreateBizWithPersistentClassIndex() throws Throwable {
+        ClassLoader cl = currentThread().getContextClassLoader();
+        File bizFile = FileUtils.file(cl.getResource("sample-biz.jar").getFile());
+        File workDir = FileUtils.createTempDir("class-index");
+        File firstBizFile = new File(workDir, "sample-biz-1.jar");
+        File secondBizFile = new File(workDir, "sample-biz-2.jar");
+        copyFile(bizFile, firstBizFile);
+        copyFile(bizFile, secondBizFile);
+
+        putStringValue(BIZ_CLASS_INDEX_ENABLE, "true");
+        putStringValue(BIZ_CLASS_INDEX_PERSIST_ENABLE, "true");
+        try {
+            File indexFile = PersistentClassIndex.getIndexFile(firstBizFile,
+                FileUtils.sha1Hash(firstBizFile));
+            BizModel firstBiz = (BizModel) bizFactoryService.createBiz(firstBizFile);
+            assertFalse(indexFile.exists());
+            PersistentClassIndex.write(indexFile, firstBiz);
+            assertTrue(indexFile.exists());
+
+            ClassIndex classIndex = ((BizClassLoader) firstBiz.getBizClassLoader()).getClassIndex();
+            PersistentClassIndex persistentClassIndex = PersistentClassIndex.load(indexFile,
+                secondBizFile, firstBiz.getClassPath(), null);
+            assertNull(persistentClassIndex);
+
+            BizModel secondBiz = (BizModel) bizFactoryService.createBiz(secondBizFile);
+            persistentClassIndex = PersistentClassIndex.load(indexFile, secondBizFile,
+                secondBiz.getClassPath(), null);
+            assertNotNull(persistentClassIndex);
+            assertEquals(classIndex.size(), persistentClassIndex.getClassIndex().size());
+            assertEquals(secondBiz.getClassPath().length, persistentClassIndex.getArtifactIds()
+                .size());
+            ClassIndex restoredIndex = ((BizClassLoader) secondBiz.getBizClassLoader())
+                .getClassIndex();
+            for (String className : classIndex.getClassNames()) {
+                assertEquals(
+                    classIndex.findLocation(className).toExternalForm()
+                        .replace(firstBizFile.getName(), secondBizFile.getName()), restoredIndex
+                        .findLocation(className).toExternalForm());
+            }
+        } finally {
+            putStringValue(BIZ_CLASS_INDEX_ENABLE, "false");
+            putStringValue(BIZ_CLASS_INDEX_PERSIST_ENABLE, "false");
+            deleteQuietly(workDir);
+        }
+    }
+
+    @Test
+    public void testCreateBizInEmbedMode() throws Throwable {
+        ClassLoader cl = currentThread().getContextClassLoader();
+        File bizFile = FileUtils.file(cl.getResource("sample-ark-4.0.0-ark-biz.jar").getFile());
+        File workDir = FileUtils.createTempDir("biz-unpack");
+        File targetFile = new File(workDir, "sample-ark-biz.jar");
+        File unpackDir = new File(workDir, "sample-ark-biz.jar" + BIZ_UNPACK_DIR_SUFFIX);
+        File sentinel = new File(unpackDir, "sentinel");
+
+        System.setProperty(EMBED_ENABLE, "true");
+        System.setProperty(BIZ_UNPACK_PARALLELISM, "4");
+        try {
+            copyFile(bizFile, targetFile);
+            BizModel biz = (BizModel) bizFactoryService.createBiz(targetFile);
+            assertFalse(targetFile.exists());
+            assertEquals(unpackDir, biz.getBizTempWorkDir());
+            assertTrue(new File(unpackDir, "lib/aopalliance-1.0.jar").isFile());
+
+            // existing unpacked directory is unpacked again, rather than reused
+            sentinel.createNewFile();
+            copyFile(bizFile, targetFile);
+            bizFactoryService.createBiz(targetFile);
+            assertFalse(targetFile.exists());
+            assertFalse(sentinel.exists());
+            assertTrue(new File(unpackDir, "lib/aopalliance-1.0.jar").isFile());
+
+            // library jars are read from biz file when unpacked lazily
+            System.setProperty(BIZ_UNPACK_LAZY_ENABLE, "true");
+            copyFile(bizFile, targetFile);
+            biz = (BizModel) bizFactoryService.createBiz(targetFile);
+            assertFalse(targetFile.exists());
+            assertFalse(new File(unpackDir, "lib/aopalliance-1.0.jar").exists());
+            assertTrue(new File(unpackDir, ExplodedBizArchive.LAZY_BIZ_JAR_NAME).isFile());
+            bizManagerService.registerBiz(biz);
+            URL resource = biz.getBizClassLoader().getResource("org/aopalliance/aop/Advice.class");
+            assertNotNull(resource);
+            assertTrue(resource.toString().contains(
+                ExplodedBizArchive.LAZY_BIZ_JAR_NAME + "!/lib/aopalliance-1.0.jar"));
+        } finally {
+            System.clearProperty(EMBED_ENABLE);
+            System.clearProperty(BIZ_UNPACK_LAZY_ENABLE);
+            System.clearProperty(BIZ_UNPACK_PARALLELISM);
+            deleteQuietly(workDir);
+        }
+    }
+
+    @Test
+    public void testCreateBizInEmbedModeWithClassIndex() throws Throwable {
+        ClassLoader cl = currentThread().getContextClassLoader();
+        File bizFile = FileUtils.file(cl.getResource("sample-ark-4.0.0-ark-biz.jar").getFile());
+        File workDir = FileUtils.createTempDir("biz-class-index");
+        File targetFile = new File(workDir, "sample-ark-biz.jar");
+
+        System.setProperty(EMBED_ENABLE, "true");
+        putStringValue(BIZ_CLASS_INDEX_ENABLE, "true");
+        putStringValue(ARK_CLASSLOADER_METRICS_ENABLE, "true");
+        try {
+            copyFile(bizFile, targetFile);
+            BizModel biz = (BizModel) bizFactoryService.createBiz(targetFile);
+            bizManagerService.registerBiz(biz);
+            BizClassLoader bizClassLoader = (BizClassLoader) biz.getBizClassLoader();
+            URL location = bizClassLoader.getClassIndex()
+                .findLocation("org.aopalliance.aop.Advice");
+            assertEquals("file", location.getProtocol());
+
+            // classes of exploded library jars are defined from the index
+            Class<?> clazz = bizClassLoader.loadClass("org.aopalliance.aop.Advice");
+            assertEquals(bizClassLoader, clazz.getClassLoader());
+            assertEquals(location, clazz.getProtectionDomain().getCodeSource().getLocation());
+            assertTrue(bizClassLoader.getMetrics().getStepHits(Step.CLASS_INDEX) > 0);
+            assertEquals(0, bizClassLoader.getMetrics().getStepHits(Step.LOCAL));
+
+            // package is defined from the manifest of library jar
+            clazz = bizClassLoader.loadClass("com.google.inject.Inject");
+            assertEquals(bizClassLoader, clazz.getClassLoader());
+            assertEquals("com.google.inject", clazz.getPackage().getName());
+            assertEquals("Apache Commons IO",
+                bizClassLoader.loadClass("org.apache.commons.io.IOUtils").getPackage()
+                    .getImplementationTitle());
+            assertEquals(0, bizClassLoader.getMetrics().getStepHits(Step.LOCAL));
+        } finally {
+            System.clearProperty(EMBED_ENABLE);
+            putStringValue(BIZ_CLASS_INDEX_ENABLE, "false");
+            putStringValue(ARK_CLASSLOADER_METRICS_ENABLE, "false");
+            deleteQuietly(workDir);
+        }
+    }
+
     @Test
     public void testPackageInfo() throws Throwable {
         ClassLoader cl = currentThread().getContextClassLoader();
@@ -16,6 +16,8 @@
  */
 package com.alipay.sofa.ark.container.service.biz;
 
+import com.alipay.sofa.ark.api.ArkConfigs;
+import com.alipay.sofa.ark.common.thread.ThreadPoolManager;
 import com.alipay.sofa.ark.container.BaseTest;
 import com.alipay.sofa.ark.container.model.BizModel;
 import com.alipay.sofa.ark.exception.ArkRuntimeException;
@@ -25,13 +27,23 @@ import com.alipay.sofa.ark.spi.service.biz.BizManagerService;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 
+import static com.alipay.sofa.ark.spi.constant.Constants.BIZ_DEPLOY_PARALLEL_ENABLE;
+import static com.alipay.sofa.ark.spi.constant.Constants.BIZ_DEPLOY_THREAD_POOL_NAME;
 import static com.alipay.sofa.ark.spi.model.BizState.ACTIVATED;
 import static com.alipay.sofa.ark.spi.model.BizState.RESOLVED;
 import static org.codehaus.plexus.util.ReflectionUtils.setVariableValueInObject;
 import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 /**
  * @author qilong.zql
@@ -148,6 +160,40 @@ public class BizManagerServiceTest extends BaseTest {
         assertTrue(bizManagerService.getBizState("test-biz", "1.0.1") == BizState.DEACTIVATED);
     }
 
+    @Test
+    public void testBizIndex() {
+
+        ClassLoader classLoader = new URLClassLoader(new URL[0], null);
+        BizModel biz = new BizModel().setBizName("test-biz").setBizVersion("1.0.2")
+            .setBizState(RESOLVED).setClassLoader(classLoader);
+        bizManagerService.registerBiz(biz);
+
+        assertEquals(biz, bizManagerService.getBizByClassLoader(classLoader));
+        assertEquals(biz, bizManagerService.getBizByIdentity("test-biz:1.0.2"));
+        assertNull(bizManagerService.getBizByIdentity("test-biz:1.0.3"));
+        assertEquals(2, bizManagerService.getAllBizIdentities().size());
+
+        List<Biz> snapshot = bizManagerService.getBizInOrder();
+        assertSame(snapshot, bizManagerService.getBizInOrder());
+        assertEquals(2, snapshot.size());
+
+        biz.setBizState(ACTIVATED);
+        assertEquals(biz, bizManagerService.getActiveBiz("test-biz"));
+        biz.setBizState(BizState.DEACTIVATED);
+        assertNull(bizManagerService.getActiveBiz("test-biz"));
+
+        bizManagerService.unRegisterBiz("test-biz", "1.0.2");
+        assertNull(bizManagerService.getBizByClassLoader(classLoader));
+        assertNull(bizManagerService.getBizByIdentity("test-biz:1.0.2"));
+        assertEquals(1, bizManagerService.getBizInOrder().size());
+        assertEquals(2, snapshot.size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testGetBizByInvalidIdentity() {
+        bizManagerService.getBizByIdentity("test-biz");
+    }
+
     @Test(expected = ArkRuntimeException.class)
     public void testDeployWithException() throws IllegalAccessException {
 
@@ -160,6 +206,40 @@ public class BizManagerServiceTest extends BaseTest {
         defaultBizDeployer.deploy();
     }
 
+    @Test
+    public void testParallelDeploy() throws Throwable {
+        final List<String> started = new CopyOnWriteArrayList<>();
+        BizModel first = mockBiz("first", 100, "", started);
+        BizModel second = mockBiz("second", 200, "third", started);
+        BizModel third = mockBiz("third", 200, "", started);
+        BizManagerService mockBizManagerService = mock(BizManagerService.class);
+        when(mockBizManagerService.getBizInOrder()).thenReturn(
+            Arrays.<Biz> asList(first, second, third));
+
+        DefaultBizDeployer defaultBizDeployer = new DefaultBizDeployer();
+        setVariableValueInObject(defaultBizDeployer, "bizManagerService", mockBizManagerService);
+        ArkConfigs.putStringValue(BIZ_DEPLOY_PARALLEL_ENABLE, "true");
+        try {
+            defaultBizDeployer.deploy();
+        } finally {
+            ArkConfigs.putStringValue(BIZ_DEPLOY_PARALLEL_ENABLE, "false");
+        }
+        assertEquals(Arrays.asList("first", "third", "second"), started);
+        assertNull(ThreadPoolManager.getThreadPool(BIZ_DEPLOY_THREAD_POOL_NAME));
+    }
+
+    private BizModel mockBiz(String bizName, int priority, String startAfter,
+                             final List<String> started) throws Throwable {
+        BizModel biz = mock(BizModel.class);
+        when(biz.getBizName()).thenReturn(bizName);
+        when(biz.getPriority()).thenReturn(priority);
+        when(biz.getBizState()).thenReturn(RESOLVED);
+        when(biz.getStartAfterBizNames()).thenReturn(
+            new BizModel().setStartAfterBizNames(startAfter).getStartAfterBizNames());
+        doAnswer(invocation -> started.add(bizName)).when(biz).start(any());
+        return biz;
+    }
+
     @Test(expected = ArkRuntimeException.class)
     public void testUndeployWithException() throws IllegalAccessException {
 
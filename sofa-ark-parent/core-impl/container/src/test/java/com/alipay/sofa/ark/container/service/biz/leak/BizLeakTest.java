@@ -0,0 +1,175 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.ark.container.service.biz.leak;
+
+import com.alipay.sofa.ark.container.BaseTest;
+import com.alipay.sofa.ark.container.registry.ContainerServiceProvider;
+import com.alipay.sofa.ark.spi.event.biz.AfterBizStopEvent;
+import com.alipay.sofa.ark.spi.event.biz.BeforeBizRecycleEvent;
+import com.alipay.sofa.ark.spi.model.Biz;
+import com.alipay.sofa.ark.spi.service.biz.BizLeakCleaner;
+import com.alipay.sofa.ark.spi.service.registry.RegistryService;
+import org.junit.Test;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.concurrent.CountDownLatch;
+
+import static com.alipay.sofa.ark.api.ArkConfigs.putStringValue;
+import static com.alipay.sofa.ark.spi.constant.Constants.BIZ_LEAK_CLEAN_ENABLE;
+import static com.alipay.sofa.ark.spi.constant.Constants.BIZ_LEAK_DETECT_ENABLE;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class BizLeakTest extends BaseTest {
+
+    @Test
+    public void testCleanLeaks() throws Exception {
+        ClassLoader bizClassLoader = new URLClassLoader(new URL[0], null);
+        CountDownLatch latch = new CountDownLatch(1);
+        Thread poolThread = new Thread(() -> {
+            try {
+                latch.await();
+            } catch (InterruptedException e) {
+                // exit
+            }
+        }, "leak-pool-thread");
+        poolThread.setContextClassLoader(bizClassLoader);
+        poolThread.setDaemon(true);
+        poolThread.start();
+
+        ThreadLocal<Object> threadLocal = new ThreadLocal<>();
+        threadLocal.set(bizClassLoader);
+
+        ClassLoader oldClassLoader = Thread.currentThread().getContextClassLoader();
+        Thread.currentThread().setContextClassLoader(bizClassLoader);
+        Timer timer = new Timer("leak-timer", true);
+        Thread.currentThread().setContextClassLoader(oldClassLoader);
+        timer.schedule(new TimerTask() {
+            @Override
+            public void run() {
+            }
+        }, 100000);
+        Thread timerThread = findThread("leak-timer");
+
+        Thread hook = new Thread(() -> {});
+        hook.setContextClassLoader(bizClassLoader);
+        Runtime.getRuntime().addShutdownHook(hook);
+
+        try {
+            Map<LeakRootCategory, List<String>> roots = BizLeakScanner.scan(bizClassLoader);
+            assertEquals(2, roots.get(LeakRootCategory.CONTEXT_CLASS_LOADER).size());
+            assertEquals(1, roots.get(LeakRootCategory.THREAD_LOCAL).size());
+            assertEquals(1, roots.get(LeakRootCategory.SHUTDOWN_HOOK).size());
+            assertFalse(roots.containsKey(LeakRootCategory.UNKNOWN));
+
+            Biz biz = mock(Biz.class);
+            when(biz.getIdentity()).thenReturn("leak-biz:1.0.0");
+            when(biz.getBizClassLoader()).thenReturn(bizClassLoader);
+            List<Biz> cleaned = new ArrayList<>();
+            arkServiceContainer.getService(RegistryService.class).publishService(
+                BizLeakCleaner.class, new BizLeakCleaner() {
+                    @Override
+                    public void clean(Biz biz, ClassLoader classLoader) {
+                        cleaned.add(biz);
+                    }
+
+                    @Override
+                    public int getPriority() {
+                        return DEFAULT_PRECEDENCE;
+                    }
+                }, new ContainerServiceProvider());
+
+            // only published cleaners are run by default
+            BizLeakCleanHandler handler = new BizLeakCleanHandler();
+            handler.handleEvent(new BeforeBizRecycleEvent(biz));
+            assertEquals(1, cleaned.size());
+            assertEquals(bizClassLoader, threadLocal.get());
+
+            putStringValue(BIZ_LEAK_CLEAN_ENABLE, "true");
+            handler.handleEvent(new BeforeBizRecycleEvent(biz));
+            assertEquals(2, cleaned.size());
+            assertNotSame(bizClassLoader, poolThread.getContextClassLoader());
+            assertNull(threadLocal.get());
+            assertFalse(Runtime.getRuntime().removeShutdownHook(hook));
+            timerThread.join(5000);
+            assertFalse(timerThread.isAlive());
+
+            roots = BizLeakScanner.scan(bizClassLoader);
+            assertEquals(1, roots.size());
+            assertTrue(roots.containsKey(LeakRootCategory.UNKNOWN));
+        } finally {
+            putStringValue(BIZ_LEAK_CLEAN_ENABLE, "false");
+            latch.countDown();
+            timer.cancel();
+            threadLocal.remove();
+        }
+    }
+
+    @Test
+    public void testDetectLeaks() {
+        BizLeakDetector detector = new BizLeakDetector();
+        ClassLoader bizClassLoader = new URLClassLoader(new URL[0], null);
+        Biz biz = mock(Biz.class);
+        when(biz.getIdentity()).thenReturn("leak-biz:1.0.0");
+        when(biz.getBizClassLoader()).thenReturn(bizClassLoader);
+        detector.handleEvent(new AfterBizStopEvent(biz));
+        assertEquals(0, detector.getTrackedCount());
+
+        putStringValue(BIZ_LEAK_DETECT_ENABLE, "true");
+        ThreadLocal<Object> threadLocal = new ThreadLocal<>();
+        try {
+            detector.handleEvent(new AfterBizStopEvent(biz));
+            detector.track("collected-biz:1.0.0", new URLClassLoader(new URL[0], null));
+            assertEquals(2, detector.getTrackedCount());
+            // not due yet
+            assertTrue(detector.check(false).isEmpty());
+
+            threadLocal.set(bizClassLoader);
+            List<BizLeakReport> reports = detector.check(true);
+            assertEquals(0, detector.getTrackedCount());
+            assertEquals(1, reports.size());
+            assertEquals(reports, detector.getReports());
+            BizLeakReport report = reports.get(0);
+            assertEquals("leak-biz:1.0.0", report.getBizIdentity());
+            assertTrue(report.getRoots().containsKey(LeakRootCategory.THREAD_LOCAL));
+            assertTrue(report.toString().contains("THREAD_LOCAL: thread local"));
+        } finally {
+            putStringValue(BIZ_LEAK_DETECT_ENABLE, "false");
+            threadLocal.remove();
+        }
+    }
+
+    private Thread findThread(String name) {
+        for (Thread thread : BizLeakScanner.getThreads()) {
+            if (name.equals(thread.getName())) {
+                return thread;
+            }
+        }
+        throw new IllegalStateException(name);
+    }
+}
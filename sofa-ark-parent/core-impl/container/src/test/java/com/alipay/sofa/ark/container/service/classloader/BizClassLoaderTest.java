@@ -20,11 +20,13 @@ import com.alipay.sofa.ark.api.ArkClient;
 import com.alipay.sofa.ark.bootstrap.AgentClassLoader;
 import com.alipay.sofa.ark.common.util.ClassLoaderUtils;
 import com.alipay.sofa.ark.common.util.ClassUtils;
+import com.alipay.sofa.ark.common.util.FileUtils;
 import com.alipay.sofa.ark.common.util.StringUtils;
 import com.alipay.sofa.ark.container.BaseTest;
 import com.alipay.sofa.ark.container.model.BizModel;
 import com.alipay.sofa.ark.container.model.PluginModel;
 import com.alipay.sofa.ark.container.service.ArkServiceContainerHolder;
+import com.alipay.sofa.ark.container.service.classloader.hook.TestBizClassLoaderHook;
 import com.alipay.sofa.ark.container.testdata.ITest;
 import com.alipay.sofa.ark.exception.ArkLoaderException;
 import com.alipay.sofa.ark.spi.model.BizState;
@@ -38,12 +40,23 @@ import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.lang.reflect.Field;
 import java.net.URL;
+import java.nio.ByteBuffer;
 import java.util.Collections;
 import java.util.Enumeration;
+import java.util.Map;
 import java.util.Optional;
+import java.util.jar.JarOutputStream;
+import java.util.zip.ZipEntry;
+
+import static com.alipay.sofa.ark.api.ArkConfigs.putStringValue;
+import static com.alipay.sofa.ark.spi.constant.Constants.ARK_CLASSLOADER_CACHE_GENERATION_ENABLE;
+import static com.alipay.sofa.ark.spi.constant.Constants.ARK_CLASSLOADER_METRICS_ENABLE;
+import static com.alipay.sofa.ark.spi.constant.Constants.ARK_CLASSLOADER_NEGATIVE_FILTER_ENABLE;
 
 /**
  * @author ruoshan
@@ -272,6 +285,30 @@ public class BizClassLoaderTest extends BaseTest {
         Class<?> adviceClazz2 = bizModel.getBizClassLoader().loadClass(
             "com.alipay.sofa.ark.sample.springbootdemo.SpringbootDemoApplication");
         Assert.assertEquals(adviceClazz2.getClassLoader(), pluginB.getPluginClassLoader());
+
+        // case 2: override class bytes are read once and shared by bizs
+        BizModel bizModelB = createTestBizModel("biz B", "1.0.0", BizState.RESOLVED,
+            new URL[] { bizUrl });
+        bizModelB.setDenyImportClasses(StringUtils.EMPTY_STRING);
+        bizModelB.setDenyImportPackages(StringUtils.EMPTY_STRING);
+        bizModelB.setDenyImportResources(StringUtils.EMPTY_STRING);
+        bizModelB.setDeclaredLibraries("sample-ark-plugin-common, sofa-ark-sample-springboot-ark");
+        bizManagerService.registerBiz(bizModelB);
+
+        ExportOverrideClassCache overrideClassCache = ExportOverrideClassCache.getInstance();
+        long hitCount = overrideClassCache.stats().hitCount();
+        Class<?> adviceClazz3 = bizModelB.getBizClassLoader().loadClass(
+            "com.alipay.sofa.ark.sample.common.SampleClassExported");
+        Assert.assertEquals(adviceClazz3.getClassLoader(), bizModelB.getBizClassLoader());
+        Assert.assertNotEquals(adviceClazz1, adviceClazz3);
+        Assert.assertEquals(hitCount + 1, overrideClassCache.stats().hitCount());
+
+        // case 3: class bytes are invalidated once no biz using them is left
+        long size = overrideClassCache.size();
+        overrideClassCache.invalidate(bizModelB.getBizClassLoader());
+        Assert.assertEquals(size, overrideClassCache.size());
+        overrideClassCache.invalidate(bizModel.getBizClassLoader());
+        Assert.assertEquals(size - 1, overrideClassCache.size());
     }
 
     @Test
@@ -470,6 +507,276 @@ public class BizClassLoaderTest extends BaseTest {
         Assert.assertFalse(urlResourceCache.getIfPresent(notExistingName).isPresent());
     }
 
+    @Test
+    public void testLoadClassWithClassIndex() throws Exception {
+        BizModel bizModel = createTestBizModel("biz A", "1.0.0", BizState.RESOLVED,
+            new URL[] { classPathURL });
+        bizModel.setDenyImportResources(StringUtils.EMPTY_STRING);
+        bizModel.setDenyImportClasses(StringUtils.EMPTY_STRING);
+        bizModel.setDenyImportPackages(StringUtils.EMPTY_STRING);
+        bizManagerService.registerBiz(bizModel);
+
+        BizClassLoader bizClassLoader = (BizClassLoader) bizModel.getBizClassLoader();
+        ClassIndex classIndex = ClassIndex.build(bizModel.getClassPath(),
+            classloaderService.getJDKClassLoader());
+        bizClassLoader.setClassIndex(classIndex);
+
+        Assert.assertEquals(classPathURL, classIndex.findLocation(ITest.class.getName()));
+        Assert.assertNull(classIndex.findLocation("com.alipay.sofa.ark.NotExistClass"));
+        Assert.assertTrue(classIndex.isJdkClass(String.class.getName()));
+        Assert.assertFalse(classIndex.isJdkClass(ITest.class.getName()));
+
+        Class<?> clazz = bizClassLoader.loadClass(ITest.class.getName());
+        Assert.assertEquals(bizClassLoader, clazz.getClassLoader());
+        Assert
+            .assertEquals(classPathURL, clazz.getProtectionDomain().getCodeSource().getLocation());
+        Assert.assertNotNull(clazz.getPackage());
+        Assert.assertEquals(String.class, bizClassLoader.loadClass(String.class.getName()));
+        Assert.assertEquals(classloaderService.getArkClassLoader(),
+            bizClassLoader.loadClass(ArkClient.class.getName()).getClassLoader());
+
+        // class not in index falls back to the chain
+        Assert.assertEquals(TestBizClassLoaderHook.ClassA.class.getName(), bizClassLoader
+            .loadClass("A.A").getName());
+        Assert.assertEquals(TestBizClassLoaderHook.ClassB.class.getName(), bizClassLoader
+            .loadClass("com.alipay.sofa.ark.NotExistClass").getName());
+    }
+
+    @Test
+    public void testIndexedJarFilesClosedWithClassLoader() throws Exception {
+        URL jar = getClass().getClassLoader().getResource("aopalliance-1.0.jar");
+        BizModel bizModel = createTestBizModel("biz B", "1.0.0", BizState.RESOLVED,
+            new URL[] { jar });
+        bizModel.setDenyImportResources(StringUtils.EMPTY_STRING);
+        bizModel.setDenyImportClasses(StringUtils.EMPTY_STRING);
+        bizModel.setDenyImportPackages(StringUtils.EMPTY_STRING);
+        bizManagerService.registerBiz(bizModel);
+
+        BizClassLoader bizClassLoader = (BizClassLoader) bizModel.getBizClassLoader();
+        bizClassLoader.setClassIndex(ClassIndex.build(bizModel.getClassPath(),
+            classloaderService.getJDKClassLoader()));
+        Class<?> clazz = bizClassLoader.loadClass("org.aopalliance.aop.Advice");
+        Assert.assertEquals(bizClassLoader, clazz.getClassLoader());
+        Assert.assertEquals(jar, clazz.getProtectionDomain().getCodeSource().getLocation());
+        Assert.assertEquals(1, bizClassLoader.indexedRootJarFiles.size());
+
+        bizClassLoader.loadClass("org.aopalliance.intercept.MethodInterceptor");
+        Assert.assertEquals(1, bizClassLoader.indexedRootJarFiles.size());
+
+        // jar files are closed with the class loader and never reopened
+        bizClassLoader.close();
+        Assert.assertTrue(bizClassLoader.indexedRootJarFiles.isEmpty());
+        try {
+            bizClassLoader.loadClass("org.aopalliance.intercept.Joinpoint");
+        } catch (ClassNotFoundException e) {
+            // the closed class path may not find it either
+        }
+        Assert.assertTrue(bizClassLoader.indexedRootJarFiles.isEmpty());
+    }
+
+    @Test
+    public void testLoadClassWithGenerationCache() throws Exception {
+        putStringValue(ARK_CLASSLOADER_CACHE_GENERATION_ENABLE, "true");
+        try {
+            BizModel bizModel = createTestBizModel("biz A", "1.0.0", BizState.RESOLVED,
+                new URL[] { classPathURL });
+            bizModel.setDenyImportResources(StringUtils.EMPTY_STRING);
+            bizModel.setDenyImportClasses(StringUtils.EMPTY_STRING);
+            bizModel.setDenyImportPackages(StringUtils.EMPTY_STRING);
+            bizManagerService.registerBiz(bizModel);
+
+            BizClassLoader bizClassLoader = (BizClassLoader) bizModel.getBizClassLoader();
+            bizClassLoader.sizeClassCache(100);
+            Class<?> clazz = bizClassLoader.loadClass(ITest.class.getName());
+            Assert.assertNotNull(bizClassLoader.classCache.getIfPresent(ITest.class.getName()));
+            Assert.assertNotNull(bizClassLoader.getResource("sample-biz.jar"));
+            Assert.assertNotNull(bizClassLoader.urlResourceCache.getIfPresent("sample-biz.jar"));
+
+            // installing a biz which isn't reachable keeps the cache
+            URL libraryURL = getClass().getClassLoader().getResource("aopalliance-1.0.jar");
+            BizModel libraryBiz = createTestBizModel("biz B", "1.0.0", BizState.RESOLVED,
+                new URL[] { libraryURL });
+            libraryBiz.setDenyImportResources(StringUtils.EMPTY_STRING);
+            libraryBiz.setDenyImportClasses(StringUtils.EMPTY_STRING);
+            libraryBiz.setDenyImportPackages(StringUtils.EMPTY_STRING);
+            BizClassLoader libraryClassLoader = (BizClassLoader) libraryBiz.getBizClassLoader();
+            bizManagerService.registerBiz(libraryBiz);
+            libraryClassLoader.loadClass("org.aopalliance.aop.Advice");
+            Assert.assertNotNull(libraryClassLoader.classCache
+                .getIfPresent("org.aopalliance.aop.Advice"));
+            long generation = libraryClassLoader.getCacheGeneration();
+            bizManagerService.unRegisterBizStrictly("biz A", "1.0.0");
+            bizManagerService.registerBiz(bizModel);
+            Assert.assertEquals(generation, libraryClassLoader.getCacheGeneration());
+            Assert.assertNotNull(libraryClassLoader.classCache
+                .getIfPresent("org.aopalliance.aop.Advice"));
+
+            // installing a biz reachable by hook invalidates the cache
+            bizManagerService.unRegisterBizStrictly("biz B", "1.0.0");
+            Assert.assertNull(bizClassLoader.getResource("not-exist-resource"));
+            Assert.assertNull(bizClassLoader.urlResourceCache.getIfPresent("sample-biz.jar"));
+            Assert.assertNull(bizClassLoader.classCache.getIfPresent(ITest.class.getName()));
+            Assert.assertEquals(clazz, bizClassLoader.loadClass(ITest.class.getName()));
+            Assert.assertNotNull(bizClassLoader.classCache.getIfPresent(ITest.class.getName()));
+        } finally {
+            putStringValue(ARK_CLASSLOADER_CACHE_GENERATION_ENABLE, "false");
+        }
+    }
+
+    @Test
+    public void testLoadClassWithGenerationCacheRechecksMiss() throws Exception {
+        putStringValue(ARK_CLASSLOADER_CACHE_GENERATION_ENABLE, "true");
+        try {
+            URL libraryURL = getClass().getClassLoader().getResource("aopalliance-1.0.jar");
+            BizModel bizModel = createTestBizModel("biz A", "1.0.0", BizState.RESOLVED,
+                new URL[] { libraryURL });
+            bizManagerService.registerBiz(bizModel);
+            BizClassLoader bizClassLoader = (BizClassLoader) bizModel.getBizClassLoader();
+            // caches of the current generation are validated on first load
+            bizClassLoader.loadClass("org.aopalliance.aop.Advice");
+            String className = "SampleClass";
+            AbstractClasspathClassLoader.LoadClassResult miss = new AbstractClasspathClassLoader.LoadClassResult(
+                bizClassLoader.getCacheGeneration());
+            miss.setEx(new ArkLoaderException("miss"));
+            bizClassLoader.classCache.put(className, miss);
+
+            // the class defined after the miss is cached is found
+            byte[] bytes = org.apache.commons.io.IOUtils.toByteArray(getClass().getClassLoader()
+                .getResource(className + ".class"));
+            Class<?> clazz = bizClassLoader.publicDefineClass(className, bytes, null);
+            Assert.assertEquals(clazz, bizClassLoader.loadClass(className));
+            Assert
+                .assertEquals(clazz, bizClassLoader.classCache.getIfPresent(className).getClazz());
+
+            // result loaded in an old generation but cached after invalidation is dropped on read
+            bizClassLoader.bumpCacheGeneration();
+            bizClassLoader.checkCacheGeneration();
+            AbstractClasspathClassLoader.LoadClassResult staleResult = new AbstractClasspathClassLoader.LoadClassResult(
+                bizClassLoader.getCacheGeneration() - 1);
+            staleResult.setEx(new ArkLoaderException("stale"));
+            bizClassLoader.classCache.put(className, staleResult);
+            Assert.assertEquals(clazz, bizClassLoader.loadClass(className));
+        } finally {
+            putStringValue(ARK_CLASSLOADER_CACHE_GENERATION_ENABLE, "false");
+        }
+    }
+
+    @Test
+    public void testLoadClassWithNegativeClassFilter() throws Exception {
+        putStringValue(ARK_CLASSLOADER_NEGATIVE_FILTER_ENABLE, "true");
+        try {
+            URL jar = getClass().getClassLoader().getResource("aopalliance-1.0.jar");
+            BizModel bizModel = createTestBizModel("biz B", "1.0.0", BizState.RESOLVED,
+                new URL[] { jar });
+            bizModel.setDenyImportResources(StringUtils.EMPTY_STRING);
+            bizModel.setDenyImportClasses(StringUtils.EMPTY_STRING);
+            bizModel.setDenyImportPackages(StringUtils.EMPTY_STRING);
+            bizManagerService.registerBiz(bizModel);
+
+            BizClassLoader bizClassLoader = (BizClassLoader) bizModel.getBizClassLoader();
+            Assert.assertEquals(bizClassLoader,
+                bizClassLoader.loadClass("org.aopalliance.intercept.MethodInterceptor")
+                    .getClassLoader());
+            Assert.assertEquals(String.class, bizClassLoader.loadClass(String.class.getName()));
+            Assert.assertEquals(classloaderService.getArkClassLoader(),
+                bizClassLoader.loadClass(ArkClient.class.getName()).getClassLoader());
+
+            NegativeClassFilter filter = bizClassLoader.getNegativeClassFilter();
+            Assert.assertEquals(0, filter.getAbsorbedCount());
+            try {
+                bizClassLoader.loadClass("org.aopalliance.NotExistClass");
+                Assert.fail();
+            } catch (ClassNotFoundException e) {
+                // expected
+            }
+            Assert.assertEquals(1, filter.getAbsorbedCount());
+        } finally {
+            putStringValue(ARK_CLASSLOADER_NEGATIVE_FILTER_ENABLE, "false");
+        }
+    }
+
+    @Test
+    public void testNegativeClassFilterWithMultiReleaseJar() throws Exception {
+        File dir = FileUtils.createTempDir("multi-release");
+        File jar = new File(dir, "multi-release.jar");
+        try (JarOutputStream out = new JarOutputStream(new FileOutputStream(jar))) {
+            for (String entryName : new String[] { "com/example/Base.class",
+                    "META-INF/versions/9/com/example/Base.class",
+                    "META-INF/versions/11/com/example/Versioned.class",
+                    "META-INF/versions/11/module-info.class",
+                    "META-INF/versions/x/com/example/Invalid.class",
+                    "META-INF/com/example/Meta.class" }) {
+                out.putNextEntry(new ZipEntry(entryName));
+                out.closeEntry();
+            }
+        }
+        try {
+            URL[] urls = new URL[] { jar.toURI().toURL() };
+            ClassIndex classIndex = ClassIndex.scan(urls);
+            Assert.assertEquals(Sets.newHashSet("com.example.Base", "com.example.Versioned"),
+                classIndex.getClassNames());
+            Assert.assertEquals(urls[0], classIndex.findLocation("com.example.Versioned"));
+
+            // class only in versioned directory is never filtered
+            NegativeClassFilter filter = new NegativeClassFilter(
+                NegativeClassFilter.listClassNames(urls), pluginManagerService, classloaderService);
+            Assert.assertTrue(filter.mightContain("com.example.Versioned"));
+        } finally {
+            org.apache.commons.io.FileUtils.deleteQuietly(dir);
+        }
+    }
+
+    @Test
+    public void testLoadClassWithMetrics() throws Exception {
+        BizModel disabled = createTestBizModel("biz A", "1.0.0", BizState.RESOLVED,
+            new URL[] { classPathURL });
+        bizManagerService.registerBiz(disabled);
+        Assert.assertNull(((BizClassLoader) disabled.getBizClassLoader()).getMetrics());
+        Assert.assertNull(((BizClassLoader) disabled.getBizClassLoader()).getClassLoadingMetrics());
+
+        putStringValue(ARK_CLASSLOADER_METRICS_ENABLE, "true");
+        try {
+            BizModel bizModel = createTestBizModel("biz B", "1.0.0", BizState.RESOLVED,
+                new URL[] { classPathURL });
+            bizModel.setDenyImportResources(StringUtils.EMPTY_STRING);
+            bizModel.setDenyImportClasses(StringUtils.EMPTY_STRING);
+            bizModel.setDenyImportPackages(StringUtils.EMPTY_STRING);
+            bizManagerService.registerBiz(bizModel);
+
+            BizClassLoader bizClassLoader = (BizClassLoader) bizModel.getBizClassLoader();
+            ClassLoadingMetrics metrics = bizClassLoader.getMetrics();
+            Assert.assertEquals(bizClassLoader, bizClassLoader.loadClass(ITest.class.getName())
+                .getClassLoader());
+            Assert.assertEquals(String.class, bizClassLoader.loadClass(String.class.getName()));
+            Assert.assertEquals(TestBizClassLoaderHook.ClassB.class.getName(), bizClassLoader
+                .loadClass("com.alipay.sofa.ark.NotExistClass").getName());
+            // loaded from class cache
+            bizClassLoader.loadClass(String.class.getName());
+
+            Assert.assertTrue(metrics.getLoadCount() >= 3);
+            Assert.assertEquals(metrics.getLoadCount(), metrics.getLoadLatency().getCount());
+            Assert.assertEquals(metrics.getLoadCount(),
+                metrics.getStepLatency(ClassLoadingMetrics.Step.FIND_LOADED).getCount());
+            Assert.assertTrue(metrics.getStepHits(ClassLoadingMetrics.Step.JDK) >= 1);
+            Assert.assertTrue(metrics.getStepHits(ClassLoadingMetrics.Step.LOCAL) >= 1);
+            Assert.assertEquals(1, metrics.getStepHits(ClassLoadingMetrics.Step.POST_FIND));
+            Assert.assertEquals(0, metrics.getStepLatency(ClassLoadingMetrics.Step.NEGATIVE_FILTER)
+                .getCount());
+
+            Map<String, Object> snapshot = bizClassLoader.getClassLoadingMetrics();
+            Assert.assertEquals(metrics.getLoadCount(), snapshot.get("loadCount"));
+            Map<String, Object> classCache = (Map<String, Object>) snapshot.get("classCache");
+            Assert.assertTrue((Long) classCache.get("hitCount") >= 1);
+            Assert.assertTrue(snapshot.containsKey("resourceCache"));
+            Assert.assertEquals(snapshot.keySet(),
+                ArkClient.getClassLoadingMetrics().get(bizModel.getIdentity()).keySet());
+            Assert.assertFalse(ArkClient.getClassLoadingMetrics().containsKey(
+                disabled.getIdentity()));
+        } finally {
+            putStringValue(ARK_CLASSLOADER_METRICS_ENABLE, "false");
+        }
+    }
+
     @Test
     public void testPublicDefineClass() {
         BizModel bizModel = createTestBizModel("biz A", "1.0.0", BizState.RESOLVED, new URL[] {});
@@ -482,6 +789,12 @@ public class BizClassLoaderTest extends BaseTest {
         } catch (Throwable t) {
             Assert.assertTrue(t instanceof java.lang.ClassFormatError);
         }
+        try {
+            cl.publicDefineClass("NoExistClass", ByteBuffer.allocateDirect(0), null);
+            Assert.fail();
+        } catch (Throwable t) {
+            Assert.assertTrue(t instanceof java.lang.ClassFormatError);
+        }
     }
 
     private Cache<String, Optional<URL>> getUrlResourceCache(Object classloader)
@@ -0,0 +1,127 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.ark.container.service.classloader;
+
+import com.alipay.sofa.ark.common.util.StringUtils;
+import com.alipay.sofa.ark.container.BaseTest;
+import com.alipay.sofa.ark.container.model.BizModel;
+import com.alipay.sofa.ark.container.service.biz.leak.BizLeakDetector;
+import com.alipay.sofa.ark.container.testdata.ITest;
+import com.alipay.sofa.ark.spi.model.BizState;
+import com.alipay.sofa.ark.spi.service.biz.BizManagerService;
+import com.alipay.sofa.ark.spi.service.injection.InjectionService;
+import org.junit.Test;
+
+import java.net.URL;
+
+import static com.alipay.sofa.ark.api.ArkConfigs.putStringValue;
+import static com.alipay.sofa.ark.container.service.classloader.ClassLoaderCommandProvider.DISABLED_MESSAGE;
+import static com.alipay.sofa.ark.container.service.classloader.ClassLoaderCommandProvider.HELP_MESSAGE;
+import static com.alipay.sofa.ark.container.service.classloader.ClassLoaderCommandProvider.LEAK_DETECT_DISABLED_MESSAGE;
+import static com.alipay.sofa.ark.spi.constant.Constants.ARK_CLASSLOADER_METRICS_ENABLE;
+import static com.alipay.sofa.ark.spi.constant.Constants.BIZ_LEAK_DETECT_ENABLE;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ClassLoaderCommandProviderTest extends BaseTest {
+
+    private URL                        classPathURL = ClassLoaderCommandProviderTest.class
+                                                        .getClassLoader().getResource("");
+
+    private BizManagerService          bizManagerService;
+
+    private ClassLoaderCommandProvider classLoaderCommandProvider;
+
+    @Override
+    public void before() {
+        super.before();
+        bizManagerService = arkServiceContainer.getService(BizManagerService.class);
+        classLoaderCommandProvider = new ClassLoaderCommandProvider();
+        arkServiceContainer.getService(InjectionService.class).inject(classLoaderCommandProvider);
+    }
+
+    @Test
+    public void testClassLoaderCommandPattern() {
+        assertFalse(classLoaderCommandProvider.validate("cl"));
+        assertFalse(classLoaderCommandProvider.validate("cl -"));
+        assertFalse(classLoaderCommandProvider.validate("cl -x"));
+        assertFalse(classLoaderCommandProvider.validate("cl -d"));
+        assertFalse(classLoaderCommandProvider.validate("cl -ad"));
+        assertFalse(classLoaderCommandProvider.validate("cl -a A1:V1"));
+        assertFalse(classLoaderCommandProvider.validate("biz -a"));
+        assertTrue(classLoaderCommandProvider.validate("cl -h"));
+        assertTrue(classLoaderCommandProvider.validate("cl -a"));
+        assertTrue(classLoaderCommandProvider.validate("cl -r"));
+        assertTrue(classLoaderCommandProvider.validate("cl -l"));
+        assertTrue(classLoaderCommandProvider.validate("cl -d A1:V1 pluginA"));
+
+        assertEquals(HELP_MESSAGE, classLoaderCommandProvider.handleCommand("cl -h"));
+        assertTrue(classLoaderCommandProvider.handleCommand("cl -x").startsWith("Error"));
+    }
+
+    @Test
+    public void testClassLoaderMetrics() throws Exception {
+        assertEquals(DISABLED_MESSAGE, classLoaderCommandProvider.handleCommand("cl -a"));
+
+        putStringValue(ARK_CLASSLOADER_METRICS_ENABLE, "true");
+        try {
+            BizModel bizModel = createTestBizModel("biz A", "1.0.0", BizState.RESOLVED,
+                new URL[] { classPathURL });
+            bizModel.setDenyImportResources(StringUtils.EMPTY_STRING);
+            bizModel.setDenyImportClasses(StringUtils.EMPTY_STRING);
+            bizModel.setDenyImportPackages(StringUtils.EMPTY_STRING);
+            bizManagerService.registerBiz(bizModel);
+            bizModel.getBizClassLoader().loadClass(ITest.class.getName());
+
+            String summary = classLoaderCommandProvider.handleCommand("cl -a");
+            assertTrue(summary.startsWith("biz A:1.0.0: loads="));
+            assertTrue(summary.contains("classCacheHitRate="));
+
+            String detail = classLoaderCommandProvider.handleCommand("cl -d biz.*");
+            assertTrue(detail.contains("invocations"));
+            assertTrue(detail.contains("findLoaded"));
+            assertTrue(detail.contains("local"));
+            assertTrue(classLoaderCommandProvider.handleCommand("cl -d pluginA").contains(
+                "no matched classloader candidates."));
+
+            assertTrue(classLoaderCommandProvider.handleCommand("cl -r").contains("reset"));
+            assertEquals(0, ((BizClassLoader) bizModel.getBizClassLoader()).getMetrics()
+                .getLoadCount());
+        } finally {
+            putStringValue(ARK_CLASSLOADER_METRICS_ENABLE, "false");
+        }
+    }
+
+    @Test
+    public void testBizLeaks() {
+        assertEquals(LEAK_DETECT_DISABLED_MESSAGE,
+            classLoaderCommandProvider.handleCommand("cl -l"));
+
+        putStringValue(BIZ_LEAK_DETECT_ENABLE, "true");
+        try {
+            assertEquals(LEAK_DETECT_DISABLED_MESSAGE,
+                classLoaderCommandProvider.handleCommand("cl -l"));
+            ClassLoaderCommandProvider provider = new ClassLoaderCommandProvider(
+                new BizLeakDetector());
+            assertEquals("no uninstalled biz classloader is reachable.\n",
+                provider.handleCommand("cl -l"));
+        } finally {
+            putStringValue(BIZ_LEAK_DETECT_ENABLE, "false");
+        }
+    }
+}
@@ -28,18 +28,15 @@ import com.alipay.sofa.ark.spi.service.plugin.PluginManagerService;
 import org.junit.Before;
 import org.junit.Test;
 
-import java.lang.reflect.Field;
 import java.net.URL;
 import java.net.URLClassLoader;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
 
 import static com.alipay.sofa.ark.common.util.AssertUtils.isFalse;
 import static com.alipay.sofa.ark.common.util.AssertUtils.isTrue;
 import static com.alipay.sofa.ark.spi.model.BizState.RESOLVED;
 import static java.util.Arrays.asList;
 import static org.junit.Assert.*;
-import static org.mockito.Mockito.mock;
 
 /**
  *
@@ -154,6 +151,45 @@ public class ClassLoaderServiceTest extends BaseTest {
         assertTrue(classloaderService.isClassInImport("mockPlugin", "a.b.c.e.f"));
     }
 
+    @Test
+    public void testIsResourceImport() {
+
+        PluginModel plugin = new PluginModel().setPluginName("mockResourcePlugin")
+            .setImportResources("a.xml,META-INF/spring/*,*.xsd");
+        pluginManagerService.registerPlugin(plugin);
+
+        assertTrue(classloaderService.isResourceInImport("mockResourcePlugin", "a.xml"));
+        assertTrue(classloaderService.isResourceInImport("mockResourcePlugin",
+            "META-INF/spring/b.xml"));
+        assertTrue(classloaderService
+            .isResourceInImport("mockResourcePlugin", "c/spring-beans.xsd"));
+        assertFalse(classloaderService.isResourceInImport("mockResourcePlugin", "b.xml"));
+        assertFalse(classloaderService.isResourceInImport("mockResourcePlugin", "META-INF/b.xml"));
+
+        // compiled rules are refreshed once import resources change
+        plugin.setImportResources("b.xml");
+        assertTrue(classloaderService.isResourceInImport("mockResourcePlugin", "b.xml"));
+        pluginManagerService.getPluginsInOrder().remove(plugin);
+    }
+
+    @Test
+    public void testStemTrieMatchesLongestStem() {
+        StemTrie<String> prefixTrie = StemTrie.prefixTrie();
+        prefixTrie.put("com/", "short");
+        prefixTrie.put("com/alipay/", "long");
+        assertEquals("long", prefixTrie.match("com/alipay/a.xml"));
+        assertEquals("short", prefixTrie.match("com/b.xml"));
+        assertNull(prefixTrie.match("org/a.xml"));
+        assertFalse(prefixTrie.matches("co"));
+
+        StemTrie<String> suffixTrie = StemTrie.of(asList(".xml", "-beans.xml"), true);
+        assertEquals("-beans.xml", suffixTrie.match("spring-beans.xml"));
+        assertEquals(".xml", suffixTrie.match("spring.xml"));
+        assertTrue(suffixTrie.matches("a.xml"));
+        assertFalse(suffixTrie.matches("a.xsd"));
+        assertEquals(2, suffixTrie.size());
+    }
+
     @Test
     public void testFindExportClass() {
 
@@ -205,14 +241,17 @@ public class ClassLoaderServiceTest extends BaseTest {
     @Test
     public void testFindExportResourceClassLoadersInOrder() throws Exception {
 
-        Field field = ClassLoaderServiceImpl.class
-            .getDeclaredField("exportSuffixStemResourceAndClassLoaderMap");
-        field.setAccessible(true);
-        ConcurrentHashMap exportPrefixStemResourceAndClassLoaderMap = new ConcurrentHashMap<>();
-        Plugin plugin = mock(Plugin.class);
-        exportPrefixStemResourceAndClassLoaderMap.put("myaaa", asList(plugin));
-        field.set(classloaderService, exportPrefixStemResourceAndClassLoaderMap);
-        assertEquals(null, classloaderService.findExportResourceClassLoadersInOrder("myaaa").get(0));
+        PluginClassLoader pluginClassLoader = new PluginClassLoader("mockPlugin", new URL[] {});
+        Plugin plugin = new PluginModel().setPluginName("mockPlugin").setExportPackages("")
+            .setExportClasses("").setPluginClassLoader(pluginClassLoader)
+            .setExportResources("*myaaa");
+        pluginManagerService.registerPlugin(plugin);
+        classloaderService.prepareExportClassAndResourceCache();
+        assertEquals(pluginClassLoader,
+            classloaderService.findExportResourceClassLoadersInOrder("myaaa").get(0));
+        assertEquals(pluginClassLoader,
+            classloaderService.findExportResourceClassLoadersInOrder("a/myaaa").get(0));
+        assertNull(classloaderService.findExportResourceClassLoadersInOrder("myaaa/a"));
 
         assertNull(classloaderService.getBizClassLoader("aaa:1.0"));
         assertNull(classloaderService.getPluginClassLoader("aaa:2.0"));
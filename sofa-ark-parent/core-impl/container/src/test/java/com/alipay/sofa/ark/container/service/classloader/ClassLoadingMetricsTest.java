@@ -0,0 +1,59 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.ark.container.service.classloader;
+
+import com.alipay.sofa.ark.container.service.classloader.ClassLoadingMetrics.Step;
+import org.junit.Test;
+
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ClassLoadingMetricsTest {
+
+    @Test
+    public void testSnapshot() {
+        ClassLoadingMetrics metrics = new ClassLoadingMetrics();
+        metrics.recordStep(Step.FIND_LOADED, 100, false);
+        metrics.recordStep(Step.LOCAL, 2000, true);
+        metrics.recordLoad(2100, true);
+        metrics.recordStep(Step.FIND_LOADED, 100, false);
+        metrics.recordStep(Step.LOCAL, 1000, false);
+        metrics.recordLoad(1100, false);
+
+        assertEquals(2, metrics.getLoadCount());
+        assertEquals(1, metrics.getNotFoundCount());
+        assertEquals(0, metrics.getStepHits(Step.FIND_LOADED));
+        assertEquals(1, metrics.getStepHits(Step.LOCAL));
+        assertEquals(3000, metrics.getStepLatency(Step.LOCAL).getSum());
+
+        Map<String, Object> snapshot = metrics.snapshot();
+        assertEquals(2L, snapshot.get("loadCount"));
+        Map<String, Object> steps = (Map<String, Object>) snapshot.get("steps");
+        assertEquals(2, steps.size());
+        assertFalse(steps.containsKey(Step.JDK.getLabel()));
+        Map<String, Object> local = (Map<String, Object>) steps.get(Step.LOCAL.getLabel());
+        assertEquals(2L, local.get("invocations"));
+        assertEquals(1L, local.get("hits"));
+
+        metrics.reset();
+        assertEquals(0, metrics.getLoadCount());
+        assertTrue(((Map<String, Object>) metrics.snapshot().get("steps")).isEmpty());
+    }
+}
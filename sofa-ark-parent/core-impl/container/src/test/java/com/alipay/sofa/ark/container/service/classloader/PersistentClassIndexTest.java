@@ -0,0 +1,97 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.ark.container.service.classloader;
+
+import com.alipay.sofa.ark.common.util.FileUtils;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.file.Path;
+
+import static org.apache.commons.io.FileUtils.deleteQuietly;
+import static org.apache.commons.io.FileUtils.touch;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @since 2.2.15
+ */
+public class PersistentClassIndexTest {
+
+    @Test
+    public void testRelativize() {
+        Path root = new File("/tmp/biz.jar").getAbsoluteFile().toPath();
+        String rootUrl = "file:" + root.toUri().getRawPath();
+
+        // only the file path before the first nested entry is relativized
+        String location = "jar:" + rootUrl + "!/lib/a.jar!/";
+        String relative = "jar:file:${biz}!/lib/a.jar!/";
+        assertEquals(relative, PersistentClassIndex.relativize(location, root));
+        assertEquals(location, PersistentClassIndex.resolve(relative, root));
+
+        location = "jar:" + rootUrl + "!/lib" + root.toUri().getRawPath() + ".jar!/";
+        relative = "jar:file:${biz}!/lib" + root.toUri().getRawPath() + ".jar!/";
+        assertEquals(relative, PersistentClassIndex.relativize(location, root));
+        assertEquals(location, PersistentClassIndex.resolve(relative, root));
+
+        // sibling path with the same prefix isn't under root
+        location = rootUrl + "-unpack/lib/a.jar";
+        assertEquals(location, PersistentClassIndex.relativize(location, root));
+
+        Path unpackRoot = new File("/tmp/biz.jar-unpack").getAbsoluteFile().toPath();
+        relative = "file:${biz}/lib/a.jar";
+        assertEquals(relative, PersistentClassIndex.relativize(location, unpackRoot));
+        assertEquals(location, PersistentClassIndex.resolve(relative, unpackRoot));
+
+        location = unpackRoot.resolve("lib").resolve("a.jar").toString();
+        relative = PersistentClassIndex.relativize(location, unpackRoot);
+        assertEquals("${biz}/lib/a.jar", relative);
+        assertEquals(location, PersistentClassIndex.resolve(relative, unpackRoot));
+
+        location = "/other/lib/a.jar";
+        assertEquals(location, PersistentClassIndex.relativize(location, unpackRoot));
+    }
+
+    @Test
+    public void testPrune() throws Exception {
+        File indexDir = FileUtils.createTempDir("class-index-prune");
+        try {
+            File biz = new File(indexDir, "biz.jar");
+            File[] indexFiles = new File[3];
+            for (int i = 0; i < indexFiles.length; i++) {
+                indexFiles[i] = PersistentClassIndex.getIndexFile(biz, "sha1-" + i);
+                touch(indexFiles[i]);
+                indexFiles[i].setLastModified(1000000L * (i + 1));
+            }
+            touch(biz);
+
+            // only index files are counted, and the least recently written ones are deleted
+            PersistentClassIndex.prune(indexDir, 2);
+            assertFalse(indexFiles[0].exists());
+            assertTrue(indexFiles[1].exists());
+            assertTrue(indexFiles[2].exists());
+            assertTrue(biz.exists());
+
+            PersistentClassIndex.prune(indexDir, 0);
+            assertFalse(indexFiles[2].exists());
+            assertTrue(biz.exists());
+        } finally {
+            deleteQuietly(indexDir);
+        }
+    }
+}
@@ -16,22 +16,42 @@
  */
 package com.alipay.sofa.ark.container.service.event;
 
+import com.alipay.sofa.ark.api.ArkConfigs;
+import com.alipay.sofa.ark.common.thread.ThreadPoolManager;
 import com.alipay.sofa.ark.container.BaseTest;
 import com.alipay.sofa.ark.container.model.BizModel;
+import com.alipay.sofa.ark.container.registry.ContainerServiceProvider;
+import com.alipay.sofa.ark.container.registry.DefaultServiceFilter;
 import com.alipay.sofa.ark.container.service.ArkServiceContainerHolder;
+import com.alipay.sofa.ark.spi.event.biz.AfterBizStartupEvent;
 import com.alipay.sofa.ark.spi.event.biz.AfterBizStopEvent;
 import com.alipay.sofa.ark.spi.event.biz.BeforeBizStopEvent;
+import com.alipay.sofa.ark.spi.event.biz.BeforeBizSwitchEvent;
 import com.alipay.sofa.ark.spi.model.Biz;
 import com.alipay.sofa.ark.spi.model.BizState;
+import com.alipay.sofa.ark.spi.service.event.AsyncEventHandler;
 import com.alipay.sofa.ark.spi.service.event.EventAdminService;
 import com.alipay.sofa.ark.spi.service.event.EventHandler;
+import com.alipay.sofa.ark.spi.service.registry.RegistryService;
 import org.junit.Assert;
 import org.junit.Test;
 
 import java.lang.reflect.Field;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static com.alipay.sofa.ark.spi.constant.Constants.DEFAULT_EVENT_ASYNC_OFFER_TIMEOUT;
+import static com.alipay.sofa.ark.spi.constant.Constants.DEFAULT_EVENT_ASYNC_QUEUE_SIZE;
+import static com.alipay.sofa.ark.spi.constant.Constants.EVENT_ASYNC_DELIVERY_ENABLE;
+import static com.alipay.sofa.ark.spi.constant.Constants.EVENT_ASYNC_OFFER_TIMEOUT;
+import static com.alipay.sofa.ark.spi.constant.Constants.EVENT_ASYNC_QUEUE_SIZE;
+import static com.alipay.sofa.ark.spi.constant.Constants.EVENT_ASYNC_THREAD_POOL_NAME;
 
 /**
  * @author qilong.zql
@@ -72,6 +92,218 @@ public class EventAdminServiceTest extends BaseTest {
         Assert.assertFalse(((Set) map.get(bizClassLoader)).contains(eventHandler));
     }
 
+    @Test
+    public void testDispatchTableRefreshed() {
+        EventAdminService eventAdminService = ArkServiceContainerHolder.getContainer().getService(
+            EventAdminService.class);
+        Biz biz = new BizModel().setBizName("mock name").setBizVersion("mock version");
+        final List<String> result = new ArrayList<>();
+        EventHandler<AfterBizStartupEvent> eventHandler = new EventHandler<AfterBizStartupEvent>() {
+            @Override
+            public void handleEvent(AfterBizStartupEvent event) {
+                result.add(event.getTopic());
+            }
+
+            @Override
+            public int getPriority() {
+                return 0;
+            }
+        };
+
+        eventAdminService.sendEvent(new AfterBizStartupEvent(biz));
+        Assert.assertTrue(result.isEmpty());
+        eventAdminService.register(eventHandler);
+        eventAdminService.sendEvent(new AfterBizStartupEvent(biz));
+        eventAdminService.sendEvent(new BeforeBizStopEvent(biz));
+        Assert.assertEquals(1, result.size());
+        eventAdminService.unRegister(eventHandler);
+        eventAdminService.sendEvent(new AfterBizStartupEvent(biz));
+        Assert.assertEquals(1, result.size());
+
+        RegistryService registryService = ArkServiceContainerHolder.getContainer().getService(
+            RegistryService.class);
+        long version = registryService.getServicesVersion(EventHandler.class);
+        registryService.publishService(EventHandler.class, eventHandler, "dispatchTable",
+            new ContainerServiceProvider());
+        Assert.assertEquals(version + 1, registryService.getServicesVersion(EventHandler.class));
+        eventAdminService.sendEvent(new AfterBizStartupEvent(biz));
+        Assert.assertEquals(2, result.size());
+        registryService.unPublishServices(new DefaultServiceFilter().setServiceInterface(
+            EventHandler.class).setUniqueId("dispatchTable"));
+        Assert.assertEquals(version + 2, registryService.getServicesVersion(EventHandler.class));
+        eventAdminService.sendEvent(new AfterBizStartupEvent(biz));
+        Assert.assertEquals(2, result.size());
+    }
+
+    @Test
+    public void testAsyncDelivery() throws InterruptedException {
+        EventAdminServiceImpl eventAdminService = (EventAdminServiceImpl) ArkServiceContainerHolder
+            .getContainer().getService(EventAdminService.class);
+        final List<Integer> result = new CopyOnWriteArrayList<>();
+        final CountDownLatch latch = new CountDownLatch(100);
+        final Thread sender = Thread.currentThread();
+        AsyncEventHandler<BeforeBizSwitchEvent> eventHandler = new AsyncEventHandler<BeforeBizSwitchEvent>() {
+            @Override
+            public void handleEvent(BeforeBizSwitchEvent event) {
+                if (Thread.currentThread() != sender) {
+                    result.add(Integer.valueOf(event.getSource().getBizVersion()));
+                }
+                latch.countDown();
+            }
+
+            @Override
+            public int getPriority() {
+                return 0;
+            }
+        };
+
+        ArkConfigs.putStringValue(EVENT_ASYNC_DELIVERY_ENABLE, "true");
+        try {
+            eventAdminService.register(eventHandler);
+            for (int i = 0; i < 100; i++) {
+                Biz biz = new BizModel().setBizName("mock name").setBizVersion(String.valueOf(i));
+                eventAdminService.sendEvent(new BeforeBizSwitchEvent(biz));
+            }
+            Assert.assertTrue(latch.await(10, TimeUnit.SECONDS));
+            for (int i = 0; i < result.size(); i++) {
+                Assert.assertEquals(i, result.get(i).intValue());
+            }
+            Assert.assertNotNull(ThreadPoolManager.getThreadPool(EVENT_ASYNC_THREAD_POOL_NAME));
+            // queue latency is recorded before the handler is called
+            Assert.assertEquals(
+                100,
+                eventAdminService.getAsyncDeliveryMetrics()
+                    .get(AsyncEventDispatcher.getHandlerId(eventHandler)).getQueueLatency()
+                    .getCount());
+        } finally {
+            eventAdminService.unRegister(eventHandler);
+            ArkConfigs.putStringValue(EVENT_ASYNC_DELIVERY_ENABLE, "false");
+        }
+    }
+
+    @Test
+    public void testAsyncDeliveryToSelf() throws InterruptedException {
+        final EventAdminServiceImpl eventAdminService = (EventAdminServiceImpl) ArkServiceContainerHolder
+            .getContainer().getService(EventAdminService.class);
+        final List<Integer> result = new CopyOnWriteArrayList<>();
+        final CountDownLatch latch = new CountDownLatch(11);
+        final Thread sender = Thread.currentThread();
+        AsyncEventHandler<BeforeBizSwitchEvent> eventHandler = new AsyncEventHandler<BeforeBizSwitchEvent>() {
+            @Override
+            public void handleEvent(BeforeBizSwitchEvent event) {
+                int version = Integer.valueOf(event.getSource().getBizVersion());
+                if (version == 0) {
+                    // more events than the mailbox holds, sent by the handler itself
+                    for (int i = 1; i <= 10; i++) {
+                        Biz biz = new BizModel().setBizName("mock name").setBizVersion(
+                            String.valueOf(i));
+                        eventAdminService.sendEvent(new BeforeBizSwitchEvent(biz));
+                    }
+                }
+                if (Thread.currentThread() != sender) {
+                    result.add(version);
+                }
+                latch.countDown();
+            }
+
+            @Override
+            public int getPriority() {
+                return 0;
+            }
+        };
+
+        ArkConfigs.putStringValue(EVENT_ASYNC_DELIVERY_ENABLE, "true");
+        ArkConfigs.putStringValue(EVENT_ASYNC_QUEUE_SIZE, "2");
+        try {
+            eventAdminService.register(eventHandler);
+            Biz biz = new BizModel().setBizName("mock name").setBizVersion("0");
+            eventAdminService.sendEvent(new BeforeBizSwitchEvent(biz));
+            Assert.assertTrue(latch.await(10, TimeUnit.SECONDS));
+            // events sent by the handler are queued behind the one being handled
+            for (int i = 0; i < result.size(); i++) {
+                Assert.assertEquals(i, result.get(i).intValue());
+            }
+            Assert.assertTrue(eventAdminService.getAsyncDeliveryMetrics()
+                .get(AsyncEventDispatcher.getHandlerId(eventHandler)).getOverflowCount() > 0);
+        } finally {
+            eventAdminService.unRegister(eventHandler);
+            ArkConfigs.putStringValue(EVENT_ASYNC_QUEUE_SIZE,
+                String.valueOf(DEFAULT_EVENT_ASYNC_QUEUE_SIZE));
+            ArkConfigs.putStringValue(EVENT_ASYNC_DELIVERY_ENABLE, "false");
+        }
+    }
+
+    @Test
+    public void testAsyncDeliveryToFullMailbox() throws InterruptedException {
+        final EventAdminServiceImpl eventAdminService = (EventAdminServiceImpl) ArkServiceContainerHolder
+            .getContainer().getService(EventAdminService.class);
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch sent = new CountDownLatch(1);
+        final Biz biz = new BizModel().setBizName("mock name").setBizVersion("1.0.0");
+        AsyncEventHandler<BeforeBizSwitchEvent> slowHandler = new AsyncEventHandler<BeforeBizSwitchEvent>() {
+            @Override
+            public void handleEvent(BeforeBizSwitchEvent event) {
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+
+            @Override
+            public int getPriority() {
+                return 0;
+            }
+        };
+        AsyncEventHandler<AfterBizStartupEvent> sendingHandler = new AsyncEventHandler<AfterBizStartupEvent>() {
+            @Override
+            public void handleEvent(AfterBizStartupEvent event) {
+                for (int i = 0; i < 5; i++) {
+                    eventAdminService.sendEvent(new BeforeBizSwitchEvent(biz));
+                }
+                sent.countDown();
+            }
+
+            @Override
+            public int getPriority() {
+                return 0;
+            }
+        };
+
+        ArkConfigs.putStringValue(EVENT_ASYNC_DELIVERY_ENABLE, "true");
+        ArkConfigs.putStringValue(EVENT_ASYNC_QUEUE_SIZE, "1");
+        ArkConfigs.putStringValue(EVENT_ASYNC_OFFER_TIMEOUT, "60000");
+        try {
+            eventAdminService.register(slowHandler);
+            eventAdminService.register(sendingHandler);
+            eventAdminService.sendEvent(new BeforeBizSwitchEvent(biz));
+
+            // handler on the pool thread drops events to the full mailbox rather than waiting
+            eventAdminService.sendEvent(new AfterBizStartupEvent(biz));
+            Assert.assertTrue(sent.await(10, TimeUnit.SECONDS));
+            AsyncEventDispatcher.HandlerMetrics metrics = eventAdminService
+                .getAsyncDeliveryMetrics().get(AsyncEventDispatcher.getHandlerId(slowHandler));
+            Assert.assertTrue(metrics.getDroppedCount() >= 4);
+            Assert.assertEquals(0, metrics.getBlockedCount());
+
+            // other senders wait for a bounded time before dropping
+            long dropped = metrics.getDroppedCount();
+            ArkConfigs.putStringValue(EVENT_ASYNC_OFFER_TIMEOUT, "100");
+            eventAdminService.sendEvent(new BeforeBizSwitchEvent(biz));
+            Assert.assertEquals(1, metrics.getBlockedCount());
+            Assert.assertEquals(dropped + 1, metrics.getDroppedCount());
+        } finally {
+            release.countDown();
+            eventAdminService.unRegister(slowHandler);
+            eventAdminService.unRegister(sendingHandler);
+            ArkConfigs.putStringValue(EVENT_ASYNC_OFFER_TIMEOUT,
+                String.valueOf(DEFAULT_EVENT_ASYNC_OFFER_TIMEOUT));
+            ArkConfigs.putStringValue(EVENT_ASYNC_QUEUE_SIZE,
+                String.valueOf(DEFAULT_EVENT_ASYNC_QUEUE_SIZE));
+            ArkConfigs.putStringValue(EVENT_ASYNC_DELIVERY_ENABLE, "false");
+        }
+    }
+
     class HighPriorityMockEventHandler implements EventHandler<BeforeBizStopEvent> {
 
         @Override
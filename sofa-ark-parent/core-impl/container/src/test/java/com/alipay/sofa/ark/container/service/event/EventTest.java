@@ -28,6 +28,8 @@ import com.alipay.sofa.ark.spi.event.biz.AfterBizStartupEvent;
 import com.alipay.sofa.ark.spi.event.biz.AfterBizStopEvent;
 import com.alipay.sofa.ark.spi.event.biz.AfterBizSwitchEvent;
 import com.alipay.sofa.ark.spi.event.biz.BeforeBizRecycleEvent;
+import com.alipay.sofa.ark.loader.jar.Handler;
+import com.alipay.sofa.ark.loader.jar.RootJarFileCache;
 import com.alipay.sofa.ark.spi.event.biz.BeforeBizStartupEvent;
 import com.alipay.sofa.ark.spi.event.biz.BeforeBizStopEvent;
 import com.alipay.sofa.ark.spi.event.biz.BeforeBizSwitchEvent;
@@ -46,6 +48,8 @@ import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.io.File;
+import java.net.URL;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -145,6 +149,18 @@ public class EventTest extends BaseTest {
             Constants.BIZ_EVENT_TOPIC_AFTER_BIZ_FAILED));
     }
 
+    @Test
+    public void testEvictRootJarFileOnRecycle() throws Exception {
+        File file = new File(getClass().getClassLoader().getResource("sample-biz.jar").getPath());
+        RootJarFileCache rootFileCache = Handler.getRootFileCache();
+        rootFileCache.get(file);
+        Biz biz = new BizModel().setBizName("test-biz").setBizVersion("1.0.0")
+            .setBizState(BizState.RESOLVED)
+            .setClassPath(new URL[] { new URL("jar:file:" + file.getPath() + "!/") });
+        eventAdminService.sendEvent(new BeforeBizRecycleEvent(biz));
+        Assert.assertFalse(rootFileCache.evict(file));
+    }
+
     static class TestArkEvent extends AbstractArkEvent {
 
         public TestArkEvent(Object source) {
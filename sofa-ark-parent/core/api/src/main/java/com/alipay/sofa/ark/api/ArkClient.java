@@ -22,32 +22,44 @@ import com.alipay.sofa.ark.common.util.AssertUtils;
 import com.alipay.sofa.ark.common.util.BizIdentityUtils;
 import com.alipay.sofa.ark.common.util.FileUtils;
 import com.alipay.sofa.ark.common.util.StringUtils;
+import com.alipay.sofa.ark.common.util.ZipStreamReceiver;
 import com.alipay.sofa.ark.spi.constant.Constants;
 import com.alipay.sofa.ark.spi.event.biz.AfterBizSwitchEvent;
 import com.alipay.sofa.ark.spi.event.biz.BeforeBizSwitchEvent;
 import com.alipay.sofa.ark.spi.model.Biz;
 import com.alipay.sofa.ark.spi.model.BizInfo;
 import com.alipay.sofa.ark.spi.model.BizOperation;
+import com.alipay.sofa.ark.spi.model.BizOperation.OperationType;
+import com.alipay.sofa.ark.spi.model.BizOperationTimings;
 import com.alipay.sofa.ark.spi.model.BizState;
+import com.alipay.sofa.ark.spi.model.Plugin;
 import com.alipay.sofa.ark.spi.replay.Replay;
 import com.alipay.sofa.ark.spi.replay.ReplayContext;
 import com.alipay.sofa.ark.spi.service.biz.BizFactoryService;
 import com.alipay.sofa.ark.spi.service.biz.BizManagerService;
+import com.alipay.sofa.ark.spi.service.classloader.ClassLoadingMetricsSource;
 import com.alipay.sofa.ark.spi.service.event.EventAdminService;
 import com.alipay.sofa.ark.spi.service.injection.InjectionService;
 import com.alipay.sofa.ark.spi.service.plugin.PluginManagerService;
 
 import java.io.File;
+import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
 import java.text.SimpleDateFormat;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Semaphore;
 
 import static com.alipay.sofa.ark.spi.constant.Constants.AUTO_UNINSTALL_WHEN_FAILED_ENABLE;
+import static com.alipay.sofa.ark.spi.constant.Constants.BIZ_INSTALL_STREAM_BUFFER_SIZE;
+import static com.alipay.sofa.ark.spi.constant.Constants.BIZ_INSTALL_STREAM_CONCURRENCY;
+import static com.alipay.sofa.ark.spi.constant.Constants.BIZ_INSTALL_STREAM_ENABLE;
+import static com.alipay.sofa.ark.spi.constant.Constants.DEFAULT_BIZ_INSTALL_STREAM_BUFFER_SIZE;
 
 /**
  * API used to operate biz
@@ -57,19 +69,23 @@ import static com.alipay.sofa.ark.spi.constant.Constants.AUTO_UNINSTALL_WHEN_FAI
  */
 public class ArkClient {
 
-    private static BizManagerService    bizManagerService;
-    private static BizFactoryService    bizFactoryService;
-    private static PluginManagerService pluginManagerService;
-    private static Biz                  masterBiz;
-    private static InjectionService     injectionService;
-    private static String[]             arguments;
+    private static BizManagerService       bizManagerService;
+    private static BizFactoryService       bizFactoryService;
+    private static PluginManagerService    pluginManagerService;
+    private static Biz                     masterBiz;
+    private static InjectionService        injectionService;
+    private static String[]                arguments;
 
     /**
      * in some case like multi-tenant jdk, we need to set envs for biz
      */
-    private static Map<String, String>  envs;
+    private static Map<String, String>     envs;
 
-    private static EventAdminService    eventAdminService;
+    private static EventAdminService       eventAdminService;
+
+    private static volatile Semaphore      receivePermits;
+
+    private static final BizOperationStats bizOperationStats = new BizOperationStats();
 
     private static File getBizInstallDirectory() {
         String configDir = ArkConfigs.getStringValue(Constants.CONFIG_INSTALL_BIZ_DIR);
@@ -173,23 +189,117 @@ public class ArkClient {
         return doInstallBiz(bizFile, args, null);
     }
 
+    /**
+     * Install biz from the stream of ark biz file, the stream is consumed once: it is saved to
+     * the biz file, or unpacked directly in embed mode, while it is hashed and checked to be an
+     * ark biz.
+     *
+     * @param inputStream stream of ark biz file, not closed
+     * @param bizFile file to save the biz to
+     * @param args biz startup arguments
+     * @param envs biz startup envs
+     * @return install response
+     * @throws Throwable
+     */
+    public static ClientResponse installBiz(InputStream inputStream, File bizFile, String[] args,
+                                            Map<String, String> envs) throws Throwable {
+        AssertUtils.assertNotNull(inputStream, "inputStream must not be null!");
+        AssertUtils.assertNotNull(bizFile, "bizFile must not be null!");
+        BizOperationTimings timings = BizOperationTimings.begin(OperationType.INSTALL);
+        try {
+            return doInstallBiz(bizFile, receiveBiz(inputStream, bizFile), args, envs);
+        } finally {
+            endOperation(timings);
+        }
+    }
+
+    private static String receiveBiz(InputStream inputStream, File bizFile) throws IOException,
+                                                                           InterruptedException {
+        Semaphore permits = getReceivePermits();
+        if (permits != null) {
+            permits.acquire();
+        }
+        try {
+            long start = System.currentTimeMillis();
+            long startNanos = System.nanoTime();
+            ZipStreamReceiver receiver = new ZipStreamReceiver(ArkConfigs.getIntValue(
+                BIZ_INSTALL_STREAM_BUFFER_SIZE, DEFAULT_BIZ_INSTALL_STREAM_BUFFER_SIZE),
+                Constants.ARK_BIZ_MARK_ENTRY);
+            String sha1Hash;
+            if (ArkConfigs.isEmbedEnable()
+                && !ArkConfigs.getBooleanValue(Constants.BIZ_UNPACK_LAZY_ENABLE, false)) {
+                // unpacked to where biz factory service takes the unpacked directory from
+                sha1Hash = receiver.receiveUnpacked(inputStream,
+                    FileUtils.file(bizFile.getAbsolutePath() + Constants.BIZ_UNPACK_DIR_SUFFIX));
+            } else {
+                // biz file is kept to be unpacked lazily by biz factory service
+                sha1Hash = receiver.receive(inputStream, bizFile);
+            }
+            BizOperationTimings.record(BizOperationTimings.DOWNLOAD, startNanos);
+            getLogger().info(
+                String.format("Receive biz file %s of sha1 %s, cost %d ms", bizFile, sha1Hash,
+                    System.currentTimeMillis() - start));
+            return sha1Hash;
+        } finally {
+            if (permits != null) {
+                permits.release();
+            }
+        }
+    }
+
+    private static Semaphore getReceivePermits() {
+        if (receivePermits == null) {
+            int concurrency = ArkConfigs.getIntValue(BIZ_INSTALL_STREAM_CONCURRENCY, 0);
+            if (concurrency <= 0) {
+                return null;
+            }
+            synchronized (ArkClient.class) {
+                if (receivePermits == null) {
+                    receivePermits = new Semaphore(concurrency);
+                }
+            }
+        }
+        return receivePermits;
+    }
+
     private static ClientResponse doInstallBiz(File bizFile, String[] args, Map<String, String> envs)
                                                                                                      throws Throwable {
+        return doInstallBiz(bizFile, null, args, envs);
+    }
+
+    private static ClientResponse doInstallBiz(File bizFile, String sha1Hash, String[] args,
+                                               Map<String, String> envs) throws Throwable {
         AssertUtils.assertNotNull(bizFactoryService, "bizFactoryService must not be null!");
         AssertUtils.assertNotNull(bizManagerService, "bizManagerService must not be null!");
         AssertUtils.assertNotNull(bizFile, "bizFile must not be null!");
 
+        BizOperationTimings timings = BizOperationTimings.begin(OperationType.INSTALL);
+        try {
+            return doInstallBiz(bizFile, sha1Hash, args, envs, timings);
+        } finally {
+            endOperation(timings);
+        }
+    }
+
+    private static ClientResponse doInstallBiz(File bizFile, String sha1Hash, String[] args,
+                                               Map<String, String> envs, BizOperationTimings timings)
+                                                                                                     throws Throwable {
         long start = System.currentTimeMillis();
         SimpleDateFormat sdf = new SimpleDateFormat("HH:mm:ss,SSS");
         String startDate = sdf.format(new Date(start));
 
-        Biz biz = bizFactoryService.createBiz(bizFile);
-        ClientResponse response = new ClientResponse();
+        long phaseStart = System.nanoTime();
+        Biz biz = sha1Hash == null ? bizFactoryService.createBiz(bizFile) : bizFactoryService
+            .createBiz(bizFile, sha1Hash);
+        BizOperationTimings.record(BizOperationTimings.CREATE_BIZ, phaseStart);
+        ClientResponse response = new ClientResponse().setTimings(timings);
+        phaseStart = System.nanoTime();
         if (bizManagerService.getBizByIdentity(biz.getIdentity()) != null
             || !bizManagerService.registerBiz(biz)) {
             return response.setCode(ResponseCode.REPEAT_BIZ).setMessage(
                 String.format("Biz: %s has been installed or registered.", biz.getIdentity()));
         }
+        BizOperationTimings.record(BizOperationTimings.REGISTER_BIZ, phaseStart);
 
         try {
             biz.start(args, envs);
@@ -246,24 +356,31 @@ public class ArkClient {
                 "Master biz must not be uninstalled.");
         }
 
-        Biz biz = bizManagerService.getBiz(bizName, bizVersion);
-        ClientResponse response = new ClientResponse().setCode(ResponseCode.NOT_FOUND_BIZ)
-            .setMessage(
-                String.format("Uninstall biz: %s not found.",
-                    BizIdentityUtils.generateBizIdentity(bizName, bizVersion)));
-        if (biz != null) {
-            try {
-                biz.stop();
-            } catch (Throwable throwable) {
-                getLogger().error(String.format("UnInstall Biz: %s fail.", biz.getIdentity()),
-                    throwable);
-                throw throwable;
+        BizOperationTimings timings = BizOperationTimings.begin(OperationType.UNINSTALL);
+        try {
+            Biz biz = bizManagerService.getBiz(bizName, bizVersion);
+            ClientResponse response = new ClientResponse()
+                .setCode(ResponseCode.NOT_FOUND_BIZ)
+                .setMessage(
+                    String.format("Uninstall biz: %s not found.",
+                        BizIdentityUtils.generateBizIdentity(bizName, bizVersion)))
+                .setTimings(timings);
+            if (biz != null) {
+                try {
+                    biz.stop();
+                } catch (Throwable throwable) {
+                    getLogger().error(String.format("UnInstall Biz: %s fail.", biz.getIdentity()),
+                        throwable);
+                    throw throwable;
+                }
+                response.setCode(ResponseCode.SUCCESS).setMessage(
+                    String.format("Uninstall biz: %s success.", biz.getIdentity()));
             }
-            response.setCode(ResponseCode.SUCCESS).setMessage(
-                String.format("Uninstall biz: %s success.", biz.getIdentity()));
+            getLogger().info(response.getMessage());
+            return response;
+        } finally {
+            endOperation(timings);
         }
-        getLogger().info(response.getMessage());
-        return response;
     }
 
     /**
@@ -321,6 +438,40 @@ public class ArkClient {
         return response;
     }
 
+    /**
+     * Class loading metrics of plugin classloaders keyed by plugin name, and of biz classloaders
+     * keyed by biz identity, it's empty unless
+     * {@link com.alipay.sofa.ark.spi.constant.Constants#ARK_CLASSLOADER_METRICS_ENABLE} is on
+     *
+     * @return
+     */
+    public static Map<String, Map<String, Object>> getClassLoadingMetrics() {
+        Map<String, Map<String, Object>> metrics = new LinkedHashMap<>();
+        if (pluginManagerService != null) {
+            for (Plugin plugin : pluginManagerService.getPluginsInOrder()) {
+                putClassLoadingMetrics(metrics, plugin.getPluginName(),
+                    plugin.getPluginClassLoader());
+            }
+        }
+        if (bizManagerService != null) {
+            for (Biz biz : bizManagerService.getBizInOrder()) {
+                putClassLoadingMetrics(metrics, biz.getIdentity(), biz.getBizClassLoader());
+            }
+        }
+        return metrics;
+    }
+
+    private static void putClassLoadingMetrics(Map<String, Map<String, Object>> metrics,
+                                               String name, ClassLoader classLoader) {
+        if (classLoader instanceof ClassLoadingMetricsSource) {
+            Map<String, Object> snapshot = ((ClassLoadingMetricsSource) classLoader)
+                .getClassLoadingMetrics();
+            if (snapshot != null) {
+                metrics.put(name, snapshot);
+            }
+        }
+    }
+
     /**
      * Active biz with specified bizName and bizVersion
      *
@@ -333,27 +484,56 @@ public class ArkClient {
         AssertUtils.assertNotNull(bizManagerService, "bizManagerService must not be null!");
         AssertUtils.assertNotNull(bizName, "bizName must not be null!");
         AssertUtils.assertNotNull(bizVersion, "bizVersion must not be null!");
-        Biz biz = bizManagerService.getBiz(bizName, bizVersion);
-        ClientResponse response = new ClientResponse().setCode(ResponseCode.NOT_FOUND_BIZ)
-            .setMessage(
-                String.format("Switch biz: %s not found.",
-                    BizIdentityUtils.generateBizIdentity(bizName, bizVersion)));
-        if (biz != null) {
-            if (biz.getBizState() != BizState.ACTIVATED
-                && biz.getBizState() != BizState.DEACTIVATED) {
-                response.setCode(ResponseCode.ILLEGAL_STATE_BIZ).setMessage(
-                    String.format("Switch Biz: %s's state must not be %s.", biz.getIdentity(),
-                        biz.getBizState()));
-            } else {
-                eventAdminService.sendEvent(new BeforeBizSwitchEvent(biz));
-                bizManagerService.activeBiz(bizName, bizVersion);
-                eventAdminService.sendEvent(new AfterBizSwitchEvent(biz));
-                response.setCode(ResponseCode.SUCCESS).setMessage(
-                    String.format("Switch biz: %s is activated.", biz.getIdentity()));
+        BizOperationTimings timings = BizOperationTimings.begin(OperationType.SWITCH);
+        try {
+            Biz biz = bizManagerService.getBiz(bizName, bizVersion);
+            ClientResponse response = new ClientResponse()
+                .setCode(ResponseCode.NOT_FOUND_BIZ)
+                .setMessage(
+                    String.format("Switch biz: %s not found.",
+                        BizIdentityUtils.generateBizIdentity(bizName, bizVersion)))
+                .setTimings(timings);
+            if (biz != null) {
+                if (biz.getBizState() != BizState.ACTIVATED
+                    && biz.getBizState() != BizState.DEACTIVATED) {
+                    response.setCode(ResponseCode.ILLEGAL_STATE_BIZ).setMessage(
+                        String.format("Switch Biz: %s's state must not be %s.", biz.getIdentity(),
+                            biz.getBizState()));
+                } else {
+                    eventAdminService.sendEvent(new BeforeBizSwitchEvent(biz));
+                    long phaseStart = System.nanoTime();
+                    bizManagerService.activeBiz(bizName, bizVersion);
+                    BizOperationTimings.record(BizOperationTimings.ACTIVATE_BIZ, phaseStart);
+                    eventAdminService.sendEvent(new AfterBizSwitchEvent(biz));
+                    response.setCode(ResponseCode.SUCCESS).setMessage(
+                        String.format("Switch biz: %s is activated.", biz.getIdentity()));
+                }
             }
+            getLogger().info(response.getMessage());
+            return response;
+        } finally {
+            endOperation(timings);
+        }
+    }
+
+    /**
+     * Latency histograms of install, switch and uninstall operations and their phases, see
+     * {@link BizOperationTimings} for the phases
+     *
+     * @return
+     */
+    public static BizOperationStats getBizOperationStats() {
+        return bizOperationStats;
+    }
+
+    /**
+     * End an operation, timings of the operation are logged and aggregated once it completes
+     */
+    private static void endOperation(BizOperationTimings timings) {
+        if (timings.end()) {
+            bizOperationStats.record(timings);
+            getLogger().info(String.format("Biz operation timings: %s", timings));
         }
-        getLogger().info(response.getMessage());
-        return response;
     }
 
     public static ClientResponse installOperation(BizOperation bizOperation) throws Throwable {
@@ -375,17 +555,30 @@ public class ArkClient {
         AssertUtils.isTrue(
             BizOperation.OperationType.INSTALL.equals(bizOperation.getOperationType()),
             "Operation type must be install");
-        File bizFile = null;
-        if (bizOperation.getParameters().get(Constants.CONFIG_BIZ_URL) != null) {
-            URL url = new URL(bizOperation.getParameters().get(Constants.CONFIG_BIZ_URL));
-            bizFile = ArkClient.createBizSaveFile(bizOperation.getBizName(),
-                bizOperation.getBizVersion());
-
-            try (InputStream inputStream = url.openStream()) {
-                FileUtils.copyInputStreamToFile(inputStream, bizFile);
+        BizOperationTimings timings = BizOperationTimings.begin(OperationType.INSTALL);
+        try {
+            File bizFile = null;
+            String sha1Hash = null;
+            if (bizOperation.getParameters().get(Constants.CONFIG_BIZ_URL) != null) {
+                URL url = new URL(bizOperation.getParameters().get(Constants.CONFIG_BIZ_URL));
+                bizFile = ArkClient.createBizSaveFile(bizOperation.getBizName(),
+                    bizOperation.getBizVersion());
+
+                long start = System.nanoTime();
+                try (InputStream inputStream = url.openStream()) {
+                    if (ArkConfigs.getBooleanValue(BIZ_INSTALL_STREAM_ENABLE, false)) {
+                        // download is recorded while the stream is received
+                        return installBiz(inputStream, bizFile, args, envs);
+                    }
+                    // hashed while downloaded, biz factory service needn't read the file again
+                    sha1Hash = FileUtils.copyInputStreamToFileWithSha1Hash(inputStream, bizFile);
+                }
+                BizOperationTimings.record(BizOperationTimings.DOWNLOAD, start);
             }
+            return doInstallBiz(bizFile, sha1Hash, args, envs);
+        } finally {
+            endOperation(timings);
         }
-        return installBiz(bizFile, args, envs);
     }
 
     public static ClientResponse uninstallOperation(BizOperation bizOperation) throws Throwable {
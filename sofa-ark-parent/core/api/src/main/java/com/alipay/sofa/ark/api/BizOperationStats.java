@@ -0,0 +1,105 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.ark.api;
+
+import com.alipay.sofa.ark.common.util.LatencyHistogram;
+import com.alipay.sofa.ark.spi.model.BizOperation.OperationType;
+import com.alipay.sofa.ark.spi.model.BizOperationTimings;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Latency histograms of completed biz operations, of the whole operation and of each phase,
+ * grouped by operation type.
+ *
+ * @since 2.2.15
+ */
+public class BizOperationStats {
+
+    public static final String                                                          TOTAL      = "total";
+
+    private final ConcurrentMap<OperationType, ConcurrentMap<String, LatencyHistogram>> histograms = new ConcurrentHashMap<>();
+
+    public void record(BizOperationTimings timings) {
+        if (!timings.isCompleted()) {
+            return;
+        }
+        ConcurrentMap<String, LatencyHistogram> phases = histograms.get(timings.getOperationType());
+        if (phases == null) {
+            histograms.putIfAbsent(timings.getOperationType(),
+                new ConcurrentHashMap<String, LatencyHistogram>());
+            phases = histograms.get(timings.getOperationType());
+        }
+        getHistogram(phases, TOTAL).record(timings.getTotalNanos());
+        for (Map.Entry<String, Long> entry : timings.getPhaseNanos().entrySet()) {
+            getHistogram(phases, entry.getKey()).record(entry.getValue());
+        }
+    }
+
+    private LatencyHistogram getHistogram(ConcurrentMap<String, LatencyHistogram> phases,
+                                          String phase) {
+        LatencyHistogram histogram = phases.get(phase);
+        if (histogram == null) {
+            phases.putIfAbsent(phase, new LatencyHistogram());
+            histogram = phases.get(phase);
+        }
+        return histogram;
+    }
+
+    /**
+     * Get latency histogram of a phase, or of the whole operation by {@link #TOTAL}
+     *
+     * @return null if nothing is recorded
+     */
+    public LatencyHistogram getHistogram(OperationType operationType, String phase) {
+        Map<String, LatencyHistogram> phases = histograms.get(operationType);
+        return phases == null ? null : phases.get(phase);
+    }
+
+    /**
+     * Snapshot of histograms keyed by operation type, then by phase with {@link #TOTAL} first
+     */
+    public Map<String, Map<String, Map<String, Object>>> snapshot() {
+        Map<String, Map<String, Map<String, Object>>> snapshot = new LinkedHashMap<>();
+        for (OperationType operationType : OperationType.values()) {
+            Map<String, LatencyHistogram> phases = histograms.get(operationType);
+            if (phases == null) {
+                continue;
+            }
+            Map<String, Map<String, Object>> phaseSnapshot = new LinkedHashMap<>();
+            LatencyHistogram total = phases.get(TOTAL);
+            if (total != null) {
+                phaseSnapshot.put(TOTAL, total.snapshot());
+            }
+            for (Map.Entry<String, LatencyHistogram> entry : new TreeMap<>(phases).entrySet()) {
+                if (!TOTAL.equals(entry.getKey())) {
+                    phaseSnapshot.put(entry.getKey(), entry.getValue().snapshot());
+                }
+            }
+            snapshot.put(operationType.name(), phaseSnapshot);
+        }
+        return snapshot;
+    }
+
+    public void reset() {
+        histograms.clear();
+    }
+}
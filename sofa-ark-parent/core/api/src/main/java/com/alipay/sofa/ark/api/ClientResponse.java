@@ -17,6 +17,7 @@
 package com.alipay.sofa.ark.api;
 
 import com.alipay.sofa.ark.spi.model.BizInfo;
+import com.alipay.sofa.ark.spi.model.BizOperationTimings;
 
 import java.util.Set;
 
@@ -28,9 +29,10 @@ import java.util.Set;
  */
 public class ClientResponse {
 
-    private String       message;
-    private ResponseCode code;
-    private Set<BizInfo> bizInfos;
+    private String              message;
+    private ResponseCode        code;
+    private Set<BizInfo>        bizInfos;
+    private BizOperationTimings timings;
 
     public String getMessage() {
         return message;
@@ -58,4 +60,19 @@ public class ClientResponse {
         this.bizInfos = bizInfos;
         return this;
     }
-}
\ No newline at end of file
+
+    /**
+     * Get phase timings of the operation
+     *
+     * @return null if the response is not of an install, switch or uninstall
+     * @since 2.2.15
+     */
+    public BizOperationTimings getTimings() {
+        return timings;
+    }
+
+    public ClientResponse setTimings(BizOperationTimings timings) {
+        this.timings = timings;
+        return this;
+    }
+}
@@ -62,7 +62,7 @@ public class FileUtils {
         }
     }
 
-    private static String bytesToHex(byte[] bytes) {
+    static String bytesToHex(byte[] bytes) {
         StringBuilder hex = new StringBuilder();
         for (byte b : bytes) {
             hex.append(String.format("%02x", b));
@@ -96,6 +96,28 @@ public class FileUtils {
         org.apache.commons.io.FileUtils.copyInputStreamToFile(source, destination);
     }
 
+    /**
+     * Copy the stream to the file like {@link #copyInputStreamToFile(InputStream, File)}, while
+     * its SHA-1 hash is computed, so the copied file needn't be read again to be hashed
+     *
+     * @param source stream to copy, closed after copy
+     * @param destination target file
+     * @return the same hash as {@link #sha1Hash(File)} of the copied file
+     * @throws IOException if the stream cannot be read or copied
+     */
+    public static String copyInputStreamToFileWithSha1Hash(final InputStream source,
+                                                           final File destination)
+                                                                                  throws IOException {
+        try {
+            DigestInputStream inputStream = new DigestInputStream(source,
+                MessageDigest.getInstance("SHA-1"));
+            org.apache.commons.io.FileUtils.copyInputStreamToFile(inputStream, destination);
+            return bytesToHex(inputStream.getMessageDigest().digest());
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
     /**
      *
      * @param path
@@ -0,0 +1,135 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.ark.common.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock free histogram of latencies in nanoseconds. Like HdrHistogram, buckets are linear below
+ * 16ns and log-linear above, with 8 sub buckets per power of two, so a recorded value is reported
+ * with a relative error of at most 12.5%. Values above about 137s are recorded as 137s.
+ *
+ * @since 2.2.15
+ */
+public class LatencyHistogram {
+
+    private static final int        SUB_BUCKET_BITS  = 3;
+
+    private static final int        SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+    private static final int        MAX_EXPONENT     = 36;
+
+    private static final long       MAX_VALUE        = (1L << (MAX_EXPONENT + 1)) - 1;
+
+    private static final int        BUCKET_COUNT     = bucketIndex(MAX_VALUE) + 1;
+
+    private final AtomicLongArray   buckets          = new AtomicLongArray(BUCKET_COUNT);
+
+    private final LongAdder         count            = new LongAdder();
+
+    private final LongAdder         sum              = new LongAdder();
+
+    private final LongAccumulator   max              = new LongAccumulator(Math::max, 0);
+
+    public void record(long nanos) {
+        long value = Math.min(Math.max(nanos, 0), MAX_VALUE);
+        buckets.incrementAndGet(bucketIndex(value));
+        count.increment();
+        sum.add(value);
+        max.accumulate(value);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getSum() {
+        return sum.sum();
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Highest value equivalent to the recorded value at the percentile
+     *
+     * @param percentile in (0, 100]
+     * @return 0 if nothing is recorded
+     */
+    public long getValueAtPercentile(double percentile) {
+        long[] counts = new long[BUCKET_COUNT];
+        long total = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts[i] = buckets.get(i);
+            total += counts[i];
+        }
+        long rank = Math.max(1, (long) Math.ceil(total * percentile / 100));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(bucketUpperBound(i), getMax());
+            }
+        }
+        return 0;
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            buckets.set(i, 0);
+        }
+        count.reset();
+        sum.reset();
+        max.reset();
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        long total = getCount();
+        snapshot.put("count", total);
+        snapshot.put("meanNanos", total == 0 ? 0 : getSum() / total);
+        snapshot.put("p50Nanos", getValueAtPercentile(50));
+        snapshot.put("p90Nanos", getValueAtPercentile(90));
+        snapshot.put("p99Nanos", getValueAtPercentile(99));
+        snapshot.put("p999Nanos", getValueAtPercentile(99.9));
+        snapshot.put("maxNanos", getMax());
+        return snapshot;
+    }
+
+    static int bucketIndex(long value) {
+        if (value < 2 * SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BUCKET_BITS;
+        return shift * SUB_BUCKET_COUNT + (int) (value >>> shift);
+    }
+
+    static long bucketUpperBound(int index) {
+        if (index < 2 * SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = index / SUB_BUCKET_COUNT - 1;
+        long mantissa = index % SUB_BUCKET_COUNT + SUB_BUCKET_COUNT;
+        return ((mantissa + 1) << shift) - 1;
+    }
+}
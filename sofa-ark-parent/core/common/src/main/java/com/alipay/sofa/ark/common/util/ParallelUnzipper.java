@@ -0,0 +1,145 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.ark.common.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.function.Predicate;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Unzip a file with entries extracted by several workers in parallel, entry data is
+ * transferred to files through {@link FileChannel}. The layout is the same as
+ * {@link FileUtils#unzip(File, String)}.
+ *
+ * @since 2.2.15
+ */
+public class ParallelUnzipper {
+
+    private final Executor executor;
+
+    private final int      parallelism;
+
+    /**
+     * @param executor executor to run workers besides the calling thread
+     * @param parallelism count of workers including the calling thread
+     */
+    public ParallelUnzipper(Executor executor, int parallelism) {
+        this.executor = executor;
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    /**
+     * Unzip the file to the directory
+     *
+     * @param file zip file
+     * @param directory target directory
+     * @param filter entries to extract, null to extract all entries
+     * @throws IOException if any entry cannot be extracted
+     */
+    public void unzip(File file, File directory, Predicate<ZipEntry> filter) throws IOException {
+        try (ZipFile zipFile = new ZipFile(file)) {
+            Queue<ZipEntry> entries = new ConcurrentLinkedQueue<>();
+            Enumeration<? extends ZipEntry> enumeration = zipFile.entries();
+            while (enumeration.hasMoreElements()) {
+                ZipEntry entry = enumeration.nextElement();
+                if (filter == null || filter.test(entry)) {
+                    entries.add(entry);
+                }
+            }
+            directory.mkdirs();
+            String directoryPath = directory.getCanonicalPath() + File.separator;
+
+            List<CompletableFuture<Void>> workers = new ArrayList<>();
+            int workerCount = Math.min(parallelism, entries.size());
+            for (int i = 1; i < workerCount; i++) {
+                workers.add(CompletableFuture.runAsync(
+                    () -> extract(zipFile, entries, directoryPath), executor));
+            }
+            try {
+                extract(zipFile, entries, directoryPath);
+                CompletableFuture.allOf(workers.toArray(new CompletableFuture[0])).join();
+            } catch (UncheckedIOException e) {
+                entries.clear();
+                throw e.getCause();
+            } catch (CompletionException e) {
+                entries.clear();
+                if (e.getCause() instanceof UncheckedIOException) {
+                    throw ((UncheckedIOException) e.getCause()).getCause();
+                }
+                throw new IOException(e.getCause());
+            } finally {
+                // zip file must not be closed while workers are extracting
+                for (CompletableFuture<Void> worker : workers) {
+                    try {
+                        worker.join();
+                    } catch (CompletionException e) {
+                        // reported above
+                    }
+                }
+            }
+        }
+    }
+
+    private void extract(ZipFile zipFile, Queue<ZipEntry> entries, String directoryPath) {
+        ZipEntry entry;
+        while ((entry = entries.poll()) != null) {
+            try {
+                extract(zipFile, entry, directoryPath);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private void extract(ZipFile zipFile, ZipEntry entry, String directoryPath) throws IOException {
+        File file = FileUtils.file(directoryPath + entry.getName());
+        AssertUtils.isTrue(file.getCanonicalPath().startsWith(directoryPath),
+            "Zip entry is outside of target directory: %s", entry.getName());
+        if (entry.isDirectory()) {
+            file.mkdirs();
+            return;
+        }
+        file.getParentFile().mkdirs();
+        try (InputStream inputStream = zipFile.getInputStream(entry);
+                ReadableByteChannel source = Channels.newChannel(inputStream);
+                FileChannel target = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            long position = 0;
+            long transferred;
+            while ((transferred = target.transferFrom(source, position, Long.MAX_VALUE)) > 0) {
+                position += transferred;
+            }
+        }
+    }
+
+}
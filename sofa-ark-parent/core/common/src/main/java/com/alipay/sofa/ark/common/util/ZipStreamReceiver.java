@@ -0,0 +1,187 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.ark.common.util;
+
+import org.apache.commons.io.input.CloseShieldInputStream;
+import org.apache.commons.io.input.TeeInputStream;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.UUID;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Receive a zip stream in a single pass: the stream is saved to a file, or unpacked to a
+ * directory as entries arrive, while its SHA-1 hash is computed and the mark entry is looked
+ * for. The hash is the same as {@link FileUtils#sha1Hash(File)} of the saved file.
+ *
+ * <p>Entries of a stream arrive one after another, so they are unpacked in order rather than
+ * in parallel, and nested jars are not indexed on the fly since they are opaque bytes of the
+ * stream.
+ *
+ * @since 2.2.15
+ */
+public class ZipStreamReceiver {
+
+    private final int    bufferSize;
+
+    private final String markEntry;
+
+    /**
+     * @param bufferSize size of buffer to read the stream and write files
+     * @param markEntry entry the zip must contain, null if not checked
+     */
+    public ZipStreamReceiver(int bufferSize, String markEntry) {
+        AssertUtils.isTrue(bufferSize > 0, "Buffer size must be positive: %s", bufferSize);
+        this.bufferSize = bufferSize;
+        this.markEntry = markEntry;
+    }
+
+    /**
+     * Save the zip stream to the file
+     *
+     * @param inputStream zip stream, not closed
+     * @param file target file
+     * @return SHA-1 hash of the stream
+     * @throws IOException if the stream cannot be read or saved
+     * @throws IllegalArgumentException if the mark entry is absent, the file is deleted
+     */
+    public String receive(InputStream inputStream, File file) throws IOException {
+        try (OutputStream outputStream = new BufferedOutputStream(new FileOutputStream(file),
+            bufferSize)) {
+            return receive(inputStream, outputStream, null);
+        } catch (IOException | RuntimeException e) {
+            org.apache.commons.io.FileUtils.deleteQuietly(file);
+            throw e;
+        }
+    }
+
+    /**
+     * Unpack the zip stream to the directory, the same layout as {@link FileUtils#unzip(File, String)}
+     *
+     * @param inputStream zip stream, not closed
+     * @param directory target directory
+     * @return SHA-1 hash of the stream
+     * @throws IOException if the stream cannot be read or unpacked
+     * @throws IllegalArgumentException if the mark entry is absent
+     */
+    public String receiveUnpacked(InputStream inputStream, File directory) throws IOException {
+        return receiveUnpacked(inputStream, directory, null);
+    }
+
+    /**
+     * Unpack the zip stream to a temporary directory next to the target one, which replaces the
+     * target directory once the stream is fully received, so no stale file of an existing
+     * directory is left. The target directory is left untouched if the stream fails.
+     *
+     * @param inputStream zip stream, not closed
+     * @param directory target directory
+     * @param markerName name of file in the directory to record SHA-1 hash of the stream, null if
+     *                   not recorded
+     * @return SHA-1 hash of the stream
+     * @throws IOException if the stream cannot be read or unpacked
+     * @throws IllegalArgumentException if the mark entry is absent
+     */
+    public String receiveUnpacked(InputStream inputStream, File directory, String markerName)
+                                                                                             throws IOException {
+        File receiving = new File(directory.getAbsoluteFile().getParentFile(), directory.getName()
+                                                                               + ".receiving-"
+                                                                               + UUID.randomUUID());
+        try {
+            String sha1Hash = receive(inputStream, null, receiving);
+            if (markerName != null) {
+                Files.write(new File(receiving, markerName).toPath(),
+                    sha1Hash.getBytes(StandardCharsets.UTF_8));
+            }
+            org.apache.commons.io.FileUtils.deleteDirectory(directory);
+            Files.move(receiving.toPath(), directory.toPath());
+            return sha1Hash;
+        } finally {
+            org.apache.commons.io.FileUtils.deleteQuietly(receiving);
+        }
+    }
+
+    private String receive(InputStream inputStream, OutputStream outputStream, File directory)
+                                                                                              throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+        InputStream source = new DigestInputStream(
+            new BufferedInputStream(inputStream, bufferSize), digest);
+        if (outputStream != null) {
+            source = new TeeInputStream(source, outputStream);
+        }
+        if (directory != null) {
+            directory.mkdirs();
+        }
+
+        byte[] buffer = new byte[bufferSize];
+        boolean marked = markEntry == null;
+        // release inflater of zip stream but leave the given stream open
+        try (ZipInputStream zipInputStream = new ZipInputStream(new CloseShieldInputStream(source))) {
+            ZipEntry entry;
+            while ((entry = zipInputStream.getNextEntry()) != null) {
+                if (!entry.isDirectory() && entry.getName().equals(markEntry)) {
+                    marked = true;
+                }
+                if (directory != null) {
+                    unpack(zipInputStream, entry, directory, buffer);
+                }
+            }
+            // central directory is not read by zip stream
+            while (source.read(buffer) != -1) { //NOPMD
+                // Read the entire stream
+            }
+        }
+        AssertUtils.isTrue(marked, "Zip stream doesn't contain mark entry: %s", markEntry);
+        return FileUtils.bytesToHex(digest.digest());
+    }
+
+    private void unpack(ZipInputStream zipInputStream, ZipEntry entry, File directory, byte[] buffer)
+                                                                                                     throws IOException {
+        File file = FileUtils.file(directory.getPath() + File.separator + entry.getName());
+        AssertUtils.isTrue(
+            file.getCanonicalPath().startsWith(directory.getCanonicalPath() + File.separator),
+            "Zip entry is outside of target directory: %s", entry.getName());
+        if (entry.isDirectory()) {
+            file.mkdirs();
+            return;
+        }
+        file.getParentFile().mkdirs();
+        try (OutputStream outputStream = new FileOutputStream(file)) {
+            int count;
+            while ((count = zipInputStream.read(buffer)) != -1) {
+                outputStream.write(buffer, 0, count);
+            }
+        }
+    }
+
+}
@@ -63,6 +63,21 @@ public class FileUtilsTest {
         assertNotNull(sha1Hash(file(url.getFile())));
     }
 
+    @Test
+    public void testCopyInputStreamToFileWithSha1Hash() throws IOException {
+        // commons io fails to copy files on the faked platform
+        setProperty("os.name", ORIGIN);
+        URL sampleBiz = this.getClass().getClassLoader().getResource("sample-biz.jar");
+        File target = new File(createTempDir("sha1-copy"), "sample-biz.jar");
+        try {
+            String sha1Hash = copyInputStreamToFileWithSha1Hash(sampleBiz.openStream(), target);
+            assertEquals(sha1Hash(file(sampleBiz.getFile())), sha1Hash);
+            assertEquals(sha1Hash(target), sha1Hash);
+        } finally {
+            deleteQuietly(target.getParentFile());
+        }
+    }
+
     @Test
     public void testUnzip() throws IOException {
         URL sampleBiz = this.getClass().getClassLoader().getResource("sample-biz.jar");
@@ -0,0 +1,90 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.ark.common.util;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.apache.commons.io.FileUtils.contentEquals;
+import static org.apache.commons.io.FileUtils.deleteQuietly;
+import static org.apache.commons.io.FileUtils.listFiles;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ParallelUnzipperTest {
+
+    private File            workDir;
+
+    private ExecutorService executor;
+
+    @Before
+    public void before() {
+        workDir = FileUtils.createTempDir("parallel-unzipper");
+        executor = Executors.newFixedThreadPool(3);
+    }
+
+    @After
+    public void after() {
+        executor.shutdownNow();
+        deleteQuietly(workDir);
+    }
+
+    @Test
+    public void testUnzip() throws IOException {
+        File zip = new File(workDir, "test.zip");
+        try (ZipOutputStream zipOutputStream = new ZipOutputStream(new FileOutputStream(zip))) {
+            zipOutputStream.putNextEntry(new ZipEntry("empty/"));
+            zipOutputStream.closeEntry();
+            for (int i = 0; i < 50; i++) {
+                zipOutputStream.putNextEntry(new ZipEntry("dir" + i % 5 + "/file" + i + ".txt"));
+                for (int j = 0; j <= i * 100; j++) {
+                    zipOutputStream.write(j);
+                }
+                zipOutputStream.closeEntry();
+            }
+        }
+
+        File expected = FileUtils.unzip(zip, new File(workDir, "expected").getPath());
+        File actual = new File(workDir, "actual");
+        new ParallelUnzipper(executor, 4).unzip(zip, actual, null);
+        assertTrue(new File(actual, "empty").isDirectory());
+        Collection<File> files = listFiles(expected, null, true);
+        assertEquals(50, files.size());
+        assertEquals(files.size(), listFiles(actual, null, true).size());
+        for (File file : files) {
+            String relativePath = file.getPath().substring(expected.getPath().length());
+            assertTrue(contentEquals(file, new File(actual.getPath() + relativePath)));
+        }
+
+        File filtered = new File(workDir, "filtered");
+        new ParallelUnzipper(executor, 4).unzip(zip, filtered,
+            entry -> !entry.getName().startsWith("dir0/"));
+        assertFalse(new File(filtered, "dir0").exists());
+        assertTrue(new File(filtered, "dir1/file1.txt").isFile());
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.ark.common.util;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.apache.commons.io.FileUtils.deleteQuietly;
+import static org.apache.commons.io.FileUtils.readFileToString;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ZipStreamReceiverTest {
+
+    private static final String MARK_ENTRY = "com/alipay/sofa/ark/biz/mark";
+
+    private File                workDir;
+
+    @Before
+    public void before() {
+        workDir = FileUtils.createTempDir("zip-stream-receiver");
+    }
+
+    @After
+    public void after() {
+        deleteQuietly(workDir);
+    }
+
+    @Test
+    public void testReceive() throws IOException {
+        byte[] zip = createZip(true);
+        File file = new File(workDir, "biz.jar");
+        String sha1 = new ZipStreamReceiver(16, MARK_ENTRY).receive(new ByteArrayInputStream(zip),
+            file);
+        assertArrayEquals(zip, org.apache.commons.io.FileUtils.readFileToByteArray(file));
+        assertEquals(FileUtils.sha1Hash(file), sha1);
+    }
+
+    @Test
+    public void testReceiveUnpacked() throws IOException {
+        byte[] zip = createZip(true);
+        File file = new File(workDir, "biz.jar");
+        org.apache.commons.io.FileUtils.writeByteArrayToFile(file, zip);
+        File directory = new File(workDir, "biz.jar-unpack");
+        String sha1 = new ZipStreamReceiver(16, MARK_ENTRY).receiveUnpacked(
+            new ByteArrayInputStream(zip), directory);
+        assertEquals(FileUtils.sha1Hash(file), sha1);
+        assertTrue(new File(directory, MARK_ENTRY).isFile());
+        assertTrue(new File(directory, "lib").isDirectory());
+        assertEquals("hello",
+            readFileToString(new File(directory, "lib/a.txt"), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testReceiveUnpackedReplacesDirectory() throws IOException {
+        byte[] zip = createZip(true);
+        File directory = new File(workDir, "biz.jar-unpack");
+        File staleFile = new File(directory, "lib/stale.jar");
+        org.apache.commons.io.FileUtils.writeStringToFile(staleFile, "stale",
+            StandardCharsets.UTF_8);
+        String sha1 = new ZipStreamReceiver(16, MARK_ENTRY).receiveUnpacked(
+            new ByteArrayInputStream(zip), directory, ".marker");
+        assertFalse(staleFile.exists());
+        assertTrue(new File(directory, "lib/a.txt").isFile());
+        assertEquals(sha1, readFileToString(new File(directory, ".marker"), StandardCharsets.UTF_8));
+        assertEquals(1, workDir.list().length);
+    }
+
+    @Test
+    public void testReceiveWithoutMarkEntry() throws IOException {
+        byte[] zip = createZip(false);
+        File file = new File(workDir, "biz.jar");
+        File directory = new File(workDir, "biz.jar-unpack");
+        ZipStreamReceiver receiver = new ZipStreamReceiver(16, MARK_ENTRY);
+        try {
+            receiver.receive(new ByteArrayInputStream(zip), file);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertFalse(file.exists());
+        }
+        try {
+            receiver.receiveUnpacked(new ByteArrayInputStream(zip), directory);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertFalse(directory.exists());
+        }
+        // an existing directory is left as is
+        File existingFile = new File(directory, "lib/a.txt");
+        org.apache.commons.io.FileUtils.writeStringToFile(existingFile, "existing",
+            StandardCharsets.UTF_8);
+        try {
+            receiver.receiveUnpacked(new ByteArrayInputStream(zip), directory);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertEquals("existing", readFileToString(existingFile, StandardCharsets.UTF_8));
+            assertEquals(1, workDir.list().length);
+        }
+    }
+
+    private byte[] createZip(boolean marked) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (ZipOutputStream zipOutputStream = new ZipOutputStream(outputStream)) {
+            zipOutputStream.putNextEntry(new ZipEntry("lib/"));
+            zipOutputStream.closeEntry();
+            zipOutputStream.putNextEntry(new ZipEntry("lib/a.txt"));
+            zipOutputStream.write("hello".getBytes(StandardCharsets.UTF_8));
+            zipOutputStream.closeEntry();
+            if (marked) {
+                zipOutputStream.putNextEntry(new ZipEntry(MARK_ENTRY));
+                zipOutputStream.closeEntry();
+            }
+        }
+        return outputStream.toByteArray();
+    }
+
+}
@@ -62,6 +62,116 @@ public class Constants {
     public final static String       ARK_CLASSLOADER_CACHE_CLASS_SIZE_INITIAL      = "ark.classloader.cache.class.size.initial";
     public final static String       ARK_CLASSLOADER_CACHE_CLASS_SIZE_MAX          = "ark.classloader.cache.class.size.max";
     public final static String       ARK_CLASSLOADER_CACHE_CONCURRENCY_LEVEL       = "ark.classloader.cache.concurrencylevel";
+    /**
+     * classloader cache never expires by time but is invalidated when plugin is installed, or a biz reachable by the classloader is installed, uninstalled or switched
+     */
+    public final static String       ARK_CLASSLOADER_CACHE_GENERATION_ENABLE       = "ark.classloader.cache.generation.enable";
+    /**
+     * answer definite class misses of ark classloader by a bloom filter of reachable class names
+     */
+    public final static String       ARK_CLASSLOADER_NEGATIVE_FILTER_ENABLE        = "ark.classloader.negative.filter.enable";
+    public final static String       ARK_CLASSLOADER_NEGATIVE_FILTER_FPP           = "ark.classloader.negative.filter.fpp";
+    /**
+     * max total bytes of class bytes cached for plugin classes exported in override mode, 0 disables the cache
+     */
+    public final static String       ARK_CLASSLOADER_OVERRIDE_CLASS_CACHE_SIZE     = "ark.classloader.override.class.cache.size";
+    public final static int          DEFAULT_OVERRIDE_CLASS_CACHE_SIZE             = 64 * 1024 * 1024;
+    /**
+     * record per step counters and latency histograms of ark classloader, and cache stats of its caches
+     */
+    public final static String       ARK_CLASSLOADER_METRICS_ENABLE                = "ark.classloader.metrics.enable";
+
+    /**
+     * build class index at biz creation to resolve class owner by one lookup
+     */
+    public final static String       BIZ_CLASS_INDEX_ENABLE                        = "sofa.ark.biz.class.index.enable";
+
+    /**
+     * persist class index of biz next to the biz file, keyed by SHA-1 hash of biz file, and reuse it when the same biz is installed again
+     */
+    public final static String       BIZ_CLASS_INDEX_PERSIST_ENABLE                = "sofa.ark.biz.class.index.persist.enable";
+
+    /**
+     * max number of persisted class index files kept next to biz files, the least recently written ones are deleted when a biz is recycled
+     */
+    public final static String       BIZ_CLASS_INDEX_PERSIST_MAX_COUNT             = "sofa.ark.biz.class.index.persist.max.count";
+    public final static int          DEFAULT_BIZ_CLASS_INDEX_PERSIST_MAX_COUNT     = 64;
+
+    /**
+     * start bizs of the same priority in parallel when deploying bizs, honoring start-after-biz of biz manifest
+     */
+    public final static String       BIZ_DEPLOY_PARALLEL_ENABLE                    = "sofa.ark.biz.deploy.parallel.enable";
+    public final static String       BIZ_DEPLOY_PARALLEL_POOL_SIZE                 = "sofa.ark.biz.deploy.parallel.pool.size";
+    public final static String       BIZ_DEPLOY_THREAD_POOL_NAME                   = "ark-biz-deploy";
+
+    /**
+     * create bizs and plugins from archives of executable fat jar in parallel at container startup
+     */
+    public final static String       ARCHIVE_PARALLEL_ENABLE                       = "sofa.ark.archive.parallel.enable";
+    public final static String       ARCHIVE_PARALLEL_POOL_SIZE                    = "sofa.ark.archive.parallel.pool.size";
+
+    /**
+     * read biz and plugin jar files through memory mapping instead of a pool of random access files
+     */
+    public final static String       JAR_MMAP_ENABLE                               = "sofa.ark.jar.mmap.enable";
+
+    /**
+     * max count of decoded entries cached by each jar file, entries of signed jar are all cached
+     */
+    public final static String       JAR_ENTRY_CACHE_SIZE                          = "sofa.ark.jar.entry.cache.size";
+    public final static int          DEFAULT_JAR_ENTRY_CACHE_SIZE                  = 1024;
+
+    /**
+     * max count of root jar files cached by jar url handler, the least recently used one is evicted when exceeded
+     */
+    public final static String       JAR_ROOT_FILE_CACHE_SIZE                      = "sofa.ark.jar.root.file.cache.size";
+    public final static int          DEFAULT_JAR_ROOT_FILE_CACHE_SIZE              = 256;
+
+    /**
+     * install biz of biz url by consuming the download stream once, the biz is saved, or unpacked in embed mode, while it is hashed and checked
+     */
+    public final static String       BIZ_INSTALL_STREAM_ENABLE                     = "sofa.ark.biz.install.stream.enable";
+    public final static String       BIZ_INSTALL_STREAM_BUFFER_SIZE                = "sofa.ark.biz.install.stream.buffer.size";
+    public final static int          DEFAULT_BIZ_INSTALL_STREAM_BUFFER_SIZE        = 64 * 1024;
+    /**
+     * max count of biz streams received concurrently, 0 means unlimited
+     */
+    public final static String       BIZ_INSTALL_STREAM_CONCURRENCY                = "sofa.ark.biz.install.stream.concurrency";
+
+    /**
+     * count of threads to unpack biz file in embed mode, the unpacked directory is reused only if it's unpacked from the same biz file
+     */
+    public final static String       BIZ_UNPACK_PARALLELISM                        = "sofa.ark.biz.unpack.parallelism";
+    public final static String       BIZ_UNPACK_THREAD_POOL_NAME                   = "ark-biz-unpack";
+    /**
+     * don't extract library jars of biz in embed mode, they are read from the biz file on access
+     */
+    public final static String       BIZ_UNPACK_LAZY_ENABLE                        = "sofa.ark.biz.unpack.lazy.enable";
+
+    /**
+     * share library jars of the same content among biz jars, they are extracted once to the store directory and opened once,
+     * the store directory is lib-store under biz install directory by default
+     */
+    public final static String       BIZ_SHARED_LIBRARY_ENABLE                     = "sofa.ark.biz.shared.library.enable";
+    public final static String       BIZ_SHARED_LIBRARY_DIR                        = "sofa.ark.biz.shared.library.dir";
+
+    /**
+     * max number of library jars kept in the shared library store, the least recently used ones not used by the process are deleted when a library jar is extracted
+     */
+    public final static String       BIZ_SHARED_LIBRARY_MAX_COUNT                  = "sofa.ark.biz.shared.library.max.count";
+    public final static int          DEFAULT_BIZ_SHARED_LIBRARY_MAX_COUNT          = 1024;
+
+    /**
+     * clean references to biz class loader held by JDK and thread states before the biz is recycled
+     */
+    public final static String       BIZ_LEAK_CLEAN_ENABLE                         = "sofa.ark.biz.leak.clean.enable";
+
+    /**
+     * check if class loaders of uninstalled bizs are collected after the delay, and report roots still referencing them
+     */
+    public final static String       BIZ_LEAK_DETECT_ENABLE                        = "sofa.ark.biz.leak.detect.enable";
+    public final static String       BIZ_LEAK_DETECT_DELAY_SECONDS                 = "sofa.ark.biz.leak.detect.delay.seconds";
+    public final static int          DEFAULT_BIZ_LEAK_DETECT_DELAY_SECONDS         = 60;
     /**
      * plugin conf, multi value is split by comma.
      */
@@ -113,6 +223,7 @@ public class Constants {
     public final static String       INJECT_PLUGIN_DEPENDENCIES                    = "inject-plugin-dependencies";
     public final static String       INJECT_EXPORT_PACKAGES                        = "inject-export-packages";
     public final static String       DECLARED_LIBRARIES                            = "declared-libraries";
+    public final static String       START_AFTER_BIZ                               = "start-after-biz";
 
     public static final String       BRANCH                                        = "commit-branch";
     public static final String       COMMIT_ID                                     = "commit-id";
@@ -168,6 +279,22 @@ public class Constants {
     public final static String       TELNET_SESSION_PROMPT                         = "sofa-ark>";
     public final static String       TELNET_COMMAND_THREAD_POOL_NAME               = "telnet-command";
 
+    /**
+     * deliver events to handlers which tolerate async delivery on a thread pool, events of each handler are delivered in order
+     */
+    public final static String       EVENT_ASYNC_DELIVERY_ENABLE                   = "sofa.ark.event.async.enable";
+    public final static String       EVENT_ASYNC_QUEUE_SIZE                        = "sofa.ark.event.async.queue.size";
+    public final static int          DEFAULT_EVENT_ASYNC_QUEUE_SIZE                = 1024;
+    public final static String       EVENT_ASYNC_THREAD_POOL_SIZE                  = "sofa.ark.event.async.pool.size";
+    public final static int          DEFAULT_EVENT_ASYNC_THREAD_POOL_SIZE          = 4;
+    public final static String       EVENT_ASYNC_THREAD_POOL_NAME                  = "ark-event-async";
+
+    /**
+     * max time in milliseconds a sender waits for a full mailbox of async event handler before the event is dropped, senders on the async thread pool never wait
+     */
+    public final static String       EVENT_ASYNC_OFFER_TIMEOUT                     = "sofa.ark.event.async.offer.timeout.ms";
+    public final static int          DEFAULT_EVENT_ASYNC_OFFER_TIMEOUT             = 3000;
+
     /**
      * Event
      */
@@ -224,6 +351,7 @@ public class Constants {
      */
     public final static String       PLUGIN_COMMAND_UNIQUE_ID                      = "plugin-command-provider";
     public final static String       BIZ_COMMAND_UNIQUE_ID                         = "biz-command-provider";
+    public final static String       CLASSLOADER_COMMAND_UNIQUE_ID                 = "classloader-command-provider";
 
     /**
      * Ark SPI extension
@@ -234,6 +362,11 @@ public class Constants {
     public final static String       BIZ_CLASS_LOADER_HOOK_DIR                     = "com.alipay.sofa.ark.biz.classloader.hook.dir";
     public final static String       BIZ_TEMP_WORK_DIR_RECYCLE_FILE_SUFFIX         = "deleted";
 
+    /**
+     * suffix of directory which biz file is unpacked to in embed mode
+     */
+    public final static String       BIZ_UNPACK_DIR_SUFFIX                         = "-unpack";
+
     /**
      * Multiply biz name
      */
@@ -142,6 +142,8 @@ public interface BizInfo {
 
         private final String                  message;
 
+        private final BizOperationTimings     timings;
+
         private static final SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS");
 
         static {
@@ -153,14 +155,33 @@ public interface BizInfo {
             this.state = state;
             this.reason = StateChangeReason.UNDEFINE;
             this.message = "";
+            this.timings = null;
         }
 
         public BizStateRecord(Date changeTime, BizState state, StateChangeReason reason,
                               String message) {
+            this(changeTime, state, reason, message, null);
+        }
+
+        /**
+         * @param timings timings of the operation making the change, completed once the
+         *                operation ends, null if the change is not made by an operation
+         * @since 2.2.15
+         */
+        public BizStateRecord(Date changeTime, BizState state, StateChangeReason reason,
+                              String message, BizOperationTimings timings) {
             this.changeTime = changeTime;
             this.state = state;
             this.reason = reason;
             this.message = message;
+            this.timings = timings;
+        }
+
+        /**
+         * @since 2.2.15
+         */
+        public BizOperationTimings getTimings() {
+            return timings;
         }
 
         @Override
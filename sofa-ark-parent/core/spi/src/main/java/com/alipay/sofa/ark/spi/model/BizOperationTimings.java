@@ -0,0 +1,178 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.ark.spi.model;
+
+import com.alipay.sofa.ark.spi.model.BizOperation.OperationType;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Phase timings of a biz install, switch or uninstall. The operation in progress is bound to the
+ * calling thread between {@link #begin(OperationType)} and {@link #end()}, so the container and
+ * biz code run by the operation record their phases by {@link #record(String, long)} without the
+ * timings being passed around. A phase recorded more than once is summed up, and phases may
+ * nest, e.g. {@link #SPRING_REFRESH} is part of {@link #MAIN_METHOD}.
+ *
+ * @since 2.2.15
+ */
+public class BizOperationTimings {
+
+    public static final String                            DOWNLOAD          = "download";
+
+    public static final String                            ARCHIVE_OPEN      = "archiveOpen";
+
+    public static final String                            CREATE_BIZ        = "createBiz";
+
+    public static final String                            REGISTER_BIZ      = "registerBiz";
+
+    public static final String                            MAIN_METHOD       = "mainMethod";
+
+    public static final String                            SPRING_REFRESH    = "springRefresh";
+
+    public static final String                            ACTIVATE_BIZ      = "activateBiz";
+
+    public static final String                            UNREGISTER_BIZ    = "unregisterBiz";
+
+    public static final String                            CLASSLOADER_CLOSE = "classLoaderClose";
+
+    public static final String                            TEMP_DIR_RECYCLE  = "tempDirRecycle";
+
+    /**
+     * Prefix of phases of synchronous event handlers, followed by event class simple name and
+     * handler class name
+     */
+    public static final String                            HANDLER_PREFIX    = "handler:";
+
+    private static final ThreadLocal<BizOperationTimings> CURRENT           = new ThreadLocal<>();
+
+    private final OperationType                           operationType;
+
+    private final Map<String, Long>                       phaseNanos        = new LinkedHashMap<>();
+
+    private final long                                    startNanos        = System.nanoTime();
+
+    private volatile long                                 totalNanos        = -1;
+
+    private int                                           depth;
+
+    private BizOperationTimings(OperationType operationType) {
+        this.operationType = operationType;
+    }
+
+    /**
+     * Begin an operation on current thread, or join the operation in progress if any, e.g. when
+     * install by url calls install by file
+     *
+     * @param operationType type of the operation
+     * @return timings of the operation in progress
+     */
+    public static BizOperationTimings begin(OperationType operationType) {
+        BizOperationTimings timings = CURRENT.get();
+        if (timings == null) {
+            timings = new BizOperationTimings(operationType);
+            CURRENT.set(timings);
+        }
+        timings.depth++;
+        return timings;
+    }
+
+    /**
+     * Timings of the operation in progress on current thread
+     *
+     * @return null if there is none
+     */
+    public static BizOperationTimings current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Record a phase of the operation in progress on current thread, ignored if there is none
+     *
+     * @param phase phase name
+     * @param startNanos {@link System#nanoTime()} when the phase started
+     */
+    public static void record(String phase, long startNanos) {
+        BizOperationTimings timings = CURRENT.get();
+        if (timings != null) {
+            timings.add(phase, System.nanoTime() - startNanos);
+        }
+    }
+
+    /**
+     * End the operation begun on current thread, the operation completes once each begin is
+     * ended
+     *
+     * @return true if the operation completes
+     */
+    public boolean end() {
+        if (--depth > 0) {
+            return false;
+        }
+        totalNanos = System.nanoTime() - startNanos;
+        if (CURRENT.get() == this) {
+            CURRENT.remove();
+        }
+        return true;
+    }
+
+    public synchronized void add(String phase, long nanos) {
+        Long previous = phaseNanos.get(phase);
+        phaseNanos.put(phase, previous == null ? nanos : previous + nanos);
+    }
+
+    public OperationType getOperationType() {
+        return operationType;
+    }
+
+    /**
+     * Get nanoseconds spent in each phase, in the order they are first recorded
+     */
+    public synchronized Map<String, Long> getPhaseNanos() {
+        return new LinkedHashMap<>(phaseNanos);
+    }
+
+    /**
+     * Get nanoseconds spent in the whole operation
+     *
+     * @return -1 if the operation is in progress
+     */
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    public boolean isCompleted() {
+        return totalNanos >= 0;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(operationType).append(" total: ")
+            .append(isCompleted() ? String.valueOf(toMillis(totalNanos)) : "-").append(" ms");
+        for (Map.Entry<String, Long> entry : getPhaseNanos().entrySet()) {
+            sb.append(", ").append(entry.getKey()).append(": ").append(toMillis(entry.getValue()))
+                .append(" ms");
+        }
+        return sb.toString();
+    }
+
+    private static long toMillis(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+}
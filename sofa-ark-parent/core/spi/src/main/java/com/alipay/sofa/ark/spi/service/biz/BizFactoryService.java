@@ -48,6 +48,19 @@ public interface BizFactoryService {
      */
     Biz createBiz(File file) throws IOException;
 
+    /**
+     * Create Biz Model according to {@link File} whose SHA-1 hash is already known, e.g. the
+     * file is received from a stream
+     *
+     * @param file the ark biz file, or the file it was unpacked from in embed mode
+     * @param sha1Hash SHA-1 hash of the ark biz file
+     * @return Biz
+     * @throws IOException throw io exception when {@link File} is invalid.
+     */
+    default Biz createBiz(File file, String sha1Hash) throws IOException {
+        return createBiz(file);
+    }
+
     /**
      * @param bizOperation
      * @param file
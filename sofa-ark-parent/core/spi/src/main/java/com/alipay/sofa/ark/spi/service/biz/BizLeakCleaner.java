@@ -0,0 +1,39 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.ark.spi.service.biz;
+
+import com.alipay.sofa.ark.spi.model.Biz;
+import com.alipay.sofa.ark.spi.service.PriorityOrdered;
+
+/**
+ * Clean references to the class loader of an uninstalled biz held out of the biz, such as by JDK
+ * caches or shared libraries, so that the class loader can be collected. Cleaners are run in
+ * order of priority before the biz is recycled; besides the cleaners of ark container, cleaners
+ * published as services by plugins are run too.
+ *
+ * @since 2.2.15
+ */
+public interface BizLeakCleaner extends PriorityOrdered {
+
+    /**
+     * Clean references to the biz class loader, failure of a cleaner doesn't stop the others
+     *
+     * @param biz biz to be recycled
+     * @param bizClassLoader class loader of the biz
+     */
+    void clean(Biz biz, ClassLoader bizClassLoader);
+}
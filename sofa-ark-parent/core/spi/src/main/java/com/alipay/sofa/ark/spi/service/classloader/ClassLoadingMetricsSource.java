@@ -0,0 +1,36 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.ark.spi.service.classloader;
+
+import java.util.Map;
+
+/**
+ * ClassLoader which records class loading metrics when
+ * {@link com.alipay.sofa.ark.spi.constant.Constants#ARK_CLASSLOADER_METRICS_ENABLE} is on.
+ *
+ * @since 2.2.15
+ */
+public interface ClassLoadingMetricsSource {
+
+    /**
+     * Snapshot of class loading metrics, made of maps, numbers and strings only so that it can
+     * be rendered as json by any consumer
+     *
+     * @return null if metrics is disabled
+     */
+    Map<String, Object> getClassLoadingMetrics();
+}
@@ -26,7 +26,9 @@ public interface EventAdminService {
 
     /**
      * Initiate synchronous delivery of an event. This method does not return to
-     * the caller until delivery of the event is completed.
+     * the caller until delivery of the event is completed, except for
+     * {@link AsyncEventHandler} when async delivery is enabled, which handles the
+     * event on a thread pool.
      *
      * @param event The event to send to all listeners which subscribe to the
      *        topic of the event.
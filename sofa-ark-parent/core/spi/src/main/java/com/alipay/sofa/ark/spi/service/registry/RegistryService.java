@@ -112,4 +112,15 @@ public interface RegistryService {
      */
     int unPublishServices(ServiceFilter serviceFilter);
 
+    /**
+     * Get version of services of the given interface, it changes whenever such a service is
+     * published or unpublished, so that callers can cache the result of referenceServices.
+     *
+     * @param ifClass service interface
+     * @return services version, or a negative value if versions are not tracked
+     */
+    default long getServicesVersion(Class<?> ifClass) {
+        return -1;
+    }
+
 }
\ No newline at end of file
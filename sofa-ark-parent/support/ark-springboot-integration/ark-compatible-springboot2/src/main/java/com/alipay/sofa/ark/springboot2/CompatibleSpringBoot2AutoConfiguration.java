@@ -18,6 +18,8 @@ package com.alipay.sofa.ark.springboot2;
 
 import com.alipay.sofa.ark.springboot.condition.ConditionalOnArkEnabled;
 import com.alipay.sofa.ark.springboot.condition.ConditionalOnSpringBootVersion;
+import com.alipay.sofa.ark.springboot2.endpoint.BizOperationStatsEndpoint;
+import com.alipay.sofa.ark.springboot2.endpoint.ClassLoadingMetricsEndpoint;
 import com.alipay.sofa.ark.springboot2.endpoint.IntrospectBizEndpoint;
 import org.springframework.boot.actuate.autoconfigure.endpoint.condition.ConditionalOnAvailableEndpoint;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
@@ -39,6 +41,18 @@ public class CompatibleSpringBoot2AutoConfiguration {
         public IntrospectBizEndpoint introspectBizEndpoint() {
             return new IntrospectBizEndpoint();
         }
+
+        @Bean
+        @ConditionalOnAvailableEndpoint
+        public ClassLoadingMetricsEndpoint classLoadingMetricsEndpoint() {
+            return new ClassLoadingMetricsEndpoint();
+        }
+
+        @Bean
+        @ConditionalOnAvailableEndpoint
+        public BizOperationStatsEndpoint bizOperationStatsEndpoint() {
+            return new BizOperationStatsEndpoint();
+        }
     }
 
 }
@@ -0,0 +1,42 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.ark.springboot2.endpoint;
+
+import com.alipay.sofa.ark.api.ArkClient;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+
+import java.util.Map;
+
+/**
+ * Latency percentiles of biz install, switch and uninstall operations and of their phases.
+ *
+ * @since 2.2.15
+ */
+@Endpoint(id = "bizOperationStats")
+public class BizOperationStatsEndpoint {
+    @ReadOperation
+    public Map<String, Map<String, Map<String, Object>>> bizOperationStats() {
+        return ArkClient.getBizOperationStats().snapshot();
+    }
+
+    @ReadOperation
+    public Map<String, Map<String, Object>> bizOperationStats(@Selector String operationType) {
+        return ArkClient.getBizOperationStats().snapshot().get(operationType.toUpperCase());
+    }
+}
@@ -0,0 +1,43 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.ark.springboot2.endpoint;
+
+import com.alipay.sofa.ark.api.ArkClient;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+
+import java.util.Map;
+
+/**
+ * Class loading metrics of plugin and biz classloaders, empty unless
+ * {@link com.alipay.sofa.ark.spi.constant.Constants#ARK_CLASSLOADER_METRICS_ENABLE} is on.
+ *
+ * @since 2.2.15
+ */
+@Endpoint(id = "classLoadingMetrics")
+public class ClassLoadingMetricsEndpoint {
+    @ReadOperation
+    public Map<String, Map<String, Object>> classLoadingMetrics() {
+        return ArkClient.getClassLoadingMetrics();
+    }
+
+    @ReadOperation
+    public Map<String, Object> classLoadingMetrics(@Selector String name) {
+        return ArkClient.getClassLoadingMetrics().get(name);
+    }
+}
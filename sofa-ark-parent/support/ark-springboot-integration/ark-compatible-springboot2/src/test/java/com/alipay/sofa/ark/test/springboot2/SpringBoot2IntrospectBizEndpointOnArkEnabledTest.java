@@ -57,6 +57,8 @@ public class SpringBoot2IntrospectBizEndpointOnArkEnabledTest {
         springApplication.setDefaultProperties(properties);
         ConfigurableApplicationContext applicationContext = springApplication.run(new String[] {});
         Assert.assertTrue(applicationContext.containsBean("introspectBizEndpoint"));
+        Assert.assertTrue(applicationContext.containsBean("classLoadingMetricsEndpoint"));
+        Assert.assertTrue(applicationContext.containsBean("bizOperationStatsEndpoint"));
         applicationContext.close();
     }
 
@@ -0,0 +1,50 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.ark.springboot.listener;
+
+import com.alipay.sofa.ark.spi.model.BizOperationTimings;
+import org.springframework.boot.context.event.ApplicationFailedEvent;
+import org.springframework.boot.context.event.ApplicationPreparedEvent;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.boot.context.event.SpringApplicationEvent;
+import org.springframework.context.ApplicationListener;
+
+/**
+ * Listener to record time of application context refresh in the timings of the biz install in
+ * progress, it does nothing if the application is not started by a biz install.
+ *
+ * @since 2.2.15
+ */
+public class BizSpringRefreshTimingListener implements
+                                           ApplicationListener<SpringApplicationEvent> {
+
+    private long refreshStart = -1;
+
+    @Override
+    public void onApplicationEvent(SpringApplicationEvent event) {
+        if (event instanceof ApplicationPreparedEvent) {
+            refreshStart = BizOperationTimings.current() == null ? -1 : System.nanoTime();
+        } else if (event instanceof ApplicationStartedEvent) {
+            if (refreshStart >= 0) {
+                BizOperationTimings.record(BizOperationTimings.SPRING_REFRESH, refreshStart);
+            }
+            refreshStart = -1;
+        } else if (event instanceof ApplicationFailedEvent) {
+            refreshStart = -1;
+        }
+    }
+}